@@ -20,8 +20,12 @@ import io.gravitee.management.fetcher.FetcherConfigurationFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * @author Nicolas GERAUD (nicolas.geraud [at] graviteesource [dot] com)
  * @author GraviteeSource Team
@@ -33,6 +37,8 @@ public class FetcherConfigurationFactoryImpl implements FetcherConfigurationFact
 
     private final ObjectMapper mapper = new ObjectMapper();
 
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
     @Override
     public <T extends FetcherConfiguration> T create(Class<T> fetcherConfigurationClass, String configuration) {
         if (configuration == null || configuration.isEmpty()) {
@@ -41,7 +47,7 @@ public class FetcherConfigurationFactoryImpl implements FetcherConfigurationFact
         }
 
         try {
-            return mapper.readValue(configuration, fetcherConfigurationClass);
+            return readers.computeIfAbsent(fetcherConfigurationClass, mapper::readerFor).readValue(configuration);
         } catch (IOException ex) {
             LOGGER.error("Unable to instance Fetcher configuration for {}", fetcherConfigurationClass.getName(), ex);
         }
@@ -16,6 +16,8 @@
 package io.gravitee.management.idp.api.identity;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -27,5 +29,23 @@ public interface IdentityLookup {
 
     User retrieve(IdentityReference identityReference);
 
+    /**
+     * Retrieves many users at once. Lookups able to resolve several references with a single call to their backend
+     * should override this method, the default one retrieving users one by one.
+     *
+     * @param identityReferences references of the users to retrieve.
+     * @return the users which have been found, by requested reference.
+     */
+    default Map<IdentityReference, User> retrieve(Collection<IdentityReference> identityReferences) {
+        final Map<IdentityReference, User> users = new LinkedHashMap<>();
+        for (IdentityReference identityReference : identityReferences) {
+            User user = retrieve(identityReference);
+            if (user != null) {
+                users.put(identityReference, user);
+            }
+        }
+        return users;
+    }
+
     Collection<User> search(String query);
 }
@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.idp.core.authentication;
+
+/**
+ * Latency and outcome of the calls made to the identity lookup of a provider.
+ *
+ * @author GraviteeSource Team
+ */
+public class IdentityLookupStatistics {
+
+    private final String provider;
+    private final long calls;
+    private final long failures;
+    private final long timeouts;
+    private final long cacheHits;
+    private final long averageTime;
+    private final long maxTime;
+
+    public IdentityLookupStatistics(String provider, long calls, long failures, long timeouts, long cacheHits,
+                                    long averageTime, long maxTime) {
+        this.provider = provider;
+        this.calls = calls;
+        this.failures = failures;
+        this.timeouts = timeouts;
+        this.cacheHits = cacheHits;
+        this.averageTime = averageTime;
+        this.maxTime = maxTime;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    /**
+     * Number of calls actually made to the provider (cache hits excluded).
+     */
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * Average duration of the completed calls, in milliseconds.
+     */
+    public long getAverageTime() {
+        return averageTime;
+    }
+
+    /**
+     * Longest duration of a completed call, in milliseconds.
+     */
+    public long getMaxTime() {
+        return maxTime;
+    }
+}
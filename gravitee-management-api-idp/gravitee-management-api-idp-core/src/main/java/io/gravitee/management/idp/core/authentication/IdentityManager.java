@@ -19,6 +19,7 @@ import io.gravitee.management.idp.api.identity.SearchableUser;
 import io.gravitee.management.idp.api.identity.User;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -29,5 +30,15 @@ public interface IdentityManager {
 
     Optional<User> lookup(String reference);
 
+    /**
+     * Looks for many users at once, each identity provider being queried once for all the references it handles.
+     *
+     * @param references serialized references of the users to look for.
+     * @return the users which have been found, by reference.
+     */
+    Map<String, User> lookup(Collection<String> references);
+
     Collection<SearchableUser> search(String query);
+
+    Collection<IdentityLookupStatistics> getStatistics();
 }
@@ -15,16 +15,26 @@
  */
 package io.gravitee.management.idp.core.authentication.impl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.gravitee.management.idp.api.identity.IdentityLookup;
 import io.gravitee.management.idp.api.identity.IdentityReference;
 import io.gravitee.management.idp.api.identity.SearchableUser;
 import io.gravitee.management.idp.api.identity.User;
+import io.gravitee.management.idp.core.authentication.IdentityLookupStatistics;
 import io.gravitee.management.idp.core.authentication.IdentityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -32,17 +42,56 @@ import static java.util.Optional.empty;
 import static java.util.Optional.of;
 
 /**
+ * Identity lookups of all the loaded identity providers are queried concurrently, each of them being given the same
+ * deadline. Results of the providers which do not answer in time are left out and the merged results of the others
+ * are returned. Answers are kept for a short time to avoid querying slow providers (LDAP, ...) again and again.
+ *
  * @author David BRASSELY (david.brassely at graviteesource.com)
  * @author GraviteeSource Team
  */
-public class CompositeIdentityManager implements IdentityManager {
+public class CompositeIdentityManager implements IdentityManager, InitializingBean, DisposableBean {
 
     private final Logger LOGGER = LoggerFactory.getLogger(CompositeIdentityManager.class);
 
     @Autowired
     private ReferenceSerializer referenceSerializer;
 
-    private Collection<IdentityLookup> identityLookups = new ArrayList<>();
+    @Value("${security.lookup.timeout:3000}")
+    private long timeout;
+
+    @Value("${security.lookup.maxThreads:20}")
+    private int maxThreads;
+
+    @Value("${security.lookup.cache.ttl:60000}")
+    private long cacheTtl;
+
+    @Value("${security.lookup.cache.size:1000}")
+    private int cacheSize;
+
+    private final Collection<ProviderLookup> identityLookups = new CopyOnWriteArrayList<>();
+
+    private Cache<LookupKey, CachedResult> cache;
+
+    private ExecutorService executor;
+
+    @Override
+    public void afterPropertiesSet() {
+        // A provider which can not be given a thread is skipped rather than queried on the caller thread, where the
+        // deadline could not be enforced
+        executor = new ThreadPoolExecutor(0, maxThreads, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                new CustomizableThreadFactory("gio.identity-lookup-"), new ThreadPoolExecutor.AbortPolicy());
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Math.max(cacheTtl, 0), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
 
     @Override
     public Optional<User> lookup(final String reference) {
@@ -51,12 +100,17 @@ public class CompositeIdentityManager implements IdentityManager {
             IdentityReference identityReference = referenceSerializer.deserialize(reference);
             LOGGER.debug("Lookup identity information from reference: source[{}] id[{}]",
                     identityReference.getSource(), identityReference.getReference());
-            for (final IdentityLookup identityLookup : identityLookups) {
-                if (identityLookup.canHandle(identityReference)) {
-                    final User user = identityLookup.retrieve(identityReference);
-                    if (user != null) {
-                        return of(user);
-                    }
+
+            List<ProviderLookup> lookups = identityLookups
+                    .stream()
+                    .filter(lookup -> lookup.identityLookup.canHandle(identityReference))
+                    .collect(Collectors.toList());
+
+            // Keep the registration order: the first provider returning a user wins
+            for (User user : execute(lookups, "retrieve", reference,
+                    lookup -> lookup.identityLookup.retrieve(identityReference))) {
+                if (user != null) {
+                    return of(user);
                 }
             }
         } catch (final Exception ex) {
@@ -65,25 +119,220 @@ public class CompositeIdentityManager implements IdentityManager {
         return empty();
     }
 
+    @Override
+    public Map<String, User> lookup(Collection<String> references) {
+        final Map<String, IdentityReference> identityReferences = new LinkedHashMap<>();
+        for (String reference : references) {
+            try {
+                identityReferences.put(reference, referenceSerializer.deserialize(reference));
+            } catch (final Exception ex) {
+                LOGGER.error("Unable to extract IDP: token[" + reference + "]", ex);
+            }
+        }
+
+        List<ProviderLookup> lookups = identityLookups
+                .stream()
+                .filter(lookup -> identityReferences.values().stream().anyMatch(lookup.identityLookup::canHandle))
+                .collect(Collectors.toList());
+
+        // Each provider resolves the references it handles with a single call
+        final String query = identityReferences.keySet().stream().sorted().collect(Collectors.joining(","));
+        final Map<IdentityReference, User> users = new HashMap<>();
+        for (Map<IdentityReference, User> lookupUsers : execute(lookups, "retrieveAll", query,
+                lookup -> lookup.identityLookup.retrieve(identityReferences.values()
+                        .stream()
+                        .filter(lookup.identityLookup::canHandle)
+                        .collect(Collectors.toList())))) {
+            if (lookupUsers != null) {
+                lookupUsers.forEach(users::putIfAbsent);
+            }
+        }
+
+        final Map<String, User> usersByReference = new LinkedHashMap<>();
+        identityReferences.forEach((reference, identityReference) -> {
+            User user = users.get(identityReference);
+            if (user != null) {
+                usersByReference.put(reference, user);
+            }
+        });
+        return usersByReference;
+    }
+
     @Override
     public Collection<SearchableUser> search(String query) {
-        Set<SearchableUser> users = new HashSet<>();
-        for (IdentityLookup identityLookup : identityLookups) {
-            Collection<User> lookupUsers = identityLookup.search(query);
+        // Keep the providers order, then the relevance order of each provider
+        List<SearchableUser> users = new ArrayList<>();
+        for (Collection<User> lookupUsers : execute(identityLookups, "search", query,
+                lookup -> lookup.identityLookup.search(query))) {
             if (lookupUsers != null) {
-                users.addAll(lookupUsers
-                        .stream()
-                        .map((Function<User, SearchableUser>) DefaultSearchableUser::new)
-                        .collect(Collectors.toSet()));
+                lookupUsers.forEach(user -> users.add(new DefaultSearchableUser(user)));
             }
         }
 
         return users;
     }
 
+    @Override
+    public Collection<IdentityLookupStatistics> getStatistics() {
+        return identityLookups
+                .stream()
+                .map(ProviderLookup::statistics)
+                .collect(Collectors.toList());
+    }
+
     public void addIdentityLookup(IdentityLookup identityLookup) {
         if (identityLookup != null) {
-            identityLookups.add(identityLookup);
+            addIdentityLookup(identityLookup.getClass().getSimpleName(), identityLookup);
+        }
+    }
+
+    public void addIdentityLookup(String provider, IdentityLookup identityLookup) {
+        if (identityLookup != null) {
+            identityLookups.add(new ProviderLookup(provider, identityLookup));
+        }
+    }
+
+    /**
+     * Runs the operation against every given provider, in parallel, and returns the results of the providers which
+     * answered before the deadline, in the providers order.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<T> execute(Collection<ProviderLookup> lookups, String operation, String query,
+                                Function<ProviderLookup, T> call) {
+        final Map<ProviderLookup, Future<T>> futures = new LinkedHashMap<>();
+        final Map<ProviderLookup, T> results = new HashMap<>();
+
+        for (ProviderLookup lookup : lookups) {
+            LookupKey key = new LookupKey(lookup, operation, query);
+            CachedResult cached = getCached(key);
+            if (cached != null) {
+                lookup.cacheHits.increment();
+                results.put(lookup, (T) cached.value);
+            } else {
+                try {
+                    futures.put(lookup, executor.submit(() -> {
+                        T result = lookup.call(call);
+                        putCached(key, result);
+                        return result;
+                    }));
+                } catch (RejectedExecutionException ree) {
+                    lookup.timeouts.increment();
+                    LOGGER.warn("No thread available to query identity provider {} for {} [{}], its results are ignored",
+                            lookup.provider, operation, query);
+                }
+            }
+        }
+
+        final long deadline = System.currentTimeMillis() + timeout;
+        futures.forEach((lookup, future) -> {
+            try {
+                results.put(lookup, future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS));
+            } catch (TimeoutException te) {
+                future.cancel(true);
+                lookup.timeouts.increment();
+                LOGGER.warn("Identity provider {} did not answer to {} [{}] within {} ms, its results are ignored",
+                        lookup.provider, operation, query, timeout);
+            } catch (ExecutionException ee) {
+                LOGGER.error("Unexpected error from identity provider {} while calling {} [{}]",
+                        lookup.provider, operation, query, ee.getCause());
+            } catch (InterruptedException ie) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        return lookups
+                .stream()
+                .filter(results::containsKey)
+                .map(results::get)
+                .collect(Collectors.toList());
+    }
+
+    private CachedResult getCached(LookupKey key) {
+        return cacheTtl > 0 ? cache.getIfPresent(key) : null;
+    }
+
+    private void putCached(LookupKey key, Object value) {
+        if (cacheTtl > 0) {
+            cache.put(key, new CachedResult(value));
+        }
+    }
+
+    private static class ProviderLookup {
+        private final String provider;
+        private final IdentityLookup identityLookup;
+
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder totalTime = new LongAdder();
+        private final AtomicLong maxTime = new AtomicLong();
+
+        ProviderLookup(String provider, IdentityLookup identityLookup) {
+            this.provider = provider;
+            this.identityLookup = identityLookup;
+        }
+
+        <T> T call(Function<ProviderLookup, T> call) {
+            calls.increment();
+            long start = System.currentTimeMillis();
+            try {
+                T result = call.apply(this);
+                long time = System.currentTimeMillis() - start;
+                completed.increment();
+                totalTime.add(time);
+                maxTime.accumulateAndGet(time, Math::max);
+                return result;
+            } catch (RuntimeException ex) {
+                failures.increment();
+                throw ex;
+            }
+        }
+
+        IdentityLookupStatistics statistics() {
+            long count = completed.sum();
+            return new IdentityLookupStatistics(provider, calls.sum(), failures.sum(), timeouts.sum(),
+                    cacheHits.sum(), count == 0 ? 0 : totalTime.sum() / count, maxTime.get());
+        }
+    }
+
+    private static class LookupKey {
+        private final ProviderLookup provider;
+        private final String operation;
+        private final String query;
+
+        LookupKey(ProviderLookup provider, String operation, String query) {
+            this.provider = provider;
+            this.operation = operation;
+            this.query = query;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            LookupKey lookupKey = (LookupKey) o;
+            return Objects.equals(provider, lookupKey.provider) &&
+                    Objects.equals(operation, lookupKey.operation) &&
+                    Objects.equals(query, lookupKey.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(provider, operation, query);
+        }
+    }
+
+    /**
+     * Wraps the provider answer, which may be <code>null</code> and can therefore not be cached as is.
+     */
+    private static class CachedResult {
+        private final Object value;
+
+        CachedResult(Object value) {
+            this.value = value;
         }
     }
 
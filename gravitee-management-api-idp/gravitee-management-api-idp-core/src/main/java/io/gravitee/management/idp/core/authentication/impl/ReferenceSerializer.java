@@ -15,6 +15,8 @@
  */
 package io.gravitee.management.idp.core.authentication.impl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.nimbusds.jose.*;
 import com.nimbusds.jose.crypto.DirectDecrypter;
 import com.nimbusds.jose.crypto.DirectEncrypter;
@@ -27,12 +29,21 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 
-import javax.crypto.SecretKey;
+import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import java.lang.reflect.Field;
-import java.util.Base64;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.*;
 
 /**
+ * Serializes identity references into encrypted tokens (an HS256 signed JWT nested in a A256GCM JWE).
+ *
+ * Signers, encrypters, verifiers and decrypters are built once per key and reused. Each token carries the identifier
+ * of the key it has been encrypted with, so that tokens issued before a secret rotation are still resolved as long as
+ * the old secret is listed in <code>user.reference.previous-secrets</code>. Serialized and resolved references are
+ * kept in a bounded cache to avoid paying the crypto cost each time a member list is rendered.
+ *
  * @author David BRASSELY (david.brassely at graviteesource.com)
  * @author Azize ELAMRANI (azize.elamrani at graviteesource.com)
  * @author GraviteeSource Team
@@ -42,7 +53,19 @@ public class ReferenceSerializer implements ApplicationContextAware {
     @Value("${user.reference.secret:s3cR3t4grAv1t33.1Ous3D4R3f3r3nc3}")
     private String secret;
 
-    private SecretKey secretKey;
+    @Value("${user.reference.previous-secrets:}")
+    private String previousSecrets;
+
+    @Value("${user.reference.cache.size:10000}")
+    private int cacheSize;
+
+    private ReferenceKey currentKey;
+
+    private final Map<String, ReferenceKey> keys = new LinkedHashMap<>();
+
+    private Cache<IdentityReference, String> tokens;
+
+    private Cache<String, IdentityReference> references;
 
     //this code allows to break limit if client jdk/jre has no unlimited policy files for JCE.
     //it should be run once. So this static section is always execute during the class loading process.
@@ -58,12 +81,31 @@ public class ReferenceSerializer implements ApplicationContextAware {
 
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) {
-        secretKey = new SecretKeySpec(secret.getBytes(), "AES");
+        try {
+            currentKey = new ReferenceKey(secret);
+            keys.put(currentKey.id, currentKey);
+
+            if (previousSecrets != null) {
+                for (String previousSecret : previousSecrets.split(",")) {
+                    if (!previousSecret.trim().isEmpty()) {
+                        ReferenceKey previousKey = new ReferenceKey(previousSecret.trim());
+                        keys.putIfAbsent(previousKey.id, previousKey);
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            throw new IllegalStateException("Unable to initialize the user reference keys", ex);
+        }
+
+        tokens = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+        references = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
     }
 
     public String serialize(IdentityReference reference) throws Exception {
-        // Create HMAC signer
-        JWSSigner signer = new MACSigner(secretKey.getEncoded());
+        String cachedToken = tokens.getIfPresent(reference);
+        if (cachedToken != null) {
+            return cachedToken;
+        }
 
         // Prepare JWT with claims set
         JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
@@ -74,38 +116,114 @@ public class ReferenceSerializer implements ApplicationContextAware {
         SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claimsSet);
 
         // Apply the HMAC protection
-        signedJWT.sign(signer);
+        signedJWT.sign(currentKey.signer);
 
         // Create JWE object with signed JWT as payload
         JWEObject jweObject = new JWEObject(
                 new JWEHeader.Builder(JWEAlgorithm.DIR, EncryptionMethod.A256GCM)
                         .contentType("JWT") // required to signal nested JWT
+                        .keyID(currentKey.id)
                         .build(),
                 new Payload(signedJWT));
 
         // Perform encryption
-        jweObject.encrypt(new DirectEncrypter(secretKey.getEncoded()));
+        jweObject.encrypt(currentKey.encrypter);
 
         // Serialize to compact form
-        return new String(Base64.getEncoder().encode(jweObject.serialize().getBytes()));
+        String token = new String(Base64.getEncoder().encode(jweObject.serialize().getBytes()));
+
+        cache(reference, token);
+        return token;
     }
 
     public IdentityReference deserialize(String token) throws Exception {
+        IdentityReference cachedReference = references.getIfPresent(token);
+        if (cachedReference != null) {
+            return cachedReference;
+        }
+
         String sToken = new String(Base64.getDecoder().decode(token));
 
         // Parse the JWE string
         JWEObject jweObject = JWEObject.parse(sToken);
 
+        IdentityReference reference;
+        String keyId = jweObject.getHeader().getKeyID();
+        if (keyId != null) {
+            ReferenceKey key = keys.get(keyId);
+            if (key == null) {
+                throw new JOSEException("Unknown key for the user reference: " + keyId);
+            }
+            reference = deserialize(jweObject, key);
+        } else {
+            // Token issued before key identifiers were introduced: try each known key
+            reference = null;
+            JOSEException lastException = null;
+            for (ReferenceKey key : keys.values()) {
+                try {
+                    reference = deserialize(JWEObject.parse(sToken), key);
+                    break;
+                } catch (JOSEException ex) {
+                    lastException = ex;
+                }
+            }
+            if (reference == null) {
+                throw lastException;
+            }
+        }
+
+        references.put(token, reference);
+        return reference;
+    }
+
+    private IdentityReference deserialize(JWEObject jweObject, ReferenceKey key) throws Exception {
         // Decrypt with shared key
-        jweObject.decrypt(new DirectDecrypter(secretKey.getEncoded()));
+        jweObject.decrypt(key.decrypter);
 
         // Extract payload
         SignedJWT signedJWT = jweObject.getPayload().toSignedJWT();
 
         // Check the HMAC
-        signedJWT.verify(new MACVerifier(secretKey.getEncoded()));
+        if (signedJWT == null || !signedJWT.verify(key.verifier)) {
+            throw new JOSEException("Invalid signature for the user reference");
+        }
 
         // Retrieve the JWT claims
         return new IdentityReference(signedJWT.getJWTClaimsSet().getIssuer(), signedJWT.getJWTClaimsSet().getSubject());
     }
-}
\ No newline at end of file
+
+    private void cache(IdentityReference reference, String token) {
+        tokens.put(reference, token);
+        references.put(token, reference);
+    }
+
+    private static class ReferenceKey {
+        private static final String KEY_ID_LABEL = "gravitee.user.reference.kid";
+
+        private final String id;
+        private final JWSSigner signer;
+        private final JWSVerifier verifier;
+        private final JWEEncrypter encrypter;
+        private final JWEDecrypter decrypter;
+
+        ReferenceKey(String secret) throws JOSEException, GeneralSecurityException {
+            byte[] key = secret.getBytes();
+            this.id = keyId(key);
+            this.signer = new MACSigner(key);
+            this.verifier = new MACVerifier(key);
+            this.encrypter = new DirectEncrypter(key);
+            this.decrypter = new DirectDecrypter(key);
+        }
+
+        /**
+         * The key identifier is a MAC of a fixed label computed with the secret, so that it can not be matched against
+         * precomputed digests of common secrets.
+         */
+        private static String keyId(byte[] key) throws GeneralSecurityException {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            byte[] digest = mac.doFinal(KEY_ID_LABEL.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 8));
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.idp.core.authentication.impl;
+
+import io.gravitee.management.idp.api.identity.IdentityLookup;
+import io.gravitee.management.idp.api.identity.IdentityReference;
+import io.gravitee.management.idp.api.identity.SearchableUser;
+import io.gravitee.management.idp.api.identity.User;
+import io.gravitee.management.idp.core.authentication.IdentityLookupStatistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class CompositeIdentityManagerTest {
+
+    private static final String QUERY = "john";
+
+    private final CompositeIdentityManager identityManager = new CompositeIdentityManager();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final IdentityLookup memoryLookup = mock(IdentityLookup.class);
+    private final IdentityLookup ldapLookup = mock(IdentityLookup.class);
+
+    private final User memoryUser = user("John Memory");
+    private final User ldapUser = user("John Ldap");
+
+    @Before
+    public void init() {
+        ReflectionTestUtils.setField(identityManager, "timeout", 200L);
+        ReflectionTestUtils.setField(identityManager, "maxThreads", 20);
+        ReflectionTestUtils.setField(identityManager, "cacheTtl", 60000L);
+        ReflectionTestUtils.setField(identityManager, "cacheSize", 10);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        identityManager.destroy();
+    }
+
+    @Test
+    public void shouldMergeResultsOfProvidersAnsweringInTime() {
+        when(memoryLookup.search(QUERY)).thenReturn(singletonList(memoryUser));
+        when(ldapLookup.search(QUERY)).thenAnswer(invocation -> awaitRelease(singletonList(ldapUser)));
+        start();
+
+        long start = System.currentTimeMillis();
+        Collection<SearchableUser> users = identityManager.search(QUERY);
+
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertEquals(singletonList("John Memory"), displayNames(users));
+        assertEquals(1, statistics("ldap").getTimeouts());
+        assertEquals(0, statistics("memory").getTimeouts());
+    }
+
+    @Test
+    public void shouldMergeResultsOfProvidersNotFailing() {
+        when(memoryLookup.search(QUERY)).thenThrow(new IllegalStateException("unavailable"));
+        User otherUser = user("Johnny Ldap");
+        when(ldapLookup.search(QUERY)).thenReturn(asList(ldapUser, otherUser));
+        start();
+
+        Collection<SearchableUser> users = identityManager.search(QUERY);
+
+        assertEquals(asList("John Ldap", "Johnny Ldap"), displayNames(users));
+        assertEquals(1, statistics("memory").getFailures());
+        assertEquals(0, statistics("ldap").getFailures());
+    }
+
+    @Test
+    public void shouldSkipProviderWhenAllThreadsAreBusy() {
+        ReflectionTestUtils.setField(identityManager, "maxThreads", 1);
+        ReflectionTestUtils.setField(identityManager, "timeout", 5000L);
+        // The only pool thread is still busy with the first provider when the second one is submitted
+        when(memoryLookup.search(QUERY)).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return singletonList(memoryUser);
+        });
+        when(ldapLookup.search(QUERY)).thenReturn(singletonList(ldapUser));
+        start();
+
+        long start = System.currentTimeMillis();
+        Collection<SearchableUser> users = identityManager.search(QUERY);
+
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertEquals(singletonList("John Memory"), displayNames(users));
+        verify(ldapLookup, never()).search(QUERY);
+        assertEquals(1, statistics("ldap").getTimeouts());
+        assertEquals(0, statistics("memory").getTimeouts());
+    }
+
+    @Test
+    public void shouldNotQueryProvidersAgainWhileCached() {
+        when(memoryLookup.search(QUERY)).thenReturn(singletonList(memoryUser));
+        when(ldapLookup.search(QUERY)).thenReturn(emptyList());
+        start();
+
+        identityManager.search(QUERY);
+        Collection<SearchableUser> users = identityManager.search(QUERY);
+
+        assertEquals(singletonList("John Memory"), displayNames(users));
+        verify(memoryLookup, times(1)).search(QUERY);
+        verify(ldapLookup, times(1)).search(QUERY);
+        assertEquals(1, statistics("memory").getCalls());
+        assertEquals(1, statistics("memory").getCacheHits());
+    }
+
+    @Test
+    public void shouldQueryProvidersEachTimeWithoutCache() {
+        ReflectionTestUtils.setField(identityManager, "cacheTtl", 0L);
+        when(memoryLookup.search(QUERY)).thenReturn(singletonList(memoryUser));
+        when(ldapLookup.search(QUERY)).thenReturn(emptyList());
+        start();
+
+        identityManager.search(QUERY);
+        identityManager.search(QUERY);
+
+        verify(memoryLookup, times(2)).search(QUERY);
+        assertEquals(0, statistics("memory").getCacheHits());
+    }
+
+    @Test
+    public void shouldLookupReferencesWithOneCallPerProvider() throws Exception {
+        ReferenceSerializer referenceSerializer = mock(ReferenceSerializer.class);
+        ReflectionTestUtils.setField(identityManager, "referenceSerializer", referenceSerializer);
+        IdentityReference memoryReference = new IdentityReference("memory", "john");
+        IdentityReference firstLdapReference = new IdentityReference("ldap", "cn=john");
+        IdentityReference secondLdapReference = new IdentityReference("ldap", "cn=jane");
+        when(referenceSerializer.deserialize("token-memory")).thenReturn(memoryReference);
+        when(referenceSerializer.deserialize("token-ldap-1")).thenReturn(firstLdapReference);
+        when(referenceSerializer.deserialize("token-ldap-2")).thenReturn(secondLdapReference);
+        when(memoryLookup.canHandle(any())).thenAnswer(invocation ->
+                "memory".equals(((IdentityReference) invocation.getArguments()[0]).getSource()));
+        when(ldapLookup.canHandle(any())).thenAnswer(invocation ->
+                "ldap".equals(((IdentityReference) invocation.getArguments()[0]).getSource()));
+        when(memoryLookup.retrieve(singletonList(memoryReference)))
+                .thenReturn(singletonMap(memoryReference, memoryUser));
+        when(ldapLookup.retrieve(asList(firstLdapReference, secondLdapReference)))
+                .thenReturn(singletonMap(firstLdapReference, ldapUser));
+        start();
+
+        Map<String, User> users = identityManager.lookup(asList("token-memory", "token-ldap-1", "token-ldap-2"));
+
+        assertEquals(2, users.size());
+        assertSame(memoryUser, users.get("token-memory"));
+        assertSame(ldapUser, users.get("token-ldap-1"));
+        verify(ldapLookup, never()).retrieve(any(IdentityReference.class));
+        verify(memoryLookup, never()).retrieve(any(IdentityReference.class));
+    }
+
+    private void start() {
+        identityManager.afterPropertiesSet();
+        identityManager.addIdentityLookup("memory", memoryLookup);
+        identityManager.addIdentityLookup("ldap", ldapLookup);
+    }
+
+    private <T> T awaitRelease(T result) {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+
+    private IdentityLookupStatistics statistics(String provider) {
+        return identityManager.getStatistics()
+                .stream()
+                .filter(statistics -> provider.equals(statistics.getProvider()))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    private static List<String> displayNames(Collection<SearchableUser> users) {
+        return users.stream().map(SearchableUser::getDisplayName).collect(Collectors.toList());
+    }
+
+    private static User user(String displayName) {
+        User user = mock(User.class);
+        when(user.getDisplayName()).thenReturn(displayName);
+        return user;
+    }
+}
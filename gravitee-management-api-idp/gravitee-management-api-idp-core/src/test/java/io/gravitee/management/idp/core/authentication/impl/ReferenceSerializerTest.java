@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.idp.core.authentication.impl;
+
+import com.nimbusds.jose.*;
+import com.nimbusds.jose.crypto.DirectEncrypter;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.PlainJWT;
+import com.nimbusds.jwt.SignedJWT;
+import io.gravitee.management.idp.api.identity.IdentityReference;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class ReferenceSerializerTest {
+
+    private static final String SECRET = "s3cR3t4grAv1t33.1Ous3D4R3f3r3nc3";
+    private static final String PREVIOUS_SECRET = "pR3v10usS3cr3t.f0rUs3rR3f3r3nc3s";
+    private static final String OTHER_SECRET = "0th3rS3cr3t.n0tKn0wnBy.Gr4v1t3e!";
+
+    private static final IdentityReference REFERENCE = new IdentityReference("ldap", "cn=john,ou=people");
+
+    @Test
+    public void shouldResolveSerializedReference() throws Exception {
+        ReferenceSerializer serializer = serializer(SECRET, null);
+
+        String token = serializer.serialize(REFERENCE);
+
+        assertEquals(REFERENCE, serializer.deserialize(token));
+        assertEquals(REFERENCE, serializer(SECRET, null).deserialize(token));
+    }
+
+    @Test
+    public void shouldResolveReferenceIssuedBeforeSecretRotation() throws Exception {
+        String token = serializer(PREVIOUS_SECRET, null).serialize(REFERENCE);
+
+        ReferenceSerializer serializer = serializer(SECRET, OTHER_SECRET + ", " + PREVIOUS_SECRET);
+
+        assertEquals(REFERENCE, serializer.deserialize(token));
+        assertNotEquals(token, serializer.serialize(REFERENCE));
+    }
+
+    @Test(expected = JOSEException.class)
+    public void shouldNotResolveReferenceOfRetiredSecret() throws Exception {
+        String token = serializer(PREVIOUS_SECRET, null).serialize(REFERENCE);
+
+        serializer(SECRET, null).deserialize(token);
+    }
+
+    @Test
+    public void shouldResolveReferenceWithoutKeyId() throws Exception {
+        String token = token(new Payload(signedJWT(PREVIOUS_SECRET)), PREVIOUS_SECRET);
+
+        assertEquals(REFERENCE, serializer(SECRET, PREVIOUS_SECRET).deserialize(token));
+    }
+
+    @Test(expected = JOSEException.class)
+    public void shouldNotResolveUnsignedReference() throws Exception {
+        PlainJWT plainJWT = new PlainJWT(claims());
+        String token = token(new Payload(plainJWT.serialize()), SECRET);
+
+        serializer(SECRET, null).deserialize(token);
+    }
+
+    @Test(expected = JOSEException.class)
+    public void shouldNotResolveReferenceSignedWithUnknownSecret() throws Exception {
+        String token = token(new Payload(signedJWT(OTHER_SECRET)), SECRET);
+
+        serializer(SECRET, null).deserialize(token);
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotResolveTamperedReference() throws Exception {
+        String[] parts = new String(Base64.getDecoder().decode(serializer(SECRET, null).serialize(REFERENCE))).split("\\.");
+        // Alter the first character of the cipher text
+        parts[3] = (parts[3].charAt(0) == 'A' ? 'B' : 'A') + parts[3].substring(1);
+        String tampered = String.join(".", parts);
+
+        serializer(SECRET, null).deserialize(Base64.getEncoder().encodeToString(tampered.getBytes()));
+    }
+
+    private static ReferenceSerializer serializer(String secret, String previousSecrets) {
+        ReferenceSerializer serializer = new ReferenceSerializer();
+        ReflectionTestUtils.setField(serializer, "secret", secret);
+        ReflectionTestUtils.setField(serializer, "previousSecrets", previousSecrets);
+        ReflectionTestUtils.setField(serializer, "cacheSize", 10);
+        serializer.setApplicationContext(null);
+        return serializer;
+    }
+
+    private static JWTClaimsSet claims() {
+        return new JWTClaimsSet.Builder()
+                .subject(REFERENCE.getReference())
+                .issuer(REFERENCE.getSource())
+                .build();
+    }
+
+    private static SignedJWT signedJWT(String secret) throws JOSEException {
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims());
+        signedJWT.sign(new MACSigner(secret.getBytes()));
+        return signedJWT;
+    }
+
+    /**
+     * Encrypts the payload the way references were before key identifiers were introduced.
+     */
+    private static String token(Payload payload, String secret) throws JOSEException {
+        JWEObject jweObject = new JWEObject(
+                new JWEHeader.Builder(JWEAlgorithm.DIR, EncryptionMethod.A256GCM)
+                        .contentType("JWT")
+                        .build(),
+                payload);
+        jweObject.encrypt(new DirectEncrypter(secret.getBytes()));
+        return Base64.getEncoder().encodeToString(jweObject.serialize().getBytes());
+    }
+}
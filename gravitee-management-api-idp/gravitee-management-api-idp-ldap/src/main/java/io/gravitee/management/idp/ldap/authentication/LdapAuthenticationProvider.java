@@ -16,6 +16,7 @@
 package io.gravitee.management.idp.ldap.authentication;
 
 import io.gravitee.management.idp.api.authentication.AuthenticationProvider;
+import io.gravitee.management.idp.ldap.pool.PoolingContextSourceBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -44,11 +45,7 @@ public class LdapAuthenticationProvider implements AuthenticationProvider<Securi
                 new LdapAuthenticationProviderConfigurer<>();
 
         // Create LDAP context
-        DefaultSpringSecurityContextSource contextSource = new DefaultSpringSecurityContextSource(
-                environment.getProperty("context-source-url"));
-        contextSource.setBase(environment.getProperty("context-source-base"));
-        contextSource.setUserDn(environment.getProperty("context-source-username"));
-        contextSource.setPassword(environment.getProperty("context-source-password"));
+        DefaultSpringSecurityContextSource contextSource = createContextSource();
         contextSource.afterPropertiesSet();
 
         String userDNPattern = environment.getProperty("user-dn-pattern");
@@ -66,7 +63,9 @@ public class LdapAuthenticationProvider implements AuthenticationProvider<Securi
                 .groupRoleAttribute(environment.getProperty("group-role-attribute", "cn"))
                 .rolePrefix("");
 
-        DefaultLdapAuthoritiesPopulator populator = new DefaultLdapAuthoritiesPopulator(contextSource,
+        // Group searches are made with the manager DN on each login: they go through a pool of connections
+        DefaultLdapAuthoritiesPopulator populator = new DefaultLdapAuthoritiesPopulator(
+                PoolingContextSourceBuilder.build(createContextSource(), environment),
                 environment.getProperty("group-search-base", ""));
         populator.setRolePrefix("");
 
@@ -80,4 +79,13 @@ public class LdapAuthenticationProvider implements AuthenticationProvider<Securi
 
         return ldapAuthenticationProviderConfigurer;
     }
+
+    private DefaultSpringSecurityContextSource createContextSource() {
+        DefaultSpringSecurityContextSource contextSource = new DefaultSpringSecurityContextSource(
+                environment.getProperty("context-source-url"));
+        contextSource.setBase(environment.getProperty("context-source-base"));
+        contextSource.setUserDn(environment.getProperty("context-source-username"));
+        contextSource.setPassword(environment.getProperty("context-source-password"));
+        return contextSource;
+    }
 }
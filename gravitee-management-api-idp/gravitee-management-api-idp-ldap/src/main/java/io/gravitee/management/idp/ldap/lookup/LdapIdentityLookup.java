@@ -15,6 +15,8 @@
  */
 package io.gravitee.management.idp.ldap.lookup;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.gravitee.management.idp.api.identity.IdentityLookup;
 import io.gravitee.management.idp.api.identity.IdentityReference;
 import io.gravitee.management.idp.api.identity.User;
@@ -39,9 +41,11 @@ import org.springframework.ldap.query.LdapQueryBuilder;
 import org.springframework.ldap.query.SearchScope;
 import org.springframework.ldap.support.LdapNameBuilder;
 
+import javax.naming.InvalidNameException;
 import javax.naming.ldap.LdapName;
-import java.util.Collection;
-import java.util.Collections;
+import javax.naming.ldap.Rdn;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -71,6 +75,10 @@ public class LdapIdentityLookup implements IdentityLookup, InitializingBean {
 
     private LdapName baseDn;
 
+    private long cacheTtl;
+
+    private Cache<LdapName, User> entries;
+
     @Override
     public void afterPropertiesSet() throws Exception {
         String searchFilter = environment.getProperty("user-search-filter");
@@ -90,6 +98,12 @@ public class LdapIdentityLookup implements IdentityLookup, InitializingBean {
                 .build();
 
         LOGGER.info("User search is based on DN [{}]", baseDn);
+
+        cacheTtl = environment.getProperty("cache.ttl", long.class, 60000L);
+        entries = CacheBuilder.newBuilder()
+                .maximumSize(environment.getProperty("cache.size", int.class, 1000))
+                .expireAfterWrite(Math.max(cacheTtl, 0), TimeUnit.MILLISECONDS)
+                .build();
     }
 
     @Override
@@ -139,16 +153,26 @@ public class LdapIdentityLookup implements IdentityLookup, InitializingBean {
 
     @Override
     public User retrieve(IdentityReference identityReference) {
+        LdapName dn = toDn(identityReference.getReference());
+        User user = (dn != null) ? getCached(dn) : null;
+        if (user != null) {
+            return user;
+        }
+
         ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
         try {
             Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
-            return ldapTemplate.lookup(
+            user = ldapTemplate.lookup(
                     identityReference.getReference(),
                     new String [] {
                             identifierAttribute, LDAP_ATTRIBUTE_GIVENNAME, LDAP_ATTRIBUTE_SURNAME,
                             LDAP_ATTRIBUTE_MAIL, LDAP_ATTRIBUTE_DISPLAYNAME
                     },
                     USER_CONTEXT_MAPPER);
+            if (dn != null) {
+                putCached(dn, user);
+            }
+            return user;
         } catch (final NameNotFoundException nnfe) {
             return null;
         } finally {
@@ -156,6 +180,92 @@ public class LdapIdentityLookup implements IdentityLookup, InitializingBean {
         }
     }
 
+    /**
+     * Resolves all the references which are not in cache with a single search, filtering on the RDN of their DN.
+     * References which are not found under the user search base are then looked up one by one.
+     */
+    @Override
+    public Map<IdentityReference, User> retrieve(Collection<IdentityReference> identityReferences) {
+        final Map<IdentityReference, User> users = new LinkedHashMap<>();
+        final Map<LdapName, IdentityReference> missing = new LinkedHashMap<>();
+
+        for (IdentityReference identityReference : identityReferences) {
+            LdapName dn = toDn(identityReference.getReference());
+            User user = (dn != null) ? getCached(dn) : null;
+            if (user != null) {
+                users.put(identityReference, user);
+            } else if (dn != null && !dn.isEmpty()) {
+                missing.put(dn, identityReference);
+            } else {
+                Optional.ofNullable(retrieve(identityReference)).ifPresent(found -> users.put(identityReference, found));
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            try {
+                Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
+
+                OrFilter rdnFilter = new OrFilter();
+                for (LdapName dn : missing.keySet()) {
+                    Rdn rdn = dn.getRdn(dn.size() - 1);
+                    rdnFilter.or(new EqualsFilter(rdn.getType(), rdn.getValue().toString()));
+                }
+
+                LdapQuery ldapQuery = LdapQueryBuilder
+                        .query()
+                        .base(baseDn)
+                        .countLimit(missing.size())
+                        .timeLimit(5000)
+                        .searchScope(SearchScope.SUBTREE)
+                        .attributes(
+                                identifierAttribute,
+                                LDAP_ATTRIBUTE_GIVENNAME,
+                                LDAP_ATTRIBUTE_SURNAME,
+                                LDAP_ATTRIBUTE_MAIL,
+                                LDAP_ATTRIBUTE_DISPLAYNAME)
+                        .filter(rdnFilter);
+
+                for (User user : ldapTemplate.search(ldapQuery, USER_CONTEXT_MAPPER)) {
+                    LdapName dn = toDn(user.getReference());
+                    IdentityReference identityReference = (dn != null) ? missing.remove(dn) : null;
+                    if (identityReference != null) {
+                        putCached(dn, user);
+                        users.put(identityReference, user);
+                    }
+                }
+            } catch (LimitExceededException | CommunicationException ex) {
+                LOGGER.warn("Unable to retrieve users with a single search, looking for them one by one", ex);
+            } finally {
+                Thread.currentThread().setContextClassLoader(classLoader);
+            }
+
+            // Entries outside of the user search base
+            missing.values().forEach(reference ->
+                    Optional.ofNullable(retrieve(reference)).ifPresent(found -> users.put(reference, found)));
+        }
+
+        return users;
+    }
+
+    private LdapName toDn(String reference) {
+        try {
+            return new LdapName(reference);
+        } catch (InvalidNameException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private User getCached(LdapName dn) {
+        return cacheTtl > 0 ? entries.getIfPresent(dn) : null;
+    }
+
+    private void putCached(LdapName dn, User user) {
+        if (cacheTtl > 0 && user != null) {
+            entries.put(dn, user);
+        }
+    }
+
     private final ContextMapper<User> USER_CONTEXT_MAPPER = new AbstractContextMapper<User>() {
 
         @Override
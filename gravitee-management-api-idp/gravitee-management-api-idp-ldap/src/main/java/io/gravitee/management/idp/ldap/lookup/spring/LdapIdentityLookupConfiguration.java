@@ -16,8 +16,12 @@
 package io.gravitee.management.idp.ldap.lookup.spring;
 
 import io.gravitee.management.idp.ldap.lookup.LdapContextSourceFactory;
+import io.gravitee.management.idp.ldap.pool.PoolingContextSourceBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.ldap.core.ContextSource;
 import org.springframework.ldap.core.LdapTemplate;
 import org.springframework.ldap.core.support.LdapContextSource;
 
@@ -34,7 +38,12 @@ public class LdapIdentityLookupConfiguration {
     }
 
     @Bean
-    public LdapTemplate ldapTemplate(LdapContextSource contextSource) {
+    public ContextSource pooledContextSource(LdapContextSource contextSource, Environment environment) throws Exception {
+        return PoolingContextSourceBuilder.build(contextSource, environment);
+    }
+
+    @Bean
+    public LdapTemplate ldapTemplate(@Qualifier("pooledContextSource") ContextSource contextSource) {
         return new LdapTemplate(contextSource);
     }
 }
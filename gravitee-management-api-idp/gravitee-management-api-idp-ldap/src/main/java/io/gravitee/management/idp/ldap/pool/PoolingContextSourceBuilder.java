@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.idp.ldap.pool;
+
+import org.springframework.core.env.Environment;
+import org.springframework.ldap.core.ContextSource;
+import org.springframework.ldap.core.support.AbstractContextSource;
+import org.springframework.ldap.pool2.factory.PoolConfig;
+import org.springframework.ldap.pool2.factory.PoolingContextSource;
+import org.springframework.ldap.pool2.validation.DefaultDirContextValidator;
+
+/**
+ * Wraps a context source into a pool of validated LDAP connections, configured from the <code>pool.*</code>
+ * properties of the identity provider:
+ *
+ * <ul>
+ *     <li>pool.enabled: use the pool (default true)</li>
+ *     <li>pool.min-idle / pool.max-idle: bounds of the idle connections kept open (default 0 / 8)</li>
+ *     <li>pool.max-total: maximum number of open connections (default 8, -1 for no limit)</li>
+ *     <li>pool.max-wait: time to wait for a connection when the pool is exhausted, in ms (default 5000)</li>
+ *     <li>pool.validation: validate connections when borrowed from the pool (default true)</li>
+ *     <li>pool.validation-interval: delay between two validations of the idle connections, in ms (default -1, disabled)</li>
+ * </ul>
+ *
+ * Only the connections bound with the manager DN are pooled, user binds done to authenticate are never reused.
+ *
+ * @author GraviteeSource Team
+ */
+public final class PoolingContextSourceBuilder {
+
+    private PoolingContextSourceBuilder() {
+    }
+
+    public static ContextSource build(AbstractContextSource contextSource, Environment environment) throws Exception {
+        boolean enabled = environment.getProperty("pool.enabled", boolean.class, true);
+        if (enabled) {
+            // Pooling is done by Spring LDAP, not by the JNDI provider
+            contextSource.setPooled(false);
+        }
+        contextSource.afterPropertiesSet();
+
+        if (!enabled) {
+            return contextSource;
+        }
+
+        PoolConfig poolConfig = new PoolConfig();
+        poolConfig.setMinIdlePerKey(environment.getProperty("pool.min-idle", int.class, 0));
+        poolConfig.setMaxIdlePerKey(environment.getProperty("pool.max-idle", int.class, 8));
+        poolConfig.setMaxTotalPerKey(environment.getProperty("pool.max-total", int.class, 8));
+        poolConfig.setMaxWaitMillis(environment.getProperty("pool.max-wait", long.class, 5000L));
+        poolConfig.setBlockWhenExhausted(true);
+
+        boolean validation = environment.getProperty("pool.validation", boolean.class, true);
+        long validationInterval = environment.getProperty("pool.validation-interval", long.class, -1L);
+        poolConfig.setTestOnBorrow(validation);
+        poolConfig.setTestWhileIdle(validation && validationInterval > 0);
+        poolConfig.setTimeBetweenEvictionRunsMillis(validationInterval);
+
+        PoolingContextSource poolingContextSource = new PoolingContextSource();
+        poolingContextSource.setContextSource(contextSource);
+        poolingContextSource.setDirContextValidator(new DefaultDirContextValidator());
+        poolingContextSource.setPoolConfig(poolConfig);
+
+        return poolingContextSource;
+    }
+}
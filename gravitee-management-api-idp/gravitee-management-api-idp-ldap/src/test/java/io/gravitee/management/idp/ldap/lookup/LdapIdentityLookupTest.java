@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.idp.ldap.lookup;
+
+import io.gravitee.management.idp.api.identity.IdentityReference;
+import io.gravitee.management.idp.api.identity.User;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.ldap.core.ContextMapper;
+import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.ldap.query.LdapQuery;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.ldap.DefaultSpringSecurityContextSource;
+import org.springframework.security.ldap.server.ApacheDSContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.ServerSocket;
+import java.util.HashSet;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Resolution of the LDAP users against an embedded LDAP server, loaded with <code>ldap/lookup-test.ldif</code>.
+ *
+ * @author GraviteeSource Team
+ */
+public class LdapIdentityLookupTest {
+
+    private static final String ROOT = "dc=gravitee,dc=io";
+
+    private static final IdentityReference JOHN = reference("uid=john,ou=paris,ou=users," + ROOT);
+    private static final IdentityReference JANE = reference("uid=jane,ou=paris,ou=users," + ROOT);
+    private static final IdentityReference ALICE_PARIS = reference("uid=alice,ou=paris,ou=users," + ROOT);
+    private static final IdentityReference ALICE_LYON = reference("uid=alice,ou=lyon,ou=users," + ROOT);
+    private static final IdentityReference ROOT_ADMIN = reference("uid=root,ou=admins," + ROOT);
+    private static final IdentityReference UNKNOWN = reference("uid=unknown,ou=paris,ou=users," + ROOT);
+
+    private static ApacheDSContainer server;
+    private static DefaultSpringSecurityContextSource contextSource;
+
+    private LdapTemplate ldapTemplate;
+    private LdapIdentityLookup identityLookup;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        final int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        server = new ApacheDSContainer(ROOT, "classpath:ldap/lookup-test.ldif");
+        server.setPort(port);
+        server.afterPropertiesSet();
+
+        contextSource = new DefaultSpringSecurityContextSource("ldap://127.0.0.1:" + port);
+        contextSource.setUserDn("uid=admin,ou=system");
+        contextSource.setPassword("secret");
+        contextSource.afterPropertiesSet();
+    }
+
+    @AfterClass
+    public static void stopServer() throws Exception {
+        server.destroy();
+    }
+
+    @Before
+    public void init() throws Exception {
+        final MockEnvironment environment = new MockEnvironment();
+        environment.setProperty("context-source-base", ROOT);
+        environment.setProperty("user-search-base", "ou=users");
+        environment.setProperty("user-search-filter", "uid={0}");
+
+        ldapTemplate = spy(new LdapTemplate(contextSource));
+        identityLookup = new LdapIdentityLookup();
+        ReflectionTestUtils.setField(identityLookup, "ldapTemplate", ldapTemplate);
+        ReflectionTestUtils.setField(identityLookup, "environment", environment);
+        identityLookup.afterPropertiesSet();
+    }
+
+    @Test
+    public void shouldRetrieveUsersInAndOutOfTheSearchBase() {
+        final Map<IdentityReference, User> users = identityLookup.retrieve(asList(JOHN, ROOT_ADMIN, JANE, UNKNOWN));
+
+        assertEquals(new HashSet<>(asList(JOHN, JANE, ROOT_ADMIN)), users.keySet());
+        assertEquals("john.doe@gravitee.io", users.get(JOHN).getEmail());
+        assertEquals("jane.doe@gravitee.io", users.get(JANE).getEmail());
+        assertEquals("root@gravitee.io", users.get(ROOT_ADMIN).getEmail());
+        assertEquals("root", users.get(ROOT_ADMIN).getUsername());
+
+        // a single search for the users under the search base, the other ones being looked up one by one
+        verify(ldapTemplate, times(1)).search(any(LdapQuery.class), any(ContextMapper.class));
+        verify(ldapTemplate, times(2)).lookup(anyString(), any(String[].class), any(ContextMapper.class));
+        verify(ldapTemplate).lookup(eq(ROOT_ADMIN.getReference()), any(String[].class), any(ContextMapper.class));
+        verify(ldapTemplate).lookup(eq(UNKNOWN.getReference()), any(String[].class), any(ContextMapper.class));
+    }
+
+    @Test
+    public void shouldMapUsersWithASameRdnToTheirOwnEntry() {
+        final Map<IdentityReference, User> users = identityLookup.retrieve(asList(ALICE_LYON, JOHN, ALICE_PARIS));
+
+        assertEquals(3, users.size());
+        assertEquals("alice.bernard@lyon.gravitee.io", users.get(ALICE_LYON).getEmail());
+        assertEquals("alice.martin@paris.gravitee.io", users.get(ALICE_PARIS).getEmail());
+        assertEquals("john.doe@gravitee.io", users.get(JOHN).getEmail());
+        verify(ldapTemplate, never()).lookup(anyString(), any(String[].class), any(ContextMapper.class));
+    }
+
+    @Test
+    public void shouldRetrieveTheRequestedUserWhenAnotherOneHasTheSameRdn() {
+        // both alice entries match the search, which is limited to a single result
+        final Map<IdentityReference, User> users = identityLookup.retrieve(singletonList(ALICE_PARIS));
+
+        assertEquals(1, users.size());
+        assertEquals("alice.martin@paris.gravitee.io", users.get(ALICE_PARIS).getEmail());
+    }
+
+    @Test
+    public void shouldRetrieveCachedUsersWithoutQueryingTheServer() {
+        identityLookup.retrieve(asList(JOHN, ROOT_ADMIN));
+        final Map<IdentityReference, User> users = identityLookup.retrieve(asList(ROOT_ADMIN, JOHN));
+
+        assertEquals(asList(ROOT_ADMIN, JOHN), asList(users.keySet().toArray()));
+        assertEquals("john.doe@gravitee.io", users.get(JOHN).getEmail());
+        assertEquals("root@gravitee.io", users.get(ROOT_ADMIN).getEmail());
+
+        // the server is only queried by the first retrieval
+        verify(ldapTemplate, times(1)).search(any(LdapQuery.class), any(ContextMapper.class));
+        verify(ldapTemplate, times(1)).lookup(anyString(), any(String[].class), any(ContextMapper.class));
+        assertSame(users.get(JOHN), identityLookup.retrieve(JOHN));
+    }
+
+    @Test
+    public void shouldLookUpUsersOneByOneWhenTheSearchExceedsTheSizeLimit() {
+        ldapTemplate.setIgnoreSizeLimitExceededException(false);
+
+        final Map<IdentityReference, User> users = identityLookup.retrieve(asList(ALICE_PARIS, JANE));
+
+        // three entries match the search, which is limited to two results
+        assertEquals(asList(ALICE_PARIS, JANE), asList(users.keySet().toArray()));
+        assertEquals("alice.martin@paris.gravitee.io", users.get(ALICE_PARIS).getEmail());
+        assertEquals("jane.doe@gravitee.io", users.get(JANE).getEmail());
+        verify(ldapTemplate).lookup(eq(ALICE_PARIS.getReference()), any(String[].class), any(ContextMapper.class));
+        verify(ldapTemplate).lookup(eq(JANE.getReference()), any(String[].class), any(ContextMapper.class));
+    }
+
+    private static IdentityReference reference(String dn) {
+        return new IdentityReference("ldap", dn);
+    }
+}
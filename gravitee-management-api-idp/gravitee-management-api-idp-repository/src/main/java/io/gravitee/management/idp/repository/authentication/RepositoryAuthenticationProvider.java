@@ -17,14 +17,13 @@ package io.gravitee.management.idp.repository.authentication;
 
 import io.gravitee.management.idp.api.authentication.AuthenticationProvider;
 import io.gravitee.management.idp.repository.RepositoryIdentityProvider;
-import io.gravitee.management.idp.repository.authentication.spring.RepositoryAuthenticationProviderConfiguration;
 import io.gravitee.management.model.UserEntity;
+import io.gravitee.management.service.PasswordService;
 import io.gravitee.management.service.UserService;
 import io.gravitee.management.service.exceptions.UserNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Import;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -34,7 +33,6 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -44,7 +42,6 @@ import java.util.stream.Collectors;
  * @author Nicolas GERAUD (nicolas.geraud at graviteesource.com)
  * @author GraviteeSource Team
  */
-@Import(RepositoryAuthenticationProviderConfiguration.class)
 public class RepositoryAuthenticationProvider extends AbstractUserDetailsAuthenticationProvider
 		implements AuthenticationProvider<org.springframework.security.authentication.AuthenticationProvider> {
 
@@ -54,7 +51,7 @@ public class RepositoryAuthenticationProvider extends AbstractUserDetailsAuthent
 	private UserService userService;
 
 	@Autowired
-	private PasswordEncoder passwordEncoder;
+	private PasswordService passwordService;
 
 	@Override
 	protected void additionalAuthenticationChecks(UserDetails userDetails, UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
@@ -65,10 +62,23 @@ public class RepositoryAuthenticationProvider extends AbstractUserDetailsAuthent
 
 		String presentedPassword = authentication.getCredentials().toString();
 
-		if (!passwordEncoder.matches(presentedPassword, userDetails.getPassword())) {
+		boolean matches;
+		try {
+			matches = passwordService.matches(presentedPassword, userDetails.getPassword());
+		} catch (Exception ex) {
+			LOGGER.error("Failed to verify the password of {}", userDetails.getUsername(), ex);
+			throw new InternalAuthenticationServiceException(ex.getMessage(), ex);
+		}
+
+		if (!matches) {
 			LOGGER.debug("Authentication failed: password does not match stored value");
 			throw new BadCredentialsException(messages.getMessage("AbstractUserDetailsAuthenticationProvider.badCredentials", "Bad credentials"));
 		}
+
+		// The raw password is only known at login: take this chance to apply the configured algorithm and cost
+		if (passwordService.upgradeEncoding(userDetails.getPassword())) {
+			userService.upgradePassword(userDetails.getUsername(), presentedPassword, userDetails.getPassword());
+		}
 	}
 
 	@Override
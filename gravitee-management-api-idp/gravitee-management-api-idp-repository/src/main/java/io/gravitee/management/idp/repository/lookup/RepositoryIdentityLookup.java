@@ -20,18 +20,21 @@ import io.gravitee.management.idp.api.identity.IdentityReference;
 import io.gravitee.management.idp.api.identity.User;
 import io.gravitee.management.idp.repository.RepositoryIdentityProvider;
 import io.gravitee.management.idp.repository.lookup.spring.RepositoryIdentityLookupConfiguration;
+import io.gravitee.management.model.UserEntity;
+import io.gravitee.management.model.common.PageableImpl;
+import io.gravitee.management.service.impl.search.lucene.searcher.UserDocumentSearcher;
+import io.gravitee.management.service.search.SearchEngineService;
+import io.gravitee.management.service.search.query.QueryBuilder;
 import io.gravitee.repository.exceptions.TechnicalException;
 import io.gravitee.repository.management.api.UserRepository;
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Import;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -55,6 +58,12 @@ public class RepositoryIdentityLookup implements IdentityLookup {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SearchEngineService searchEngineService;
+
+    @Value("${search-limit:50}")
+    private int searchLimit;
+
     @Override
     public io.gravitee.management.idp.api.identity.User retrieve(IdentityReference identityReference) {
         try {
@@ -77,13 +86,28 @@ public class RepositoryIdentityLookup implements IdentityLookup {
 
     @Override
     public Collection<User> search(String query) {
+        Collection<String> ids = searchEngineService.search(QueryBuilder.create(UserEntity.class)
+                .setQuery(query)
+                .addFilter(UserDocumentSearcher.FILTER_SOURCE, MANAGED_USER_TYPES)
+                .setPage(new PageableImpl(1, searchLimit))
+                .build());
+
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+
         try {
-            return userRepository.search(null).getContent().stream().filter(user -> MANAGED_USER_TYPES.contains(user.getSource())).filter(
-                    user -> (user.getUsername() != null && StringUtils.containsIgnoreCase(user.getUsername(), query)) ||
-                            (user.getFirstname() != null && StringUtils.containsIgnoreCase(user.getFirstname(), query)) ||
-                            (user.getLastname() != null && StringUtils.containsIgnoreCase(user.getLastname(), query)) ||
-                            (user.getEmail() != null && StringUtils.containsIgnoreCase(user.getEmail(), query))
-            ).map(this::convert).collect(Collectors.toSet());
+            final Map<String, io.gravitee.repository.management.model.User> users = userRepository
+                    .findByIds(new ArrayList<>(ids))
+                    .stream()
+                    .collect(Collectors.toMap(io.gravitee.repository.management.model.User::getId, Function.identity()));
+
+            // keep the relevance order of the search engine
+            return ids
+                    .stream()
+                    .filter(users::containsKey)
+                    .map(id -> convert(users.get(id)))
+                    .collect(Collectors.toList());
         } catch (TechnicalException te) {
             LOGGER.error("Unexpected error while searching for users in repository", te);
             return null;
@@ -17,6 +17,7 @@ package io.gravitee.management.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import io.gravitee.management.model.search.Indexable;
 
 import java.util.Date;
 import java.util.Objects;
@@ -28,7 +29,7 @@ import java.util.Set;
  * @author GraviteeSource Team
  */
 @JsonIgnoreProperties(value = "displayName", allowGetters = true)
-public class UserEntity {
+public class UserEntity implements Indexable {
 
     /**
      * User identifier
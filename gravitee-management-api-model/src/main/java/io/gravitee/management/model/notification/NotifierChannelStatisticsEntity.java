@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.model.notification;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Activity of the executor delivering the notifications of a channel (portal, email or webhook).
+ *
+ * @author GraviteeSource Team
+ */
+public class NotifierChannelStatisticsEntity {
+
+    private String channel;
+    private int workers;
+    @JsonProperty("active_workers")
+    private int activeWorkers;
+    @JsonProperty("queue_size")
+    private int queueSize;
+    @JsonProperty("queue_capacity")
+    private int queueCapacity;
+    private long submitted;
+    private long completed;
+    private long failed;
+    private long rejected;
+    /**
+     * Average time in milliseconds between the submission and the end of a delivery.
+     */
+    @JsonProperty("average_latency")
+    private long averageLatency;
+    @JsonProperty("max_latency")
+    private long maxLatency;
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getActiveWorkers() {
+        return activeWorkers;
+    }
+
+    public void setActiveWorkers(int activeWorkers) {
+        this.activeWorkers = activeWorkers;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public void setSubmitted(long submitted) {
+        this.submitted = submitted;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(long completed) {
+        this.completed = completed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getAverageLatency() {
+        return averageLatency;
+    }
+
+    public void setAverageLatency(long averageLatency) {
+        this.averageLatency = averageLatency;
+    }
+
+    public long getMaxLatency() {
+        return maxLatency;
+    }
+
+    public void setMaxLatency(long maxLatency) {
+        this.maxLatency = maxLatency;
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.rest.cache;
+
+import javax.ws.rs.NameBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Add an entity tag to the successful responses of a GET resource method and answer the requests carrying a matching
+ * <code>If-None-Match</code> header with a <code>304 Not Modified</code>.
+ *
+ * @author GraviteeSource Team
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface ETag {
+
+    /**
+     * Whether the tag can be derived from the id and the last update date of the returned entities, so that the
+     * response does not have to be serialized when the client already has it. Only safe when the returned entities
+     * carry no other data than the stored ones. The content of the response is hashed when an entity has no last
+     * update date.
+     */
+    boolean versioned() default false;
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.rest.filter;
+
+import io.gravitee.management.rest.cache.ETag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Priority;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.*;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.Providers;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tag the responses of the resource methods annotated with {@link ETag} and evaluate the <code>If-None-Match</code>
+ * header of the request. Versioned entities are tagged from their id and last update date, and dropped before being
+ * serialized when the tag matches. Other entities are serialized once, the tag being computed from the serialized
+ * content which is then written as is.
+ *
+ * @author GraviteeSource Team
+ */
+@Provider
+@ETag
+@Priority(Priorities.HEADER_DECORATOR)
+public class ETagFilter implements ContainerResponseFilter {
+
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    private final Logger LOGGER = LoggerFactory.getLogger(ETagFilter.class);
+
+    /**
+     * Accessors of the last update date and of the id, by entity class. Empty when the class has no last update date.
+     */
+    private static final Map<Class<?>, Optional<Method[]>> VERSION_ACCESSORS = new ConcurrentHashMap<>();
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Context
+    private Providers providers;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException {
+        final String method = requestContext.getMethod();
+        if ((!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method))
+                || responseContext.getStatus() != Response.Status.OK.getStatusCode()
+                || !responseContext.hasEntity()) {
+            return;
+        }
+
+        EntityTag tag = responseContext.getEntityTag();
+        if (tag == null) {
+            tag = computeTag(requestContext, responseContext);
+            if (tag == null) {
+                return;
+            }
+            responseContext.getHeaders().putSingle(HttpHeaders.ETAG, tag);
+        }
+
+        if (!responseContext.getHeaders().containsKey(HttpHeaders.CACHE_CONTROL)) {
+            // let the clients keep the response, as long as they check it is still valid before using it
+            responseContext.getHeaders().putSingle(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+
+        if (requestContext.getRequest().evaluatePreconditions(tag) != null) {
+            responseContext.setStatus(Response.Status.NOT_MODIFIED.getStatusCode());
+            responseContext.setEntity(null);
+        }
+    }
+
+    private EntityTag computeTag(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException {
+        final MessageDigest digest = newDigest();
+        final ETag eTag = getETag();
+        if (eTag != null && eTag.versioned() && digestVersions(responseContext.getEntity(), digest)) {
+            final Principal principal = requestContext.getSecurityContext().getUserPrincipal();
+            if (principal != null) {
+                // the same entities may be shown differently to each user
+                digest.update(principal.getName().getBytes(StandardCharsets.UTF_8));
+            }
+            return new EntityTag(encode(digest));
+        }
+
+        digest.reset();
+        final byte[] content = serialize(responseContext, digest);
+        if (content == null) {
+            return null;
+        }
+
+        // the response is written from the serialized content, instead of serializing the entity again
+        responseContext.setEntity(content, responseContext.getEntityAnnotations(), responseContext.getMediaType());
+        return new EntityTag(encode(digest));
+    }
+
+    private ETag getETag() {
+        final ETag eTag = resourceInfo.getResourceMethod().getAnnotation(ETag.class);
+        return eTag != null ? eTag : resourceInfo.getResourceClass().getAnnotation(ETag.class);
+    }
+
+    private boolean digestVersions(Object entity, MessageDigest digest) {
+        final Collection<?> entities = (entity instanceof Collection) ? (Collection<?>) entity : Collections.singleton(entity);
+        try {
+            for (Object item : entities) {
+                if (item == null) {
+                    return false;
+                }
+                final Optional<Method[]> accessors = VERSION_ACCESSORS.computeIfAbsent(item.getClass(), ETagFilter::findVersionAccessors);
+                if (!accessors.isPresent()) {
+                    return false;
+                }
+                final Date updatedAt = (Date) accessors.get()[0].invoke(item);
+                if (updatedAt == null) {
+                    return false;
+                }
+                if (accessors.get()[1] != null) {
+                    digest.update(String.valueOf(accessors.get()[1].invoke(item)).getBytes(StandardCharsets.UTF_8));
+                }
+                digest.update(Long.toString(updatedAt.getTime()).getBytes(StandardCharsets.UTF_8));
+            }
+            return true;
+        } catch (ReflectiveOperationException roe) {
+            LOGGER.debug("Unable to read the last update date of the entities, the content is hashed instead", roe);
+            return false;
+        }
+    }
+
+    private static Optional<Method[]> findVersionAccessors(Class<?> entityClass) {
+        try {
+            final Method updatedAt = entityClass.getMethod("getUpdatedAt");
+            if (!Date.class.isAssignableFrom(updatedAt.getReturnType())) {
+                return Optional.empty();
+            }
+            Method id;
+            try {
+                id = entityClass.getMethod("getId");
+            } catch (NoSuchMethodException nsme) {
+                id = null;
+            }
+            return Optional.of(new Method[]{updatedAt, id});
+        } catch (NoSuchMethodException nsme) {
+            return Optional.empty();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serialize(ContainerResponseContext responseContext, MessageDigest digest) throws IOException {
+        final MediaType mediaType = responseContext.getMediaType();
+        final MessageBodyWriter writer = providers.getMessageBodyWriter(responseContext.getEntityClass(),
+                responseContext.getEntityType(), responseContext.getEntityAnnotations(), mediaType);
+        if (writer == null) {
+            return null;
+        }
+
+        // the content is hashed while being serialized
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (OutputStream out = new DigestOutputStream(content, digest)) {
+            writer.writeTo(responseContext.getEntity(), responseContext.getEntityClass(), responseContext.getEntityType(),
+                    responseContext.getEntityAnnotations(), mediaType, responseContext.getHeaders(), out);
+        }
+        return content.toByteArray();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new IllegalStateException(nsae);
+        }
+    }
+
+    private static String encode(MessageDigest digest) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.rest.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.gravitee.management.idp.api.authentication.UserDetails;
+
+/**
+ * Everything the console needs to display once the user is logged in. A count which could not be computed in time is
+ * left out.
+ *
+ * @author GraviteeSource Team
+ */
+public class UserBootstrapEntity {
+
+    private UserDetails user;
+
+    @JsonProperty("task_count")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer taskCount;
+
+    @JsonProperty("notification_count")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer notificationCount;
+
+    public UserDetails getUser() {
+        return user;
+    }
+
+    public void setUser(UserDetails user) {
+        this.user = user;
+    }
+
+    public Integer getTaskCount() {
+        return taskCount;
+    }
+
+    public void setTaskCount(Integer taskCount) {
+        this.taskCount = taskCount;
+    }
+
+    public Integer getNotificationCount() {
+        return notificationCount;
+    }
+
+    public void setNotificationCount(Integer notificationCount) {
+        this.notificationCount = notificationCount;
+    }
+}
@@ -22,6 +22,7 @@ import io.gravitee.management.model.Visibility;
 import io.gravitee.management.model.api.ApiEntity;
 import io.gravitee.management.model.permissions.RolePermission;
 import io.gravitee.management.model.permissions.RolePermissionAction;
+import io.gravitee.management.rest.cache.ETag;
 import io.gravitee.management.rest.security.Permission;
 import io.gravitee.management.rest.security.Permissions;
 import io.gravitee.management.service.ApiService;
@@ -57,6 +58,7 @@ public class ApiPageResource extends AbstractResource {
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
+    @ETag
     @ApiOperation(value = "Get a page",
             notes = "User must have the READ permission to use this service")
     @ApiResponses({
@@ -23,6 +23,7 @@ import io.gravitee.management.model.Visibility;
 import io.gravitee.management.model.api.ApiEntity;
 import io.gravitee.management.model.permissions.RolePermission;
 import io.gravitee.management.model.permissions.RolePermissionAction;
+import io.gravitee.management.rest.cache.ETag;
 import io.gravitee.management.rest.security.Permission;
 import io.gravitee.management.rest.security.Permissions;
 import io.gravitee.management.service.ApiService;
@@ -65,6 +66,7 @@ public class ApiPagesResource extends AbstractResource {
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
+    @ETag
     @ApiOperation(value = "List pages",
             notes = "User must have the READ permission to use this service")
     @ApiResponses({
@@ -131,9 +133,7 @@ public class ApiPagesResource extends AbstractResource {
         List<PageListItem> pages = pageService.findApiPagesByApi(api);
         String contributor = getAuthenticatedUser();
 
-        pages.stream()
-                .filter(pageListItem -> pageListItem.getSource() != null)
-                .forEach(pageListItem -> pageService.fetch(pageListItem.getId(), contributor));
+        pageService.fetchAll(pages, contributor);
 
         return Response.noContent().build();
     }
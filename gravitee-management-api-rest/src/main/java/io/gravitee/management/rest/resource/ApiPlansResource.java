@@ -18,6 +18,7 @@ package io.gravitee.management.rest.resource;
 import io.gravitee.common.http.MediaType;
 import io.gravitee.management.model.*;
 import io.gravitee.management.model.api.ApiEntity;
+import io.gravitee.management.rest.cache.ETag;
 import io.gravitee.management.rest.resource.param.PlanStatusParam;
 import io.gravitee.management.rest.security.Permission;
 import io.gravitee.management.rest.security.Permissions;
@@ -66,6 +67,7 @@ public class ApiPlansResource extends AbstractResource {
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
+    @ETag(versioned = true)
     @ApiOperation(
             value = "List plans for an API",
             notes = "List all the plans accessible to the current user.")
@@ -176,6 +178,7 @@ public class ApiPlansResource extends AbstractResource {
     @GET
     @Path("/{plan}")
     @Produces(MediaType.APPLICATION_JSON)
+    @ETag(versioned = true)
     @ApiOperation(value = "Get a plan",
             notes = "User must have the READ permission to use this service")
     @ApiResponses({
@@ -45,7 +45,7 @@ import javax.ws.rs.*;
 import javax.ws.rs.container.ResourceContext;
 import javax.ws.rs.core.*;
 import javax.ws.rs.core.Response.Status;
-import java.io.ByteArrayOutputStream;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -109,7 +109,7 @@ public class ApiResource extends AbstractResource {
         final UriBuilder uriBuilder = ub.path("picture");
         if (apiEntity.getPicture() != null) {
             // force browser to get if updated
-            uriBuilder.queryParam("hash", apiEntity.getPicture().hashCode());
+            uriBuilder.queryParam("hash", apiEntity.getUpdatedAt().getTime());
         }
         apiEntity.setPictureUrl(uriBuilder.build().toString());
         apiEntity.setPicture(null);
@@ -124,7 +124,8 @@ public class ApiResource extends AbstractResource {
             @ApiResponse(code = 500, message = "Internal server error")})
     public Response picture(
             @Context Request request,
-            @PathParam("api") String api) throws ApiNotFoundException {
+            @PathParam("api") String api,
+            @QueryParam("thumbnail") boolean thumbnail) throws ApiNotFoundException {
         ApiEntity apiEntity = apiService.findById(api);
         if (Visibility.PUBLIC.equals(apiEntity.getVisibility())
                 || hasPermission(RolePermission.API_DEFINITION, api, RolePermissionAction.READ)) {
@@ -135,9 +136,12 @@ public class ApiResource extends AbstractResource {
             cc.setNoCache(false);
             cc.setMaxAge(86400);
 
-            InlinePictureEntity image = apiService.getPicture(api);
+            InlinePictureEntity image = (thumbnail) ? apiService.getPictureThumbnail(api) : apiService.getPicture(api);
+            if (image == null) {
+                throw new NotFoundException();
+            }
 
-            EntityTag etag = new EntityTag(Integer.toString(new String(image.getContent()).hashCode()));
+            EntityTag etag = new EntityTag(image.getHash());
             Response.ResponseBuilder builder = request.evaluatePreconditions(etag);
 
             if (builder != null) {
@@ -147,11 +151,8 @@ public class ApiResource extends AbstractResource {
                         .build();
             }
 
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            baos.write(image.getContent(), 0, image.getContent().length);
-
             return Response
-                    .ok(baos)
+                    .ok(image.getContent())
                     .cacheControl(cc)
                     .tag(etag)
                     .type(image.getType())
@@ -463,6 +464,31 @@ public class ApiResource extends AbstractResource {
         return Response.ok(messageService.create(api, message)).build();
     }
 
+    @POST
+    @Path("/messages/_async")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Permissions({
+            @Permission(value = RolePermission.API_MESSAGE, acls = RolePermissionAction.CREATE)
+    })
+    public Response createAsync(@PathParam("api") String api, final MessageEntity message) {
+        final MessageBroadcastEntity broadcast = messageService.createAsync(api, message);
+        return Response
+                .accepted(broadcast)
+                .location(URI.create("/apis/" + api + "/messages/_async/" + broadcast.getId()))
+                .build();
+    }
+
+    @GET
+    @Path("/messages/_async/{broadcast}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Permissions({
+            @Permission(value = RolePermission.API_MESSAGE, acls = RolePermissionAction.CREATE)
+    })
+    public MessageBroadcastEntity getAsync(@PathParam("api") String api, @PathParam("broadcast") String broadcast) {
+        return messageService.findBroadcastById(api, broadcast);
+    }
+
     @GET
     @Path("headers")
     @ApiOperation(value = "Get the portal API headers values")
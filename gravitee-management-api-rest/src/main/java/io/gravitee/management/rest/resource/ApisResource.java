@@ -25,6 +25,7 @@ import io.gravitee.management.model.api.ApiQuery;
 import io.gravitee.management.model.api.NewApiEntity;
 import io.gravitee.management.model.permissions.RolePermission;
 import io.gravitee.management.model.permissions.RolePermissionAction;
+import io.gravitee.management.rest.cache.ETag;
 import io.gravitee.management.rest.resource.param.ApisParam;
 import io.gravitee.management.rest.resource.param.VerifyApiParam;
 import io.gravitee.management.rest.security.Permission;
@@ -81,6 +82,7 @@ public class ApisResource extends AbstractResource {
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
+    @ETag
     @ApiOperation(
             value = "List APIs",
             notes = "List all the APIs accessible to the current user or only public APIs for non authenticated users.")
@@ -278,8 +280,9 @@ public class ApisResource extends AbstractResource {
         final UriBuilder uriBuilder = ub.path("apis").path(api.getId()).path("picture");
         if (api.getPicture() != null) {
             // force browser to get if updated
-            uriBuilder.queryParam("hash", api.getPicture().hashCode());
+            uriBuilder.queryParam("hash", api.getUpdatedAt().getTime());
         }
+        uriBuilder.queryParam("thumbnail", true);
         apiItem.setPictureUrl(uriBuilder.build().toString());
         apiItem.setViews(api.getViews());
         apiItem.setCreatedAt(api.getCreatedAt());
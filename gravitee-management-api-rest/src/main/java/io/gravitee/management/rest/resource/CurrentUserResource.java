@@ -22,12 +22,17 @@ import io.gravitee.management.idp.api.authentication.UserDetails;
 import io.gravitee.management.model.*;
 import io.gravitee.management.rest.model.PagedResult;
 import io.gravitee.management.rest.model.TokenEntity;
+import io.gravitee.management.rest.model.UserBootstrapEntity;
+import io.gravitee.management.security.cache.VerifiedTokenCache;
 import io.gravitee.management.security.cookies.JWTCookieGenerator;
+import io.gravitee.management.security.filter.JWTAuthenticationFilter;
+import io.gravitee.management.service.PortalNotificationService;
 import io.gravitee.management.service.TaskService;
 import io.gravitee.management.service.UserService;
 import io.gravitee.management.service.common.JWTHelper.Claims;
 import io.gravitee.management.service.exceptions.ForbiddenAccessException;
 import io.gravitee.management.service.exceptions.UserNotFoundException;
+import io.gravitee.management.service.spring.AsyncConfiguration;
 import io.gravitee.repository.management.model.MembershipDefaultReferenceId;
 import io.gravitee.repository.management.model.MembershipReferenceType;
 import io.gravitee.repository.management.model.RoleScope;
@@ -36,6 +41,7 @@ import io.swagger.annotations.ApiOperation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -43,15 +49,18 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
 import javax.ws.rs.container.ResourceContext;
 import javax.ws.rs.core.*;
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static io.gravitee.management.rest.model.TokenType.BEARER;
@@ -74,6 +83,8 @@ public class CurrentUserResource extends AbstractResource {
     @Autowired
     private UserService userService;
     @Context
+    private HttpServletRequest request;
+    @Context
     private HttpServletResponse response;
     @Autowired
     private TaskService taskService;
@@ -83,6 +94,13 @@ public class CurrentUserResource extends AbstractResource {
     private ConfigurableEnvironment environment;
     @Autowired
     private JWTCookieGenerator jwtCookieGenerator;
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+    @Autowired
+    private PortalNotificationService portalNotificationService;
+    @Autowired
+    @Qualifier(AsyncConfiguration.BOOTSTRAP_EXECUTOR)
+    private Executor executor;
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
@@ -91,47 +109,118 @@ public class CurrentUserResource extends AbstractResource {
         if (isAuthenticated()) {
             final UserDetails details = getAuthenticatedUserDetails();
             final String userId = details.getUsername();
-            final String password = details.getPassword() != null ? details.getPassword() : "";
             UserEntity userEntity;
             try {
                 userEntity = userService.findByIdWithRoles(userId);
             } catch (final UserNotFoundException unfe) {
-                final String unfeMessage = "User '{}' does not exist.";
-                if (LOG.isDebugEnabled()) {
-                    LOG.info(unfeMessage, userId, unfe);
-                } else {
-                    LOG.info(unfeMessage, userId);
-                }
-                response.addCookie(jwtCookieGenerator.generate(null));
-                return status(Response.Status.UNAUTHORIZED).build();
+                return unknownUser(userId, unfe);
             }
 
-            List<GrantedAuthority> authorities = new ArrayList<>(details.getAuthorities());
-
-            UserDetails userDetails = new UserDetails(userEntity.getId(), password, authorities);
-            userDetails.setId(userEntity.getId());
-            userDetails.setFirstname(details.getFirstname());
-            userDetails.setLastname(details.getLastname());
-            userDetails.setUsername(userEntity.getUsername());
-            userDetails.setEmail(details.getEmail());
-
-            //convert UserEntityRoles to UserDetailsRoles
-            userDetails.setRoles(userEntity.getRoles().
-                    stream().
-                    map(userEntityRole -> {
-                        UserDetailRole userDetailRole = new UserDetailRole();
-                        userDetailRole.setScope(userEntityRole.getScope().name());
-                        userDetailRole.setName(userEntityRole.getName());
-                        userDetailRole.setPermissions(userEntityRole.getPermissions());
-                        return userDetailRole;
-                    }).collect(Collectors.toList()));
-
-            return ok(userDetails, MediaType.APPLICATION_JSON).build();
+            return ok(convert(details, userEntity), MediaType.APPLICATION_JSON).build();
         } else {
             return ok().build();
         }
     }
 
+    @GET
+    @Path("/bootstrap")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Get the authenticated user with its roles, and the number of its tasks and notifications")
+    public Response getCurrentUserBootstrap() {
+        if (!isAuthenticated()) {
+            return ok().build();
+        }
+
+        final UserDetails details = getAuthenticatedUserDetails();
+        final String userId = details.getUsername();
+
+        // the user, its tasks and its notifications do not depend on each other: fetch them concurrently, a count
+        // which is not available in time being left out rather than delaying the console
+        final long deadline = System.currentTimeMillis()
+                + environment.getProperty("user.bootstrap.timeout", Long.class, 2000L);
+        final CompletableFuture<Integer> taskCount = count("tasks", userId, () -> taskService.count(userId));
+        final CompletableFuture<Integer> notificationCount = count("notifications", userId,
+                () -> portalNotificationService.count(userId));
+
+        final UserEntity userEntity;
+        try {
+            userEntity = userService.findByIdWithRoles(userId);
+        } catch (final UserNotFoundException unfe) {
+            taskCount.cancel(false);
+            notificationCount.cancel(false);
+            return unknownUser(userId, unfe);
+        }
+
+        final UserBootstrapEntity bootstrap = new UserBootstrapEntity();
+        bootstrap.setUser(convert(details, userEntity));
+        bootstrap.setTaskCount(await("tasks", userId, taskCount, deadline));
+        bootstrap.setNotificationCount(await("notifications", userId, notificationCount, deadline));
+        return ok(bootstrap, MediaType.APPLICATION_JSON).build();
+    }
+
+    private Response unknownUser(String userId, UserNotFoundException unfe) {
+        final String unfeMessage = "User '{}' does not exist.";
+        if (LOG.isDebugEnabled()) {
+            LOG.info(unfeMessage, userId, unfe);
+        } else {
+            LOG.info(unfeMessage, userId);
+        }
+        response.addCookie(jwtCookieGenerator.generate(null));
+        return status(Response.Status.UNAUTHORIZED).build();
+    }
+
+    private UserDetails convert(UserDetails details, UserEntity userEntity) {
+        final String password = details.getPassword() != null ? details.getPassword() : "";
+        List<GrantedAuthority> authorities = new ArrayList<>(details.getAuthorities());
+
+        UserDetails userDetails = new UserDetails(userEntity.getId(), password, authorities);
+        userDetails.setId(userEntity.getId());
+        userDetails.setFirstname(details.getFirstname());
+        userDetails.setLastname(details.getLastname());
+        userDetails.setUsername(userEntity.getUsername());
+        userDetails.setEmail(details.getEmail());
+
+        //convert UserEntityRoles to UserDetailsRoles
+        userDetails.setRoles(userEntity.getRoles().
+                stream().
+                map(userEntityRole -> {
+                    UserDetailRole userDetailRole = new UserDetailRole();
+                    userDetailRole.setScope(userEntityRole.getScope().name());
+                    userDetailRole.setName(userEntityRole.getName());
+                    userDetailRole.setPermissions(userEntityRole.getPermissions());
+                    return userDetailRole;
+                }).collect(Collectors.toList()));
+        return userDetails;
+    }
+
+    private CompletableFuture<Integer> count(String name, String userId, Supplier<Integer> counter) {
+        try {
+            return CompletableFuture.supplyAsync(counter, executor);
+        } catch (RejectedExecutionException ree) {
+            LOG.warn("The {} of user {} are not counted, too many counts are pending", name, userId);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private static Integer await(String name, String userId, CompletableFuture<Integer> count, long deadline) {
+        try {
+            return count.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException te) {
+            LOG.warn("The {} of user {} have not been counted in time", name, userId);
+            count.cancel(false);
+            return null;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            count.cancel(false);
+            return null;
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause();
+            }
+            throw new IllegalStateException(ee.getCause());
+        }
+    }
+
     @PUT
     @ApiOperation(value = "Update user")
     public Response updateCurrentUser(@Valid @NotNull final UpdateUserEntity user) {
@@ -159,18 +248,15 @@ public class CurrentUserResource extends AbstractResource {
 
         InlinePictureEntity image = (InlinePictureEntity) picture;
 
-        EntityTag etag = new EntityTag(Integer.toString(new String(image.getContent()).hashCode()));
+        EntityTag etag = new EntityTag(image.getHash());
         Response.ResponseBuilder builder = request.evaluatePreconditions(etag);
 
         if (builder != null) {
             return builder.build();
         }
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        baos.write(image.getContent(), 0, image.getContent().length);
-
         return ok()
-                .entity(baos)
+                .entity(image.getContent())
                 .tag(etag)
                 .type(image.getType())
                 .build();
@@ -238,7 +324,11 @@ public class CurrentUserResource extends AbstractResource {
     @POST
     @Path("/logout")
     @ApiOperation(value = "Logout")
-    public Response logout() {
+    public Response logout() throws IOException {
+        final String token = JWTAuthenticationFilter.getToken(request);
+        if (token != null) {
+            verifiedTokenCache.revoke(token);
+        }
         response.addCookie(jwtCookieGenerator.generate(null));
         return Response.ok().build();
     }
@@ -254,6 +344,14 @@ public class CurrentUserResource extends AbstractResource {
         return pagedResult;
     }
 
+    @GET
+    @Path("/tasks/count")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Get the number of tasks of the authenticated user")
+    public Response getUserTasksCount() {
+        return ok(Collections.singletonMap("count", taskService.count(getAuthenticatedUserOrNull()))).build();
+    }
+
 
     @Path("/notifications")
     public UserNotificationsResource getUserNotificationsResource() {
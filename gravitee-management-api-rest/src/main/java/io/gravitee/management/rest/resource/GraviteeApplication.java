@@ -19,6 +19,7 @@ import com.fasterxml.jackson.databind.JavaType;
 import io.gravitee.common.util.EnvironmentUtils;
 import io.gravitee.common.util.Version;
 import io.gravitee.management.rest.bind.AuthenticationBinder;
+import io.gravitee.management.rest.filter.ETagFilter;
 import io.gravitee.management.rest.filter.PermissionsFilter;
 import io.gravitee.management.rest.filter.SecurityContextFilter;
 import io.gravitee.management.rest.mapper.ObjectMapperResolver;
@@ -124,6 +125,7 @@ public class GraviteeApplication extends ResourceConfig {
         register(SecurityContextFilter.class);
         register(PermissionsFilter.class);
         register(UriBuilderRequestFilter.class);
+        register(ETagFilter.class);
         register(ByteArrayOutputStreamWriter.class);
         register(JacksonFeature.class);
 
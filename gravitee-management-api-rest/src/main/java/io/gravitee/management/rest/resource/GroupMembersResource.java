@@ -20,6 +20,7 @@ import io.gravitee.management.model.GroupMemberEntity;
 import io.gravitee.management.model.MemberEntity;
 import io.gravitee.management.model.MemberRoleEntity;
 import io.gravitee.management.model.RoleEntity;
+import io.gravitee.management.model.UserEntity;
 import io.gravitee.management.model.permissions.RolePermission;
 import io.gravitee.management.model.permissions.RolePermissionAction;
 import io.gravitee.management.rest.model.GroupMembership;
@@ -139,7 +140,19 @@ public class GroupMembersResource extends AbstractResource {
         // Check that group exists
         groupService.findById(group);
 
+        // Users coming from external systems are all looked up at once
+        Map<String, UserEntity> externalUsers = membershipService.findOrCreateUsers(memberships
+                .stream()
+                .filter(membership -> membership.getId() == null && membership.getReference() != null)
+                .map(GroupMembership::getReference)
+                .collect(Collectors.toSet()));
+
         for (GroupMembership membership : memberships) {
+            UserEntity externalUser = membership.getId() == null ? externalUsers.get(membership.getReference()) : null;
+            MembershipService.MembershipUser membershipUser = externalUser != null
+                    ? new MembershipService.MembershipUser(externalUser.getId(), null)
+                    : new MembershipService.MembershipUser(membership.getId(), membership.getReference());
+
             RoleEntity previousApiRole = null, previousApplicationRole = null, previousGroupRole = null;
 
             if (membership.getId() != null) {
@@ -191,19 +204,19 @@ public class GroupMembersResource extends AbstractResource {
                 if (apiRole != null) {
                     updatedMembership = membershipService.addOrUpdateMember(
                             new MembershipService.MembershipReference(MembershipReferenceType.GROUP, group),
-                            new MembershipService.MembershipUser(membership.getId(), membership.getReference()),
+                            membershipUser,
                             new MembershipService.MembershipRole(RoleScope.API, apiRole.getRoleName()));
                 }
                 if (applicationRole != null) {
                     updatedMembership = membershipService.addOrUpdateMember(
                             new MembershipService.MembershipReference(MembershipReferenceType.GROUP, group),
-                            new MembershipService.MembershipUser(membership.getId(), membership.getReference()),
+                            membershipUser,
                             new MembershipService.MembershipRole(RoleScope.APPLICATION, applicationRole.getRoleName()));
                 }
                 if (groupRole != null) {
                     updatedMembership = membershipService.addOrUpdateMember(
                             new MembershipService.MembershipReference(MembershipReferenceType.GROUP, group),
-                            new MembershipService.MembershipUser(membership.getId(), membership.getReference()),
+                            membershipUser,
                             new MembershipService.MembershipRole(RoleScope.GROUP, groupRole.getRoleName()));
                 }
 
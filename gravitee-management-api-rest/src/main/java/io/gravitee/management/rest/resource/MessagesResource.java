@@ -16,6 +16,7 @@
 package io.gravitee.management.rest.resource;
 
 import io.gravitee.common.http.MediaType;
+import io.gravitee.management.model.MessageBroadcastEntity;
 import io.gravitee.management.model.MessageEntity;
 import io.gravitee.management.model.permissions.RolePermission;
 import io.gravitee.management.model.permissions.RolePermissionAction;
@@ -25,11 +26,9 @@ import io.gravitee.management.service.MessageService;
 import io.swagger.annotations.Api;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import javax.ws.rs.Consumes;
-import javax.ws.rs.POST;
-import javax.ws.rs.Path;
-import javax.ws.rs.Produces;
+import javax.ws.rs.*;
 import javax.ws.rs.core.Response;
+import java.net.URI;
 
 /**
  * @author Nicolas GERAUD (nicolas.geraud at graviteesource.com)
@@ -51,4 +50,29 @@ public class MessagesResource extends AbstractResource {
     public Response create(final MessageEntity message) {
         return Response.ok(messageService.create(message)).build();
     }
+
+    @POST
+    @Path("_async")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Permissions({
+            @Permission(value = RolePermission.MANAGEMENT_MESSAGE, acls = RolePermissionAction.CREATE)
+    })
+    public Response createAsync(final MessageEntity message) {
+        final MessageBroadcastEntity broadcast = messageService.createAsync(message);
+        return Response
+                .accepted(broadcast)
+                .location(URI.create("/messages/_async/" + broadcast.getId()))
+                .build();
+    }
+
+    @GET
+    @Path("_async/{broadcast}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Permissions({
+            @Permission(value = RolePermission.MANAGEMENT_MESSAGE, acls = RolePermissionAction.CREATE)
+    })
+    public MessageBroadcastEntity getAsync(@PathParam("broadcast") String broadcast) {
+        return messageService.findBroadcastById(broadcast);
+    }
 }
@@ -47,4 +47,19 @@ public class PlatformResource {
     public PlatformTicketsResource getPlatformTicketsResource() {
         return resourceContext.getResource(PlatformTicketsResource.class);
     }
+
+    @Path("notifiers")
+    public PlatformNotifiersResource getPlatformNotifiersResource() {
+        return resourceContext.getResource(PlatformNotifiersResource.class);
+    }
+
+    @Path("executors")
+    public PlatformExecutorsResource getPlatformExecutorsResource() {
+        return resourceContext.getResource(PlatformExecutorsResource.class);
+    }
+
+    @Path("identities")
+    public PlatformIdentitiesResource getPlatformIdentitiesResource() {
+        return resourceContext.getResource(PlatformIdentitiesResource.class);
+    }
 }
@@ -22,6 +22,7 @@ import io.gravitee.management.model.PageListItem;
 import io.gravitee.management.model.UpdatePageEntity;
 import io.gravitee.management.model.permissions.RolePermission;
 import io.gravitee.management.model.permissions.RolePermissionAction;
+import io.gravitee.management.rest.cache.ETag;
 import io.gravitee.management.rest.security.Permission;
 import io.gravitee.management.rest.security.Permissions;
 import io.gravitee.management.service.GroupService;
@@ -55,6 +56,7 @@ public class PortalPagesResource extends AbstractResource {
     @GET
     @Path("/{page}")
     @Produces(MediaType.APPLICATION_JSON)
+    @ETag
     @ApiOperation(value = "Get a page",
             notes = "Every users can use this service")
     @ApiResponses({
@@ -89,6 +91,7 @@ public class PortalPagesResource extends AbstractResource {
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
+    @ETag
     @ApiOperation(value = "List pages",
             notes = "Every users can use this service")
     @ApiResponses({
@@ -205,9 +208,7 @@ public class PortalPagesResource extends AbstractResource {
     public Response fetchAllPages() {
         List<PageListItem> pages = pageService.findPortalPagesByHomepage(false, false);
         String contributor = getAuthenticatedUser();
-        pages.stream()
-            .filter(pageListItem -> pageListItem.getSource() != null)
-            .forEach(pageListItem -> pageService.fetch(pageListItem.getId(), contributor));
+        pageService.fetchAll(pages, contributor);
 
         return Response.noContent().build();
     }
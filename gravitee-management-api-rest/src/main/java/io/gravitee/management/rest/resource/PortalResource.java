@@ -18,6 +18,7 @@ package io.gravitee.management.rest.resource;
 import io.gravitee.common.http.MediaType;
 import io.gravitee.management.model.PortalConfigEntity;
 import io.gravitee.management.model.permissions.RolePermission;
+import io.gravitee.management.rest.cache.ETag;
 import io.gravitee.management.rest.resource.portal.PortalApisResource;
 import io.gravitee.management.rest.security.Permission;
 import io.gravitee.management.rest.security.Permissions;
@@ -53,6 +54,7 @@ public class PortalResource {
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
+    @ETag
     public PortalConfigEntity getConfig() {
         return configService.getPortalConfig();
     }
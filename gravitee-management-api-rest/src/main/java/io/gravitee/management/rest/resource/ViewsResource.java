@@ -20,6 +20,7 @@ import io.gravitee.management.model.*;
 import io.gravitee.management.model.api.ApiEntity;
 import io.gravitee.management.model.permissions.RolePermission;
 import io.gravitee.management.model.permissions.RolePermissionAction;
+import io.gravitee.management.rest.cache.ETag;
 import io.gravitee.management.rest.enhancer.ViewEnhancer;
 import io.gravitee.management.rest.security.Permission;
 import io.gravitee.management.rest.security.Permissions;
@@ -61,6 +62,7 @@ public class ViewsResource extends AbstractResource  {
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
+    @ETag
     public List<ViewEntity> list(@QueryParam("all") boolean all)  {
         Set<ApiEntity> apis;
         if (isAdmin()) {
@@ -83,6 +85,7 @@ public class ViewsResource extends AbstractResource  {
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
+    @ETag
     @Path("/default")
     public ViewEntity getDefault() {
         List<ViewEntity> views = this.list(false);
@@ -26,6 +26,7 @@ import io.gravitee.management.model.*;
 import io.gravitee.management.rest.resource.auth.oauth2.AuthorizationServerConfigurationParser;
 import io.gravitee.management.rest.resource.auth.oauth2.ExpressionMapping;
 import io.gravitee.management.rest.resource.auth.oauth2.ServerConfiguration;
+import io.gravitee.management.rest.resource.auth.oauth2.TokenInfoCache;
 import io.gravitee.management.rest.resource.auth.oauth2.UserMapping;
 import io.gravitee.management.security.authentication.AuthenticationProvider;
 import io.gravitee.management.service.GroupService;
@@ -37,6 +38,7 @@ import io.gravitee.repository.management.model.MembershipDefaultReferenceId;
 import io.gravitee.repository.management.model.MembershipReferenceType;
 import io.gravitee.repository.management.model.RoleScope;
 import io.swagger.annotations.Api;
+import org.glassfish.jersey.client.ClientProperties;
 import org.glassfish.jersey.internal.util.collection.MultivaluedStringMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -99,6 +101,8 @@ public class OAuth2AuthenticationResource extends AbstractAuthenticationResource
 
     private ServerConfiguration serverConfiguration;
 
+    private TokenInfoCache tokenInfoCache;
+
     public OAuth2AuthenticationResource() {
         this.client = ClientBuilder.newClient();
     }
@@ -106,6 +110,13 @@ public class OAuth2AuthenticationResource extends AbstractAuthenticationResource
     @PostConstruct
     public void init() {
         serverConfiguration = authorizationServerConfigurationParser.parseConfiguration(authenticationProvider.configuration());
+
+        // Connections to the provider are kept alive and reused by the default connector as long as the responses
+        // are fully read or closed
+        client.property(ClientProperties.CONNECT_TIMEOUT, serverConfiguration.getConnectTimeout());
+        client.property(ClientProperties.READ_TIMEOUT, serverConfiguration.getReadTimeout());
+
+        tokenInfoCache = new TokenInfoCache(serverConfiguration.getCacheTtl(), serverConfiguration.getCacheSize());
     }
 
     @POST
@@ -113,6 +124,12 @@ public class OAuth2AuthenticationResource extends AbstractAuthenticationResource
     @Produces(MediaType.APPLICATION_JSON)
     public Response tokenExchange(@QueryParam(value = "token") String token,
                                   @Context final HttpServletResponse servletResponse) throws IOException {
+        // Step0. A token which has already been exchanged is not checked again until it expires
+        final String cachedUserInfo = tokenInfoCache.get(token);
+        if (cachedUserInfo != null) {
+            return processUser(cachedUserInfo, servletResponse);
+        }
+
         // Step1. Check the token by invoking the introspection endpoint
         final MultivaluedStringMap introspectData = new MultivaluedStringMap();
         introspectData.add(TOKEN, token);
@@ -131,7 +148,7 @@ public class OAuth2AuthenticationResource extends AbstractAuthenticationResource
             boolean active = introspectPayload.path("active").asBoolean(true);
 
             if (active) {
-                return authenticateUser(token, servletResponse);
+                return authenticateUser(token, introspectPayload.path("exp").asLong(0), servletResponse);
             } else {
                 return Response
                         .status(Response.Status.UNAUTHORIZED)
@@ -140,9 +157,10 @@ public class OAuth2AuthenticationResource extends AbstractAuthenticationResource
             }
         }
 
+        final String error = getResponseEntityAsString(response);
         return Response
                 .status(response.getStatusInfo())
-                .entity(response.getEntity())
+                .entity(error)
                 .build();
     }
 
@@ -163,15 +181,17 @@ public class OAuth2AuthenticationResource extends AbstractAuthenticationResource
         accessData.clear();
 
         final String accessToken = (String) getResponseEntity(response).get(serverConfiguration.getAccessTokenProperty());
-        return authenticateUser(accessToken, servletResponse);
+        return authenticateUser(accessToken, -1, servletResponse);
     }
 
     /**
      * Retrieve profile information about the authenticated oauth end-user and authenticate it in Gravitee.
      *
+     * @param expiresAt expiration (in seconds since the epoch) of an introspected token, 0 if unknown, or a negative
+     *                  value if the user info must not be cached
      * @return
      */
-    private Response authenticateUser(String accessToken, final HttpServletResponse servletResponse) throws IOException {
+    private Response authenticateUser(String accessToken, long expiresAt, final HttpServletResponse servletResponse) throws IOException {
         // Step 2. Retrieve profile information about the authenticated end-user.
         Response response = client
                 .target(serverConfiguration.getUserInfoEndpoint())
@@ -185,7 +205,11 @@ public class OAuth2AuthenticationResource extends AbstractAuthenticationResource
         // Step 3. Process the authenticated user.
         final String userInfo = getResponseEntityAsString(response);
         if (response.getStatus() == Response.Status.OK.getStatusCode()) {
-            return processUser(userInfo, servletResponse);
+            final Response processed = processUser(userInfo, servletResponse);
+            if (expiresAt >= 0) {
+                tokenInfoCache.put(accessToken, userInfo, expiresAt);
+            }
+            return processed;
         }
 
         return Response.status(response.getStatusInfo()).build();
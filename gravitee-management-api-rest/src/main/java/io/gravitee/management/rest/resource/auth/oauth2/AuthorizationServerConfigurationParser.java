@@ -50,11 +50,28 @@ public class AuthorizationServerConfigurationParser {
         serverConfiguration.setUserInfoEndpoint((String)EnvironmentUtils.get("userInfoEndpoint", configuration));
         serverConfiguration.setAuthorizationHeader((String)EnvironmentUtils.get("authorizationHeader", configuration));
         serverConfiguration.setTokenIntrospectionEndpoint((String)EnvironmentUtils.get("tokenIntrospectionEndpoint", configuration));
+        serverConfiguration.setConnectTimeout((int) getLong(configuration, "http.connectTimeout", serverConfiguration.getConnectTimeout()));
+        serverConfiguration.setReadTimeout((int) getLong(configuration, "http.readTimeout", serverConfiguration.getReadTimeout()));
+        serverConfiguration.setCacheTtl(getLong(configuration, "cache.ttl", serverConfiguration.getCacheTtl()));
+        serverConfiguration.setCacheSize((int) getLong(configuration, "cache.size", serverConfiguration.getCacheSize()));
 
         return serverConfiguration;
     }
 
 
+    private long getLong(Map<String, Object> configuration, String key, long defaultValue) {
+        Object value = EnvironmentUtils.get(key, configuration);
+        if (value == null || StringUtils.isEmpty(value.toString().trim())) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException nfe) {
+            LOGGER.warn("Invalid value {} for {}, using {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
     private UserMapping parseUserMapping(Map<String, Object> configuration) {
         UserMapping userMapping = new UserMapping();
         userMapping.setEmail((String)EnvironmentUtils.get("mapping.email", configuration));
@@ -34,6 +34,10 @@ public class ServerConfiguration {
     private UserMapping userMapping = new UserMapping();
     private List<ExpressionMapping> groupsMapping = Collections.emptyList();
     private List<ExpressionMapping> rolesMapping = Collections.emptyList();
+    private int connectTimeout = 5000;
+    private int readTimeout = 10000;
+    private long cacheTtl = 300000;
+    private int cacheSize = 1000;
 
     public String getClientId() {
         return clientId;
@@ -114,4 +118,36 @@ public class ServerConfiguration {
     public void setRolesMapping(List<ExpressionMapping> rolesMapping) {
         this.rolesMapping = rolesMapping;
     }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public long getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(long cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
 }
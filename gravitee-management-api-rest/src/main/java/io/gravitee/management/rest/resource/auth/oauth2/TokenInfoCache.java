@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.rest.resource.auth.oauth2;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the user info of the provider tokens which have been successfully introspected, until the token expires or
+ * the configured time to live is reached, so that exchanging a same token again does not call the provider.
+ *
+ * Tokens are only kept as digests.
+ *
+ * @author GraviteeSource Team
+ */
+public class TokenInfoCache {
+
+    private final long ttl;
+
+    private final Cache<String, CachedUserInfo> entries;
+
+    public TokenInfoCache(long ttl, int size) {
+        this.ttl = ttl;
+        this.entries = CacheBuilder.newBuilder()
+                .maximumSize(size)
+                .expireAfterWrite(Math.max(ttl, 0), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    public String get(String token) {
+        if (!isEnabled() || token == null) {
+            return null;
+        }
+
+        final String key = digest(token);
+        // the token may expire before the time to live
+        final CachedUserInfo cached = entries.getIfPresent(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expireAt <= System.currentTimeMillis()) {
+            entries.invalidate(key);
+            return null;
+        }
+        return cached.userInfo;
+    }
+
+    /**
+     * @param expiresAt expiration of the token in seconds since the epoch (<code>exp</code> claim), or 0 if unknown
+     */
+    public void put(String token, String userInfo, long expiresAt) {
+        if (!isEnabled() || token == null) {
+            return;
+        }
+
+        long expireAt = System.currentTimeMillis() + ttl;
+        if (expiresAt > 0) {
+            expireAt = Math.min(expireAt, expiresAt * 1000);
+        }
+
+        if (expireAt > System.currentTimeMillis()) {
+            entries.put(digest(token), new CachedUserInfo(userInfo, expireAt));
+        }
+    }
+
+    private boolean isEnabled() {
+        return ttl > 0;
+    }
+
+    private static String digest(String token) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new IllegalStateException(nsae);
+        }
+    }
+
+    private static class CachedUserInfo {
+        private final String userInfo;
+        private final long expireAt;
+
+        CachedUserInfo(String userInfo, long expireAt) {
+            this.userInfo = userInfo;
+            this.expireAt = expireAt;
+        }
+    }
+}
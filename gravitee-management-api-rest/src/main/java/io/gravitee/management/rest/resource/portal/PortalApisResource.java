@@ -112,8 +112,9 @@ public class PortalApisResource extends AbstractResource {
         final UriBuilder uriBuilder = ub.path("apis").path(api.getId()).path("picture");
         if (api.getPicture() != null) {
             // force browser to get if updated
-            uriBuilder.queryParam("hash", api.getPicture().hashCode());
+            uriBuilder.queryParam("hash", api.getUpdatedAt().getTime());
         }
+        uriBuilder.queryParam("thumbnail", true);
         apiItem.setPictureUrl(uriBuilder.build().toString());
         apiItem.setViews(api.getViews());
         apiItem.setCreatedAt(api.getCreatedAt());
@@ -16,6 +16,7 @@
 package io.gravitee.management.rest.spring;
 
 import freemarker.cache.FileTemplateLoader;
+import freemarker.cache.MruCacheStorage;
 import io.gravitee.common.util.EnvironmentUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -63,6 +64,12 @@ public class EmailConfiguration {
     @Value("${templates.path:${gravitee.home}/templates}")
     private String templatesPath;
 
+    @Value("${templates.cache.size:100}")
+    private int templatesCacheSize;
+
+    @Value("${templates.cache.updateDelay:60000}")
+    private long templatesUpdateDelay;
+
     @Autowired
     private ConfigurableEnvironment environment;
 
@@ -100,6 +107,9 @@ public class EmailConfiguration {
         } catch (final IOException e) {
             LOGGER.warn("Error occurred while trying to read email templates directory", e);
         }
+        // Keep the compiled templates strongly referenced instead of letting the GC drop them
+        configuration.setCacheStorage(new MruCacheStorage(templatesCacheSize, templatesCacheSize * 2));
+        configuration.setTemplateUpdateDelayMilliseconds(templatesUpdateDelay);
         return configuration;
     }
 
@@ -22,7 +22,6 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
-import org.springframework.scheduling.annotation.EnableAsync;
 
 import java.io.IOException;
 import java.util.Properties;
@@ -31,7 +30,6 @@ import java.util.Properties;
  * @author David BRASSELY (brasseld at gmail.com)
  */
 @Configuration
-@EnableAsync
 public class PropertiesConfiguration {
 
     protected final static Logger LOGGER = LoggerFactory.getLogger(PropertiesConfiguration.class);
@@ -0,0 +1,221 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.rest.filter;
+
+import io.gravitee.management.rest.cache.ETag;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.*;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class ETagFilterTest {
+
+    @InjectMocks
+    private ETagFilter eTagFilter;
+
+    @Mock
+    private ResourceInfo resourceInfo;
+
+    @Mock
+    private Providers providers;
+
+    @Mock
+    private MessageBodyWriter<Object> writer;
+
+    @Mock
+    private ContainerRequestContext requestContext;
+
+    @Mock
+    private ContainerResponseContext responseContext;
+
+    @Mock
+    private Request request;
+
+    @Mock
+    private SecurityContext securityContext;
+
+    private final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+
+    @Before
+    public void setUp() throws Exception {
+        initMocks(this);
+
+        Principal user = () -> "user";
+        when(securityContext.getUserPrincipal()).thenReturn(user);
+        when(requestContext.getMethod()).thenReturn(HttpMethod.GET);
+        when(requestContext.getRequest()).thenReturn(request);
+        when(requestContext.getSecurityContext()).thenReturn(securityContext);
+
+        when(responseContext.getStatus()).thenReturn(Response.Status.OK.getStatusCode());
+        when(responseContext.hasEntity()).thenReturn(true);
+        when(responseContext.getHeaders()).thenReturn(headers);
+        when(responseContext.getEntityAnnotations()).thenReturn(new Annotation[0]);
+        when(responseContext.getMediaType()).thenReturn(MediaType.APPLICATION_JSON_TYPE);
+
+        doReturn(Resource.class).when(resourceInfo).getResourceClass();
+        doReturn(writer).when(providers).getMessageBodyWriter(any(Class.class), any(Type.class), any(Annotation[].class), any(MediaType.class));
+        doAnswer(invocation -> {
+            ((OutputStream) invocation.getArguments()[6]).write("content".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(writer).writeTo(anyObject(), any(Class.class), any(Type.class), any(Annotation[].class), any(MediaType.class), any(MultivaluedMap.class), any(OutputStream.class));
+    }
+
+    @Test
+    public void shouldTagVersionedEntitiesWithoutSerializingThem() throws Exception {
+        resourceMethod("versioned");
+        entity(Arrays.asList(new VersionedEntity("plan1", 1), new VersionedEntity("plan2", 2)));
+
+        eTagFilter.filter(requestContext, responseContext);
+
+        assertNotNull(headers.getFirst(HttpHeaders.ETAG));
+        verify(providers, never()).getMessageBodyWriter(any(Class.class), any(Type.class), any(Annotation[].class), any(MediaType.class));
+        verify(responseContext, never()).setEntity(any());
+        verify(responseContext, never()).setStatus(anyInt());
+    }
+
+    @Test
+    public void shouldChangeVersionedTagWithEntities() throws Exception {
+        resourceMethod("versioned");
+
+        entity(Arrays.asList(new VersionedEntity("plan1", 1), new VersionedEntity("plan2", 2)));
+        eTagFilter.filter(requestContext, responseContext);
+        Object tag = headers.getFirst(HttpHeaders.ETAG);
+
+        headers.clear();
+        entity(Arrays.asList(new VersionedEntity("plan1", 1), new VersionedEntity("plan2", 3)));
+        eTagFilter.filter(requestContext, responseContext);
+
+        assertNotEquals(tag, headers.getFirst(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void shouldAnswerNotModifiedBeforeSerializingVersionedEntities() throws Exception {
+        resourceMethod("versioned");
+        entity(Arrays.asList(new VersionedEntity("plan1", 1), new VersionedEntity("plan2", 2)));
+        when(request.evaluatePreconditions(any(EntityTag.class))).thenReturn(mock(Response.ResponseBuilder.class));
+
+        eTagFilter.filter(requestContext, responseContext);
+
+        verify(responseContext).setStatus(Response.Status.NOT_MODIFIED.getStatusCode());
+        verify(responseContext).setEntity(null);
+        verify(writer, never()).writeTo(anyObject(), any(Class.class), any(Type.class), any(Annotation[].class), any(MediaType.class), any(MultivaluedMap.class), any(OutputStream.class));
+    }
+
+    @Test
+    public void shouldHashContentOfUnversionedEntities() throws Exception {
+        resourceMethod("unversioned");
+        entity(Arrays.asList(new VersionedEntity("plan1", 1), new VersionedEntity("plan2", 2)));
+
+        eTagFilter.filter(requestContext, responseContext);
+
+        assertNotNull(headers.getFirst(HttpHeaders.ETAG));
+        verify(writer, times(1)).writeTo(anyObject(), any(Class.class), any(Type.class), any(Annotation[].class), any(MediaType.class), any(MultivaluedMap.class), any(OutputStream.class));
+        // the serialized content is written as is
+        verify(responseContext).setEntity(eq("content".getBytes(StandardCharsets.UTF_8)), any(Annotation[].class), eq(MediaType.APPLICATION_JSON_TYPE));
+        verify(responseContext, never()).setStatus(anyInt());
+    }
+
+    @Test
+    public void shouldAnswerNotModifiedWhenContentTagMatches() throws Exception {
+        resourceMethod("unversioned");
+        entity("entity");
+        when(request.evaluatePreconditions(any(EntityTag.class))).thenReturn(mock(Response.ResponseBuilder.class));
+
+        eTagFilter.filter(requestContext, responseContext);
+
+        verify(responseContext).setStatus(Response.Status.NOT_MODIFIED.getStatusCode());
+        verify(responseContext).setEntity(null);
+    }
+
+    @Test
+    public void shouldNotTagUpdates() throws Exception {
+        resourceMethod("unversioned");
+        entity("entity");
+        when(requestContext.getMethod()).thenReturn(HttpMethod.PUT);
+
+        eTagFilter.filter(requestContext, responseContext);
+
+        assertNull(headers.getFirst(HttpHeaders.ETAG));
+        verify(writer, never()).writeTo(anyObject(), any(Class.class), any(Type.class), any(Annotation[].class), any(MediaType.class), any(MultivaluedMap.class), any(OutputStream.class));
+    }
+
+    private void resourceMethod(String name) throws NoSuchMethodException {
+        when(resourceInfo.getResourceMethod()).thenReturn(Resource.class.getMethod(name));
+    }
+
+    private void entity(Object entity) {
+        when(responseContext.getEntity()).thenReturn(entity);
+        doReturn(entity.getClass()).when(responseContext).getEntityClass();
+        when(responseContext.getEntityType()).thenReturn(entity.getClass());
+    }
+
+    public static class Resource {
+
+        @ETag(versioned = true)
+        public List<VersionedEntity> versioned() {
+            return null;
+        }
+
+        @ETag
+        public List<VersionedEntity> unversioned() {
+            return null;
+        }
+    }
+
+    public static class VersionedEntity {
+        private final String id;
+        private final Date updatedAt;
+
+        VersionedEntity(String id, long updatedAt) {
+            this.id = id;
+            this.updatedAt = new Date(updatedAt);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Date getUpdatedAt() {
+            return updatedAt;
+        }
+    }
+}
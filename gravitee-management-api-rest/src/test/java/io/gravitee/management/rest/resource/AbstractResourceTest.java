@@ -18,14 +18,18 @@ package io.gravitee.management.rest.resource;
 import io.gravitee.management.rest.JerseySpringTest;
 import io.gravitee.management.security.authentication.AuthenticationProvider;
 import io.gravitee.management.security.authentication.AuthenticationProviderManager;
+import io.gravitee.management.security.cache.VerifiedTokenCache;
 import io.gravitee.management.security.cookies.JWTCookieGenerator;
 import io.gravitee.management.service.*;
+import io.gravitee.management.service.spring.AsyncConfiguration;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.support.AnnotationConfigContextLoader;
@@ -111,6 +115,12 @@ public abstract class AbstractResourceTest extends JerseySpringTest {
     @Autowired
     protected MessageService messageService;
 
+    @Autowired
+    protected TaskService taskService;
+
+    @Autowired
+    protected PortalNotificationService portalNotificationService;
+
     @Configuration
     @PropertySource("classpath:/io/gravitee/management/rest/resource/jwt.properties")
     static class ContextConfiguration {
@@ -195,6 +205,11 @@ public abstract class AbstractResourceTest extends JerseySpringTest {
     	    return mock(JWTCookieGenerator.class);
         }
 
+        @Bean
+        public VerifiedTokenCache verifiedTokenCache() {
+            return mock(VerifiedTokenCache.class);
+        }
+
         @Bean
         public TaskService taskService() {
             return mock(TaskService.class);
@@ -209,5 +224,15 @@ public abstract class AbstractResourceTest extends JerseySpringTest {
         public MessageService messageService() {
             return mock(MessageService.class);
         }
+
+        @Bean
+        public PortalNotificationService portalNotificationService() {
+            return mock(PortalNotificationService.class);
+        }
+
+        @Bean(name = AsyncConfiguration.BOOTSTRAP_EXECUTOR)
+        public TaskExecutor bootstrapAsyncExecutor() {
+            return new SimpleAsyncTaskExecutor();
+        }
     }
 }
@@ -20,8 +20,11 @@ import io.gravitee.management.model.PageEntity;
 import io.gravitee.management.model.Visibility;
 import org.junit.Test;
 
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
+import static io.gravitee.common.http.HttpStatusCode.NOT_MODIFIED_304;
 import static io.gravitee.common.http.HttpStatusCode.OK_200;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -112,4 +115,30 @@ public class ApiPagesResourceAdminTest extends AbstractResourceTest {
         verify(pageService, times(1)).findById(PAGE_NAME, false);
         verify(pageService, never()).isDisplayable(apiMock, pageMock.isPublished(), USER_NAME);
     }
+
+    @Test
+    public void shouldNotSendUnmodifiedPage() {
+        reset(apiService, pageService, membershipService);
+        final ApiEntity apiMock = mock(ApiEntity.class);
+        when(apiMock.getVisibility()).thenReturn(Visibility.PUBLIC);
+        doReturn(apiMock).when(apiService).findById(API_NAME);
+        final PageEntity pageMock = new PageEntity();
+        pageMock.setPublished(true);
+        pageMock.setName(PAGE_NAME);
+        doReturn(pageMock).when(pageService).findById(PAGE_NAME, false);
+
+        final Response response = target().request().get();
+        assertEquals(OK_200, response.getStatus());
+        final EntityTag etag = response.getEntityTag();
+        assertNotNull(etag);
+
+        final Response unmodified = target().request().header(HttpHeaders.IF_NONE_MATCH, etag.toString()).get();
+        assertEquals(NOT_MODIFIED_304, unmodified.getStatus());
+        assertEquals(etag, unmodified.getEntityTag());
+
+        pageMock.setName("other");
+        final Response modified = target().request().header(HttpHeaders.IF_NONE_MATCH, etag.toString()).get();
+        assertEquals(OK_200, modified.getStatus());
+        assertEquals("other", modified.readEntity(PageEntity.class).getName());
+    }
 }
@@ -18,7 +18,9 @@ package io.gravitee.management.rest.resource;
 import io.gravitee.common.http.HttpStatusCode;
 import io.gravitee.management.idp.api.authentication.UserDetails;
 import io.gravitee.management.model.UserEntity;
+import io.gravitee.management.service.exceptions.UserNotFoundException;
 import java.util.Collections;
+import java.util.Map;
 import javax.ws.rs.core.Response;
 import org.junit.Test;
 import org.springframework.security.core.Authentication;
@@ -85,6 +87,78 @@ public class CurrentUserResourceTest extends AbstractResourceTest {
         assertThat(response.getStatus()).isEqualTo(HttpStatusCode.OK_200);
     }
 
+    @Test
+    public void shouldGetCurrentUserBootstrap() {
+        Mockito.reset(userService, taskService, portalNotificationService);
+
+        final UserDetails userDetails = new UserDetails(USER_NAME, "PASSWORD", Collections.emptyList());
+        setCurrentUserDetails(userDetails);
+        when(taskService.count(USER_NAME)).thenReturn(2);
+        when(portalNotificationService.count(USER_NAME)).thenReturn(1);
+
+        final Response response = target("/bootstrap").request().get();
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatusCode.OK_200);
+        final Map bootstrap = response.readEntity(Map.class);
+        assertThat(((Map) bootstrap.get("user")).get("id")).isEqualTo(ID);
+        assertThat(bootstrap.get("task_count")).isEqualTo(2);
+        assertThat(bootstrap.get("notification_count")).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldLeaveOutTheCountsNotComputedInTime() {
+        Mockito.reset(userService, taskService, portalNotificationService);
+
+        final UserDetails userDetails = new UserDetails(USER_NAME, "PASSWORD", Collections.emptyList());
+        setCurrentUserDetails(userDetails);
+        when(taskService.count(USER_NAME)).thenAnswer(invocation -> {
+            Thread.sleep(1000);
+            return 2;
+        });
+        when(portalNotificationService.count(USER_NAME)).thenReturn(1);
+
+        System.setProperty("user.bootstrap.timeout", "100");
+        try {
+            final Response response = target("/bootstrap").request().get();
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatusCode.OK_200);
+            final Map bootstrap = response.readEntity(Map.class);
+            assertThat(((Map) bootstrap.get("user")).get("id")).isEqualTo(ID);
+            assertThat(bootstrap).doesNotContainKey("task_count");
+            assertThat(bootstrap.get("notification_count")).isEqualTo(1);
+        } finally {
+            System.clearProperty("user.bootstrap.timeout");
+        }
+    }
+
+    @Test
+    public void shouldNotGetBootstrapOfUnknownUser() {
+        Mockito.reset(userService, taskService, portalNotificationService);
+
+        final UserDetails userDetails = new UserDetails(USER_NAME, "PASSWORD", Collections.emptyList());
+        setCurrentUserDetails(userDetails);
+        when(userService.findByIdWithRoles(USER_NAME)).thenThrow(new UserNotFoundException(USER_NAME));
+
+        final Response response = target("/bootstrap").request().get();
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatusCode.UNAUTHORIZED_401);
+    }
+
+    @Test
+    public void shouldGetCurrentUserTasksCount() {
+        Mockito.reset(taskService);
+
+        final UserDetails userDetails = new UserDetails(USER_NAME, "PASSWORD", Collections.emptyList());
+        setCurrentUserDetails(userDetails);
+        when(taskService.count(USER_NAME)).thenReturn(3);
+
+        final Response response = target("/tasks/count").request().get();
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatusCode.OK_200);
+        assertThat(response.readEntity(Map.class).get("count")).isEqualTo(3);
+        Mockito.verify(taskService, Mockito.never()).findAll(USER_NAME);
+    }
+
     private void setCurrentUserDetails(final UserDetails userDetails) {
         final Authentication authentication = mock(Authentication.class);
         final UserEntity userEntity = new UserEntity();
@@ -28,6 +28,9 @@ import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.Response;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.*;
@@ -95,6 +98,43 @@ public class GroupMemberResourceTest extends AbstractResourceTest {
                 new MembershipService.MembershipRole(RoleScope.APPLICATION, "CUSTOM_APP"));
     }
 
+    @Test
+    public void shouldAddExternalMembersWithSingleLookup() {
+        initADDmock();
+        MemberRoleEntity apiRole = new MemberRoleEntity();
+        apiRole.setRoleScope(io.gravitee.management.model.permissions.RoleScope.API);
+        apiRole.setRoleName("CUSTOM_API");
+
+        GroupMembership firstMembership = new GroupMembership();
+        firstMembership.setReference("ref-1");
+        firstMembership.setRoles(Collections.singletonList(apiRole));
+        GroupMembership secondMembership = new GroupMembership();
+        secondMembership.setReference("ref-2");
+        secondMembership.setRoles(Collections.singletonList(apiRole));
+
+        UserEntity firstUser = new UserEntity();
+        firstUser.setId("user-1");
+        UserEntity secondUser = new UserEntity();
+        secondUser.setId("user-2");
+        Map<String, UserEntity> users = new HashMap<>();
+        users.put("ref-1", firstUser);
+        users.put("ref-2", secondUser);
+        when(membershipService.findOrCreateUsers(new HashSet<>(Arrays.asList("ref-1", "ref-2")))).thenReturn(users);
+
+        final Response response = target().request().post(Entity.json(Arrays.asList(firstMembership, secondMembership)));
+
+        assertEquals(HttpStatusCode.OK_200, response.getStatus());
+        verify(membershipService, times(1)).findOrCreateUsers(any());
+        verify(membershipService, times(1)).addOrUpdateMember(
+                new MembershipService.MembershipReference(MembershipReferenceType.GROUP, GROUP_ID),
+                new MembershipService.MembershipUser("user-1", null),
+                new MembershipService.MembershipRole(RoleScope.API, "CUSTOM_API"));
+        verify(membershipService, times(1)).addOrUpdateMember(
+                new MembershipService.MembershipReference(MembershipReferenceType.GROUP, GROUP_ID),
+                new MembershipService.MembershipUser("user-2", null),
+                new MembershipService.MembershipRole(RoleScope.API, "CUSTOM_API"));
+    }
+
     //UPDATE
     private void initUPDATEmock() {
         reset(roleService, groupService, membershipService);
@@ -88,6 +88,7 @@ public class OAuth2AuthenticationResourceTest extends AbstractResourceTest {
         getConfiguration().remove(EnvironmentUtils.encodedKey("tokenEndpoint"));
         getConfiguration().remove(EnvironmentUtils.encodedKey("accessTokenProperty"));
         getConfiguration().remove(EnvironmentUtils.encodedKey("userInfoEndpoint"));
+        getConfiguration().remove(EnvironmentUtils.encodedKey("tokenIntrospectionEndpoint"));
         getConfiguration().remove(EnvironmentUtils.encodedKey("authorizationHeader"));
         getConfiguration().remove(EnvironmentUtils.encodedKey("mapping.email"));
         getConfiguration().remove(EnvironmentUtils.encodedKey("mapping.id"));
@@ -165,6 +166,54 @@ public class OAuth2AuthenticationResourceTest extends AbstractResourceTest {
         verifyJwtToken(response);
     }
 
+    @Test
+    public void shouldExchangeTokenOnlyOnceUntilExpiration() throws Exception {
+        mockDefaultEnvironment();
+
+        //mock oauth2 introspection of a token valid for one hour
+        stubFor(
+                post("/introspect")
+                        .withRequestBody(equalTo("token=2YotnFZFEjr1zCsicMWpAA"))
+                        .willReturn(okJson("{\"active\": true, \"exp\": " + (System.currentTimeMillis() / 1000 + 3600) + "}")));
+
+        mockUserInfo(okJson(IOUtils.toString(read("/oauth2/json/user_info_response_body.json"), Charset.defaultCharset())));
+
+        UserEntity userEntity = mockUserEntity();
+        when(userService.findByUsername("janedoe@example.com",false)).thenReturn(userEntity);
+        when(userService.update(any(UpdateUserEntity.class))).thenReturn(userEntity);
+        when(userService.connect("janedoe@example.com")).thenReturn(userEntity);
+
+        Response response = target("/exchange").queryParam("token", "2YotnFZFEjr1zCsicMWpAA").request().post(null);
+        assertEquals(HttpStatusCode.OK_200, response.getStatus());
+        verifyJwtToken(response);
+
+        response = target("/exchange").queryParam("token", "2YotnFZFEjr1zCsicMWpAA").request().post(null);
+        assertEquals(HttpStatusCode.OK_200, response.getStatus());
+        verifyJwtToken(response);
+
+        WireMock.verify(1, postRequestedFor(urlEqualTo("/introspect")));
+        WireMock.verify(1, getRequestedFor(urlEqualTo("/userinfo")));
+        verify(userService, times(2)).connect("janedoe@example.com");
+    }
+
+    @Test
+    public void shouldNotExchangeInactiveToken() throws Exception {
+        mockDefaultEnvironment();
+
+        stubFor(
+                post("/introspect")
+                        .willReturn(okJson("{\"active\": false}")));
+
+        Response response = target("/exchange").queryParam("token", "2YotnFZFEjr1zCsicMWpAA").request().post(null);
+        assertEquals(HttpStatusCode.UNAUTHORIZED_401, response.getStatus());
+
+        response = target("/exchange").queryParam("token", "2YotnFZFEjr1zCsicMWpAA").request().post(null);
+        assertEquals(HttpStatusCode.UNAUTHORIZED_401, response.getStatus());
+
+        WireMock.verify(2, postRequestedFor(urlEqualTo("/introspect")));
+        verify(userService, never()).connect(anyString());
+    }
+
     private void verifyJwtToken(Response response) throws NoSuchAlgorithmException, InvalidKeyException, IOException, SignatureException, JWTVerifyException {
         TokenEntity responseToken = response.readEntity(TokenEntity.class);
         assertEquals("BEARER", responseToken.getType().name());
@@ -398,6 +447,7 @@ public class OAuth2AuthenticationResourceTest extends AbstractResourceTest {
     private void mockDefaultEnvironment() {
         getConfiguration().put(EnvironmentUtils.encodedKey("tokenEndpoint"), "http://localhost:" + wireMockRule.port() + "/token");
         getConfiguration().put(EnvironmentUtils.encodedKey("userInfoEndpoint"), "http://localhost:" + wireMockRule.port() + "/userinfo");
+        getConfiguration().put(EnvironmentUtils.encodedKey("tokenIntrospectionEndpoint"), "http://localhost:" + wireMockRule.port() + "/introspect");
         getConfiguration().put(EnvironmentUtils.encodedKey("accessTokenProperty"), "access_token");
         getConfiguration().put(EnvironmentUtils.encodedKey("authorizationHeader"), "Bearer %s");
         getConfiguration().put(EnvironmentUtils.encodedKey("mapping.email"), "email");
@@ -17,6 +17,7 @@ package io.gravitee.management.security;
 
 import io.gravitee.management.security.authentication.AuthenticationProviderManager;
 import io.gravitee.management.security.authentication.impl.AuthenticationProviderManagerImpl;
+import io.gravitee.management.security.cache.VerifiedTokenCache;
 import io.gravitee.management.security.config.BasicSecurityConfigurerAdapter;
 import io.gravitee.management.security.cookies.JWTCookieGenerator;
 import org.springframework.context.annotation.Bean;
@@ -38,6 +39,11 @@ public class SecurityConfiguration extends GlobalAuthenticationConfigurerAdapter
         return new JWTCookieGenerator();
     }
 
+    @Bean
+    public VerifiedTokenCache verifiedTokenCache() {
+        return new VerifiedTokenCache();
+    }
+
     @Bean
     public AuthenticationProviderManager authenticationProviderManager() {
         return new AuthenticationProviderManagerImpl();
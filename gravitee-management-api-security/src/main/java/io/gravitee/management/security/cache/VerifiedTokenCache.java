@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.security.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.gravitee.management.idp.api.authentication.UserDetails;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.gravitee.management.service.common.JWTHelper.DefaultValues.DEFAULT_JWT_EXPIRE_AFTER;
+
+/**
+ * Keeps the principal of the JWT tokens whose signature has already been verified, until the token expires, so that
+ * the following requests carrying the same token do not have to verify and parse it again.
+ *
+ * Entries are keyed by a digest of the JWT secret and the raw token: nothing sensitive is kept in memory and tokens
+ * verified with a previous secret never match once the secret has been changed. Tokens revoked on logout are
+ * rejected until their expiry.
+ *
+ * @author GraviteeSource Team
+ */
+public class VerifiedTokenCache implements InitializingBean {
+
+    @Autowired
+    private Environment environment;
+
+    private boolean enabled;
+
+    private byte[] secret;
+
+    private Cache<String, CachedToken> tokens;
+
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterPropertiesSet() {
+        enabled = environment.getProperty("jwt.cache.enabled", boolean.class, true);
+        String jwtSecret = environment.getProperty("jwt.secret");
+        secret = (jwtSecret == null) ? new byte[0] : jwtSecret.getBytes(StandardCharsets.UTF_8);
+        tokens = CacheBuilder.newBuilder()
+                .maximumSize(environment.getProperty("jwt.cache.size", int.class, 10000))
+                .build();
+    }
+
+    /**
+     * @param token the raw JWT token.
+     * @return the principal of the token if it has already been verified and is not expired, <code>null</code>
+     * otherwise.
+     * @throws BadCredentialsException if the token has been revoked.
+     */
+    public UserDetails get(String token) {
+        String key = key(token);
+
+        Long revokedUntil = revokedTokens.get(key);
+        if (revokedUntil != null) {
+            if (revokedUntil > System.currentTimeMillis()) {
+                throw new BadCredentialsException("Token has been revoked");
+            }
+            revokedTokens.remove(key);
+        }
+
+        if (!enabled) {
+            return null;
+        }
+
+        CachedToken cachedToken = tokens.getIfPresent(key);
+        if (cachedToken == null) {
+            return null;
+        }
+        if (cachedToken.expireAt <= System.currentTimeMillis()) {
+            tokens.invalidate(key);
+            return null;
+        }
+        return cachedToken.userDetails;
+    }
+
+    /**
+     * @param token the raw JWT token, which must have been verified.
+     * @param userDetails the principal built from the claims of the token.
+     * @param expireAt expiration date of the token, in milliseconds.
+     */
+    public void put(String token, UserDetails userDetails, long expireAt) {
+        if (enabled && expireAt > System.currentTimeMillis()) {
+            tokens.put(key(token), new CachedToken(userDetails, expireAt));
+        }
+    }
+
+    /**
+     * Rejects the token until its expiration, or during the maximum validity of a token if it is not known.
+     */
+    public void revoke(String token) {
+        final long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(revokedUntil -> revokedUntil <= now);
+
+        String key = key(token);
+        CachedToken cachedToken = tokens.asMap().remove(key);
+        long expireAt = (cachedToken != null) ? cachedToken.expireAt :
+                now + 1000L * environment.getProperty("jwt.expire-after", Integer.class, DEFAULT_JWT_EXPIRE_AFTER);
+        revokedTokens.put(key, expireAt);
+    }
+
+    private String key(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(secret);
+            digest.update((byte) 0);
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new IllegalStateException(nsae);
+        }
+    }
+
+    private static class CachedToken {
+        private final UserDetails userDetails;
+        private final long expireAt;
+
+        CachedToken(UserDetails userDetails, long expireAt) {
+            this.userDetails = userDetails;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -19,6 +19,7 @@ import io.gravitee.management.idp.api.IdentityProvider;
 import io.gravitee.management.idp.api.authentication.AuthenticationProvider;
 import io.gravitee.management.idp.core.plugin.IdentityProviderManager;
 import io.gravitee.management.security.authentication.AuthenticationProviderManager;
+import io.gravitee.management.security.cache.VerifiedTokenCache;
 import io.gravitee.management.security.cookies.JWTCookieGenerator;
 import io.gravitee.management.security.filter.JWTAuthenticationFilter;
 import io.gravitee.management.security.listener.AuthenticationSuccessListener;
@@ -70,6 +71,8 @@ public class BasicSecurityConfigurerAdapter extends WebSecurityConfigurerAdapter
     private AuthenticationProviderManager authenticationProviderManager;
     @Autowired
     private JWTCookieGenerator jwtCookieGenerator;
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
 
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
@@ -170,7 +173,7 @@ public class BasicSecurityConfigurerAdapter extends WebSecurityConfigurerAdapter
         cors(http);
 
         http
-                .addFilterBefore(new JWTAuthenticationFilter(jwtSecret, jwtCookieGenerator), BasicAuthenticationFilter.class);
+                .addFilterBefore(new JWTAuthenticationFilter(jwtSecret, jwtCookieGenerator, verifiedTokenCache), BasicAuthenticationFilter.class);
     }
 
     private HttpSecurity authentication(HttpSecurity security) throws Exception {
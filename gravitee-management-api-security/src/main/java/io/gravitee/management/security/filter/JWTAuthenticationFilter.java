@@ -19,6 +19,7 @@ import com.auth0.jwt.JWTVerifier;
 import io.gravitee.common.http.HttpHeaders;
 import io.gravitee.common.http.HttpStatusCode;
 import io.gravitee.management.idp.api.authentication.UserDetails;
+import io.gravitee.management.security.cache.VerifiedTokenCache;
 import io.gravitee.management.security.cookies.JWTCookieGenerator;
 import io.gravitee.management.service.common.JWTHelper.Claims;
 import org.slf4j.Logger;
@@ -51,59 +52,45 @@ public class JWTAuthenticationFilter extends GenericFilterBean {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JWTAuthenticationFilter.class);
 
+    private static final String AUTH_COOKIE_NAME = "Auth-Graviteeio-APIM";
+    private static final String AUTHORIZATION_SCHEMA = "Bearer";
+
     private final JWTVerifier jwtVerifier;
     private JWTCookieGenerator jwtCookieGenerator;
+    private VerifiedTokenCache verifiedTokenCache;
 
-    public JWTAuthenticationFilter(final String jwtSecret, final JWTCookieGenerator jwtCookieGenerator) {
+    public JWTAuthenticationFilter(final String jwtSecret, final JWTCookieGenerator jwtCookieGenerator,
+                                   final VerifiedTokenCache verifiedTokenCache) {
         this.jwtVerifier = new JWTVerifier(jwtSecret);
         this.jwtCookieGenerator = jwtCookieGenerator;
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 
     @Override
-    @SuppressWarnings(value = "unchecked")
     public void doFilter(final ServletRequest request, final ServletResponse response,
                          final FilterChain chain) throws IOException, ServletException {
         HttpServletRequest req = (HttpServletRequest) request;
         HttpServletResponse res = (HttpServletResponse) response;
 
-        String stringToken = req.getHeader(HttpHeaders.AUTHORIZATION);
-
-        if (isEmpty(stringToken) && req.getCookies() != null) {
-            final String authCookieName = "Auth-Graviteeio-APIM";
-            final Optional<Cookie> optionalStringToken = Arrays.stream(req.getCookies())
-                    .filter(cookie -> authCookieName.equals(cookie.getName()))
-                    .findAny();
-            if (optionalStringToken.isPresent()) {
-                stringToken = decode(optionalStringToken.get().getValue(), defaultCharset().name());
-            }
-        }
+        String stringToken = getAuthorization(req);
 
         if (isEmpty(stringToken)) {
             LOGGER.debug("Authorization header/cookie not found");
         } else {
-            final String authorizationSchema = "Bearer";
-            if (stringToken.contains(authorizationSchema)) {
-                final String jwtToken = stringToken.substring(authorizationSchema.length()).trim();
+            if (stringToken.contains(AUTHORIZATION_SCHEMA)) {
+                final String jwtToken = stringToken.substring(AUTHORIZATION_SCHEMA.length()).trim();
                 try {
-                    final Map<String, Object> verify = jwtVerifier.verify(jwtToken);
-
-                    List<Map> permissions = (List<Map>) verify.get(Claims.PERMISSIONS);
-                    List<SimpleGrantedAuthority> authorities;
-
-                    if (permissions != null) {
-                        authorities = ((List<Map>) verify.get(Claims.PERMISSIONS)).stream()
-                                .map(map -> new SimpleGrantedAuthority(map.get("authority").toString()))
-                                .collect(Collectors.toList());
-                    } else {
-                        authorities = Collections.emptyList();
+                    UserDetails userDetails = verifiedTokenCache.get(jwtToken);
+                    if (userDetails == null) {
+                        final Map<String, Object> verify = jwtVerifier.verify(jwtToken);
+                        userDetails = getUserDetails(verify);
+
+                        Object exp = verify.get(Claims.EXPIRATION);
+                        if (exp instanceof Number) {
+                            verifiedTokenCache.put(jwtToken, userDetails, ((Number) exp).longValue() * 1000);
+                        }
                     }
 
-                    final UserDetails userDetails = new UserDetails(getStringValue(verify.get(Claims.SUBJECT)), "",
-                            authorities);
-                    userDetails.setEmail((String) verify.get(Claims.EMAIL));
-                    userDetails.setFirstname((String) verify.get(Claims.FIRSTNAME));
-                    userDetails.setLastname((String) verify.get(Claims.LASTNAME));
-
                     SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
                 } catch (final Exception e) {
                     final String errorMessage = "Invalid token";
@@ -123,6 +110,52 @@ public class JWTAuthenticationFilter extends GenericFilterBean {
         chain.doFilter(request, response);
     }
 
+    /**
+     * @return the JWT token sent with the request, from the Authorization header or the authentication cookie.
+     */
+    public static String getToken(final HttpServletRequest request) throws IOException {
+        String stringToken = getAuthorization(request);
+        if (isEmpty(stringToken) || !stringToken.contains(AUTHORIZATION_SCHEMA)) {
+            return null;
+        }
+        return stringToken.substring(AUTHORIZATION_SCHEMA.length()).trim();
+    }
+
+    private static String getAuthorization(final HttpServletRequest req) throws IOException {
+        String stringToken = req.getHeader(HttpHeaders.AUTHORIZATION);
+
+        if (isEmpty(stringToken) && req.getCookies() != null) {
+            final Optional<Cookie> optionalStringToken = Arrays.stream(req.getCookies())
+                    .filter(cookie -> AUTH_COOKIE_NAME.equals(cookie.getName()))
+                    .findAny();
+            if (optionalStringToken.isPresent()) {
+                stringToken = decode(optionalStringToken.get().getValue(), defaultCharset().name());
+            }
+        }
+        return stringToken;
+    }
+
+    @SuppressWarnings(value = "unchecked")
+    private UserDetails getUserDetails(final Map<String, Object> verify) {
+        List<Map> permissions = (List<Map>) verify.get(Claims.PERMISSIONS);
+        List<SimpleGrantedAuthority> authorities;
+
+        if (permissions != null) {
+            authorities = permissions.stream()
+                    .map(map -> new SimpleGrantedAuthority(map.get("authority").toString()))
+                    .collect(Collectors.toList());
+        } else {
+            authorities = Collections.emptyList();
+        }
+
+        final UserDetails userDetails = new UserDetails(getStringValue(verify.get(Claims.SUBJECT)), "",
+                authorities);
+        userDetails.setEmail((String) verify.get(Claims.EMAIL));
+        userDetails.setFirstname((String) verify.get(Claims.FIRSTNAME));
+        userDetails.setLastname((String) verify.get(Claims.LASTNAME));
+        return userDetails;
+    }
+
     private String getStringValue(final Object object) {
         if (object == null) {
             return "";
@@ -27,6 +27,7 @@ import io.gravitee.management.service.RoleService;
 import io.gravitee.management.service.UserService;
 import io.gravitee.management.service.exceptions.RoleNotFoundException;
 import io.gravitee.management.service.exceptions.UserNotFoundException;
+import io.gravitee.management.service.exceptions.UsernameAlreadyExistsException;
 import io.gravitee.repository.management.model.MembershipDefaultReferenceId;
 import io.gravitee.repository.management.model.MembershipReferenceType;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,6 +36,7 @@ import org.springframework.security.authentication.event.AuthenticationSuccessEv
 import org.springframework.security.core.GrantedAuthority;
 
 import java.util.Collection;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -53,55 +55,93 @@ public class AuthenticationSuccessListener implements ApplicationListener<Authen
     @Autowired
     private RoleService roleService;
 
+    /**
+     * Logins of a same user are serialized on one of these locks so that concurrent first logins provision the user
+     * only once on this node.
+     */
+    private final Object[] provisioningLocks = new Object[64];
+    {
+        for (int i = 0; i < provisioningLocks.length; i++) {
+            provisioningLocks[i] = new Object();
+        }
+    }
+
     @Override
     public void onApplicationEvent(AuthenticationSuccessEvent event) {
         final UserDetails details = (UserDetails) event.getAuthentication().getPrincipal();
 
-        try {
-            UserEntity registeredUser = userService.findByUsername(details.getUsername(), false);
-            updateRegisteredUser(registeredUser, details);
-            // Principal username is the technical identifier of the user
-            details.setUsername(registeredUser.getId());
-        } catch (UserNotFoundException unfe) {
-            final NewExternalUserEntity newUser = new NewExternalUserEntity();
-            newUser.setUsername(details.getUsername());
-            newUser.setSource(details.getSource());
-            newUser.setSourceId(details.getSourceId());
-            newUser.setFirstname(details.getFirstname());
-            newUser.setLastname(details.getLastname());
-            newUser.setEmail(details.getEmail());
-
-            boolean addDefaultRole = false;
-            if (event.getAuthentication().getAuthorities() == null || event.getAuthentication().getAuthorities().isEmpty()) {
-                addDefaultRole = true;
-            }
-            UserEntity createdUser = userService.create(newUser, addDefaultRole);
-            // Principal username is the technical identifier of the user
-            details.setUsername(createdUser.getId());
-
-            if (!addDefaultRole) {
-                addRole(RoleScope.MANAGEMENT, createdUser.getId(), event.getAuthentication().getAuthorities());
-                addRole(RoleScope.PORTAL, createdUser.getId(), event.getAuthentication().getAuthorities());
+        UserEntity user;
+        synchronized (provisioningLocks[(Objects.hashCode(details.getUsername()) & 0x7fffffff) % provisioningLocks.length]) {
+            try {
+                UserEntity registeredUser = userService.findByUsername(details.getUsername(), false);
+                updateRegisteredUser(registeredUser, details);
+                user = registeredUser;
+            } catch (UserNotFoundException unfe) {
+                user = createUser(event, details);
             }
         }
 
+        // Principal username is the technical identifier of the user
+        details.setUsername(user.getId());
 
         userService.connect(details.getUsername());
     }
 
-    private void updateRegisteredUser(UserEntity registeredUser, UserDetails details) {
+    private UserEntity createUser(AuthenticationSuccessEvent event, UserDetails details) {
+        final NewExternalUserEntity newUser = new NewExternalUserEntity();
+        newUser.setUsername(details.getUsername());
+        newUser.setSource(details.getSource());
+        newUser.setSourceId(details.getSourceId());
+        newUser.setFirstname(details.getFirstname());
+        newUser.setLastname(details.getLastname());
+        newUser.setEmail(details.getEmail());
+
+        boolean addDefaultRole = false;
+        if (event.getAuthentication().getAuthorities() == null || event.getAuthentication().getAuthorities().isEmpty()) {
+            addDefaultRole = true;
+        }
 
-        if ((registeredUser.getFirstname() != null && !registeredUser.getFirstname().equals(details.getFirstname()))
-                || (registeredUser.getLastname() != null && !registeredUser.getLastname().equals(details.getLastname()))
-                || (registeredUser.getEmail() != null && !registeredUser.getEmail().equals(details.getEmail()))) {
+        UserEntity createdUser;
+        try {
+            createdUser = userService.create(newUser, addDefaultRole);
+        } catch (UsernameAlreadyExistsException uaee) {
+            // The user has been provisioned by a concurrent login (possibly on another node): use it as is
+            return userService.findByUsername(details.getUsername(), false);
+        }
+
+        if (!addDefaultRole) {
+            addRole(RoleScope.MANAGEMENT, createdUser.getId(), event.getAuthentication().getAuthorities());
+            addRole(RoleScope.PORTAL, createdUser.getId(), event.getAuthentication().getAuthorities());
+        }
+        return createdUser;
+    }
+
+    private void updateRegisteredUser(UserEntity registeredUser, UserDetails details) {
+        if (changed(registeredUser.getFirstname(), details.getFirstname())
+                || changed(registeredUser.getLastname(), details.getLastname())
+                || changed(registeredUser.getEmail(), details.getEmail())) {
             UpdateUserEntity updateUserEntity = new UpdateUserEntity(registeredUser);
-            updateUserEntity.setFirstname(details.getFirstname());
-            updateUserEntity.setLastname(details.getLastname());
-            updateUserEntity.setEmail(details.getEmail());
+            if (details.getFirstname() != null) {
+                updateUserEntity.setFirstname(details.getFirstname());
+            }
+            if (details.getLastname() != null) {
+                updateUserEntity.setLastname(details.getLastname());
+            }
+            if (details.getEmail() != null) {
+                updateUserEntity.setEmail(details.getEmail());
+            }
             userService.update(updateUserEntity);
         }
     }
 
+    /**
+     * A profile attribute is only synchronized when the identity provider exposes it and its value differs from the
+     * registered one.
+     */
+    private boolean changed(String registeredValue, String providedValue) {
+        return providedValue != null && !providedValue.equals(registeredValue);
+    }
+
     /**
      * Authorities could be ADMIN, ROLE, SCOPE:ROLE
      * Priority is:
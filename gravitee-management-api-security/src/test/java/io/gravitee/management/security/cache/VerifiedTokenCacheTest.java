@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.security.cache;
+
+import io.gravitee.management.idp.api.authentication.UserDetails;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class VerifiedTokenCacheTest {
+
+    private static final String TOKEN = "header.payload.signature";
+
+    @InjectMocks
+    private VerifiedTokenCache cache = new VerifiedTokenCache();
+
+    @Mock
+    private Environment environment;
+
+    private UserDetails userDetails = new UserDetails("user", "", Collections.emptyList());
+
+    @Before
+    public void init() {
+        when(environment.getProperty("jwt.cache.enabled", boolean.class, true)).thenReturn(true);
+        when(environment.getProperty("jwt.cache.size", int.class, 10000)).thenReturn(2);
+        when(environment.getProperty("jwt.secret")).thenReturn("secret");
+        when(environment.getProperty("jwt.expire-after", Integer.class, 604800)).thenReturn(604800);
+        cache.afterPropertiesSet();
+    }
+
+    @Test
+    public void shouldReturnVerifiedToken() {
+        cache.put(TOKEN, userDetails, System.currentTimeMillis() + 60000);
+
+        assertSame(userDetails, cache.get(TOKEN));
+        assertNull(cache.get(TOKEN + "x"));
+    }
+
+    @Test
+    public void shouldNotReturnExpiredToken() {
+        cache.put(TOKEN, userDetails, System.currentTimeMillis() - 1);
+
+        assertNull(cache.get(TOKEN));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedToken() {
+        long expireAt = System.currentTimeMillis() + 60000;
+        cache.put("token1", userDetails, expireAt);
+        cache.put("token2", userDetails, expireAt);
+        cache.get("token1");
+        cache.put("token3", userDetails, expireAt);
+
+        assertNotNull(cache.get("token1"));
+        assertNull(cache.get("token2"));
+        assertNotNull(cache.get("token3"));
+    }
+
+    @Test(expected = BadCredentialsException.class)
+    public void shouldRejectRevokedToken() {
+        cache.put(TOKEN, userDetails, System.currentTimeMillis() + 60000);
+        cache.revoke(TOKEN);
+
+        cache.get(TOKEN);
+    }
+
+    @Test(expected = BadCredentialsException.class)
+    public void shouldRejectRevokedUnknownToken() {
+        cache.revoke(TOKEN);
+
+        cache.get(TOKEN);
+    }
+}
@@ -18,16 +18,19 @@ package io.gravitee.management.security.listener;
 import io.gravitee.management.idp.api.authentication.UserDetails;
 import io.gravitee.management.model.NewExternalUserEntity;
 import io.gravitee.management.model.RoleEntity;
+import io.gravitee.management.model.UpdateUserEntity;
 import io.gravitee.management.model.UserEntity;
 import io.gravitee.management.service.MembershipService;
 import io.gravitee.management.service.RoleService;
 import io.gravitee.management.service.UserService;
 import io.gravitee.management.service.exceptions.UserNotFoundException;
+import io.gravitee.management.service.exceptions.UsernameAlreadyExistsException;
 import io.gravitee.repository.management.model.MembershipDefaultReferenceId;
 import io.gravitee.repository.management.model.MembershipReferenceType;
 import io.gravitee.repository.management.model.RoleScope;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatcher;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -85,6 +88,62 @@ public class AuthenticationSuccessListenerTest {
         verify(userServiceMock, times(1)).connect(userDetailsMock.getUsername());
     }
 
+    @Test
+    public void shouldNotUpdateUnchangedProfile() {
+        when(eventMock.getAuthentication()).thenReturn(authenticationMock);
+        when(authenticationMock.getPrincipal()).thenReturn(userDetailsMock);
+        when(userDetailsMock.getUsername()).thenReturn(USERNAME);
+        when(userDetailsMock.getFirstname()).thenReturn("firstname");
+        UserEntity registeredUser = new UserEntity();
+        registeredUser.setFirstname("firstname");
+        registeredUser.setLastname("lastname");
+        when(userServiceMock.findByUsername(USERNAME, false)).thenReturn(registeredUser);
+
+        listener.onApplicationEvent(eventMock);
+
+        verify(userServiceMock, never()).update(any(UpdateUserEntity.class));
+        verify(userServiceMock, times(1)).connect(any());
+    }
+
+    @Test
+    public void shouldUpdateChangedProfile() {
+        when(eventMock.getAuthentication()).thenReturn(authenticationMock);
+        when(authenticationMock.getPrincipal()).thenReturn(userDetailsMock);
+        when(userDetailsMock.getUsername()).thenReturn(USERNAME);
+        when(userDetailsMock.getEmail()).thenReturn("new@mail.com");
+        UserEntity registeredUser = new UserEntity();
+        registeredUser.setEmail("old@mail.com");
+        when(userServiceMock.findByUsername(USERNAME, false)).thenReturn(registeredUser);
+
+        listener.onApplicationEvent(eventMock);
+
+        verify(userServiceMock, times(1)).update(argThat(new ArgumentMatcher<UpdateUserEntity>() {
+            @Override
+            public boolean matches(Object argument) {
+                return "new@mail.com".equals(((UpdateUserEntity) argument).getEmail());
+            }
+        }));
+    }
+
+    @Test
+    public void shouldUseUserCreatedByConcurrentLogin() {
+        when(eventMock.getAuthentication()).thenReturn(authenticationMock);
+        when(authenticationMock.getPrincipal()).thenReturn(userDetailsMock);
+        when(userDetailsMock.getUsername()).thenReturn(USERNAME);
+        when(authenticationMock.getAuthorities()).thenReturn(null);
+        when(userServiceMock.findByUsername(USERNAME, false))
+                .thenThrow(UserNotFoundException.class)
+                .thenReturn(userEntity);
+        when(userServiceMock.create(any(NewExternalUserEntity.class), eq(true)))
+                .thenThrow(new UsernameAlreadyExistsException(USERNAME));
+
+        listener.onApplicationEvent(eventMock);
+
+        verify(userServiceMock, times(2)).findByUsername(USERNAME, false);
+        verify(membershipServiceMock, never()).addOrUpdateMember(any(), any(), any());
+        verify(userServiceMock, times(1)).connect(any());
+    }
+
     @Test
     public void shouldCreateUserWithDefaultRole() {
         when(eventMock.getAuthentication()).thenReturn(authenticationMock);
@@ -76,6 +76,8 @@ public interface ApiService {
 
     InlinePictureEntity getPicture(String apiId);
 
+    InlinePictureEntity getPictureThumbnail(String apiId);
+
     byte[] getDefaultPicture();
 
     void deleteViewFromAPIs(String viewId);
@@ -16,9 +16,12 @@
 package io.gravitee.management.service;
 
 import io.gravitee.management.idp.api.identity.SearchableUser;
+import io.gravitee.management.model.providers.IdentityLookupStatisticsEntity;
 import io.gravitee.management.model.providers.User;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -30,4 +33,14 @@ public interface IdentityService {
     Collection<SearchableUser> search(String query);
 
     Optional<User> findByReference(String reference);
+
+    /**
+     * Looks for many users at once, each identity provider being queried once.
+     *
+     * @param references references of the users to look for.
+     * @return the users which have been found, by reference.
+     */
+    Map<String, User> findByReferences(Collection<String> references);
+
+    List<IdentityLookupStatisticsEntity> getStatistics();
 }
@@ -21,6 +21,7 @@ import io.gravitee.management.model.pagedresult.Metadata;
 import io.gravitee.repository.management.model.MembershipReferenceType;
 import io.gravitee.repository.management.model.RoleScope;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -37,12 +38,29 @@ public interface MembershipService {
 
     Set<RoleEntity> getRoles(MembershipReferenceType referenceType, Set<String> referenceIds, String userId, RoleScope roleScope);
 
+    /**
+     * Resolves the portal and management roles of a user, with a single membership lookup.
+     *
+     * @param userId the user.
+     * @return the roles of the user on the default portal and management references.
+     */
+    Set<RoleEntity> getDefaultRoles(String userId);
+
     Set<MemberEntity> getMembers(MembershipReferenceType referenceType, String referenceId, RoleScope roleScope);
 
     Set<MemberEntity> getMembers(MembershipReferenceType referenceType, String referenceId, RoleScope roleScope, String roleName);
 
     MemberEntity addOrUpdateMember(MembershipReference reference, MembershipUser user, MembershipRole role);
 
+    /**
+     * Resolves users coming from external systems with a single lookup per identity provider, registering the ones
+     * which are not yet known. Unknown references are left out.
+     *
+     * @param references identity references of the users.
+     * @return the users, by reference.
+     */
+    Map<String, UserEntity> findOrCreateUsers(Collection<String> references);
+
     void deleteMember(MembershipReferenceType referenceType, String referenceId, String userId);
 
     void transferApiOwnership(String apiId, MembershipUser user, RoleEntity newPrimaryOwnerRole);
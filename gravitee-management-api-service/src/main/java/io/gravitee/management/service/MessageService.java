@@ -29,7 +29,8 @@ import java.util.Set;
 public interface MessageService {
 
     /**
-     * send a message to api consumers according to recipients filters
+     * send a message to api consumers according to recipients filters.
+     * The recipients are handled chunk by chunk.
      * @param apiId api id
      * @param message message
      * @return the number of recipients
@@ -38,12 +39,43 @@ public interface MessageService {
 
 
     /**
-     * send a message to all users according to recipients filters
+     * send a message to all users according to recipients filters.
+     * The recipients are handled chunk by chunk.
      * @param message message
      * @return the number of recipients
      */
     int create(MessageEntity message);
 
+    /**
+     * send a message to api consumers according to recipients filters, in background.
+     * @param apiId api id
+     * @param message message
+     * @return the progress of the sending, which can be read again with {@link #findBroadcastById(String, String)}
+     */
+    MessageBroadcastEntity createAsync(String apiId, MessageEntity message);
+
+    /**
+     * send a message to all users according to recipients filters, in background.
+     * @param message message
+     * @return the progress of the sending, which can be read again with {@link #findBroadcastById(String)}
+     */
+    MessageBroadcastEntity createAsync(MessageEntity message);
+
+    /**
+     * get the progress of a message sent in background to api consumers
+     * @param apiId api id
+     * @param broadcastId id returned when the message has been accepted
+     * @return the progress of the sending
+     */
+    MessageBroadcastEntity findBroadcastById(String apiId, String broadcastId);
+
+    /**
+     * get the progress of a message sent in background to all users
+     * @param broadcastId id returned when the message has been accepted
+     * @return the progress of the sending
+     */
+    MessageBroadcastEntity findBroadcastById(String broadcastId);
+
     /**
      * get the user ids of recipients
      * @param api api
@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import io.gravitee.management.model.notification.NewPortalNotificationEntity;
+import io.gravitee.management.service.notification.Hook;
+
+/**
+ * Keep the compiled notification templates of the hooks, so that a notification only costs the rendering of its
+ * title and of its message.
+ *
+ * @author GraviteeSource Team
+ */
+public interface NotificationTemplateService {
+
+    /**
+     * Render the title and the message of the portal notification of a hook.
+     * @param hook the triggered hook
+     * @param params the model of the templates
+     * @return a notification without recipient
+     */
+    NewPortalNotificationEntity renderPortalNotification(Hook hook, Object params);
+}
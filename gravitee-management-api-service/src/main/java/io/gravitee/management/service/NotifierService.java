@@ -15,6 +15,7 @@
  */
 package io.gravitee.management.service;
 
+import io.gravitee.management.model.notification.NotifierChannelStatisticsEntity;
 import io.gravitee.management.model.notification.NotifierEntity;
 import io.gravitee.management.service.notification.ApiHook;
 import io.gravitee.management.service.notification.ApplicationHook;
@@ -33,4 +34,9 @@ public interface NotifierService {
      void trigger(final ApplicationHook hook, final String applicationId, Map<String, Object> params);
      void trigger(final PortalHook hook, Map<String, Object> params);
      List<NotifierEntity> list(NotificationReferenceType referenceType, String referenceId);
+
+     /**
+      * @return the activity of the executors delivering the notifications, by channel
+      */
+     List<NotifierChannelStatisticsEntity> getChannelStatistics();
 }
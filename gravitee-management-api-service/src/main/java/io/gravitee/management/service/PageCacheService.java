@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import freemarker.template.Template;
+import io.gravitee.management.model.ApiModelEntity;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.function.Supplier;
+
+/**
+ * Keep the compiled templates and the rendered content of the documentation pages.
+ *
+ * @author GraviteeSource Team
+ */
+public interface PageCacheService {
+
+    /**
+     * Get the compiled template of a page, compiling it only if the page has been updated since the last call.
+     */
+    Template getTemplate(String pageId, Date updatedAt, String content) throws IOException;
+
+    /**
+     * Get the rendered content of an API page, calling the renderer only when the page, the API or its metadata
+     * have changed. A <code>null</code> content returned by the renderer is not cached.
+     */
+    String getContent(String pageId, Date updatedAt, String apiId, Date apiUpdatedAt, Supplier<String> renderer);
+
+    /**
+     * Get the model given to the templates of an API pages, calling the loader only when the API or its metadata
+     * have changed.
+     */
+    ApiModelEntity getApiModel(String apiId, Supplier<ApiModelEntity> loader);
+
+    void evictPage(String pageId);
+
+    void evictApi(String apiId);
+
+    /**
+     * Evict all the rendered content after a change of the default metadata.
+     */
+    void evictMetadata();
+}
@@ -19,6 +19,7 @@ import io.gravitee.management.model.*;
 import io.gravitee.management.model.api.ApiEntity;
 import io.gravitee.management.model.documentation.PageQuery;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -57,4 +58,6 @@ public interface PageService {
 	boolean isDisplayable(ApiEntity api, boolean isPagePublished, String username);
 
 	PageEntity fetch(String pageId, String contributor);
+
+	void fetchAll(Collection<PageListItem> pages, String contributor);
 }
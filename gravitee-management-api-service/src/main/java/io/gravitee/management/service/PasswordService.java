@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+/**
+ * Hashing and verification of the passwords of the users managed by Gravitee.
+ *
+ * @author GraviteeSource Team
+ */
+public interface PasswordService {
+
+    /**
+     * @return the password hashed with the configured algorithm and cost. Bcrypt hashes are returned as is, other
+     * algorithms are prefixed by their identifier and cost, e.g. <code>{pbkdf2-185000}</code>
+     */
+    String encode(String rawPassword);
+
+    /**
+     * Verifies a password on the bounded password executor, so that hashing can not starve the request threads.
+     */
+    boolean matches(String rawPassword, String encodedPassword);
+
+    /**
+     * @return <code>true</code> if the hash has not been produced with the configured algorithm and cost, and should
+     * be encoded again the next time the raw password is known
+     */
+    boolean upgradeEncoding(String encodedPassword);
+}
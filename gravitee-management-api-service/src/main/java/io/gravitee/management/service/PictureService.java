@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import io.gravitee.management.model.InlinePictureEntity;
+
+import java.util.Date;
+
+/**
+ * Keep the binary content of the pictures stored as data URIs, with the hash of their content and their thumbnail.
+ *
+ * @author GraviteeSource Team
+ */
+public interface PictureService {
+
+    enum ReferenceType {
+        API, USER
+    }
+
+    /**
+     * Get the decoded picture of an entity, decoding it only if the entity has been updated since the last call.
+     *
+     * @return <code>null</code> if there is no picture or if it is not a base64 data URI
+     */
+    InlinePictureEntity getPicture(ReferenceType referenceType, String referenceId, Date updatedAt, String picture);
+
+    /**
+     * Get the picture of an entity resized to fit the thumbnail size. Pictures which are already small enough, or
+     * which can not be read as a raster image, are returned unchanged.
+     *
+     * @return <code>null</code> if there is no picture or if it is not a base64 data URI
+     */
+    InlinePictureEntity getThumbnail(ReferenceType referenceType, String referenceId, Date updatedAt, String picture);
+
+    /**
+     * Get a picture read from a file, such as a default picture. The file is read once.
+     *
+     * @return <code>null</code> if the file can not be read
+     */
+    InlinePictureEntity getFilePicture(String path, String type);
+
+    void evict(ReferenceType referenceType, String referenceId);
+}
@@ -29,6 +29,8 @@ public interface PortalNotificationService {
 
     List<PortalNotificationEntity> findByUser(String user);
 
+    int count(String user);
+
     void create(Hook hook, List<String> users, Object param);
 
     void delete(String notificationId);
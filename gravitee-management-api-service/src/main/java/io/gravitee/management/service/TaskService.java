@@ -28,5 +28,7 @@ public interface TaskService {
 
     List<TaskEntity> findAll(String userId);
 
+    int count(String userId);
+
     Metadata getMetadata(List<TaskEntity> tasks);
 }
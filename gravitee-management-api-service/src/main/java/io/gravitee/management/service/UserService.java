@@ -43,4 +43,5 @@ public interface UserService {
     PictureEntity getPicture(String id);
     void delete(String id);
     void resetPassword(String id);
+    void upgradePassword(String username, String password, String previousEncodedPassword);
 }
@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service.common;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A set of ids which only tells whether an id has already been added. Ids in the canonical UUID form, as generated by
+ * the repositories, are stored as two longs in an open addressing table rather than as strings, which divides the
+ * memory used by a set of millions of ids by about three. Other ids are kept in a regular set.
+ *
+ * This class is not thread-safe.
+ *
+ * @author GraviteeSource Team
+ */
+public final class CompactIdSet {
+
+    private static final int UUID_LENGTH = 36;
+
+    private long[] table = new long[32];
+    private boolean[] used = new boolean[16];
+    private int size;
+
+    private final Set<String> others = new HashSet<>();
+
+    /**
+     * @return true if the id has not been added before
+     */
+    public boolean add(String id) {
+        final UUID uuid = toUuid(id);
+        if (uuid == null) {
+            return others.add(id);
+        }
+        if ((size + 1) * 2 > used.length) {
+            resize();
+        }
+        return insert(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public int size() {
+        return size + others.size();
+    }
+
+    private boolean insert(long msb, long lsb) {
+        final int mask = used.length - 1;
+        int slot = hash(msb, lsb) & mask;
+        while (used[slot]) {
+            if (table[slot * 2] == msb && table[slot * 2 + 1] == lsb) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        table[slot * 2] = msb;
+        table[slot * 2 + 1] = lsb;
+        size++;
+        return true;
+    }
+
+    private void resize() {
+        final long[] oldTable = table;
+        final boolean[] oldUsed = used;
+        table = new long[oldTable.length * 2];
+        used = new boolean[oldUsed.length * 2];
+        size = 0;
+        for (int slot = 0; slot < oldUsed.length; slot++) {
+            if (oldUsed[slot]) {
+                insert(oldTable[slot * 2], oldTable[slot * 2 + 1]);
+            }
+        }
+    }
+
+    private static int hash(long msb, long lsb) {
+        final long hash = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Only the canonical form is converted, so that two distinct ids are never stored as the same UUID.
+     */
+    private static UUID toUuid(String id) {
+        if (id == null || id.length() != UUID_LENGTH) {
+            return null;
+        }
+        try {
+            final UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException iae) {
+            return null;
+        }
+    }
+}
@@ -24,6 +24,7 @@ public interface JWTHelper {
     interface Claims {
         String ISSUER = "iss";
         String SUBJECT = "sub";
+        String EXPIRATION = "exp";
         String PERMISSIONS = "permissions";
         String EMAIL = "email";
         String FIRSTNAME = "firstname";
@@ -13,22 +13,21 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package io.gravitee.management.idp.repository.authentication.spring;
-
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+package io.gravitee.management.service.exceptions;
 
 /**
- * @author David BRASSELY (david at gravitee.io)
  * @author GraviteeSource Team
  */
-@Configuration
-public class RepositoryAuthenticationProviderConfiguration {
+public class MessageBroadcastNotFoundException extends AbstractNotFoundException {
+
+    private final String broadcast;
+
+    public MessageBroadcastNotFoundException(String broadcast) {
+        this.broadcast = broadcast;
+    }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Override
+    public String getMessage() {
+        return "Message broadcast [" + broadcast + "] can not be found.";
     }
 }
@@ -22,6 +22,7 @@ import io.gravitee.management.service.ApiMetadataService;
 import io.gravitee.management.service.ApiService;
 import io.gravitee.management.service.AuditService;
 import io.gravitee.management.service.MetadataService;
+import io.gravitee.management.service.PageCacheService;
 import io.gravitee.management.service.exceptions.ApiMetadataNotFoundException;
 import io.gravitee.management.service.exceptions.DuplicateMetadataNameException;
 import io.gravitee.management.service.exceptions.TechnicalManagementException;
@@ -63,6 +64,9 @@ public class ApiMetadataServiceImpl implements ApiMetadataService {
     @Autowired
     private AuditService auditService;
 
+    @Autowired
+    private PageCacheService pageCacheService;
+
     @Override
     public List<ApiMetadataEntity> findAllByApi(final String apiId) {
         try {
@@ -127,6 +131,7 @@ public class ApiMetadataServiceImpl implements ApiMetadataService {
         final ApiMetadataEntity apiMetadata = findByIdAndApi(metadataId, apiId);
         try {
             metadataRepository.delete(metadataId, apiMetadata.getApiId(), MetadataReferenceType.API);
+            pageCacheService.evictApi(apiId);
             // Audit
             auditService.createApiAuditLog(
                     apiId,
@@ -167,6 +172,7 @@ public class ApiMetadataServiceImpl implements ApiMetadataService {
             metadata.setCreatedAt(now);
             metadata.setUpdatedAt(now);
             metadataRepository.create(metadata);
+            pageCacheService.evictApi(apiEntity.getId());
             // Audit
             auditService.createApiAuditLog(
                     apiEntity.getId(),
@@ -209,6 +215,7 @@ public class ApiMetadataServiceImpl implements ApiMetadataService {
             if (apiMetadata.isPresent()) {
                 metadata.setUpdatedAt(now);
                 savedMetadata = metadataRepository.update(metadata);
+                pageCacheService.evictApi(apiEntity.getId());
                 // Audit
                 auditService.createApiAuditLog(
                         apiEntity.getId(),
@@ -221,6 +228,7 @@ public class ApiMetadataServiceImpl implements ApiMetadataService {
                 metadata.setCreatedAt(now);
                 metadata.setUpdatedAt(now);
                 savedMetadata = metadataRepository.create(metadata);
+                pageCacheService.evictApi(apiEntity.getId());
                 // Audit
                 auditService.createApiAuditLog(
                         apiEntity.getId(),
@@ -58,7 +58,6 @@ import io.gravitee.repository.management.api.search.ApiCriteria;
 import io.gravitee.repository.management.api.search.ApiFieldExclusionFilter;
 import io.gravitee.repository.management.model.*;
 import io.gravitee.repository.management.model.Visibility;
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -66,8 +65,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
 
-import javax.xml.bind.DatatypeConverter;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.*;
 import java.util.regex.Pattern;
@@ -108,6 +105,10 @@ public class ApiServiceImpl extends TransactionalService implements ApiService {
     @Autowired
     private PageService pageService;
     @Autowired
+    private PageCacheService pageCacheService;
+    @Autowired
+    private PictureService pictureService;
+    @Autowired
     private MembershipService membershipService;
     @Autowired
     private GroupService groupService;
@@ -224,6 +225,8 @@ public class ApiServiceImpl extends TransactionalService implements ApiService {
                 }
 
                 Api createdApi = apiRepository.create(repoApi);
+                // the picture is decoded and hashed once, when it is written
+                pictureService.getPicture(PictureService.ReferenceType.API, createdApi.getId(), createdApi.getUpdatedAt(), createdApi.getPicture());
                 // Audit
                 auditService.createApiAuditLog(
                         createdApi.getId(),
@@ -449,6 +452,12 @@ public class ApiServiceImpl extends TransactionalService implements ApiService {
                 }
 
                 Api updatedApi = apiRepository.update(api);
+                pageCacheService.evictApi(apiId);
+                pictureService.evict(PictureService.ReferenceType.API, apiId);
+                if (updateApiEntity.getPicture() != null) {
+                    // the picture is decoded and hashed once, when it is written
+                    pictureService.getPicture(PictureService.ReferenceType.API, apiId, updatedApi.getUpdatedAt(), updatedApi.getPicture());
+                }
 
                 // Audit
                 auditService.createApiAuditLog(
@@ -512,6 +521,8 @@ public class ApiServiceImpl extends TransactionalService implements ApiService {
 
                 // Delete API
                 apiRepository.delete(apiId);
+                pageCacheService.evictApi(apiId);
+                pictureService.evict(PictureService.ReferenceType.API, apiId);
                 // Delete top API
                 topApiService.delete(apiId);
                 // Audit
@@ -876,28 +887,27 @@ public class ApiServiceImpl extends TransactionalService implements ApiService {
     @Override
     public InlinePictureEntity getPicture(String apiId) {
         ApiEntity apiEntity = findById(apiId);
-        InlinePictureEntity imageEntity = new InlinePictureEntity();
-        if (apiEntity.getPicture() == null) {
-            imageEntity.setType("image/png");
-            imageEntity.setContent(getDefaultPicture());
-        } else {
-            String[] parts = apiEntity.getPicture().split(";", 2);
-            imageEntity.setType(parts[0].split(":")[1]);
-            String base64Content = apiEntity.getPicture().split(",", 2)[1];
-            imageEntity.setContent(DatatypeConverter.parseBase64Binary(base64Content));
-        }
+        InlinePictureEntity imageEntity = pictureService.getPicture(PictureService.ReferenceType.API, apiId,
+                apiEntity.getUpdatedAt(), apiEntity.getPicture());
+        return imageEntity != null ? imageEntity : getDefaultPictureEntity();
+    }
 
-        return imageEntity;
+    @Override
+    public InlinePictureEntity getPictureThumbnail(String apiId) {
+        ApiEntity apiEntity = findById(apiId);
+        InlinePictureEntity imageEntity = pictureService.getThumbnail(PictureService.ReferenceType.API, apiId,
+                apiEntity.getUpdatedAt(), apiEntity.getPicture());
+        return imageEntity != null ? imageEntity : getDefaultPictureEntity();
     }
 
     @Override
     public byte[] getDefaultPicture() {
-        try {
-            return IOUtils.toByteArray(new FileInputStream(defaultIcon));
-        } catch (IOException ioe) {
-            LOGGER.error("Default icon for API does not exist", ioe);
-        }
-        return null;
+        InlinePictureEntity defaultPicture = getDefaultPictureEntity();
+        return defaultPicture == null ? null : defaultPicture.getContent();
+    }
+
+    private InlinePictureEntity getDefaultPictureEntity() {
+        return pictureService.getFilePicture(defaultIcon, "image/png");
     }
 
     @Override
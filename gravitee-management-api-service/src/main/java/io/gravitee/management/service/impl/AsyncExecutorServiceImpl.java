@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service.impl;
+
+import io.gravitee.management.model.async.AsyncExecutorStatisticsEntity;
+import io.gravitee.management.service.AsyncExecutorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author GraviteeSource Team
+ */
+@Component
+public class AsyncExecutorServiceImpl implements AsyncExecutorService {
+
+    @Autowired
+    private Collection<InstrumentedTaskExecutor> executors;
+
+    @Override
+    public List<AsyncExecutorStatisticsEntity> getStatistics() {
+        return executors.stream()
+                .map(InstrumentedTaskExecutor::getStatistics)
+                .sorted(Comparator.comparing(AsyncExecutorStatisticsEntity::getName))
+                .collect(Collectors.toList());
+    }
+}
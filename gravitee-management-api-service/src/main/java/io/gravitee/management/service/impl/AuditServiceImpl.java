@@ -15,6 +15,7 @@
  */
 package io.gravitee.management.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.fge.jsonpatch.diff.JsonDiff;
@@ -24,6 +25,7 @@ import io.gravitee.common.utils.UUID;
 import io.gravitee.management.model.audit.AuditEntity;
 import io.gravitee.management.model.audit.AuditQuery;
 import io.gravitee.management.service.AuditService;
+import io.gravitee.management.service.spring.AsyncConfiguration;
 import io.gravitee.repository.exceptions.TechnicalException;
 import io.gravitee.repository.management.api.*;
 import io.gravitee.repository.management.api.search.AuditCriteria.Builder;
@@ -31,24 +33,54 @@ import io.gravitee.repository.management.api.search.builder.PageableBuilder;
 import io.gravitee.repository.management.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Component;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 import static io.gravitee.management.service.impl.MetadataServiceImpl.getDefautReferenceId;
 
 /**
+ * Audits are pushed to a bounded queue and written by a background worker running on the audit executor. The old and
+ * the new values are copied as JSON trees when the audit is created, so that a later change of these objects by the
+ * caller does not alter the audit, and the diff between them is computed by the worker. When the queue is full, the
+ * configured {@link OverflowPolicy} applies. The audit logs spilled on disk are written back on startup, whatever
+ * the policy is.
+ *
  * @author Nicolas GERAUD (nicolas.geraud at graviteesource.com)
  * @author GraviteeSource Team
  */
 @Component
-public class AuditServiceImpl extends AbstractService implements AuditService {
+public class AuditServiceImpl extends AbstractService implements AuditService, InitializingBean, DisposableBean {
 
     private final Logger LOGGER = LoggerFactory.getLogger(AuditServiceImpl.class);
 
+    private static final String SPILL_FILE_EXTENSION = ".json";
+
+    @Value("${audit.queue.capacity:10000}")
+    private int queueCapacity;
+    @Value("${audit.queue.batchSize:100}")
+    private int batchSize;
+    @Value("${audit.queue.overflow:BLOCK}")
+    private OverflowPolicy overflowPolicy;
+    @Value("${audit.queue.spill.path:${gravitee.home}/data/audits}")
+    private String spillPath;
+    @Value("${audit.queue.shutdownTimeout:30000}")
+    private long shutdownTimeout;
+
     @Autowired
     private AuditRepository auditRepository;
 
@@ -70,6 +102,39 @@ public class AuditServiceImpl extends AbstractService implements AuditService {
     @Autowired
     private ObjectMapper mapper;
 
+    @Autowired
+    @Qualifier(AsyncConfiguration.AUDIT_EXECUTOR)
+    private TaskExecutor auditExecutor;
+
+    private BlockingQueue<PendingAudit> queue;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private volatile boolean running;
+    /**
+     * Held for reading while an audit log is queued, and for writing to stop the worker: once stopped, the queue is
+     * no longer fed and the worker can drain it up to the last audit log.
+     */
+    private final ReadWriteLock runningLock = new ReentrantReadWriteLock();
+
+    @Override
+    public void afterPropertiesSet() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        running = true;
+        auditExecutor.execute(this::write);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        runningLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            runningLock.writeLock().unlock();
+        }
+        if (!stopped.await(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+            LOGGER.warn("{} audit logs have not been written before shutdown", queue.size());
+        }
+    }
+
     @Override
     public MetadataPage<AuditEntity> search(AuditQuery query) {
 
@@ -108,87 +173,82 @@ public class AuditServiceImpl extends AbstractService implements AuditService {
         return new MetadataPage<>(content, query.getPage(), query.getSize() , auditPage.getTotalElements(), getMetadata(content));
     }
 
+    /**
+     * Resolve the names of the users and of the properties referenced by the audit logs. The referenced ids are first
+     * collected for the whole page, then resolved with a single query per type (and per audit reference for the
+     * pages, plans and metadata which are scoped by their API).
+     */
     private Map<String, String> getMetadata(List<AuditEntity> content) {
-        Map<String, String> metadata = new HashMap<>();
+        Set<String> userIds = new HashSet<>();
+        Set<String> groupIds = new HashSet<>();
+        Map<AuditReference, Set<String>> pageIds = new HashMap<>();
+        Map<AuditReference, Set<String>> planIds = new HashMap<>();
+        Map<AuditReference, Set<String>> metadataIds = new HashMap<>();
+
         for (AuditEntity auditEntity : content) {
-            //add user's display name
-            String metadataKey = "USER:"+auditEntity.getUser()+":name";
-            String name = auditEntity.getUser();
-            try {
-                Optional<User> optUser = userRepository.findById(auditEntity.getUser());
-                if (optUser.isPresent()) {
-                    if (optUser.get().getFirstname() != null && optUser.get().getLastname() != null) {
-                        name = optUser.get().getFirstname() + " " + optUser.get().getLastname();
-                    } else {
-                        name = optUser.get().getUsername();
+            userIds.add(auditEntity.getUser());
+            if (auditEntity.getProperties() != null) {
+                AuditReference reference = new AuditReference(auditEntity.getReferenceType(), auditEntity.getReferenceId());
+                for (Map.Entry<String, String> property : auditEntity.getProperties().entrySet()) {
+                    Audit.AuditProperties auditProperty = getAuditProperty(property.getKey());
+                    if (auditProperty == null) {
+                        continue;
+                    }
+                    switch (auditProperty) {
+                        case PAGE:
+                            pageIds.computeIfAbsent(reference, ref -> new HashSet<>()).add(property.getValue());
+                            break;
+                        case PLAN:
+                            planIds.computeIfAbsent(reference, ref -> new HashSet<>()).add(property.getValue());
+                            break;
+                        case METADATA:
+                            metadataIds.computeIfAbsent(reference, ref -> new HashSet<>()).add(property.getValue());
+                            break;
+                        case GROUP:
+                            groupIds.add(property.getValue());
+                            break;
+                        case USER:
+                            userIds.add(property.getValue());
+                            break;
+                        default:
+                            break;
                     }
                 }
-            } catch (TechnicalException e) {
-                LOGGER.error("Error finding metadata {}", auditEntity.getUser());
-
             }
-            metadata.put(metadataKey, name);
+        }
+
+        Map<String, String> userNames = findUserNames(userIds);
+        Map<Audit.AuditProperties, Map<String, String>> namesByProperty = new EnumMap<>(Audit.AuditProperties.class);
+        namesByProperty.put(Audit.AuditProperties.USER, userNames);
+        namesByProperty.put(Audit.AuditProperties.GROUP, findGroupNames(groupIds));
+        namesByProperty.put(Audit.AuditProperties.PAGE, findPageNames(pageIds));
+        namesByProperty.put(Audit.AuditProperties.PLAN, findPlanNames(planIds));
+        Map<AuditReference, Map<String, String>> metadataNames = findMetadataNames(metadataIds.keySet());
+
+        Map<String, String> metadata = new HashMap<>();
+        for (AuditEntity auditEntity : content) {
+            //add user's display name
+            metadata.put("USER:" + auditEntity.getUser() + ":name",
+                    userNames.getOrDefault(auditEntity.getUser(), auditEntity.getUser()));
 
             //add property metadata
             if (auditEntity.getProperties() != null) {
+                AuditReference reference = new AuditReference(auditEntity.getReferenceType(), auditEntity.getReferenceId());
                 for (Map.Entry<String, String> property : auditEntity.getProperties().entrySet()) {
-                    metadataKey = new StringJoiner(":").
+                    String metadataKey = new StringJoiner(":").
                             add(property.getKey()).
                             add(property.getValue()).
                             add("name").
                             toString();
                     if (!metadata.containsKey(metadataKey)) {
-                        name = property.getValue();
-                        try {
-                            switch (Audit.AuditProperties.valueOf(property.getKey())) {
-                                case PAGE:
-                                    Optional<io.gravitee.repository.management.model.Page> optPage = pageRepository.findById(property.getValue());
-                                    if (optPage.isPresent()) {
-                                        name = optPage.get().getName();
-                                    }
-                                    break;
-                                case PLAN:
-                                    Optional<Plan> optPlan = planRepository.findById(property.getValue());
-                                    if (optPlan.isPresent()) {
-                                        name = optPlan.get().getName();
-                                    }
-                                    break;
-                                case METADATA:
-                                    MetadataReferenceType refType = (Audit.AuditReferenceType.API.name().equals(auditEntity.getReferenceType()))
-                                            ? MetadataReferenceType.API :
-                                            (Audit.AuditReferenceType.APPLICATION.name().equals(auditEntity.getReferenceType())) ?
-                                                    MetadataReferenceType.APPLICATION :
-                                                    MetadataReferenceType.DEFAULT;
-                                    String refId = refType.equals(MetadataReferenceType.DEFAULT) ? getDefautReferenceId() : auditEntity.getReferenceId();
-
-                                    Optional<Metadata> optMetadata = metadataRepository.findById(property.getValue(), refId, refType);
-                                    if (optMetadata.isPresent()) {
-                                        name = optMetadata.get().getName();
-                                    }
-                                    break;
-                                case GROUP:
-                                    Optional<Group> optGroup = groupRepository.findById(property.getValue());
-                                    if (optGroup.isPresent()) {
-                                        name = optGroup.get().getName();
-                                    }
-                                    break;
-                                case USER:
-                                    Optional<User> optUser = userRepository.findById(property.getValue());
-                                    if (optUser.isPresent()) {
-                                        if (optUser.get().getFirstname() != null && optUser.get().getLastname() != null) {
-                                            name = optUser.get().getFirstname() + " " + optUser.get().getLastname();
-                                        } else {
-                                            name = optUser.get().getUsername();
-                                        }
-                                    }
-                                default:
-                                    break;
-                            }
-                        } catch (TechnicalException e) {
-                            LOGGER.error("Error finding metadata {}", metadataKey);
-                            name = property.getValue();
+                        Audit.AuditProperties auditProperty = getAuditProperty(property.getKey());
+                        Map<String, String> propertyNames = auditProperty == Audit.AuditProperties.METADATA
+                                ? metadataNames.get(reference)
+                                : namesByProperty.get(auditProperty);
+                        if (propertyNames == null) {
+                            propertyNames = Collections.emptyMap();
                         }
-                        metadata.put(metadataKey, name);
+                        metadata.put(metadataKey, propertyNames.getOrDefault(property.getValue(), property.getValue()));
                     }
                 }
             }
@@ -196,6 +256,115 @@ public class AuditServiceImpl extends AbstractService implements AuditService {
         return metadata;
     }
 
+    private Audit.AuditProperties getAuditProperty(String property) {
+        try {
+            return Audit.AuditProperties.valueOf(property);
+        } catch (IllegalArgumentException iae) {
+            return null;
+        }
+    }
+
+    private Map<String, String> findUserNames(Set<String> userIds) {
+        Map<String, String> names = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return names;
+        }
+        try {
+            for (User user : userRepository.findByIds(new ArrayList<>(userIds))) {
+                if (user.getFirstname() != null && user.getLastname() != null) {
+                    names.put(user.getId(), user.getFirstname() + " " + user.getLastname());
+                } else {
+                    names.put(user.getId(), user.getUsername());
+                }
+            }
+        } catch (TechnicalException e) {
+            LOGGER.error("Error finding metadata for users {}", userIds, e);
+        }
+        return names;
+    }
+
+    private Map<String, String> findGroupNames(Set<String> groupIds) {
+        Map<String, String> names = new HashMap<>();
+        if (!groupIds.isEmpty()) {
+            try {
+                groupRepository.findByIds(groupIds).forEach(group -> names.put(group.getId(), group.getName()));
+            } catch (TechnicalException e) {
+                LOGGER.error("Error finding metadata for groups {}", groupIds, e);
+            }
+        }
+        return names;
+    }
+
+    private Map<String, String> findPageNames(Map<AuditReference, Set<String>> pageIds) {
+        Map<String, String> names = new HashMap<>();
+        pageIds.forEach((reference, ids) -> {
+            try {
+                Collection<io.gravitee.repository.management.model.Page> pages;
+                if (reference.is(Audit.AuditReferenceType.API)) {
+                    pages = pageRepository.findApiPageByApiId(reference.id);
+                } else if (reference.is(Audit.AuditReferenceType.PORTAL)) {
+                    pages = pageRepository.findPortalPages();
+                } else {
+                    pages = new ArrayList<>();
+                    for (String id : ids) {
+                        if (!names.containsKey(id)) {
+                            pageRepository.findById(id).ifPresent(pages::add);
+                        }
+                    }
+                }
+                pages.forEach(page -> names.put(page.getId(), page.getName()));
+            } catch (TechnicalException e) {
+                LOGGER.error("Error finding metadata for pages {}", ids, e);
+            }
+        });
+        return names;
+    }
+
+    private Map<String, String> findPlanNames(Map<AuditReference, Set<String>> planIds) {
+        Map<String, String> names = new HashMap<>();
+        planIds.forEach((reference, ids) -> {
+            try {
+                Collection<Plan> plans;
+                if (reference.is(Audit.AuditReferenceType.API)) {
+                    plans = planRepository.findByApi(reference.id);
+                } else {
+                    plans = new ArrayList<>();
+                    for (String id : ids) {
+                        if (!names.containsKey(id)) {
+                            planRepository.findById(id).ifPresent(plans::add);
+                        }
+                    }
+                }
+                plans.forEach(plan -> names.put(plan.getId(), plan.getName()));
+            } catch (TechnicalException e) {
+                LOGGER.error("Error finding metadata for plans {}", ids, e);
+            }
+        });
+        return names;
+    }
+
+    private Map<AuditReference, Map<String, String>> findMetadataNames(Set<AuditReference> references) {
+        Map<AuditReference, Map<String, String>> namesByReference = new HashMap<>();
+        for (AuditReference reference : references) {
+            MetadataReferenceType refType = reference.is(Audit.AuditReferenceType.API)
+                    ? MetadataReferenceType.API :
+                    reference.is(Audit.AuditReferenceType.APPLICATION) ?
+                            MetadataReferenceType.APPLICATION :
+                            MetadataReferenceType.DEFAULT;
+            String refId = refType.equals(MetadataReferenceType.DEFAULT) ? getDefautReferenceId() : reference.id;
+
+            Map<String, String> names = new HashMap<>();
+            try {
+                metadataRepository.findByReferenceTypeAndReferenceId(refType, refId)
+                        .forEach(metadata -> names.put(metadata.getKey(), metadata.getName()));
+            } catch (TechnicalException e) {
+                LOGGER.error("Error finding metadata for {} {}", refType, refId, e);
+            }
+            namesByReference.put(reference, names);
+        }
+        return namesByReference;
+    }
+
     @Override
     public void createApiAuditLog(String apiId, Map<Audit.AuditProperties,String> properties, Audit.AuditEvent event, Date createdAt,
                                   Object oldValue, Object newValue) {
@@ -257,7 +426,6 @@ public class AuditServiceImpl extends AbstractService implements AuditService {
                 newValue);
     }
 
-    @Async
     protected void create(Audit.AuditReferenceType referenceType, String referenceId, Map<Audit.AuditProperties,String> properties,
                           Audit.AuditEvent event, String userId, Date createdAt,
                           Object oldValue, Object newValue) {
@@ -275,19 +443,143 @@ public class AuditServiceImpl extends AbstractService implements AuditService {
         audit.setReferenceId(referenceId);
         audit.setEvent(event.name());
 
-        ObjectNode oldNode = oldValue == null
-                ? mapper.createObjectNode()
-                : mapper.convertValue(oldValue, ObjectNode.class).remove(Arrays.asList("updatedAt", "createdAt"));
-        ObjectNode newNode = newValue == null
-                ? mapper.createObjectNode()
-                : mapper.convertValue(newValue, ObjectNode.class).remove(Arrays.asList("updatedAt", "createdAt"));
+        enqueue(new PendingAudit(audit, toJson(oldValue), toJson(newValue)));
+    }
 
-        audit.setPatch(JsonDiff.asJson(oldNode, newNode).toString());
+    private JsonNode toJson(Object value) {
+        if (value == null) {
+            return mapper.createObjectNode();
+        }
+        JsonNode node = mapper.valueToTree(value);
+        if (node.isObject()) {
+            ((ObjectNode) node).remove(Arrays.asList("updatedAt", "createdAt"));
+        }
+        return node;
+    }
 
+    private void enqueue(PendingAudit pendingAudit) {
+        runningLock.readLock().lock();
         try {
-            auditRepository.create(audit);
-        } catch (TechnicalException e) {
-            LOGGER.error("Error occurs during the creation of an Audit Log {}.", e);
+            if (running) {
+                offer(pendingAudit);
+                return;
+            }
+        } finally {
+            runningLock.readLock().unlock();
+        }
+        insert(Collections.singletonList(pendingAudit));
+    }
+
+    private void offer(PendingAudit pendingAudit) {
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                while (!queue.offer(pendingAudit)) {
+                    PendingAudit dropped = queue.poll();
+                    if (dropped != null) {
+                        LOGGER.warn("Audit queue is full, audit log {} [{}] is dropped", dropped.audit.getId(), dropped.audit.getEvent());
+                    }
+                }
+                break;
+            case SPILL:
+                if (!queue.offer(pendingAudit) && !spill(pendingAudit)) {
+                    insert(Collections.singletonList(pendingAudit));
+                }
+                break;
+            default:
+                try {
+                    queue.put(pendingAudit);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    insert(Collections.singletonList(pendingAudit));
+                }
+        }
+    }
+
+    private void write() {
+        final List<PendingAudit> batch = new ArrayList<>(batchSize);
+        try {
+            // audit logs spilled before a restart are written back even if the policy has changed since
+            replaySpilled();
+            while (running || !queue.isEmpty()) {
+                try {
+                    PendingAudit first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first != null) {
+                        batch.add(first);
+                        queue.drainTo(batch, batchSize - 1);
+                        insert(batch);
+                    } else if (overflowPolicy == OverflowPolicy.SPILL) {
+                        replaySpilled();
+                    }
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception ex) {
+                    LOGGER.error("Unexpected error while writing audit logs", ex);
+                } finally {
+                    batch.clear();
+                }
+            }
+        } finally {
+            stopped.countDown();
+        }
+    }
+
+    /**
+     * Write a batch of audit logs. The repository has no bulk insert, the audit logs are written one after the other
+     * and the first error stops the batch: the repository is most likely unavailable, the audit logs left are spilled
+     * on disk when the policy allows it, and reported as lost otherwise.
+     */
+    private void insert(List<PendingAudit> batch) {
+        int written = 0;
+        try {
+            for (PendingAudit pendingAudit : batch) {
+                auditRepository.create(pendingAudit.toAudit());
+                written++;
+            }
+        } catch (Exception e) {
+            final List<PendingAudit> unwritten = batch.subList(written, batch.size());
+            LOGGER.error("Error occurs during the creation of the Audit Log {}, {} audit logs of the batch are not written.",
+                    unwritten.get(0).audit.getId(), unwritten.size(), e);
+            if (overflowPolicy == OverflowPolicy.SPILL) {
+                unwritten.forEach(this::spill);
+            }
+        }
+    }
+
+    /**
+     * @return <code>false</code> if the audit log could not be written to disk
+     */
+    private boolean spill(PendingAudit pendingAudit) {
+        File directory = new File(spillPath);
+        File file = new File(directory, pendingAudit.audit.getId() + SPILL_FILE_EXTENSION);
+        File tmpFile = new File(directory, pendingAudit.audit.getId() + ".tmp");
+        try {
+            Files.createDirectories(directory.toPath());
+            mapper.writeValue(tmpFile, pendingAudit.toAudit());
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException ioe) {
+            LOGGER.error("Error occurs while spilling audit log {} to {}", pendingAudit.audit.getId(), file, ioe);
+            return false;
+        }
+    }
+
+    /**
+     * Write the audit logs spilled on disk while the queue was full, on startup and once the worker is idle.
+     */
+    private void replaySpilled() {
+        File[] files = new File(spillPath).listFiles((dir, name) -> name.endsWith(SPILL_FILE_EXTENSION));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            try {
+                auditRepository.create(mapper.readValue(file, Audit.class));
+                Files.delete(file.toPath());
+            } catch (Exception e) {
+                LOGGER.error("Error occurs while writing spilled audit log {}", file, e);
+                return;
+            }
         }
     }
 
@@ -309,4 +601,65 @@ public class AuditServiceImpl extends AbstractService implements AuditService {
     private String getAuthenticatedUsernameOrSystem() {
         return isAuthenticated() ? getAuthenticatedUsername() : "system";
     }
+
+    public enum OverflowPolicy {
+        /**
+         * The caller waits until the queue has room for the audit log.
+         */
+        BLOCK,
+        /**
+         * The oldest audit log of the queue is discarded.
+         */
+        DROP_OLDEST,
+        /**
+         * The audit log is written to disk and replayed when the queue is drained.
+         */
+        SPILL
+    }
+
+    private static class PendingAudit {
+        private final Audit audit;
+        private final JsonNode oldValue;
+        private final JsonNode newValue;
+
+        private PendingAudit(Audit audit, JsonNode oldValue, JsonNode newValue) {
+            this.audit = audit;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        private Audit toAudit() {
+            if (audit.getPatch() == null) {
+                audit.setPatch(JsonDiff.asJson(oldValue, newValue).toString());
+            }
+            return audit;
+        }
+    }
+
+    private static class AuditReference {
+        private final String type;
+        private final String id;
+
+        private AuditReference(String type, String id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        private boolean is(Audit.AuditReferenceType referenceType) {
+            return referenceType.name().equals(type);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            AuditReference that = (AuditReference) o;
+            return Objects.equals(type, that.type) && Objects.equals(id, that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, id);
+        }
+    }
 }
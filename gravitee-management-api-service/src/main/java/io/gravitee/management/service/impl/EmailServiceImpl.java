@@ -20,24 +20,34 @@ import freemarker.template.Template;
 import io.gravitee.management.service.EmailNotification;
 import io.gravitee.management.service.EmailService;
 import io.gravitee.management.service.exceptions.TechnicalManagementException;
+import io.gravitee.management.service.spring.AsyncConfiguration;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.select.Elements;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import javax.activation.MimetypesFileTypeMap;
+import javax.mail.internet.MimeMessage;
 import java.io.File;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -46,12 +56,17 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 import static org.springframework.ui.freemarker.FreeMarkerTemplateUtils.processTemplateIntoString;
 
 /**
+ * Asynchronous notifications are pushed to a bounded queue drained by workers running on the email executor. Each
+ * worker sends the pending emails by batch so that a single SMTP connection is opened for the whole batch. Failed
+ * emails are put back in the queue, to be sent again once their retry delay is elapsed. The caller never sends an
+ * asynchronous notification itself: when the queue is full, the notification is rejected, logged and counted.
+ *
  * @author Azize ELAMRANI (azize.elamrani at graviteesource.com)
  * @author Nicolas GERAUD (nicolas.geraud at graviteesource.com)
  * @author GraviteeSource Team
  */
 @Component
-public class EmailServiceImpl extends TransactionalService implements EmailService {
+public class EmailServiceImpl extends TransactionalService implements EmailService, InitializingBean, DisposableBean {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EmailServiceImpl.class);
 
@@ -59,6 +74,9 @@ public class EmailServiceImpl extends TransactionalService implements EmailServi
     private JavaMailSender mailSender;
     @Autowired
     private Configuration freemarkerConfiguration;
+    @Autowired
+    @Qualifier(AsyncConfiguration.EMAIL_EXECUTOR)
+    private TaskExecutor emailExecutor;
     @Value("${templates.path:${gravitee.home}/templates}")
     private String templatesPath;
     @Value("${email.subject:[Gravitee.io] %s}")
@@ -67,50 +85,205 @@ public class EmailServiceImpl extends TransactionalService implements EmailServi
     private boolean enabled;
     @Value("${email.from}")
     private String defaultFrom;
+    @Value("${email.queue.capacity:1000}")
+    private int queueCapacity;
+    @Value("${email.queue.workers:1}")
+    private int workers;
+    @Value("${email.queue.batchSize:20}")
+    private int batchSize;
+    @Value("${email.queue.rateLimit:0}")
+    private int rateLimit;
+    @Value("${email.queue.retry.maxAttempts:3}")
+    private int maxAttempts;
+    @Value("${email.queue.retry.delay:10000}")
+    private long retryDelay;
+    @Value("${email.queue.shutdownTimeout:10000}")
+    private long shutdownTimeout;
+
+    private final Map<String, InlineResource> inlineResources = new ConcurrentHashMap<>();
+
+    private final DelayQueue<PendingEmail> queue = new DelayQueue<>();
+    private Semaphore slots;
+    private final AtomicLong rejected = new AtomicLong();
+    private CountDownLatch stoppedWorkers;
+    private volatile boolean running;
+    private long nextPermitAt;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (enabled) {
+            slots = new Semaphore(queueCapacity);
+            running = true;
+            stoppedWorkers = new CountDownLatch(workers);
+            for (int i = 0; i < workers; i++) {
+                emailExecutor.execute(this::deliver);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (running) {
+            running = false;
+            stoppedWorkers.await(shutdownTimeout, TimeUnit.MILLISECONDS);
+            if (!queue.isEmpty()) {
+                LOGGER.warn("{} email notifications have not been sent before shutdown", queue.size());
+            }
+        }
+    }
 
     public void sendEmailNotification(final EmailNotification emailNotification) {
         if (enabled) {
             try {
-                final MimeMessageHelper mailMessage = new MimeMessageHelper(mailSender.createMimeMessage(), true, StandardCharsets.UTF_8.name());
+                mailSender.send(prepareMessage(emailNotification));
+            } catch (final Exception ex) {
+                LOGGER.error("Error while sending email notification", ex);
+                throw new TechnicalManagementException("Error while sending email notification", ex);
+            }
+        }
+    }
 
-                final Template template = freemarkerConfiguration.getTemplate(emailNotification.getTemplate());
-                final String content = processTemplateIntoString(template, emailNotification.getParams());
+    public void sendAsyncEmailNotification(final EmailNotification emailNotification) {
+        if (enabled && !offer(new PendingEmail(emailNotification))) {
+            // never sent by the caller: a slow SMTP server must not slow down the requests triggering emails
+            LOGGER.warn("Email queue is full, the email notification to {} is rejected ({} rejected so far)",
+                    emailNotification.getTo(), rejected.incrementAndGet());
+        }
+    }
 
-                final String from = isNull(emailNotification.getFrom()) || emailNotification.getFrom().isEmpty()
-                        ? defaultFrom
-                        : emailNotification.getFrom();
+    /**
+     * Put an email in the queue if one of its slots is free. The delay queue itself is not bounded: a slot is taken
+     * when an email is queued and given back when a worker takes it.
+     *
+     * @return false if the email has not been queued, because the queue is full or the service is stopped
+     */
+    private boolean offer(final PendingEmail email) {
+        if (!running || !slots.tryAcquire()) {
+            return false;
+        }
+        return queue.offer(email);
+    }
 
-                if (isEmpty(emailNotification.getFromName())) {
-                    mailMessage.setFrom(from);
-                } else {
-                    mailMessage.setFrom(from, emailNotification.getFromName());
+    private void deliver() {
+        final List<PendingEmail> batch = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                try {
+                    // only the emails whose retry delay is elapsed are taken from the queue
+                    final PendingEmail first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first != null) {
+                        batch.add(first);
+                        queue.drainTo(batch, batchSize - 1);
+                        slots.release(batch.size());
+                        sendBatch(batch);
+                    } else if (!running) {
+                        return;
+                    }
+                } catch (final InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (final Exception ex) {
+                    LOGGER.error("Unexpected error while sending email notifications", ex);
+                } finally {
+                    batch.clear();
                 }
+            }
+        } finally {
+            stoppedWorkers.countDown();
+        }
+    }
 
-                mailMessage.setTo(emailNotification.getTo());
-                if (emailNotification.isCopyToSender() && emailNotification.getFrom() != null) {
-                    mailMessage.setBcc(emailNotification.getFrom());
-                }
-                if (emailNotification.getBcc() != null && emailNotification.getBcc().length > 0) {
-                    mailMessage.setBcc(emailNotification.getBcc());
-                }
-                mailMessage.setSubject(format(subject, emailNotification.getSubject()));
+    private void sendBatch(final List<PendingEmail> batch) throws InterruptedException {
+        final Map<MimeMessage, PendingEmail> messages = new LinkedHashMap<>();
+        for (final PendingEmail email : batch) {
+            try {
+                messages.put(prepareMessage(email.notification), email);
+            } catch (final Exception ex) {
+                LOGGER.error("Error while preparing email notification for {}, it will not be sent",
+                        email.notification.getTo(), ex);
+            }
+        }
+
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        acquire(messages.size());
+        messages.values().forEach(email -> email.attempts++);
+        try {
+            // A single transport is opened for all the messages of the batch
+            mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+        } catch (final MailSendException mse) {
+            mse.getFailedMessages().forEach((message, ex) -> retry(messages.get(message), ex));
+        } catch (final MailException me) {
+            messages.values().forEach(email -> retry(email, me));
+        }
+    }
 
-                final String html = addResourcesInMessage(mailMessage, content);
+    private void retry(final PendingEmail email, final Exception cause) {
+        if (email == null) {
+            return;
+        }
+        if (email.attempts >= maxAttempts || !running) {
+            LOGGER.error("Error while sending email notification to {} after {} attempts",
+                    email.notification.getTo(), email.attempts, cause);
+            return;
+        }
 
-                LOGGER.debug("Sending an email to: {}\nSubject: {}\nMessage: {}",
-                        emailNotification.getTo(), emailNotification.getSubject(), html);
+        LOGGER.warn("Error while sending email notification to {}, retrying: {}",
+                email.notification.getTo(), cause.getMessage());
+        email.dueAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryDelay * email.attempts);
+        if (!offer(email)) {
+            LOGGER.error("Email queue is full, the email notification to {} will not be sent again ({} rejected so far)",
+                    email.notification.getTo(), rejected.incrementAndGet());
+        }
+    }
 
-                mailSender.send(mailMessage.getMimeMessage());
-            } catch (final Exception ex) {
-                LOGGER.error("Error while sending email notification", ex);
-                throw new TechnicalManagementException("Error while sending email notification", ex);
+    /**
+     * Wait until the given number of messages can be sent without exceeding the configured rate limit.
+     */
+    private synchronized void acquire(final int permits) throws InterruptedException {
+        if (rateLimit > 0) {
+            final long now = System.nanoTime();
+            final long wait = nextPermitAt - now;
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
             }
+            nextPermitAt = Math.max(now, nextPermitAt) + permits * TimeUnit.SECONDS.toNanos(1) / rateLimit;
         }
     }
 
-    @Async
-    public void sendAsyncEmailNotification(final EmailNotification emailNotification) {
-        sendEmailNotification(emailNotification);
+    private MimeMessage prepareMessage(final EmailNotification emailNotification) throws Exception {
+        final MimeMessageHelper mailMessage = new MimeMessageHelper(mailSender.createMimeMessage(), true, StandardCharsets.UTF_8.name());
+
+        final Template template = freemarkerConfiguration.getTemplate(emailNotification.getTemplate());
+        final String content = processTemplateIntoString(template, emailNotification.getParams());
+
+        final String from = isNull(emailNotification.getFrom()) || emailNotification.getFrom().isEmpty()
+                ? defaultFrom
+                : emailNotification.getFrom();
+
+        if (isEmpty(emailNotification.getFromName())) {
+            mailMessage.setFrom(from);
+        } else {
+            mailMessage.setFrom(from, emailNotification.getFromName());
+        }
+
+        mailMessage.setTo(emailNotification.getTo());
+        if (emailNotification.isCopyToSender() && emailNotification.getFrom() != null) {
+            mailMessage.setBcc(emailNotification.getFrom());
+        }
+        if (emailNotification.getBcc() != null && emailNotification.getBcc().length > 0) {
+            mailMessage.setBcc(emailNotification.getBcc());
+        }
+        mailMessage.setSubject(format(subject, emailNotification.getSubject()));
+
+        final String html = addResourcesInMessage(mailMessage, content);
+
+        LOGGER.debug("Sending an email to: {}\nSubject: {}\nMessage: {}",
+                emailNotification.getTo(), emailNotification.getSubject(), html);
+
+        return mailMessage.getMimeMessage();
     }
 
     private String addResourcesInMessage(final MimeMessageHelper mailMessage, final String htmlText) throws Exception {
@@ -132,13 +305,28 @@ public class EmailServiceImpl extends TransactionalService implements EmailServi
         mailMessage.setText(html, true);
 
         for (final String res : resources) {
-            final FileSystemResource templateResource = new FileSystemResource(new File(templatesPath, res));
-            mailMessage.addInline(res, templateResource, getContentTypeByFileName(res));
+            final InlineResource inlineResource = getInlineResource(res);
+            mailMessage.addInline(res, new ByteArrayResource(inlineResource.content), inlineResource.contentType);
         }
 
         return html;
     }
 
+    /**
+     * Images are read once from the templates directory and kept in memory until the file is modified.
+     */
+    private InlineResource getInlineResource(final String name) throws IOException {
+        final File file = new File(templatesPath, name);
+        final long lastModified = file.lastModified();
+
+        InlineResource inlineResource = inlineResources.get(name);
+        if (inlineResource == null || inlineResource.lastModified != lastModified) {
+            inlineResource = new InlineResource(lastModified, Files.readAllBytes(file.toPath()), getContentTypeByFileName(name));
+            inlineResources.put(name, inlineResource);
+        }
+        return inlineResource;
+    }
+
     private String getContentTypeByFileName(final String fileName) {
         if (fileName == null) {
             return "";
@@ -147,4 +335,36 @@ public class EmailServiceImpl extends TransactionalService implements EmailServi
         }
         return MimetypesFileTypeMap.getDefaultFileTypeMap().getContentType(fileName);
     }
-}
\ No newline at end of file
+
+    private static class PendingEmail implements Delayed {
+        private final EmailNotification notification;
+        private int attempts;
+        private volatile long dueAt = System.nanoTime();
+
+        private PendingEmail(final EmailNotification notification) {
+            this.notification = notification;
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(dueAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    private static class InlineResource {
+        private final long lastModified;
+        private final byte[] content;
+        private final String contentType;
+
+        private InlineResource(final long lastModified, final byte[] content, final String contentType) {
+            this.lastModified = lastModified;
+            this.content = content;
+            this.contentType = contentType;
+        }
+    }
+}
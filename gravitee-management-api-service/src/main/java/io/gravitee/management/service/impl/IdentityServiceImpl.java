@@ -16,14 +16,21 @@
 package io.gravitee.management.service.impl;
 
 import io.gravitee.management.idp.api.identity.SearchableUser;
+import io.gravitee.management.idp.core.authentication.IdentityLookupStatistics;
 import io.gravitee.management.idp.core.authentication.IdentityManager;
+import io.gravitee.management.model.providers.IdentityLookupStatisticsEntity;
 import io.gravitee.management.model.providers.User;
 import io.gravitee.management.service.IdentityService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -46,6 +53,36 @@ public class IdentityServiceImpl implements IdentityService {
         return optUser.flatMap(user -> Optional.of(convert(user)));
     }
 
+    @Override
+    public Map<String, User> findByReferences(Collection<String> references) {
+        if (references == null || references.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final Map<String, User> users = new LinkedHashMap<>();
+        identityManager.lookup(references).forEach((reference, user) -> users.put(reference, convert(user)));
+        return users;
+    }
+
+    @Override
+    public List<IdentityLookupStatisticsEntity> getStatistics() {
+        return identityManager.getStatistics()
+                .stream()
+                .map(this::convert)
+                .collect(Collectors.toList());
+    }
+
+    private IdentityLookupStatisticsEntity convert(IdentityLookupStatistics statistics) {
+        IdentityLookupStatisticsEntity entity = new IdentityLookupStatisticsEntity();
+        entity.setProvider(statistics.getProvider());
+        entity.setCalls(statistics.getCalls());
+        entity.setFailures(statistics.getFailures());
+        entity.setTimeouts(statistics.getTimeouts());
+        entity.setCacheHits(statistics.getCacheHits());
+        entity.setAverageTime(statistics.getAverageTime());
+        entity.setMaxTime(statistics.getMaxTime());
+        return entity;
+    }
+
     private User convert(io.gravitee.management.idp.api.identity.User identity) {
         User user = new User();
         user.setId(identity.getId());
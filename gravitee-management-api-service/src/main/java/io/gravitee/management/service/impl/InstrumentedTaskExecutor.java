@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service.impl;
+
+import io.gravitee.management.model.async.AsyncExecutorStatisticsEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor of the {@link org.springframework.scheduling.annotation.Async} tasks of a workload, with a bounded number of
+ * threads and a bounded queue. Pending tasks are executed before the executor is stopped, up to the await termination
+ * period.
+ *
+ * @author GraviteeSource Team
+ */
+public class InstrumentedTaskExecutor extends ThreadPoolTaskExecutor {
+
+    /**
+     * What to do with a task when all the threads are busy and the queue is full.
+     */
+    public enum RejectionPolicy {
+        /**
+         * Execute it in the thread which submitted it.
+         */
+        CALLER_RUNS,
+        /**
+         * Throw a {@link RejectedExecutionException} to the thread which submitted it.
+         */
+        ABORT,
+        /**
+         * Drop it.
+         */
+        DISCARD,
+        /**
+         * Wait in the thread which submitted it until there is room in the queue, so that the tasks keep their order.
+         */
+        BLOCK
+    }
+
+    private final Logger LOGGER = LoggerFactory.getLogger(InstrumentedTaskExecutor.class);
+
+    private final String name;
+    private final RejectionPolicy rejectionPolicy;
+    private int queueCapacity = Integer.MAX_VALUE;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public InstrumentedTaskExecutor(String name, RejectionPolicy rejectionPolicy) {
+        this.name = name;
+        this.rejectionPolicy = rejectionPolicy;
+
+        setBeanName(name);
+        setThreadNamePrefix("gio-async-" + name + "-");
+        setWaitForTasksToCompleteOnShutdown(true);
+        setRejectedExecutionHandler(this::reject);
+        setTaskDecorator(InstrumentedTask::new);
+    }
+
+    @Override
+    public void setQueueCapacity(int queueCapacity) {
+        super.setQueueCapacity(queueCapacity);
+        this.queueCapacity = queueCapacity;
+    }
+
+    private void reject(Runnable task, ThreadPoolExecutor executor) {
+        if (!executor.isShutdown() && rejectionPolicy == RejectionPolicy.BLOCK) {
+            try {
+                LOGGER.debug("The queue of the {} executor is full, waiting for room in the queue", name);
+                executor.getQueue().put(task);
+                return;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                countRejected();
+                throw new RejectedExecutionException("Interrupted while waiting for the queue of the " + name + " executor", ie);
+            }
+        }
+
+        countRejected();
+        if (executor.isShutdown()) {
+            LOGGER.warn("The {} executor is stopped, an asynchronous task is dropped", name);
+            return;
+        }
+        switch (rejectionPolicy) {
+            case CALLER_RUNS:
+                LOGGER.debug("The queue of the {} executor is full, the task is executed by the caller", name);
+                // not counted as completed: the task has not been executed by this executor
+                ((InstrumentedTask) task).task.run();
+                break;
+            case ABORT:
+                throw new RejectedExecutionException("The queue of the " + name + " executor is full");
+            case DISCARD:
+            default:
+                LOGGER.warn("The queue of the {} executor is full, an asynchronous task is dropped", name);
+                break;
+        }
+    }
+
+    private void countRejected() {
+        // the task has been counted as submitted when it has been decorated
+        submitted.decrementAndGet();
+        rejected.incrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public AsyncExecutorStatisticsEntity getStatistics() {
+        final AsyncExecutorStatisticsEntity statistics = new AsyncExecutorStatisticsEntity();
+        statistics.setName(name);
+        statistics.setCorePoolSize(getCorePoolSize());
+        statistics.setMaxPoolSize(getMaxPoolSize());
+        statistics.setPoolSize(getPoolSize());
+        statistics.setActiveThreads(getActiveCount());
+        statistics.setQueueCapacity(queueCapacity);
+        final ThreadPoolExecutor executor = getThreadPoolExecutor();
+        statistics.setLargestPoolSize(executor.getLargestPoolSize());
+        statistics.setQueueSize(executor.getQueue().size());
+        statistics.setSubmitted(submitted.get());
+        statistics.setCompleted(completed.get());
+        statistics.setRejected(rejected.get());
+        return statistics;
+    }
+
+    private class InstrumentedTask implements Runnable {
+        private final Runnable task;
+
+        private InstrumentedTask(Runnable task) {
+            this.task = task;
+            submitted.incrementAndGet();
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } finally {
+                completed.incrementAndGet();
+            }
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package io.gravitee.management.service.impl;
 
+import io.gravitee.common.event.EventManager;
 import io.gravitee.management.model.*;
 import io.gravitee.management.model.api.ApiEntity;
 import io.gravitee.management.model.api.ApiQuery;
@@ -23,6 +24,7 @@ import io.gravitee.management.model.permissions.SystemRole;
 import io.gravitee.management.model.providers.User;
 import io.gravitee.management.service.*;
 import io.gravitee.management.service.builder.EmailNotificationBuilder;
+import io.gravitee.management.service.event.MembershipEvent;
 import io.gravitee.management.service.exceptions.*;
 import io.gravitee.management.service.notification.NotificationParamsBuilder;
 import io.gravitee.repository.exceptions.TechnicalException;
@@ -95,6 +97,9 @@ public class MembershipServiceImpl extends AbstractService implements Membership
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private EventManager eventManager;
+
     @Override
     public Set<MemberEntity> getMembers(MembershipReferenceType referenceType, String referenceId, RoleScope roleScope) {
         return getMembers(referenceType, referenceId, roleScope, null);
@@ -228,6 +233,36 @@ public class MembershipServiceImpl extends AbstractService implements Membership
         }
     }
 
+    @Override
+    public Set<RoleEntity> getDefaultRoles(String userId) {
+        try {
+            LOGGER.debug("Get default roles of user {}", userId);
+
+            final Set<RoleEntity> roles = new HashSet<>();
+            for (Membership membership : membershipRepository.findByUser(userId)) {
+                if (!MembershipDefaultReferenceId.DEFAULT.name().equals(membership.getReferenceId())) {
+                    continue;
+                }
+                final RoleScope roleScope;
+                if (membership.getReferenceType() == MembershipReferenceType.PORTAL) {
+                    roleScope = RoleScope.PORTAL;
+                } else if (membership.getReferenceType() == MembershipReferenceType.MANAGEMENT) {
+                    roleScope = RoleScope.MANAGEMENT;
+                } else {
+                    continue;
+                }
+                final String roleName = membership.getRoles() == null ? null : membership.getRoles().get(roleScope.getId());
+                if (roleName != null) {
+                    roles.add(roleService.findById(roleScope, roleName));
+                }
+            }
+            return roles;
+        } catch (TechnicalException ex) {
+            LOGGER.error("An error occurs while trying to get the default roles of user {}", userId, ex);
+            throw new TechnicalManagementException("An error occurs while trying to get the default roles of user " + userId, ex);
+        }
+    }
+
     @Override
     public MemberEntity addOrUpdateMember(MembershipReference reference, MembershipUser user, MembershipRole role) {
         return addOrUpdateMember(reference, user, role, false);
@@ -256,18 +291,7 @@ public class MembershipServiceImpl extends AbstractService implements Membership
                         userEntity = userService.findByUsername(providerUser.get().getUsername(), false);
                         assertNotOverridePrimaryOwner(reference, userEntity.getId(), role);
                     } catch (UserNotFoundException unfe) {
-                        User identityUser = providerUser.get();
-                        // The user is not yet registered in repository
-                        // Information will be updated after the first connection of the user
-                        NewExternalUserEntity newUser = new NewExternalUserEntity();
-                        newUser.setUsername(identityUser.getUsername());
-                        newUser.setFirstname(identityUser.getFirstname());
-                        newUser.setLastname(identityUser.getLastname());
-                        newUser.setSource(identityUser.getSource());
-                        newUser.setEmail(identityUser.getEmail());
-                        newUser.setSourceId(identityUser.getSourceId());
-
-                        userEntity = userService.create(newUser, true);
+                        userEntity = createExternalUser(providerUser.get());
                     }
                 } else {
                     throw new UserNotFoundException(user.getReference());
@@ -284,6 +308,7 @@ public class MembershipServiceImpl extends AbstractService implements Membership
                 updatedMembership.getRoles().put(role.getScope().getId(), role.getName());
                 updatedMembership.setUpdatedAt(updateDate);
                 returnedMembership = membershipRepository.update(optionalMembership.get());
+                eventManager.publishEvent(MembershipEvent.UPDATE, returnedMembership);
                 createAuditLog(MEMBERSHIP_UPDATED, updatedMembership.getUpdatedAt(), previousMembership, updatedMembership);
             } else {
                 Membership membership = new Membership(userEntity.getId(), reference.getId(), reference.getType());
@@ -291,6 +316,7 @@ public class MembershipServiceImpl extends AbstractService implements Membership
                 membership.setCreatedAt(updateDate);
                 membership.setUpdatedAt(updateDate);
                 returnedMembership = membershipRepository.create(membership);
+                eventManager.publishEvent(MembershipEvent.CREATE, returnedMembership);
                 createAuditLog(MEMBERSHIP_CREATED, membership.getCreatedAt(), null, membership);
 
                 if (userEntity.getEmail() != null && !userEntity.getEmail().isEmpty()) {
@@ -308,6 +334,36 @@ public class MembershipServiceImpl extends AbstractService implements Membership
         }
     }
 
+    @Override
+    public Map<String, UserEntity> findOrCreateUsers(Collection<String> references) {
+        final Map<String, UserEntity> users = new LinkedHashMap<>();
+        identityService.findByReferences(references)
+                .forEach((reference, providerUser) -> users.put(reference, findOrCreateUser(providerUser)));
+        return users;
+    }
+
+    private UserEntity findOrCreateUser(User identityUser) {
+        try {
+            return userService.findByUsername(identityUser.getUsername(), false);
+        } catch (UserNotFoundException unfe) {
+            return createExternalUser(identityUser);
+        }
+    }
+
+    private UserEntity createExternalUser(User identityUser) {
+        // The user is not yet registered in repository
+        // Information will be updated after the first connection of the user
+        NewExternalUserEntity newUser = new NewExternalUserEntity();
+        newUser.setUsername(identityUser.getUsername());
+        newUser.setFirstname(identityUser.getFirstname());
+        newUser.setLastname(identityUser.getLastname());
+        newUser.setSource(identityUser.getSource());
+        newUser.setEmail(identityUser.getEmail());
+        newUser.setSourceId(identityUser.getSourceId());
+
+        return userService.create(newUser, true);
+    }
+
     @Override
     public void deleteMember(MembershipReferenceType referenceType, String referenceId, String userId) {
         try {
@@ -325,6 +381,7 @@ public class MembershipServiceImpl extends AbstractService implements Membership
             }
             Membership membership = new Membership(userId, referenceId, referenceType);
             membershipRepository.delete(membership);
+            eventManager.publishEvent(MembershipEvent.DELETE, membership);
             createAuditLog(MEMBERSHIP_DELETED, new Date(), membership, null);
         } catch (TechnicalException ex) {
             LOGGER.error("An error occurs while trying to delete member {} for {} {}", userId, referenceType, referenceId, ex);
@@ -402,6 +459,7 @@ public class MembershipServiceImpl extends AbstractService implements Membership
                     throw new MemberWithoutRoleException(membership.getUserId());
                 } else {
                     membershipRepository.update(membership);
+                    eventManager.publishEvent(MembershipEvent.UPDATE, membership);
                     createAuditLog(MEMBERSHIP_UPDATED, membership.getUpdatedAt(), previousMembership, membership);
                     return true;
                 }
@@ -420,6 +478,7 @@ public class MembershipServiceImpl extends AbstractService implements Membership
             for (Membership membership : memberships) {
                 membership.getRoles().put(roleScope.getId(), newRole);
                 membershipRepository.update(membership);
+                eventManager.publishEvent(MembershipEvent.UPDATE, membership);
             }
         } catch (TechnicalException ex) {
             LOGGER.error("An error occurs while trying to remove role {} {}", roleScope, roleName, ex);
@@ -432,6 +491,7 @@ public class MembershipServiceImpl extends AbstractService implements Membership
         try {
             for(Membership membership : membershipRepository.findByUser(userId)) {
                 membershipRepository.delete(membership);
+                eventManager.publishEvent(MembershipEvent.DELETE, membership);
             }
         } catch (TechnicalException ex) {
             LOGGER.error("An error occurs while trying to remove user {}", userId, ex);
@@ -18,11 +18,15 @@ package io.gravitee.management.service.impl;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
+import io.gravitee.common.data.domain.Page;
 import io.gravitee.common.http.HttpMethod;
+import io.gravitee.common.utils.UUID;
 import io.gravitee.management.model.*;
 import io.gravitee.management.service.*;
 import io.gravitee.management.service.builder.EmailNotificationBuilder;
+import io.gravitee.management.service.common.CompactIdSet;
 import io.gravitee.management.service.exceptions.ApiNotFoundException;
+import io.gravitee.management.service.exceptions.MessageBroadcastNotFoundException;
 import io.gravitee.management.service.exceptions.MessageEmptyException;
 import io.gravitee.management.service.exceptions.MessageRecipientFormatException;
 import io.gravitee.management.service.exceptions.TechnicalManagementException;
@@ -30,22 +34,32 @@ import io.gravitee.management.service.notification.ApiHook;
 import io.gravitee.management.service.notification.Hook;
 import io.gravitee.management.service.notification.PortalHook;
 import io.gravitee.management.service.notifiers.WebNotifierService;
+import io.gravitee.management.service.spring.AsyncConfiguration;
 import io.gravitee.repository.exceptions.TechnicalException;
 import io.gravitee.repository.management.api.ApiRepository;
 import io.gravitee.repository.management.api.MembershipRepository;
 import io.gravitee.repository.management.api.SubscriptionRepository;
 import io.gravitee.repository.management.api.search.SubscriptionCriteria;
+import io.gravitee.repository.management.api.search.builder.PageableBuilder;
 import io.gravitee.repository.management.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Component;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
 import java.util.stream.Collectors;
 
 import static io.gravitee.management.service.impl.MessageServiceImpl.MesssageEvent.MESSAGE_SENT;
@@ -92,56 +106,144 @@ public class MessageServiceImpl extends AbstractService implements MessageServic
     @Value("${email.from}")
     private String defaultFrom;
 
+    @Value("${messages.chunkSize:100}")
+    private int chunkSize;
+
+    @Value("${messages.broadcast.retention:3600000}")
+    private long broadcastRetention = 3600000;
+
+    /**
+     * Messages sent in background, by broadcast id. Finished ones are kept for the retention delay, running ones are
+     * bounded by the queue of the message executor.
+     */
+    private final Map<String, Broadcast> broadcasts = new ConcurrentHashMap<>();
+
+    @Autowired
+    @Qualifier(AsyncConfiguration.MESSAGE_EXECUTOR)
+    private TaskExecutor messageExecutor;
+
     public enum MesssageEvent implements Audit.AuditEvent {
         MESSAGE_SENT
     }
 
     @Override
     public int create(String apiId, MessageEntity message) {
-        assertMessageNotEmpty(message);
+        assertMessageValid(message);
+        Api api = findApi(apiId);
+        Broadcast broadcast = new Broadcast(null, apiId, message.getChannel(), false);
+        send(api, message, broadcast);
+        createAuditLog(api, message);
+        return (int) broadcast.sent.get();
+    }
+
+    @Override
+    public int create(MessageEntity message) {
+        assertMessageValid(message);
+        Broadcast broadcast = new Broadcast(null, null, message.getChannel(), false);
+        send(null, message, broadcast);
+        createAuditLog(null, message);
+        return (int) broadcast.sent.get();
+    }
+
+    @Override
+    public MessageBroadcastEntity createAsync(String apiId, MessageEntity message) {
+        assertMessageValid(message);
+        return sendAsync(findApi(apiId), message);
+    }
+
+    @Override
+    public MessageBroadcastEntity createAsync(MessageEntity message) {
+        assertMessageValid(message);
+        return sendAsync(null, message);
+    }
+
+    @Override
+    public MessageBroadcastEntity findBroadcastById(String apiId, String broadcastId) {
+        Broadcast broadcast = broadcasts.get(broadcastId);
+        if (broadcast == null || !Objects.equals(apiId, broadcast.apiId)) {
+            throw new MessageBroadcastNotFoundException(broadcastId);
+        }
+        return broadcast.toEntity();
+    }
+
+    @Override
+    public MessageBroadcastEntity findBroadcastById(String broadcastId) {
+        return findBroadcastById(null, broadcastId);
+    }
+
+    private Api findApi(String apiId) {
         try {
             Optional<Api> optionalApi = apiRepository.findById(apiId);
             if (!optionalApi.isPresent()) {
                 throw new ApiNotFoundException(apiId);
             }
-            Api api = optionalApi.get();
+            return optionalApi.get();
+        } catch(TechnicalException ex) {
+            LOGGER.error("An error occurs while trying to get create a message", ex);
+            throw new TechnicalManagementException("An error occurs while trying to create a message", ex);
+        }
+    }
+
+    private MessageBroadcastEntity sendAsync(Api api, MessageEntity message) {
+        removeExpiredBroadcasts();
 
-            int msgSize = send(api, message, getRecipientsId(api, message));
+        final Broadcast broadcast = new Broadcast(UUID.toString(UUID.random()),
+                api == null ? null : api.getId(), message.getChannel(), true);
+        // registered before being submitted, so that the task always finds it
+        broadcasts.put(broadcast.id, broadcast);
+        try {
+            messageExecutor.execute(new DelegatingSecurityContextRunnable(() -> {
+                broadcast.status = MessageBroadcastEntity.Status.RUNNING;
+                try {
+                    send(api, message, broadcast);
+                    broadcast.finish(MessageBroadcastEntity.Status.DONE);
+                } catch (Exception ex) {
+                    LOGGER.error("An error occurs while sending the message {}", broadcast.id, ex);
+                    broadcast.finish(MessageBroadcastEntity.Status.FAILED);
+                }
+            }));
+        } catch (TaskRejectedException ex) {
+            broadcasts.remove(broadcast.id);
+            LOGGER.error("Too many messages are being sent, the message is rejected", ex);
+            throw new TechnicalManagementException("Too many messages are being sent, try again later", ex);
+        }
 
+        // the message is audited once accepted, whatever the outcome of the sending which is tracked by the broadcast
+        createAuditLog(api, message);
+        return broadcast.toEntity();
+    }
+
+    private void removeExpiredBroadcasts() {
+        final long expiration = System.currentTimeMillis() - broadcastRetention;
+        broadcasts.values().removeIf(broadcast ->
+                broadcast.finishedAt != null && broadcast.finishedAt.getTime() < expiration);
+    }
+
+    private void createAuditLog(Api api, MessageEntity message) {
+        if (api == null) {
+            auditService.createPortalAuditLog(
+                    Collections.emptyMap(),
+                    MESSAGE_SENT,
+                    getAuthenticatedUsername(),
+                    new Date(),
+                    null,
+                    message);
+        } else {
             auditService.createApiAuditLog(
-                    apiId,
+                    api.getId(),
                     Collections.emptyMap(),
                     MESSAGE_SENT,
                     new Date(),
                     null,
                     message);
-            return msgSize;
-        } catch(TechnicalException ex) {
-            LOGGER.error("An error occurs while trying to get create a message", ex);
-            throw new TechnicalManagementException("An error occurs while trying to create a message", ex);
         }
     }
 
-    @Override
-    public int create(MessageEntity message) {
-        assertMessageNotEmpty(message);
-
-        int msgSize = send(null, message, getRecipientsId(message));
-
-        auditService.createPortalAuditLog(
-                Collections.emptyMap(),
-                MESSAGE_SENT,
-                getAuthenticatedUsername(),
-                new Date(),
-                null,
-                message);
-        return msgSize;
-    }
-
-    private int send(Api api, MessageEntity message, Set<String> recipientsId) {
+    private void send(Api api, MessageEntity message, Broadcast broadcast) {
         switch (message.getChannel()) {
             case MAIL:
-                Set<String> mails = getRecipientsEmails(recipientsId);
+                forEachRecipientsChunk(api, message, recipientsId -> broadcast.deliver(recipientsId.size(), () -> {
+                    Set<String> mails = getRecipientsEmails(recipientsId);
                     if (!mails.isEmpty()) {
                         emailService.sendAsyncEmailNotification(new EmailNotificationBuilder()
                                 .to(defaultFrom)
@@ -150,24 +252,31 @@ public class MessageServiceImpl extends AbstractService implements MessageServic
                                 .template(EmailNotificationBuilder.EmailTemplate.GENERIC_MESSAGE)
                                 .params(Collections.singletonMap("message", message.getText()))
                                 .build());
-                }
-                return mails.size();
+                    }
+                    return mails.size();
+                }));
+                break;
 
             case PORTAL:
                 Hook hook = api==null ? PortalHook.MESSAGE : ApiHook.MESSAGE;
-                portalNotificationService.create(hook, new ArrayList<>(recipientsId), getPortalParams(api, message));
-                return recipientsId.size();
+                Map<String, Object> params = getPortalParams(api, message);
+                forEachRecipientsChunk(api, message, recipientsId -> broadcast.deliver(recipientsId.size(), () -> {
+                    portalNotificationService.create(hook, recipientsId, params);
+                    return recipientsId.size();
+                }));
+                break;
 
             case HTTP:
-                webNotifierService.request(
-                        HttpMethod.POST,
-                        recipientsId.iterator().next(),
-                        message.getParams(),
-                        getPostMessage(api, message),
-                        message.isUseSystemProxy());
-                return 1;
-            default:
-                return 0;
+                broadcast.deliver(1, () -> {
+                    webNotifierService.request(
+                            HttpMethod.POST,
+                            message.getRecipient().getUrl(),
+                            message.getParams(),
+                            getPostMessage(api, message),
+                            message.isUseSystemProxy());
+                    return 1;
+                });
+                break;
         }
     }
 
@@ -185,72 +294,86 @@ public class MessageServiceImpl extends AbstractService implements MessageServic
             return Collections.singleton(message.getRecipient().getUrl());
         }
         assertRecipientsNotEmpty(message);
+
+        final Set<String> recipientIds = new HashSet<>();
+        forEachRecipientsChunk(api, message, recipientIds::addAll);
+        return recipientIds;
+    }
+
+    /**
+     * Stream the distinct recipients of a message by chunks, so that the subscriptions and the memberships of a popular
+     * API are never loaded at once.
+     */
+    private void forEachRecipientsChunk(Api api, MessageEntity message, Consumer<List<String>> consumer) {
         MessageRecipientEntity recipientEntity = message.getRecipient();
         // 2 cases are implemented :
         // - global sending (no apiId provided) + scope MANAGEMENT
         // - api consumer (apiId provided) + scope APPLICATION
         // the first 2 cases are for admin communication, the last one for the api publisher communication.
 
+        final RecipientsChunker chunker = new RecipientsChunker(consumer);
         try {
-            final Set<String> recipientIds = new HashSet<>();
             // CASE 1 : global sending
             if (api == null && RoleScope.MANAGEMENT.name().equals(recipientEntity.getRoleScope())) {
                 for (String roleName: recipientEntity.getRoleValues()) {
-                    recipientIds.addAll(
-                            membershipRepository.findByRole(RoleScope.MANAGEMENT, roleName)
-                                    .stream()
-                                    .map(Membership::getUserId)
-                                    .collect(Collectors.toSet()));
+                    chunker.accept(membershipRepository.findByRole(RoleScope.MANAGEMENT, roleName));
                 }
             }
             // CASE 2 : specific api consumers
             else if (api != null && RoleScope.APPLICATION.name().equals(recipientEntity.getRoleScope())) {
-
-                // Get apps allowed to consume the api
-                List<String> applicationIds = subscriptionRepository.search(
-                        new SubscriptionCriteria.Builder()
-                                .apis(Collections.singleton(api.getId()))
-                                .status(Subscription.Status.ACCEPTED)
-                                .build())
-                        .stream()
-                        .map(Subscription::getApplication)
-                        .collect(Collectors.toList());
-
-                // Get members of the applications (direct members)
-                for (String roleName: recipientEntity.getRoleValues()) {
-                    recipientIds.addAll(
-                            membershipRepository.findByReferencesAndRole(
+                final SubscriptionCriteria criteria = new SubscriptionCriteria.Builder()
+                        .apis(Collections.singleton(api.getId()))
+                        .status(Subscription.Status.ACCEPTED)
+                        .build();
+                final CompactIdSet applicationIds = new CompactIdSet();
+
+                // Get apps allowed to consume the api, page by page
+                int pageNumber = 0;
+                List<Subscription> subscriptions;
+                do {
+                    Page<Subscription> page = subscriptionRepository.search(criteria,
+                            new PageableBuilder().pageNumber(pageNumber++).pageSize(chunkSize).build());
+                    subscriptions = page == null || page.getContent() == null ?
+                            Collections.emptyList() : page.getContent();
+
+                    List<String> pageApplicationIds = subscriptions
+                            .stream()
+                            .map(Subscription::getApplication)
+                            .filter(applicationIds::add)
+                            .collect(Collectors.toList());
+
+                    // Get members of the applications (direct members)
+                    if (!pageApplicationIds.isEmpty()) {
+                        for (String roleName : recipientEntity.getRoleValues()) {
+                            chunker.accept(membershipRepository.findByReferencesAndRole(
                                     MembershipReferenceType.APPLICATION,
-                                    applicationIds,
+                                    pageApplicationIds,
                                     RoleScope.APPLICATION,
-                                    roleName)
-                                    .stream()
-                                    .map(Membership::getUserId)
-                                    .collect(Collectors.toSet()));
-                }
+                                    roleName));
+                        }
+                    }
+                } while (subscriptions.size() == chunkSize);
+
                 // Get members of the applications (group members)
                 if (api.getGroups() != null && !api.getGroups().isEmpty()) {
                     for (String roleName: recipientEntity.getRoleValues()) {
-                        recipientIds.addAll(
+                        chunker.accept(
                                 membershipRepository.findByReferencesAndRole(
                                         MembershipReferenceType.GROUP,
                                         new ArrayList<>(api.getGroups()),
                                         RoleScope.APPLICATION,
-                                        roleName)
-                                        .stream()
-                                        .map(Membership::getUserId)
-                                        .collect(Collectors.toSet()));
+                                        roleName));
                     }
                 }
             }
-            return recipientIds;
+            chunker.flush();
         } catch(TechnicalException ex) {
             LOGGER.error("An error occurs while trying to get recipients", ex);
             throw new TechnicalManagementException("An error occurs while trying to get recipients", ex);
         }
     }
 
-    private Set<String> getRecipientsEmails(Set<String> recipientsId) {
+    private Set<String> getRecipientsEmails(Collection<String> recipientsId) {
         if(recipientsId.isEmpty()) {
             return Collections.emptySet();
         }
@@ -263,6 +386,13 @@ public class MessageServiceImpl extends AbstractService implements MessageServic
        return emails;
     }
 
+    private void assertMessageValid(MessageEntity messageEntity) {
+        assertMessageNotEmpty(messageEntity);
+        if (!MessageChannel.HTTP.equals(messageEntity.getChannel())) {
+            assertRecipientsNotEmpty(messageEntity);
+        }
+    }
+
     private void assertMessageNotEmpty(MessageEntity messageEntity) {
         if (    messageEntity == null ||
                 (StringUtils.isEmpty(messageEntity.getTitle()) && StringUtils.isEmpty(messageEntity.getText()))) {
@@ -312,4 +442,101 @@ public class MessageServiceImpl extends AbstractService implements MessageServic
             throw new TechnicalManagementException("Unable to apply templating on the message", e);
         }
     }
+
+    /**
+     * Collect the user ids of memberships, drop the ones already seen and hand them over by chunks.
+     */
+    private class RecipientsChunker {
+        private final Consumer<List<String>> consumer;
+        private final CompactIdSet recipientIds = new CompactIdSet();
+        private List<String> chunk = new ArrayList<>();
+
+        private RecipientsChunker(Consumer<List<String>> consumer) {
+            this.consumer = consumer;
+        }
+
+        private void accept(Collection<Membership> memberships) {
+            if (memberships == null) {
+                return;
+            }
+            for (Membership membership : memberships) {
+                if (recipientIds.add(membership.getUserId())) {
+                    chunk.add(membership.getUserId());
+                    if (chunk.size() >= chunkSize) {
+                        flush();
+                    }
+                }
+            }
+        }
+
+        private void flush() {
+            if (!chunk.isEmpty()) {
+                final List<String> recipients = chunk;
+                chunk = new ArrayList<>();
+                consumer.accept(recipients);
+            }
+        }
+    }
+
+    /**
+     * Progress of a message being sent.
+     */
+    private class Broadcast {
+        private final String id;
+        private final String apiId;
+        private final MessageChannel channel;
+        /**
+         * When true, a chunk of recipients which can not be delivered is counted as failed and the next chunks are
+         * still sent. Otherwise, the error is thrown to the sender.
+         */
+        private final boolean continueOnFailure;
+        private final Date createdAt = new Date();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile MessageBroadcastEntity.Status status = MessageBroadcastEntity.Status.PENDING;
+        private volatile Date finishedAt;
+
+        private Broadcast(String id, String apiId, MessageChannel channel, boolean continueOnFailure) {
+            this.id = id;
+            this.apiId = apiId;
+            this.channel = channel;
+            this.continueOnFailure = continueOnFailure;
+        }
+
+        /**
+         * @param recipients number of recipients of the chunk
+         * @param delivery sends the message to the chunk and returns the number of recipients it has been delivered to
+         */
+        private void deliver(int recipients, IntSupplier delivery) {
+            total.addAndGet(recipients);
+            try {
+                sent.addAndGet(delivery.getAsInt());
+            } catch (RuntimeException ex) {
+                if (!continueOnFailure) {
+                    throw ex;
+                }
+                LOGGER.error("An error occurs while sending the message {} to {} recipients", id, recipients, ex);
+                failed.addAndGet(recipients);
+            }
+        }
+
+        private void finish(MessageBroadcastEntity.Status status) {
+            this.finishedAt = new Date();
+            this.status = status;
+        }
+
+        private MessageBroadcastEntity toEntity() {
+            MessageBroadcastEntity entity = new MessageBroadcastEntity();
+            entity.setId(id);
+            entity.setChannel(channel);
+            entity.setStatus(status);
+            entity.setTotal(total.get());
+            entity.setSent(sent.get());
+            entity.setFailed(failed.get());
+            entity.setCreatedAt(createdAt);
+            entity.setFinishedAt(finishedAt);
+            return entity;
+        }
+    }
 }
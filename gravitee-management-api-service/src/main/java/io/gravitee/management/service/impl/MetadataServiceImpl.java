@@ -22,6 +22,7 @@ import io.gravitee.management.model.NewMetadataEntity;
 import io.gravitee.management.model.UpdateMetadataEntity;
 import io.gravitee.management.service.AuditService;
 import io.gravitee.management.service.MetadataService;
+import io.gravitee.management.service.PageCacheService;
 import io.gravitee.management.service.exceptions.DuplicateMetadataNameException;
 import io.gravitee.management.service.exceptions.TechnicalManagementException;
 import io.gravitee.repository.exceptions.TechnicalException;
@@ -65,6 +66,9 @@ public class MetadataServiceImpl extends TransactionalService implements Metadat
     @Autowired
     private AuditService auditService;
 
+    @Autowired
+    private PageCacheService pageCacheService;
+
     @Override
     public List<MetadataEntity> findAllDefault() {
         try {
@@ -102,6 +106,7 @@ public class MetadataServiceImpl extends TransactionalService implements Metadat
             metadata.setCreatedAt(now);
             metadata.setUpdatedAt(now);
             metadataRepository.create(metadata);
+            pageCacheService.evictMetadata();
             // Audit
             auditService.createPortalAuditLog(
                     Collections.singletonMap(METADATA, metadata.getKey()),
@@ -134,6 +139,7 @@ public class MetadataServiceImpl extends TransactionalService implements Metadat
             final Date now = new Date();
             metadata.setUpdatedAt(now);
             metadataRepository.update(metadata);
+            pageCacheService.evictMetadata();
             // Audit
             auditService.createPortalAuditLog(
                     Collections.singletonMap(METADATA, metadata.getKey()),
@@ -154,6 +160,7 @@ public class MetadataServiceImpl extends TransactionalService implements Metadat
             final Optional<Metadata> optMetadata = metadataRepository.findById(key, DEFAUT_REFERENCE_ID, MetadataReferenceType.DEFAULT);
             if (optMetadata.isPresent()) {
                 metadataRepository.delete(key, DEFAUT_REFERENCE_ID, MetadataReferenceType.DEFAULT);
+                pageCacheService.evictMetadata();
                 // Audit
                 auditService.createPortalAuditLog(
                         Collections.singletonMap(METADATA, key),
@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service.impl;
+
+import freemarker.cache.TemplateLoader;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import io.gravitee.management.model.notification.NewPortalNotificationEntity;
+import io.gravitee.management.service.NotificationTemplateService;
+import io.gravitee.management.service.exceptions.TechnicalManagementException;
+import io.gravitee.management.service.notification.ApiHook;
+import io.gravitee.management.service.notification.ApplicationHook;
+import io.gravitee.management.service.notification.Hook;
+import io.gravitee.management.service.notification.PortalHook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileCopyUtils;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.ui.freemarker.FreeMarkerTemplateUtils.processTemplateIntoString;
+
+/**
+ * The YAML of a portal notification template is parsed once, and its title and its message are compiled as two
+ * templates. A template is compiled again when Freemarker reloads it from the templates directory.
+ *
+ * @author GraviteeSource Team
+ */
+@Component
+public class NotificationTemplateServiceImpl implements NotificationTemplateService, InitializingBean {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(NotificationTemplateServiceImpl.class);
+    private final static String RELATIVE_TPL_PATH = "notifications/portal/";
+
+    @Autowired
+    private Configuration freemarkerConfiguration;
+
+    private final Map<String, PortalNotificationTemplate> portalTemplates = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterPropertiesSet() {
+        final List<Hook> hooks = new ArrayList<>();
+        hooks.addAll(Arrays.asList(ApiHook.values()));
+        hooks.addAll(Arrays.asList(ApplicationHook.values()));
+        hooks.addAll(Arrays.asList(PortalHook.values()));
+        hooks.forEach(hook -> {
+            try {
+                getPortalTemplate(getPortalTemplateName(hook));
+            } catch (Exception ex) {
+                // the template may not exist for this hook, or will be compiled again on first use
+                LOGGER.debug("Unable to compile the portal notification template of hook {}: {}", hook, ex.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public NewPortalNotificationEntity renderPortalNotification(Hook hook, Object params) {
+        try {
+            return getPortalTemplate(getPortalTemplateName(hook)).render(params);
+        } catch (IOException | TemplateException ex) {
+            LOGGER.error("An error occurs while rendering the portal notification of hook {}", hook, ex);
+            throw new TechnicalManagementException("An error occurs while rendering the portal notification of hook " + hook, ex);
+        }
+    }
+
+    private String getPortalTemplateName(Hook hook) {
+        return RELATIVE_TPL_PATH + hook.getScope().name() + "." + hook.name() + ".yml";
+    }
+
+    private PortalNotificationTemplate getPortalTemplate(String name) throws IOException {
+        // the Freemarker cache returns the same instance until the template file is modified
+        final Template source = freemarkerConfiguration.getTemplate(name);
+        PortalNotificationTemplate template = portalTemplates.get(name);
+        if (template == null || template.source != source) {
+            template = compile(name, source);
+            portalTemplates.put(name, template);
+        }
+        return template;
+    }
+
+    private PortalNotificationTemplate compile(String name, Template source) throws IOException {
+        final String content = readTemplateContent(name, source.getEncoding());
+        if (content != null) {
+            try {
+                final Object yaml = new Yaml().load(content);
+                if (yaml instanceof Map) {
+                    final Object title = ((Map) yaml).get("title");
+                    final Object message = ((Map) yaml).get("message");
+                    if ((title == null || title instanceof String) && (message == null || message instanceof String)) {
+                        return new PortalNotificationTemplate(source,
+                                title == null ? null : new Template(name + "#title", (String) title, freemarkerConfiguration),
+                                message == null ? null : new Template(name + "#message", (String) message, freemarkerConfiguration));
+                    }
+                }
+            } catch (RuntimeException ex) {
+                LOGGER.debug("The template {} is not a YAML document before being rendered", name, ex);
+            }
+        }
+
+        // the YAML structure of the template depends on its rendering, so it has to be parsed after each rendering
+        return new PortalNotificationTemplate(source);
+    }
+
+    private String readTemplateContent(String name, String encoding) throws IOException {
+        final TemplateLoader templateLoader = freemarkerConfiguration.getTemplateLoader();
+        final Object templateSource = templateLoader.findTemplateSource(name);
+        if (templateSource == null) {
+            return null;
+        }
+        try (Reader reader = templateLoader.getReader(templateSource, encoding == null ? "UTF-8" : encoding)) {
+            return FileCopyUtils.copyToString(reader);
+        } finally {
+            templateLoader.closeTemplateSource(templateSource);
+        }
+    }
+
+    private static class PortalNotificationTemplate {
+        private final Template source;
+        private final boolean compiled;
+        private final Template title;
+        private final Template message;
+
+        private PortalNotificationTemplate(Template source, Template title, Template message) {
+            this.source = source;
+            this.compiled = true;
+            this.title = title;
+            this.message = message;
+        }
+
+        private PortalNotificationTemplate(Template source) {
+            this.source = source;
+            this.compiled = false;
+            this.title = null;
+            this.message = null;
+        }
+
+        private NewPortalNotificationEntity render(Object params) throws IOException, TemplateException {
+            final NewPortalNotificationEntity notification = new NewPortalNotificationEntity();
+            if (compiled) {
+                notification.setTitle(title == null ? null : processTemplateIntoString(title, params));
+                notification.setMessage(message == null ? null : processTemplateIntoString(message, params));
+            } else {
+                Map<String, String> load = new Yaml().loadAs(processTemplateIntoString(source, params), HashMap.class);
+                notification.setTitle(load.get("title"));
+                notification.setMessage(load.get("message"));
+            }
+            return notification;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service.impl;
+
+import io.gravitee.management.model.notification.NotifierChannelStatisticsEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deliver the notifications of a channel with a fixed number of workers and a bounded queue, so that a slow channel
+ * neither delays the other ones nor piles up an unbounded amount of pending notifications. The thread triggering a
+ * notification never delivers it: when the queue is full, a notification is dropped and counted as rejected.
+ *
+ * @author GraviteeSource Team
+ */
+class NotifierChannelExecutor {
+
+    /**
+     * What to do with a notification when the queue of the channel is full.
+     */
+    enum RejectionPolicy {
+        /**
+         * Drop it.
+         */
+        DISCARD,
+        /**
+         * Drop the oldest pending notification to make room for it.
+         */
+        DISCARD_OLDEST
+    }
+
+    private final Logger LOGGER = LoggerFactory.getLogger(NotifierChannelExecutor.class);
+
+    private final String channel;
+    private final int queueCapacity;
+    private final RejectionPolicy rejectionPolicy;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    NotifierChannelExecutor(String channel, int workers, int queueCapacity, RejectionPolicy rejectionPolicy) {
+        this.channel = channel;
+        this.queueCapacity = queueCapacity;
+        this.rejectionPolicy = rejectionPolicy;
+
+        final AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "gio-notifier-" + channel + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                this::reject);
+    }
+
+    void execute(Runnable delivery) {
+        submitted.incrementAndGet();
+        executor.execute(new TimedDelivery(delivery));
+    }
+
+    private void reject(Runnable delivery, ThreadPoolExecutor executor) {
+        rejected.incrementAndGet();
+        if (executor.isShutdown()) {
+            LOGGER.warn("The {} notifier is stopped, a notification is dropped", channel);
+            return;
+        }
+        switch (rejectionPolicy) {
+            case DISCARD_OLDEST:
+                LOGGER.warn("The queue of the {} notifier is full, the oldest notification is dropped", channel);
+                executor.getQueue().poll();
+                executor.execute(delivery);
+                break;
+            case DISCARD:
+            default:
+                LOGGER.warn("The queue of the {} notifier is full, the notification is dropped", channel);
+                break;
+        }
+    }
+
+    void shutdown(long timeout) throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+            LOGGER.warn("Notifications of the {} notifier are still pending, they are dropped", channel);
+            executor.shutdownNow();
+        }
+    }
+
+    NotifierChannelStatisticsEntity getStatistics() {
+        final NotifierChannelStatisticsEntity statistics = new NotifierChannelStatisticsEntity();
+        statistics.setChannel(channel);
+        statistics.setWorkers(executor.getMaximumPoolSize());
+        statistics.setActiveWorkers(executor.getActiveCount());
+        statistics.setQueueSize(executor.getQueue().size());
+        statistics.setQueueCapacity(queueCapacity);
+        statistics.setSubmitted(submitted.get());
+        statistics.setFailed(failed.get());
+        statistics.setRejected(rejected.get());
+        final long done = completed.get();
+        statistics.setCompleted(done);
+        statistics.setAverageLatency(done == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatency.get() / done));
+        statistics.setMaxLatency(TimeUnit.NANOSECONDS.toMillis(maxLatency.get()));
+        return statistics;
+    }
+
+    private class TimedDelivery implements Runnable {
+        private final Runnable delivery;
+        private final long submittedAt = System.nanoTime();
+
+        private TimedDelivery(Runnable delivery) {
+            this.delivery = delivery;
+        }
+
+        @Override
+        public void run() {
+            try {
+                delivery.run();
+            } catch (Exception ex) {
+                failed.incrementAndGet();
+                LOGGER.error("An error occurs while delivering a notification with the {} notifier", channel, ex);
+            } finally {
+                final long latency = System.nanoTime() - submittedAt;
+                completed.incrementAndGet();
+                totalLatency.addAndGet(latency);
+                maxLatency.accumulateAndGet(latency, Math::max);
+            }
+        }
+    }
+}
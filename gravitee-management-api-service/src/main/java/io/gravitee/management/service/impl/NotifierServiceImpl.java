@@ -15,9 +15,11 @@
  */
 package io.gravitee.management.service.impl;
 
+import io.gravitee.management.model.notification.NotifierChannelStatisticsEntity;
 import io.gravitee.management.model.notification.NotifierEntity;
 import io.gravitee.management.service.NotifierService;
 import io.gravitee.management.service.PortalNotificationService;
+import io.gravitee.management.service.exceptions.TechnicalManagementException;
 import io.gravitee.management.service.notification.ApiHook;
 import io.gravitee.management.service.notification.ApplicationHook;
 import io.gravitee.management.service.notification.Hook;
@@ -33,21 +35,29 @@ import io.gravitee.repository.management.model.PortalNotificationConfig;
 import io.gravitee.repository.management.model.PortalNotificationDefaultReferenceId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
+ * Each channel looks up its own configurations and delivers its notifications with its own bounded executor: the
+ * triggering thread only submits one task per channel, and never waits for a repository, a mail server or a webhook.
+ *
  * @author Nicolas GERAUD (nicolas.geraud at graviteesource.com)
  * @author GraviteeSource Team
  */
 @Component
-public class NotifierServiceImpl extends AbstractService implements NotifierService {
+public class NotifierServiceImpl extends AbstractService implements NotifierService, InitializingBean, DisposableBean {
 
     /**
      * Default Notifier IDs
@@ -55,6 +65,10 @@ public class NotifierServiceImpl extends AbstractService implements NotifierServ
     public static final String DEFAULT_EMAIL_NOTIFIER_ID = "default-email";
     private static final String DEFAULT_WEBHOOK_NOTIFIER_ID = "default-webhook";
 
+    private static final String PORTAL_CHANNEL = "portal";
+    private static final String EMAIL_CHANNEL = "email";
+    private static final String WEBHOOK_CHANNEL = "webhook";
+
 
     private final Logger LOGGER = LoggerFactory.getLogger(NotifierServiceImpl.class);
 
@@ -73,25 +87,61 @@ public class NotifierServiceImpl extends AbstractService implements NotifierServ
     @Autowired
     WebhookNotifierService webhookNotifierService;
 
+    @Autowired
+    private ConfigurableEnvironment environment;
+
+    @Value("${notifiers.dispatch.shutdownTimeout:10000}")
+    private long shutdownTimeout;
+
+    /**
+     * Executors looking up and delivering the notifications, by channel.
+     */
+    private final Map<String, NotifierChannelExecutor> channels = new LinkedHashMap<>();
+
+    @Override
+    public void afterPropertiesSet() {
+        channels.put(PORTAL_CHANNEL, createChannel(PORTAL_CHANNEL, 2));
+        channels.put(EMAIL_CHANNEL, createChannel(EMAIL_CHANNEL, 2));
+        channels.put(WEBHOOK_CHANNEL, createChannel(WEBHOOK_CHANNEL, 4));
+    }
+
+    private NotifierChannelExecutor createChannel(String channel, int defaultWorkers) {
+        final String prefix = "notifiers.dispatch." + channel + ".";
+        return new NotifierChannelExecutor(channel,
+                environment.getProperty(prefix + "workers", Integer.class, defaultWorkers),
+                environment.getProperty(prefix + "queueCapacity", Integer.class, 1000),
+                NotifierChannelExecutor.RejectionPolicy.valueOf(
+                        environment.getProperty(prefix + "rejectionPolicy", "DISCARD_OLDEST").toUpperCase()));
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (NotifierChannelExecutor channel : channels.values()) {
+            channel.shutdown(shutdownTimeout);
+        }
+    }
+
     @Override
-    @Async
     public void trigger(final ApiHook hook, final String apiId, Map<String, Object> params) {
-        triggerPortalNotifications(hook, NotificationReferenceType.API, apiId, params);
-        triggerGenericNotifications(hook, NotificationReferenceType.API, apiId, params);
+        dispatch(hook, NotificationReferenceType.API, apiId, params);
     }
 
     @Override
-    @Async
     public void trigger(final ApplicationHook hook, final String applicationId, Map<String, Object> params) {
-        triggerPortalNotifications(hook, NotificationReferenceType.APPLICATION, applicationId, params);
-        triggerGenericNotifications(hook, NotificationReferenceType.APPLICATION, applicationId, params);
+        dispatch(hook, NotificationReferenceType.APPLICATION, applicationId, params);
     }
 
     @Override
-    @Async
     public void trigger(final PortalHook hook, Map<String, Object> params) {
-        triggerPortalNotifications(hook, NotificationReferenceType.PORTAL, PortalNotificationDefaultReferenceId.DEFAULT.name(), params);
-        triggerGenericNotifications(hook, NotificationReferenceType.PORTAL, PortalNotificationDefaultReferenceId.DEFAULT.name(), params);
+        dispatch(hook, NotificationReferenceType.PORTAL, PortalNotificationDefaultReferenceId.DEFAULT.name(), params);
+    }
+
+    private void dispatch(final Hook hook, final NotificationReferenceType refType, final String refId, final Map<String, Object> params) {
+        channels.get(PORTAL_CHANNEL).execute(() -> triggerPortalNotifications(hook, refType, refId, params));
+        channels.get(EMAIL_CHANNEL).execute(() -> triggerGenericNotifications(DEFAULT_EMAIL_NOTIFIER_ID, hook, refType, refId,
+                config -> emailNotifierService.trigger(hook, config, params)));
+        channels.get(WEBHOOK_CHANNEL).execute(() -> triggerGenericNotifications(DEFAULT_WEBHOOK_NOTIFIER_ID, hook, refType, refId,
+                config -> webhookNotifierService.trigger(hook, config, params)));
     }
 
     private void triggerPortalNotifications(final Hook hook, final NotificationReferenceType refType, final String refId, final Map<String, Object> params) {
@@ -104,30 +154,37 @@ public class NotifierServiceImpl extends AbstractService implements NotifierServ
                 portalNotificationService.create(hook, userIds, params);
             }
         } catch (TechnicalException e) {
-            LOGGER.error("Error looking for PortalNotificationConfig with {}/{}/{}", hook, refType, refId, e);
+            throw new TechnicalManagementException("Error looking for PortalNotificationConfig with " + hook + '/' + refType + '/' + refId, e);
         }
     }
 
-    private void triggerGenericNotifications(final Hook hook, final NotificationReferenceType refType, final String refId, final Map<String, Object> params) {
+    private void triggerGenericNotifications(final String notifier, final Hook hook, final NotificationReferenceType refType,
+                                             final String refId, final Consumer<GenericNotificationConfig> delivery) {
         try {
             for (GenericNotificationConfig genericNotificationConfig : genericNotificationConfigRepository.findByReferenceAndHook(hook.name(), refType, refId)) {
-                switch (genericNotificationConfig.getNotifier()) {
-                    case DEFAULT_EMAIL_NOTIFIER_ID:
-                        emailNotifierService.trigger(hook, genericNotificationConfig, params);
-                        break;
-                    case DEFAULT_WEBHOOK_NOTIFIER_ID:
-                        webhookNotifierService.trigger(hook, genericNotificationConfig, params);
-                        break;
-                    default:
-                        LOGGER.error("Unknown notifier {}", genericNotificationConfig.getNotifier());
-                        break;
+                if (notifier.equals(genericNotificationConfig.getNotifier())) {
+                    // a failing configuration must not prevent the delivery of the other ones
+                    try {
+                        delivery.accept(genericNotificationConfig);
+                    } catch (Exception e) {
+                        LOGGER.error("Error triggering the {} notifier for {}/{}/{}", notifier, hook, refType, refId, e);
+                    }
                 }
             }
         } catch (TechnicalException e) {
-            LOGGER.error("Error looking for GenericNotificationConfig with {}/{}/{}", hook, refType, refId, e);
+            // counted as a failed delivery of the channel
+            throw new TechnicalManagementException("Error looking for GenericNotificationConfig with " + hook + '/' + refType + '/' + refId, e);
         }
     }
 
+    @Override
+    public List<NotifierChannelStatisticsEntity> getChannelStatistics() {
+        return channels.values()
+                .stream()
+                .map(NotifierChannelExecutor::getStatistics)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<NotifierEntity> list(NotificationReferenceType referenceType, String referenceId) {
         NotifierEntity emailNotifier = new NotifierEntity();
@@ -0,0 +1,219 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import io.gravitee.management.model.ApiModelEntity;
+import io.gravitee.management.service.PageCacheService;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * All the caches are bounded LRU caches. Rendered contents and API models also expire after a delay, as the API and
+ * metadata versions are only known by the node on which they have been updated.
+ *
+ * The metadata versions of the APIs are bounded too. They are all taken from a single sequence, so that the version
+ * given to an API whose previous version has been evicted has never been used by this API.
+ *
+ * @author GraviteeSource Team
+ */
+@Component
+public class PageCacheServiceImpl implements PageCacheService, InitializingBean {
+
+    @Autowired
+    private Configuration freemarkerConfiguration;
+
+    @Value("${documentation.cache.templates:500}")
+    private int maxTemplates;
+    @Value("${documentation.cache.contents:500}")
+    private int maxContents;
+    @Value("${documentation.cache.ttl:300000}")
+    private long contentTtl;
+
+    private Cache<TemplateKey, Template> templates;
+    private Cache<ContentKey, String> contents;
+    private Cache<String, ApiModelEntity> apiModels;
+    private Cache<String, AtomicLong> apiMetadataVersions;
+
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final AtomicLong metadataVersion = new AtomicLong();
+
+    @Override
+    public void afterPropertiesSet() {
+        templates = CacheBuilder.newBuilder()
+                .maximumSize(maxTemplates)
+                .build();
+        contents = CacheBuilder.newBuilder()
+                .maximumSize(maxContents)
+                .expireAfterWrite(contentTtl, TimeUnit.MILLISECONDS)
+                .build();
+        apiModels = CacheBuilder.newBuilder()
+                .maximumSize(maxContents)
+                .expireAfterWrite(contentTtl, TimeUnit.MILLISECONDS)
+                .build();
+        // an API without cached contents does not need its version
+        apiMetadataVersions = CacheBuilder.newBuilder()
+                .maximumSize(maxContents)
+                .build();
+    }
+
+    @Override
+    public Template getTemplate(String pageId, Date updatedAt, String content) throws IOException {
+        if (updatedAt == null) {
+            return new Template(pageId, content, freemarkerConfiguration);
+        }
+
+        final TemplateKey key = new TemplateKey(pageId, updatedAt.getTime());
+        Template template = templates.getIfPresent(key);
+        if (template == null) {
+            template = new Template(pageId, content, freemarkerConfiguration);
+            templates.put(key, template);
+        }
+        return template;
+    }
+
+    @Override
+    public String getContent(String pageId, Date updatedAt, String apiId, Date apiUpdatedAt, Supplier<String> renderer) {
+        if (updatedAt == null || apiUpdatedAt == null) {
+            return renderer.get();
+        }
+
+        // versions are read before rendering so that a concurrent metadata update invalidates this content
+        final ContentKey key = new ContentKey(pageId, updatedAt.getTime(), apiId, apiUpdatedAt.getTime(),
+                apiMetadataVersion(apiId).get(), metadataVersion.get());
+        final String cachedContent = contents.getIfPresent(key);
+        if (cachedContent != null) {
+            return cachedContent;
+        }
+
+        final String content = renderer.get();
+        if (content != null) {
+            contents.put(key, content);
+        }
+        return content;
+    }
+
+    @Override
+    public ApiModelEntity getApiModel(String apiId, Supplier<ApiModelEntity> loader) {
+        ApiModelEntity apiModel = apiModels.getIfPresent(apiId);
+        if (apiModel == null) {
+            apiModel = loader.get();
+            apiModels.put(apiId, apiModel);
+        }
+        return apiModel;
+    }
+
+    @Override
+    public void evictPage(String pageId) {
+        templates.asMap().keySet().removeIf(key -> key.pageId.equals(pageId));
+        contents.asMap().keySet().removeIf(key -> key.pageId.equals(pageId));
+    }
+
+    @Override
+    public void evictApi(String apiId) {
+        apiMetadataVersion(apiId).set(versionSequence.incrementAndGet());
+        apiModels.invalidate(apiId);
+        contents.asMap().keySet().removeIf(key -> key.apiId.equals(apiId));
+    }
+
+    @Override
+    public void evictMetadata() {
+        metadataVersion.incrementAndGet();
+        apiModels.invalidateAll();
+        contents.invalidateAll();
+    }
+
+    private AtomicLong apiMetadataVersion(String apiId) {
+        try {
+            return apiMetadataVersions.get(apiId, () -> new AtomicLong(versionSequence.incrementAndGet()));
+        } catch (ExecutionException ee) {
+            // the loader cannot fail
+            throw new IllegalStateException(ee);
+        }
+    }
+
+    private static class TemplateKey {
+        private final String pageId;
+        private final long updatedAt;
+
+        private TemplateKey(String pageId, long updatedAt) {
+            this.pageId = pageId;
+            this.updatedAt = updatedAt;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            TemplateKey that = (TemplateKey) o;
+            return updatedAt == that.updatedAt && Objects.equals(pageId, that.pageId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(pageId, updatedAt);
+        }
+    }
+
+    private static class ContentKey {
+        private final String pageId;
+        private final long updatedAt;
+        private final String apiId;
+        private final long apiUpdatedAt;
+        private final long apiMetadataVersion;
+        private final long metadataVersion;
+
+        private ContentKey(String pageId, long updatedAt, String apiId, long apiUpdatedAt, long apiMetadataVersion, long metadataVersion) {
+            this.pageId = pageId;
+            this.updatedAt = updatedAt;
+            this.apiId = apiId;
+            this.apiUpdatedAt = apiUpdatedAt;
+            this.apiMetadataVersion = apiMetadataVersion;
+            this.metadataVersion = metadataVersion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ContentKey that = (ContentKey) o;
+            return updatedAt == that.updatedAt &&
+                    apiUpdatedAt == that.apiUpdatedAt &&
+                    apiMetadataVersion == that.apiMetadataVersion &&
+                    metadataVersion == that.metadataVersion &&
+                    Objects.equals(pageId, that.pageId) &&
+                    Objects.equals(apiId, that.apiId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(pageId, updatedAt, apiId, apiUpdatedAt, apiMetadataVersion, metadataVersion);
+        }
+    }
+}
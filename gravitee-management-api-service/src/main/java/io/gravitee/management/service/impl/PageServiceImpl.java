@@ -15,9 +15,9 @@
  */
 package io.gravitee.management.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
-import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import io.gravitee.common.http.MediaType;
@@ -34,6 +34,7 @@ import io.gravitee.management.model.permissions.RolePermissionAction;
 import io.gravitee.management.service.*;
 import io.gravitee.management.service.exceptions.*;
 import io.gravitee.management.service.search.SearchEngineService;
+import io.gravitee.management.service.spring.AsyncConfiguration;
 import io.gravitee.plugin.fetcher.FetcherPlugin;
 import io.gravitee.plugin.fetcher.FetcherPluginManager;
 import io.gravitee.repository.exceptions.TechnicalException;
@@ -46,15 +47,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 import org.springframework.stereotype.Component;
 import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.lang.reflect.Constructor;
+import java.net.URI;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
 import static io.gravitee.repository.management.model.Audit.AuditProperties.PAGE;
@@ -73,11 +81,16 @@ public class PageServiceImpl extends TransactionalService implements PageService
 
 	private static final Gson gson = new Gson();
 
+	private static final ObjectMapper mapper = new ObjectMapper();
+
 	private static final Logger logger = LoggerFactory.getLogger(PageServiceImpl.class);
 
 	@Autowired
 	private PageRepository pageRepository;
 
+	@Autowired
+	private PageCacheService pageCacheService;
+
 	@Autowired
 	private ApiService apiService;
 
@@ -90,9 +103,6 @@ public class PageServiceImpl extends TransactionalService implements PageService
 	@Autowired
 	private FetcherConfigurationFactory fetcherConfigurationFactory;
 
-	@Autowired
-	private Configuration freemarkerConfiguration;
-
 	@Autowired
 	private ApplicationContext applicationContext;
 
@@ -108,6 +118,18 @@ public class PageServiceImpl extends TransactionalService implements PageService
 	@Autowired
 	private SearchEngineService searchEngineService;
 
+	@Autowired
+	@Qualifier(AsyncConfiguration.FETCHER_EXECUTOR)
+	private TaskExecutor fetcherExecutor;
+
+	@Value("${documentation.fetch.workersPerSource:2}")
+	private int fetchWorkersPerSource;
+
+	/**
+	 * Fetcher classes resolved from the plugin classloader, by fetcher type.
+	 */
+	private final Map<String, FetcherDefinition> fetcherDefinitions = new ConcurrentHashMap<>();
+
 	@Override
 	public List<PageListItem> findApiPagesByApi(String apiId) {
 	    return findApiPagesByApiAndHomepage(apiId, null, null);
@@ -251,23 +273,31 @@ public class PageServiceImpl extends TransactionalService implements PageService
 
 	private void transformWithTemplate(final PageEntity pageEntity, final String api) {
 		if (pageEntity.getContent() != null) {
-			try {
-				Template template = new Template(pageEntity.getId(), pageEntity.getContent(), freemarkerConfiguration);
-
-				ApiModelEntity apiEntity = apiService.findByIdForTemplates(api);
-				Map<String, Object> model = new HashMap<>();
-				model.put("api", apiEntity);
-
-				final String content =
-						FreeMarkerTemplateUtils.processTemplateIntoString(template, model);
+			final ApiModelEntity apiModel = pageCacheService.getApiModel(api, () -> apiService.findByIdForTemplates(api));
+			final String content = pageCacheService.getContent(pageEntity.getId(), pageEntity.getLastModificationDate(),
+					api, apiModel.getUpdatedAt(), () -> render(pageEntity, apiModel));
 
+			if (content != null) {
 				pageEntity.setContent(content);
-			} catch (IOException | TemplateException ex) {
-				logger.error("An error occurs while transforming page content for {}", pageEntity.getId(), ex);
 			}
 		}
 	}
 
+	private String render(final PageEntity pageEntity, final ApiModelEntity apiModel) {
+		try {
+			Template template = pageCacheService.getTemplate(pageEntity.getId(), pageEntity.getLastModificationDate(),
+					pageEntity.getContent());
+
+			Map<String, Object> model = new HashMap<>();
+			model.put("api", apiModel);
+
+			return FreeMarkerTemplateUtils.processTemplateIntoString(template, model);
+		} catch (IOException | TemplateException ex) {
+			logger.error("An error occurs while transforming page content for {}", pageEntity.getId(), ex);
+			return null;
+		}
+	}
+
 	@Override
 	public PageEntity createApiPage(String apiId, NewPageEntity newPageEntity) {
 		try {
@@ -447,6 +477,7 @@ public class PageServiceImpl extends TransactionalService implements PageService
 				return null;
 			} else {
 				Page updatedPage = pageRepository.update(page);
+				pageCacheService.evictPage(pageId);
 				createAuditLog(page.getApi(), PAGE_UPDATED, page.getUpdatedAt(), pageToUpdate, page);
 
 				PageEntity pageEntity = convert(updatedPage);
@@ -466,12 +497,9 @@ public class PageServiceImpl extends TransactionalService implements PageService
 			return null;
 		}
 		try {
-			FetcherPlugin fetcherPlugin = fetcherPluginManager.get(ps.getType());
-			ClassLoader fetcherCL = fetcherPlugin.fetcher().getClassLoader();
-			Class<? extends FetcherConfiguration> fetcherConfigurationClass = (Class<? extends FetcherConfiguration>) fetcherCL.loadClass(fetcherPlugin.configuration().getName());
-			Class<? extends Fetcher> fetcherClass = (Class<? extends Fetcher>) fetcherCL.loadClass(fetcherPlugin.clazz());
-			FetcherConfiguration fetcherConfigurationInstance = fetcherConfigurationFactory.create(fetcherConfigurationClass, ps.getConfiguration());
-			Fetcher fetcher = fetcherClass.getConstructor(fetcherConfigurationClass).newInstance(fetcherConfigurationInstance);
+			FetcherDefinition fetcherDefinition = fetcherDefinitions.computeIfAbsent(ps.getType(), this::loadFetcherDefinition);
+			FetcherConfiguration fetcherConfigurationInstance = fetcherConfigurationFactory.create(fetcherDefinition.configurationClass, ps.getConfiguration());
+			Fetcher fetcher = fetcherDefinition.constructor.newInstance(fetcherConfigurationInstance);
 			// Autowire fetcher
 			applicationContext.getAutowireCapableBeanFactory().autowireBean(fetcher);
 
@@ -490,6 +518,19 @@ public class PageServiceImpl extends TransactionalService implements PageService
 		}
 	}
 
+	@SuppressWarnings("unchecked")
+	private FetcherDefinition loadFetcherDefinition(String type) {
+		try {
+			FetcherPlugin fetcherPlugin = fetcherPluginManager.get(type);
+			ClassLoader fetcherCL = fetcherPlugin.fetcher().getClassLoader();
+			Class<? extends FetcherConfiguration> fetcherConfigurationClass = (Class<? extends FetcherConfiguration>) fetcherCL.loadClass(fetcherPlugin.configuration().getName());
+			Class<? extends Fetcher> fetcherClass = (Class<? extends Fetcher>) fetcherCL.loadClass(fetcherPlugin.clazz());
+			return new FetcherDefinition(fetcherConfigurationClass, fetcherClass.getConstructor(fetcherConfigurationClass));
+		} catch (ClassNotFoundException | NoSuchMethodException e) {
+			throw new IllegalStateException("Unable to load fetcher " + type, e);
+		}
+	}
+
     private void reorderAndSavePages(final Page pageToReorder) throws TechnicalException {
 		final Collection<Page> pages = pageRepository.findApiPageByApiId(pageToReorder.getApi());
         final List<Boolean> increment = asList(true);
@@ -539,6 +580,7 @@ public class PageServiceImpl extends TransactionalService implements PageService
 			}
 
 			pageRepository.delete(pageId);
+			pageCacheService.evictPage(pageId);
             createAuditLog(optPage.get().getApi(), PAGE_DELETED, new Date(), optPage.get(), null);
 			if(io.gravitee.repository.management.model.PageType.FOLDER.equals(optPage.get().getType())) {
                 pageRepository.removeAllFolderParentWith(pageId, optPage.get().getApi());
@@ -615,9 +657,11 @@ public class PageServiceImpl extends TransactionalService implements PageService
 
 			try {
 				String fetchedContent = this.getContentFromFetcher(page.getSource());
-				if (fetchedContent != null && !fetchedContent.isEmpty()) {
-					page.setContent(fetchedContent);
+				if (fetchedContent == null || fetchedContent.isEmpty() || fetchedContent.equals(page.getContent())) {
+					logger.debug("Content of page {} is unchanged", pageId);
+					return convert(page);
 				}
+				page.setContent(fetchedContent);
 			} catch (FetcherException e) {
 				throw onUpdateFail(pageId, e);
 			}
@@ -633,6 +677,72 @@ public class PageServiceImpl extends TransactionalService implements PageService
 		}
 	}
 
+	/**
+	 * Pages are fetched concurrently on the fetcher executor, each source being limited to a number of lanes in which
+	 * pages are fetched one after the other. Each page is fetched through the service proxy, in its own transaction.
+	 */
+	@Override
+	public void fetchAll(Collection<PageListItem> pages, String contributor) {
+		final PageService pageService = applicationContext.getBean(PageService.class);
+		final Map<String, List<String>> pagesBySource = pages.stream()
+				.filter(pageListItem -> pageListItem.getSource() != null)
+				.collect(Collectors.groupingBy(pageListItem -> getSourceKey(pageListItem.getSource()),
+						Collectors.mapping(PageListItem::getId, Collectors.toList())));
+
+		final List<CompletableFuture<Void>> lanes = new ArrayList<>();
+		pagesBySource.values().forEach(pageIds -> {
+			final int nbLanes = Math.min(fetchWorkersPerSource, pageIds.size());
+			for (int lane = 0; lane < nbLanes; lane++) {
+				final List<String> lanePageIds = new ArrayList<>();
+				for (int i = lane; i < pageIds.size(); i += nbLanes) {
+					lanePageIds.add(pageIds.get(i));
+				}
+				lanes.add(CompletableFuture.runAsync(new DelegatingSecurityContextRunnable(
+						() -> lanePageIds.forEach(pageId -> pageService.fetch(pageId, contributor))), fetcherExecutor));
+			}
+		});
+
+		try {
+			CompletableFuture.allOf(lanes.toArray(new CompletableFuture[0])).join();
+		} catch (CompletionException ce) {
+			if (ce.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) ce.getCause();
+			}
+			logger.error("An error occurs while trying to fetch pages", ce.getCause());
+			throw new TechnicalManagementException("An error occurs while trying to fetch pages", ce.getCause());
+		}
+	}
+
+	/**
+	 * A source is the host the pages are fetched from, when the fetcher configuration has an URL, or the fetcher type
+	 * otherwise.
+	 */
+	private String getSourceKey(PageSourceEntity source) {
+		if (source.getConfiguration() == null) {
+			return source.getType();
+		}
+		try {
+			final JsonNode configuration = mapper.readTree(source.getConfiguration());
+			if (configuration != null) {
+				for (JsonNode value : configuration) {
+					if (value.isTextual()) {
+						try {
+							final String host = URI.create(value.asText()).getHost();
+							if (host != null) {
+								return source.getType() + ':' + host.toLowerCase();
+							}
+						} catch (IllegalArgumentException iae) {
+							// not an URL
+						}
+					}
+				}
+			}
+		} catch (IOException ioe) {
+			logger.debug("Unable to read the configuration of the {} fetcher", source.getType(), ioe);
+		}
+		return source.getType();
+	}
+
 	private boolean isDisplayableForMember(MemberEntity member, boolean pageIsPublished) {
 	    // if not member => not displayable
 		if (member == null) {
@@ -826,7 +936,7 @@ public class PageServiceImpl extends TransactionalService implements PageService
 			entity = new PageSourceEntity();
 			entity.setType(pageSource.getType());
 			try {
-				entity.setConfiguration((new ObjectMapper()).readTree(pageSource.getConfiguration()));
+				entity.setConfiguration(mapper.readTree(pageSource.getConfiguration()));
 			} catch (IOException e) {
 			    logger.error(e.getMessage(), e);
 			}
@@ -870,4 +980,14 @@ public class PageServiceImpl extends TransactionalService implements PageService
 			);
 		}
 	}
+
+	private static class FetcherDefinition {
+		private final Class<? extends FetcherConfiguration> configurationClass;
+		private final Constructor<? extends Fetcher> constructor;
+
+		private FetcherDefinition(Class<? extends FetcherConfiguration> configurationClass, Constructor<? extends Fetcher> constructor) {
+			this.configurationClass = configurationClass;
+			this.constructor = constructor;
+		}
+	}
 }
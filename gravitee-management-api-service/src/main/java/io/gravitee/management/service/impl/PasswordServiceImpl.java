@@ -0,0 +1,210 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service.impl;
+
+import io.gravitee.management.service.PasswordService;
+import io.gravitee.management.service.exceptions.TechnicalManagementException;
+import io.gravitee.management.service.spring.AsyncConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bcrypt hashes are stored as is, without algorithm identifier, so that they are still verified by the versions which
+ * only know about bcrypt: their cost is part of the hash. Pbkdf2 hashes are stored as <code>{pbkdf2-iterations}hash</code>,
+ * so that the iterations can be changed without locking out the users whose password has been hashed with the previous
+ * ones. Switching to pbkdf2 is a one-way migration, the users whose password has been hashed again can no longer log in
+ * once rolled back to a version only knowing about bcrypt.
+ *
+ * @author GraviteeSource Team
+ */
+@Component
+public class PasswordServiceImpl implements PasswordService, InitializingBean {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(PasswordServiceImpl.class);
+
+    static final String BCRYPT = "bcrypt";
+    static final String PBKDF2 = "pbkdf2";
+
+    /**
+     * Iterations of the hashes stored as <code>{pbkdf2}hash</code>, before the iterations were part of the identifier.
+     */
+    private static final int PBKDF2_DEFAULT_ITERATIONS = 185000;
+    private static final int PBKDF2_HASH_WIDTH = 256;
+    private static final Pattern PBKDF2_ID = Pattern.compile("\\{" + PBKDF2 + "(?:-(\\d{1,9}))?\\}(.*)", Pattern.DOTALL);
+
+    @Value("${user.password.encoder.algorithm:" + BCRYPT + "}")
+    private String algorithm;
+
+    @Value("${user.password.encoder.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    @Value("${user.password.encoder.pbkdf2.iterations:" + PBKDF2_DEFAULT_ITERATIONS + "}")
+    private int pbkdf2Iterations;
+
+    @Value("${user.password.verification.timeout:10000}")
+    private long verificationTimeout;
+
+    @Autowired
+    @Qualifier(AsyncConfiguration.PASSWORD_EXECUTOR)
+    private AsyncTaskExecutor passwordExecutor;
+
+    private PasswordEncoder bcryptEncoder;
+
+    /**
+     * The bcrypt cost is read from the hash, whatever the configured strength.
+     */
+    private final PasswordEncoder bcryptMatcher = new BCryptPasswordEncoder();
+
+    /**
+     * Pbkdf2 encoders, by number of iterations. The secret is not configurable: unlike the iterations, it can not be
+     * stored with the hash, and changing it would lock out every user.
+     */
+    private final Map<Integer, PasswordEncoder> pbkdf2Encoders = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!BCRYPT.equals(algorithm) && !PBKDF2.equals(algorithm)) {
+            throw new IllegalStateException("Unsupported password encoding algorithm: " + algorithm);
+        }
+        bcryptEncoder = new BCryptPasswordEncoder(bcryptStrength);
+
+        // hashing is the main cost of a local login: make the configured cost visible to the operators
+        final long start = System.nanoTime();
+        encode("gravitee");
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (elapsed > 1000) {
+            LOGGER.warn("Hashing a password with {} takes {} ms, consider lowering its cost", algorithm, elapsed);
+        } else {
+            LOGGER.info("Hashing a password with {} takes {} ms", algorithm, elapsed);
+        }
+    }
+
+    @Override
+    public String encode(String rawPassword) {
+        if (BCRYPT.equals(algorithm)) {
+            return bcryptEncoder.encode(rawPassword);
+        }
+        return pbkdf2Id(pbkdf2Iterations) + pbkdf2Encoder(pbkdf2Iterations).encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String encodedPassword) {
+        final Future<Boolean> verification;
+        try {
+            verification = passwordExecutor.submit(() -> verify(rawPassword, encodedPassword));
+        } catch (TaskRejectedException ex) {
+            throw new TechnicalManagementException("Too many passwords are being verified, try again later", ex);
+        }
+        try {
+            return verification.get(verificationTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            verification.cancel(true);
+            throw new TechnicalManagementException("The password verification has timed out", ex);
+        } catch (InterruptedException ex) {
+            verification.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new TechnicalManagementException("The password verification has been interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new TechnicalManagementException("An error occurs while verifying a password", ex.getCause());
+        }
+    }
+
+    private boolean verify(String rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        if (encodedPassword.startsWith("{" + BCRYPT + "}")) {
+            return bcryptMatcher.matches(rawPassword, encodedPassword.substring(BCRYPT.length() + 2));
+        }
+        final Matcher pbkdf2 = PBKDF2_ID.matcher(encodedPassword);
+        if (pbkdf2.matches()) {
+            final int iterations = pbkdf2.group(1) == null ? PBKDF2_DEFAULT_ITERATIONS : Integer.parseInt(pbkdf2.group(1));
+            return pbkdf2Encoder(iterations).matches(rawPassword, pbkdf2.group(2));
+        }
+        if (encodedPassword.startsWith("{")) {
+            LOGGER.warn("Unsupported password encoding: {}", encodedPassword.substring(0, encodedPassword.indexOf('}') + 1));
+            return false;
+        }
+        return bcryptMatcher.matches(rawPassword, encodedPassword);
+    }
+
+    private PasswordEncoder pbkdf2Encoder(int iterations) {
+        return pbkdf2Encoders.computeIfAbsent(iterations, i -> new Pbkdf2PasswordEncoder("", i, PBKDF2_HASH_WIDTH));
+    }
+
+    private static String pbkdf2Id(int iterations) {
+        return "{" + PBKDF2 + "-" + iterations + "}";
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+
+        if (BCRYPT.equals(algorithm)) {
+            // hashes with an algorithm identifier are hashed again without it
+            if (encodedPassword.startsWith("{")) {
+                return true;
+            }
+
+            // $2a$<cost>$<salt and hash>
+            final String[] parts = encodedPassword.split("\\$");
+            try {
+                return parts.length < 3 || Integer.parseInt(parts[2]) != bcryptStrength;
+            } catch (NumberFormatException nfe) {
+                return true;
+            }
+        }
+
+        return !encodedPassword.startsWith(pbkdf2Id(pbkdf2Iterations));
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public void setBcryptStrength(int bcryptStrength) {
+        this.bcryptStrength = bcryptStrength;
+    }
+
+    public void setPbkdf2Iterations(int pbkdf2Iterations) {
+        this.pbkdf2Iterations = pbkdf2Iterations;
+    }
+
+    public void setVerificationTimeout(long verificationTimeout) {
+        this.verificationTimeout = verificationTimeout;
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.gravitee.management.model.InlinePictureEntity;
+import io.gravitee.management.service.PictureService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pictures are kept in bounded LRU caches, keyed by entity and update date, so that an updated picture is never served
+ * from the cache.
+ *
+ * Thumbnails keep the format of their picture. The dimensions of a picture are read before it is decoded, so that
+ * pictures with too many pixels are never decoded, and large pictures are decoded at a reduced resolution.
+ *
+ * @author GraviteeSource Team
+ */
+@Component
+public class PictureServiceImpl implements PictureService, InitializingBean {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(PictureServiceImpl.class);
+
+    private static final String DEFAULT_THUMBNAIL_FORMAT = "png";
+    private static final String DEFAULT_THUMBNAIL_TYPE = "image/png";
+
+    @Value("${pictures.cache.size:500}")
+    private int maxPictures;
+    @Value("${pictures.thumbnail.size:128}")
+    private int thumbnailSize;
+    @Value("${pictures.thumbnail.maxPixels:16777216}")
+    private long maxPixels;
+
+    private Cache<PictureKey, InlinePictureEntity> pictures;
+    private Cache<PictureKey, InlinePictureEntity> thumbnails;
+    private final Map<String, InlinePictureEntity> filePictures = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterPropertiesSet() {
+        pictures = CacheBuilder.newBuilder().maximumSize(maxPictures).build();
+        thumbnails = CacheBuilder.newBuilder().maximumSize(maxPictures).build();
+    }
+
+    @Override
+    public InlinePictureEntity getPicture(ReferenceType referenceType, String referenceId, Date updatedAt, String picture) {
+        if (picture == null) {
+            return null;
+        }
+        if (updatedAt == null) {
+            return decode(referenceId, picture);
+        }
+
+        final PictureKey key = new PictureKey(referenceType, referenceId, updatedAt.getTime());
+        InlinePictureEntity pictureEntity = pictures.getIfPresent(key);
+        if (pictureEntity == null) {
+            pictureEntity = decode(referenceId, picture);
+            if (pictureEntity != null) {
+                pictures.put(key, pictureEntity);
+            }
+        }
+        return pictureEntity;
+    }
+
+    @Override
+    public InlinePictureEntity getThumbnail(ReferenceType referenceType, String referenceId, Date updatedAt, String picture) {
+        if (updatedAt == null) {
+            final InlinePictureEntity pictureEntity = getPicture(referenceType, referenceId, null, picture);
+            return pictureEntity == null ? null : resize(referenceId, pictureEntity);
+        }
+
+        final PictureKey key = new PictureKey(referenceType, referenceId, updatedAt.getTime());
+        InlinePictureEntity thumbnail = thumbnails.getIfPresent(key);
+        if (thumbnail == null) {
+            final InlinePictureEntity pictureEntity = getPicture(referenceType, referenceId, updatedAt, picture);
+            if (pictureEntity == null) {
+                return null;
+            }
+            thumbnail = resize(referenceId, pictureEntity);
+            thumbnails.put(key, thumbnail);
+        }
+        return thumbnail;
+    }
+
+    @Override
+    public InlinePictureEntity getFilePicture(String path, String type) {
+        return filePictures.computeIfAbsent(path, file -> {
+            try {
+                return create(type, Files.readAllBytes(Paths.get(file)));
+            } catch (IOException ioe) {
+                LOGGER.error("Unable to read the picture {}", file, ioe);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public void evict(ReferenceType referenceType, String referenceId) {
+        pictures.asMap().keySet().removeIf(key -> key.matches(referenceType, referenceId));
+        thumbnails.asMap().keySet().removeIf(key -> key.matches(referenceType, referenceId));
+    }
+
+    private InlinePictureEntity decode(String referenceId, String picture) {
+        // data:<type>;base64,<content>
+        final int separator = picture.indexOf(',');
+        if (!picture.startsWith("data:") || separator < 0 || !picture.substring(0, separator).endsWith(";base64")) {
+            return null;
+        }
+        try {
+            final String type = picture.substring("data:".length(), picture.indexOf(';'));
+            return create(type, Base64.getMimeDecoder().decode(picture.substring(separator + 1)));
+        } catch (IllegalArgumentException iae) {
+            LOGGER.warn("Unable to decode the picture of {}", referenceId);
+            return null;
+        }
+    }
+
+    private InlinePictureEntity resize(String referenceId, InlinePictureEntity pictureEntity) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(pictureEntity.getContent()))) {
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return pictureEntity;
+            }
+
+            final ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                final int sourceWidth = reader.getWidth(0);
+                final int sourceHeight = reader.getHeight(0);
+                if (sourceWidth <= thumbnailSize && sourceHeight <= thumbnailSize) {
+                    return pictureEntity;
+                }
+                if ((long) sourceWidth * sourceHeight > maxPixels) {
+                    LOGGER.warn("The picture of {} is too large to create its thumbnail: {}x{}",
+                            referenceId, sourceWidth, sourceHeight);
+                    return pictureEntity;
+                }
+
+                final double ratio = Math.min((double) thumbnailSize / sourceWidth, (double) thumbnailSize / sourceHeight);
+                final int width = Math.max(1, (int) Math.round(sourceWidth * ratio));
+                final int height = Math.max(1, (int) Math.round(sourceHeight * ratio));
+
+                // decode at no less than twice the thumbnail resolution, which is enough for a smooth resize
+                final int subsampling = Math.max(1, (int) (1 / ratio) / 2);
+                final ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                final BufferedImage image = reader.read(0, param);
+
+                final boolean alpha = image.getColorModel().hasAlpha();
+                final BufferedImage thumbnail = new BufferedImage(width, height,
+                        alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+                final Graphics2D graphics = thumbnail.createGraphics();
+                try {
+                    graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                    graphics.drawImage(image, 0, 0, width, height, null);
+                } finally {
+                    graphics.dispose();
+                }
+
+                // keep the format of the picture when it can be written, PNG otherwise
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                final String[] types = reader.getOriginatingProvider().getMIMETypes();
+                if (types != null && types.length > 0 && ImageIO.write(thumbnail, reader.getFormatName(), out)) {
+                    return create(types[0], out.toByteArray());
+                }
+                out.reset();
+                ImageIO.write(thumbnail, DEFAULT_THUMBNAIL_FORMAT, out);
+                return create(DEFAULT_THUMBNAIL_TYPE, out.toByteArray());
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.warn("Unable to create the thumbnail of the picture of {}", referenceId, ex);
+            return pictureEntity;
+        }
+    }
+
+    private static InlinePictureEntity create(String type, byte[] content) {
+        final InlinePictureEntity pictureEntity = new InlinePictureEntity();
+        pictureEntity.setType(type);
+        pictureEntity.setContent(content);
+        pictureEntity.setHash(hash(content));
+        return pictureEntity;
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new IllegalStateException(nsae);
+        }
+    }
+
+    private static class PictureKey {
+        private final ReferenceType referenceType;
+        private final String referenceId;
+        private final long updatedAt;
+
+        private PictureKey(ReferenceType referenceType, String referenceId, long updatedAt) {
+            this.referenceType = referenceType;
+            this.referenceId = referenceId;
+            this.updatedAt = updatedAt;
+        }
+
+        private boolean matches(ReferenceType referenceType, String referenceId) {
+            return this.referenceType == referenceType && Objects.equals(this.referenceId, referenceId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            PictureKey that = (PictureKey) o;
+            return updatedAt == that.updatedAt &&
+                    referenceType == that.referenceType &&
+                    Objects.equals(referenceId, that.referenceId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(referenceType, referenceId, updatedAt);
+        }
+    }
+}
@@ -15,11 +15,10 @@
  */
 package io.gravitee.management.service.impl;
 
-import freemarker.template.Configuration;
-import freemarker.template.Template;
 import io.gravitee.common.utils.UUID;
 import io.gravitee.management.model.notification.NewPortalNotificationEntity;
 import io.gravitee.management.model.notification.PortalNotificationEntity;
+import io.gravitee.management.service.NotificationTemplateService;
 import io.gravitee.management.service.PortalNotificationService;
 import io.gravitee.management.service.exceptions.TechnicalManagementException;
 import io.gravitee.management.service.notification.Hook;
@@ -30,13 +29,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.yaml.snakeyaml.Yaml;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
-import static org.springframework.ui.freemarker.FreeMarkerTemplateUtils.processTemplateIntoString;
-
 /**
  * @author Nicolas GERAUD (nicolas.geraud at graviteesource.com)
  * @author GraviteeSource Team
@@ -45,13 +41,12 @@ import static org.springframework.ui.freemarker.FreeMarkerTemplateUtils.processT
 public class PortalNotificationServiceImpl extends AbstractService implements PortalNotificationService {
 
     private final Logger LOGGER = LoggerFactory.getLogger(PortalNotificationServiceImpl.class);
-    private final static String RELATIVE_TPL_PATH = "notifications/portal/";
 
     @Autowired
     private PortalNotificationRepository portalNotificationRepository;
 
     @Autowired
-    private Configuration freemarkerConfiguration;
+    private NotificationTemplateService notificationTemplateService;
 
     @Override
     public List<PortalNotificationEntity> findByUser(String user) {
@@ -67,22 +62,28 @@ public class PortalNotificationServiceImpl extends AbstractService implements Po
         }
     }
 
+    @Override
+    public int count(String user) {
+        try {
+            // the repository has no count query: at least skip the conversion of the notifications
+            return portalNotificationRepository.findByUser(user).size();
+        } catch (TechnicalException ex) {
+            LOGGER.error("An error occurs while trying to count notifications of user {}", user, ex);
+            throw new TechnicalManagementException("An error occurs while trying to count notifications of user " + user, ex);
+        }
+    }
+
     @Override
     public void create(Hook hook, List<String> users, Object params) {
         try {
-            // get notification template
-            String tpl = RELATIVE_TPL_PATH + hook.getScope().name() + "." + hook.name() + ".yml";
-            final Template template = freemarkerConfiguration.getTemplate(tpl);
-            final String yamlContent = processTemplateIntoString(template, params);
-            Yaml yaml = new Yaml();
-            Map<String, String> load = yaml.loadAs(yamlContent, HashMap.class);
+            final NewPortalNotificationEntity content = notificationTemplateService.renderPortalNotification(hook, params);
 
             List<NewPortalNotificationEntity> notifications = new ArrayList<>(users.size());
             users.forEach(user -> {
                 NewPortalNotificationEntity notification = new NewPortalNotificationEntity();
                 notification.setUser(user);
-                notification.setTitle(load.get("title"));
-                notification.setMessage(load.get("message"));
+                notification.setTitle(content.getTitle());
+                notification.setMessage(content.getMessage());
                 notifications.add(notification);
             });
 
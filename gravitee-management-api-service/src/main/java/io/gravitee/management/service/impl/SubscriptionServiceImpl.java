@@ -16,6 +16,7 @@
 package io.gravitee.management.service.impl;
 
 import io.gravitee.common.data.domain.Page;
+import io.gravitee.common.event.EventManager;
 import io.gravitee.common.utils.UUID;
 import io.gravitee.management.model.*;
 import io.gravitee.management.model.api.ApiEntity;
@@ -23,6 +24,7 @@ import io.gravitee.management.model.common.Pageable;
 import io.gravitee.management.model.pagedresult.Metadata;
 import io.gravitee.management.model.subscription.SubscriptionQuery;
 import io.gravitee.management.service.*;
+import io.gravitee.management.service.event.SubscriptionEvent;
 import io.gravitee.management.service.exceptions.*;
 import io.gravitee.management.service.notification.ApiHook;
 import io.gravitee.management.service.notification.ApplicationHook;
@@ -88,6 +90,9 @@ public class SubscriptionServiceImpl extends AbstractService implements Subscrip
     @Autowired
     private NotifierService notifierService;
 
+    @Autowired
+    private EventManager eventManager;
+
     @Override
     public SubscriptionEntity findById(String subscription) {
         try {
@@ -236,6 +241,7 @@ public class SubscriptionServiceImpl extends AbstractService implements Subscrip
             String apiId = planEntity.getApis().iterator().next();
             subscription.setApi(apiId);
             subscription = subscriptionRepository.create(subscription);
+            eventManager.publishEvent(SubscriptionEvent.CREATE, convert(subscription));
 
             createAudit(apiId, application, SUBSCRIPTION_CREATED, subscription.getCreatedAt(), null, subscription);
 
@@ -398,6 +404,7 @@ public class SubscriptionServiceImpl extends AbstractService implements Subscrip
                     subscription);
 
             SubscriptionEntity subscriptionEntity = convert(subscription);
+            eventManager.publishEvent(SubscriptionEvent.UPDATE, subscriptionEntity);
 
             final Map<String, Object> params = new NotificationParamsBuilder()
                     .owner(owner)
@@ -514,6 +521,7 @@ public class SubscriptionServiceImpl extends AbstractService implements Subscrip
 
             // Delete subscription
             subscriptionRepository.delete(subscriptionId);
+            eventManager.publishEvent(SubscriptionEvent.DELETE, convert(subscription));
             createAudit(
                     planService.findById(subscription.getPlan()).getApis().iterator().next(),
                     subscription.getApplication(),
@@ -16,6 +16,10 @@
 package io.gravitee.management.service.impl;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.gravitee.common.http.MediaType;
 import io.gravitee.management.model.ImportSwaggerDescriptorEntity;
 import io.gravitee.management.model.api.NewApiEntity;
@@ -24,8 +28,14 @@ import io.gravitee.management.service.SwaggerService;
 import io.gravitee.management.service.exceptions.SwaggerDescriptorException;
 import io.swagger.models.Scheme;
 import io.swagger.models.Swagger;
+import io.swagger.models.apideclaration.ApiDeclaration;
+import io.swagger.models.auth.AuthorizationValue;
+import io.swagger.models.resourcelisting.ResourceListing;
 import io.swagger.parser.SwaggerCompatConverter;
 import io.swagger.parser.SwaggerParser;
+import io.swagger.report.MessageBuilder;
+import io.swagger.transform.migrate.ApiDeclarationMigrator;
+import io.swagger.transform.migrate.ResourceListingMigrator;
 import io.swagger.util.Json;
 import io.swagger.util.Yaml;
 import io.swagger.v3.oas.models.OpenAPI;
@@ -33,18 +43,15 @@ import io.swagger.v3.parser.OpenAPIV3Parser;
 import io.swagger.v3.parser.core.models.SwaggerParseResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Map;
+import java.util.*;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -52,31 +59,61 @@ import java.util.stream.Collectors;
  * @author GraviteeSource Team
  */
 @Component
-public class SwaggerServiceImpl implements SwaggerService {
+public class SwaggerServiceImpl implements SwaggerService, InitializingBean {
 
     /**
      * Logger.
      */
     private final Logger logger = LoggerFactory.getLogger(SwaggerServiceImpl.class);
 
+    private static final Pattern OPENAPI_V3 = Pattern.compile("(^|[{,\\s])[\"']?openapi[\"']?\\s*:\\s*[\"']?3", Pattern.MULTILINE);
+    private static final Pattern SWAGGER_V2 = Pattern.compile("(^|[{,\\s])[\"']?swagger[\"']?\\s*:\\s*[\"']?2", Pattern.MULTILINE);
+    private static final Pattern SWAGGER_V1 = Pattern.compile("(^|[{,\\s])[\"']?swaggerVersion[\"']?\\s*:", Pattern.MULTILINE);
+
     @Value("${swagger.scheme:https}")
     private String defaultScheme;
 
+    @Value("${documentation.cache.swagger:200}")
+    private int maxTransformedContents;
+
+    private Cache<TransformKey, String> transformedContents;
+
     @Override
-    public NewApiEntity prepare(ImportSwaggerDescriptorEntity swaggerDescriptor) {
-        NewApiEntity apiEntity;
+    public void afterPropertiesSet() {
+        transformedContents = CacheBuilder.newBuilder()
+                .maximumSize(maxTransformedContents)
+                .build();
+    }
 
-        // try to read swagger in version 2
-        apiEntity = prepareV2(swaggerDescriptor);
+    @Override
+    public NewApiEntity prepare(ImportSwaggerDescriptorEntity swaggerDescriptor) {
+        NewApiEntity apiEntity = null;
 
-        // try to read swagger in version 3 (openAPI)
-        if (apiEntity == null) {
-            apiEntity = prepareV3(swaggerDescriptor);
+        if (swaggerDescriptor.getType() == ImportSwaggerDescriptorEntity.Type.INLINE) {
+            final DescriptorVersion version = detectVersion(swaggerDescriptor.getPayload());
+            if (version == DescriptorVersion.V1) {
+                apiEntity = prepareV1(swaggerDescriptor);
+            } else if (version == DescriptorVersion.V2) {
+                apiEntity = prepareV2(swaggerDescriptor);
+            } else if (version == DescriptorVersion.V3) {
+                apiEntity = prepareV3(swaggerDescriptor);
+            }
         }
 
-        // try to read swagger in version 1
+        // the version of a remote descriptor is unknown until it has been read, so try the parsers one by one
         if (apiEntity == null) {
-            apiEntity = prepareV1(swaggerDescriptor);
+            // try to read swagger in version 2
+            apiEntity = prepareV2(swaggerDescriptor);
+
+            // try to read swagger in version 3 (openAPI)
+            if (apiEntity == null) {
+                apiEntity = prepareV3(swaggerDescriptor);
+            }
+
+            // try to read swagger in version 1
+            if (apiEntity == null) {
+                apiEntity = prepareV1(swaggerDescriptor);
+            }
         }
 
         if (apiEntity == null) {
@@ -91,15 +128,7 @@ public class SwaggerServiceImpl implements SwaggerService {
         try {
             logger.info("Loading an old Swagger descriptor from {}", swaggerDescriptor.getPayload());
             if (swaggerDescriptor.getType() == ImportSwaggerDescriptorEntity.Type.INLINE) {
-                File temp = null;
-                try {
-                    temp = createTmpSwagger1File(swaggerDescriptor.getPayload());
-                    apiEntity = mapSwagger12ToNewApi(new SwaggerCompatConverter().read(temp.getAbsolutePath()));
-                } finally {
-                    if (temp != null) {
-                        temp.delete();
-                    }
-                }
+                apiEntity = mapSwagger12ToNewApi(readV1(swaggerDescriptor.getPayload()));
             } else {
                 apiEntity = mapSwagger12ToNewApi(new SwaggerCompatConverter().read(swaggerDescriptor.getPayload()));
             }
@@ -139,75 +168,105 @@ public class SwaggerServiceImpl implements SwaggerService {
                 && page.getConfiguration().get("tryItURL") != null
                 && !page.getConfiguration().get("tryItURL").isEmpty()) {
 
-            Object swagger = transformV2(page.getContent(), page.getConfiguration());
-
-            if (swagger == null) {
-                swagger = transformV1(page.getContent(), page.getConfiguration());
+            final String content;
+            if (transformedContents == null || page.getId() == null || page.getLastModificationDate() == null) {
+                content = transform(page.getContent(), page.getConfiguration(), page.getContentType());
+            } else {
+                final TransformKey key = new TransformKey(page.getId(), page.getLastModificationDate().getTime(),
+                        page.getConfiguration(), page.getContentType());
+                String cachedContent = transformedContents.getIfPresent(key);
+                if (cachedContent == null) {
+                    cachedContent = transform(page.getContent(), page.getConfiguration(), page.getContentType());
+                    if (cachedContent != null) {
+                        transformedContents.put(key, cachedContent);
+                    }
+                }
+                content = cachedContent;
             }
 
-            if (swagger == null) {
-                swagger = transformV3(page.getContent(), page.getConfiguration());
+            if (content != null) {
+                page.setContent(content);
             }
+        }
+    }
+
+    private String transform(String content, Map<String, String> config, String contentType) {
+        final DescriptorVersion detectedVersion = detectVersion(content);
+
+        // the parsers are tried one by one only if the descriptor is not of the detected version
+        final List<DescriptorVersion> versions = new ArrayList<>(Arrays.asList(
+                DescriptorVersion.V2, DescriptorVersion.V1, DescriptorVersion.V3));
+        if (detectedVersion != null) {
+            versions.remove(detectedVersion);
+            versions.add(0, detectedVersion);
+        }
 
-            if (swagger == null) {
-                throw new SwaggerDescriptorException();
+        Object swagger = null;
+        for (Iterator<DescriptorVersion> ite = versions.iterator(); swagger == null && ite.hasNext(); ) {
+            switch (ite.next()) {
+                case V1:
+                    swagger = transformV1(content, config);
+                    break;
+                case V2:
+                    swagger = transformV2(content, config);
+                    break;
+                case V3:
+                    swagger = transformV3(content, config);
+                    break;
             }
+        }
 
-            if (page.getContentType().equalsIgnoreCase(MediaType.APPLICATION_JSON)) {
-                try {
-                    page.setContent(Json.pretty().writeValueAsString(swagger));
-                } catch (JsonProcessingException e) {
-                    logger.error("Unexpected error", e);
-                }
+        if (swagger == null) {
+            throw new SwaggerDescriptorException();
+        }
+
+        try {
+            if (MediaType.APPLICATION_JSON.equalsIgnoreCase(contentType)) {
+                return Json.pretty().writeValueAsString(swagger);
             } else {
-                try {
-                    page.setContent(Yaml.pretty().writeValueAsString(swagger));
-                } catch (JsonProcessingException e) {
-                    logger.error("Unexpected error", e);
-                }
+                return Yaml.pretty().writeValueAsString(swagger);
             }
+        } catch (JsonProcessingException e) {
+            logger.error("Unexpected error", e);
+            return null;
         }
     }
 
-    private File createTmpSwagger1File(String content) {
-        // Create temporary file for Swagger parser (only for descriptor version < 2.x)
-        File temp = null;
-        String fileName = "gio_swagger_" + System.currentTimeMillis();
-        BufferedWriter bw = null;
-        FileWriter out = null;
-        Swagger swagger = null;
+    /**
+     * Guess the version of a descriptor from its root attribute, without parsing it. The parsers are tried one by one
+     * when the version can not be guessed.
+     */
+    private DescriptorVersion detectVersion(String content) {
+        if (content == null) {
+            return null;
+        }
+        if (OPENAPI_V3.matcher(content).find()) {
+            return DescriptorVersion.V3;
+        }
+        if (SWAGGER_V2.matcher(content).find()) {
+            return DescriptorVersion.V2;
+        }
+        if (SWAGGER_V1.matcher(content).find()) {
+            return DescriptorVersion.V1;
+        }
+        return null;
+    }
+
+    private Swagger readV1(String content) throws IOException {
+        final JsonNode descriptor;
         try {
-            temp = File.createTempFile(fileName, ".tmp");
-            out = new FileWriter(temp);
-            bw = new BufferedWriter(out);
-            bw.write(content);
-            bw.close();
+            descriptor = Json.mapper().readTree(content);
         } catch (IOException ioe) {
-            // Fallback to the new parser
-        } finally {
-            if (bw != null) {
-                try {
-                    bw.close();
-                } catch (IOException e) {
-                }
-            }
-            if (out != null) {
-                try {
-                    out.close();
-                } catch (IOException e) {
-                }
-            }
+            // Not a JSON descriptor, let the other parsers try
+            return null;
         }
-        return temp;
+        return new InMemorySwaggerCompatConverter(descriptor).read();
     }
 
     private Swagger transformV1(String content, Map<String, String> config) {
-        // Create temporary file for Swagger parser (only for descriptor version < 2.x)
-        File temp = null;
         Swagger swagger = null;
         try {
-            temp = createTmpSwagger1File(content);
-            swagger = new SwaggerCompatConverter().read(temp.getAbsolutePath());
+            swagger = readV1(content);
             if (swagger != null && config != null && config.get("tryItURL") != null) {
                 URI newURI = URI.create(config.get("tryItURL"));
                 swagger.setSchemes(Collections.singletonList(Scheme.forValue(newURI.getScheme())));
@@ -216,10 +275,6 @@ public class SwaggerServiceImpl implements SwaggerService {
             }
         } catch (IOException ioe) {
             // Fallback to the new parser
-        } finally {
-            if (temp != null) {
-                temp.delete();
-            }
         }
         return swagger;
     }
@@ -237,7 +292,10 @@ public class SwaggerServiceImpl implements SwaggerService {
 
     private OpenAPI transformV3(String content, Map<String, String> config) {
         SwaggerParseResult result = new OpenAPIV3Parser().readContents(content, null, null);
-        if (result != null && config != null && config.get("tryItURL") != null) {
+        if (result == null || result.getOpenAPI() == null) {
+            return null;
+        }
+        if (config != null && config.get("tryItURL") != null && result.getOpenAPI().getServers() != null) {
             URI newURI = URI.create(config.get("tryItURL"));
             result.getOpenAPI().getServers().forEach(server -> {
                 try {
@@ -253,11 +311,7 @@ public class SwaggerServiceImpl implements SwaggerService {
                 }
             });
         }
-        if (result != null) {
-            return result.getOpenAPI();
-        } else {
-            return null;
-        }
+        return result.getOpenAPI();
     }
 
     private NewApiEntity mapSwagger12ToNewApi(Swagger swagger) {
@@ -303,4 +357,90 @@ public class SwaggerServiceImpl implements SwaggerService {
         return apiEntity;
     }
 
+    private enum DescriptorVersion {
+        V1, V2, V3
+    }
+
+    /**
+     * The Swagger 1.x converter only reads descriptors from a file or an URL. This one reads the resource listing
+     * and the API declaration from a descriptor already loaded in memory.
+     */
+    private static class InMemorySwaggerCompatConverter extends SwaggerCompatConverter {
+        private static final String LOCATION = "inline";
+
+        private final Logger logger = LoggerFactory.getLogger(InMemorySwaggerCompatConverter.class);
+
+        private final JsonNode descriptor;
+
+        private InMemorySwaggerCompatConverter(JsonNode descriptor) {
+            this.descriptor = descriptor;
+        }
+
+        private Swagger read() throws IOException {
+            return read(LOCATION, null);
+        }
+
+        @Override
+        public ResourceListing readResourceListing(String input, MessageBuilder messages, List<AuthorizationValue> auths) {
+            if (!LOCATION.equals(input) || descriptor.get("swaggerVersion") == null) {
+                return null;
+            }
+            try {
+                JsonNode node = new ResourceListingMigrator().migrate(messages, descriptor.deepCopy());
+                return Json.mapper().convertValue(node, ResourceListing.class);
+            } catch (Exception e) {
+                logger.error("failed to read resource listing", e);
+                return null;
+            }
+        }
+
+        @Override
+        public ApiDeclaration readDeclaration(String input, MessageBuilder messages, List<AuthorizationValue> auths) {
+            // declarations referenced by path can not be resolved from an inline descriptor
+            if (!LOCATION.equals(input)) {
+                return null;
+            }
+            try {
+                JsonNode node = descriptor.deepCopy();
+                if (node.isObject()) {
+                    ((ObjectNode) node).remove("authorizations");
+                }
+                node = new ApiDeclarationMigrator().migrate(messages, node);
+                return Json.mapper().convertValue(node, ApiDeclaration.class);
+            } catch (Exception e) {
+                logger.error("failed to read api declaration", e);
+                return null;
+            }
+        }
+    }
+
+    private static class TransformKey {
+        private final String pageId;
+        private final long updatedAt;
+        private final Map<String, String> configuration;
+        private final String contentType;
+
+        private TransformKey(String pageId, long updatedAt, Map<String, String> configuration, String contentType) {
+            this.pageId = pageId;
+            this.updatedAt = updatedAt;
+            this.configuration = new HashMap<>(configuration);
+            this.contentType = contentType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            TransformKey that = (TransformKey) o;
+            return updatedAt == that.updatedAt &&
+                    Objects.equals(pageId, that.pageId) &&
+                    Objects.equals(configuration, that.configuration) &&
+                    Objects.equals(contentType, that.contentType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(pageId, updatedAt, configuration, contentType);
+        }
+    }
 }
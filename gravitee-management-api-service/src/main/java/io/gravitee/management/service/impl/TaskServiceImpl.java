@@ -15,68 +15,201 @@
  */
 package io.gravitee.management.service.impl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.gravitee.common.event.Event;
+import io.gravitee.common.event.EventListener;
+import io.gravitee.common.event.EventManager;
 import io.gravitee.management.model.*;
-import io.gravitee.management.model.api.ApiEntity;
 import io.gravitee.management.model.pagedresult.Metadata;
 import io.gravitee.management.model.subscription.SubscriptionQuery;
 import io.gravitee.management.service.*;
+import io.gravitee.management.service.event.MembershipEvent;
+import io.gravitee.management.service.event.SubscriptionEvent;
 import io.gravitee.management.service.exceptions.TechnicalManagementException;
 import io.gravitee.management.service.exceptions.UnauthorizedAccessException;
 import io.gravitee.repository.exceptions.TechnicalException;
 import io.gravitee.repository.management.api.ApiRepository;
+import io.gravitee.repository.management.api.ApplicationRepository;
 import io.gravitee.repository.management.api.MembershipRepository;
 import io.gravitee.repository.management.api.search.ApiCriteria;
+import io.gravitee.repository.management.api.search.ApiFieldExclusionFilter;
 import io.gravitee.repository.management.model.Api;
 import io.gravitee.repository.management.model.Membership;
 import io.gravitee.repository.management.model.MembershipReferenceType;
 import io.gravitee.repository.management.model.RoleScope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static io.gravitee.management.model.SubscriptionStatus.PENDING;
 import static io.gravitee.management.model.permissions.ApiPermission.SUBSCRIPTION;
 
 /**
+ * Tasks are computed from an index holding the APIs on which each user can validate subscriptions and the pending
+ * subscriptions of each API. The index is maintained from the subscription and membership events of this
+ * node, it is bounded in number of users and of APIs, and its entries also expire after a delay to catch up with the
+ * changes made on the other nodes.
+ *
  * @author Nicolas GERAUD(nicolas.geraud at graviteesource.com)
  * @author GraviteeSource Team
  */
 @Component
-public class TaskServiceImpl extends AbstractService implements TaskService {
+public class TaskServiceImpl extends AbstractService implements TaskService, InitializingBean,
+        EventListener<SubscriptionEvent, SubscriptionEntity> {
 
     private final Logger LOGGER = LoggerFactory.getLogger(TaskServiceImpl.class);
 
-    @Autowired
-    ApiService apiService;
-
     @Autowired
     SubscriptionService subscriptionService;
 
-    @Autowired
-    ApplicationService applicationService;
-
     @Autowired
     MembershipRepository membershipRepository;
 
     @Autowired
     ApiRepository apiRepository;
 
+    @Autowired
+    ApplicationRepository applicationRepository;
+
     @Autowired
     RoleService roleService;
 
     @Autowired
     PlanService planService;
 
+    @Autowired
+    EventManager eventManager;
+
+    @Value("${tasks.index.users:1000}")
+    private int maxUsers;
+    @Value("${tasks.index.apis:1000}")
+    private int maxApis;
+    @Value("${tasks.index.ttl:60000}")
+    private long indexTtl;
+
+    private Cache<String, Set<String>> validatedApis;
+    private Cache<String, Map<String, SubscriptionEntity>> pendingSubscriptions;
+
+    // incremented on each event so that an index entry computed concurrently with a change is not stored
+    private final AtomicLong membershipVersion = new AtomicLong();
+    private final AtomicLong subscriptionVersion = new AtomicLong();
+
+    @Override
+    public void afterPropertiesSet() {
+        validatedApis = CacheBuilder.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(indexTtl, TimeUnit.MILLISECONDS)
+                .build();
+        pendingSubscriptions = CacheBuilder.newBuilder()
+                .maximumSize(maxApis)
+                .expireAfterWrite(indexTtl, TimeUnit.MILLISECONDS)
+                .build();
+        eventManager.subscribeForEvents(this, SubscriptionEvent.class);
+        eventManager.subscribeForEvents(new MembershipEventListener(), MembershipEvent.class);
+    }
+
     @Override
     public List<TaskEntity> findAll(String userId) {
+        return findPendingSubscriptions(userId)
+                .stream()
+                .sorted(Comparator.comparing(SubscriptionEntity::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())))
+                .map(this::convert)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int count(String userId) {
+        return findPendingSubscriptions(userId).size();
+    }
+
+    @Override
+    public void onEvent(Event<SubscriptionEvent, SubscriptionEntity> event) {
+        final SubscriptionEntity subscription = event.content();
+        subscriptionVersion.incrementAndGet();
+
+        if (subscription == null || subscription.getApi() == null) {
+            return;
+        }
+
+        final Map<String, SubscriptionEntity> pending = pendingSubscriptions.getIfPresent(subscription.getApi());
+        if (pending != null) {
+            if (event.type() != SubscriptionEvent.DELETE && subscription.getStatus() == PENDING) {
+                pending.put(subscription.getId(), subscription);
+            } else {
+                pending.remove(subscription.getId());
+            }
+        }
+    }
+
+    private Collection<SubscriptionEntity> findPendingSubscriptions(String userId) {
         if (userId == null) {
             throw new UnauthorizedAccessException();
         }
 
+        final Set<String> apiIds = findValidatedApis(userId);
+        if (apiIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<SubscriptionEntity> subscriptions = new ArrayList<>();
+        final Set<String> missingApiIds = new HashSet<>();
+        for (String apiId : apiIds) {
+            final Map<String, SubscriptionEntity> pending = pendingSubscriptions.getIfPresent(apiId);
+            if (pending == null) {
+                missingApiIds.add(apiId);
+            } else {
+                subscriptions.addAll(pending.values());
+            }
+        }
+
+        if (!missingApiIds.isEmpty()) {
+            final long version = subscriptionVersion.get();
+            final Map<String, Map<String, SubscriptionEntity>> subscriptionsByApi = new HashMap<>();
+            missingApiIds.forEach(apiId -> subscriptionsByApi.put(apiId, new ConcurrentHashMap<>()));
+
+            SubscriptionQuery query = new SubscriptionQuery();
+            query.setStatuses(Collections.singleton(PENDING));
+            query.setApis(missingApiIds);
+            subscriptionService.search(query).forEach(subscription -> {
+                subscriptions.add(subscription);
+                subscriptionsByApi
+                        .computeIfAbsent(subscription.getApi(), apiId -> new ConcurrentHashMap<>())
+                        .put(subscription.getId(), subscription);
+            });
+
+            if (indexTtl > 0 && subscriptionVersion.get() == version) {
+                pendingSubscriptions.putAll(subscriptionsByApi);
+            }
+        }
+
+        return subscriptions;
+    }
+
+    private Set<String> findValidatedApis(String userId) {
+        final Set<String> cachedApiIds = validatedApis.getIfPresent(userId);
+        if (cachedApiIds != null) {
+            return cachedApiIds;
+        }
+
+        final long version = membershipVersion.get();
+        final Set<String> apiIds = Collections.unmodifiableSet(searchValidatedApis(userId));
+        if (indexTtl > 0 && membershipVersion.get() == version) {
+            validatedApis.put(userId, apiIds);
+        }
+        return apiIds;
+    }
+
+    private Set<String> searchValidatedApis(String userId) {
         try {
             // because Tasks only consists on subscriptions, we can optimize the search by only look for apis where
             // the user has a SUBSCRIPTION_UPDATE permission
@@ -125,43 +258,57 @@ public class TaskServiceImpl extends AbstractService implements TaskService {
                         .collect(Collectors.toSet()));
             }
 
-            // 6. search for PENDING subscriptions
-            if (apiIds.isEmpty()) {
-                return Collections.emptyList();
-            }
-            SubscriptionQuery query = new SubscriptionQuery();
-            query.setStatuses(Collections.singleton(PENDING));
-            query.setApis(apiIds);
-            return subscriptionService.search(query)
-                    .stream()
-                    .map(this::convert)
-                    .collect(Collectors.toList());
+            return apiIds;
         } catch (TechnicalException e) {
             LOGGER.error("Error retreiving user tasks {}", e.getMessage());
             throw new TechnicalManagementException("Error retreiving user tasks", e);
         }
     }
 
+    @Override
     public Metadata getMetadata(List<TaskEntity> tasks) {
         Metadata metadata = new Metadata();
-        tasks.forEach( task -> {
-            SubscriptionEntity subscription = (SubscriptionEntity)task.getData();
+        if (tasks.isEmpty()) {
+            return metadata;
+        }
 
-            if (!metadata.containsKey(subscription.getApplication())) {
-                ApplicationEntity applicationEntity = applicationService.findById(subscription.getApplication());
-                metadata.put(subscription.getApplication(), "name", applicationEntity.getName());
-            }
+        final List<SubscriptionEntity> subscriptions = tasks
+                .stream()
+                .map(task -> (SubscriptionEntity) task.getData())
+                .collect(Collectors.toList());
 
-            if (!metadata.containsKey(subscription.getPlan())) {
-                PlanEntity planEntity = planService.findById(subscription.getPlan());
-                String apiId = planEntity.getApis().iterator().next();
-                ApiEntity api = apiService.findById(apiId);
-                metadata.put(subscription.getPlan(), "name", planEntity.getName());
-                metadata.put(subscription.getPlan(), "api", apiId);
-                metadata.put(apiId, "name", api.getName());
-            }
-        });
-        return metadata;
+        try {
+            // referenced items are loaded at once, whatever the number of tasks
+            final List<String> applicationIds = subscriptions.stream()
+                    .map(SubscriptionEntity::getApplication)
+                    .distinct()
+                    .collect(Collectors.toList());
+            applicationRepository.findByIds(applicationIds)
+                    .forEach(application -> metadata.put(application.getId(), "name", application.getName()));
+
+            final Set<String> apiIds = subscriptions.stream()
+                    .map(SubscriptionEntity::getApi)
+                    .collect(Collectors.toSet());
+            ApiFieldExclusionFilter filter = (new ApiFieldExclusionFilter.Builder()).excludeDefinition().excludePicture().build();
+            apiRepository.search(new ApiCriteria.Builder().ids(apiIds.toArray(new String[0])).build(), filter)
+                    .forEach(api -> metadata.put(api.getId(), "name", api.getName()));
+
+            final Set<String> planIds = subscriptions.stream()
+                    .map(SubscriptionEntity::getPlan)
+                    .collect(Collectors.toSet());
+            apiIds.forEach(apiId -> planService.findByApi(apiId)
+                    .stream()
+                    .filter(plan -> planIds.contains(plan.getId()))
+                    .forEach(plan -> {
+                        metadata.put(plan.getId(), "name", plan.getName());
+                        metadata.put(plan.getId(), "api", apiId);
+                    }));
+
+            return metadata;
+        } catch (TechnicalException e) {
+            LOGGER.error("Error retreiving user tasks metadata {}", e.getMessage());
+            throw new TechnicalManagementException("Error retreiving user tasks metadata", e);
+        }
     }
 
     private TaskEntity convert(SubscriptionEntity subscription) {
@@ -176,4 +323,17 @@ public class TaskServiceImpl extends AbstractService implements TaskService {
         }
         return taskEntity;
     }
+
+    private class MembershipEventListener implements EventListener<MembershipEvent, Membership> {
+
+        @Override
+        public void onEvent(Event<MembershipEvent, Membership> event) {
+            membershipVersion.incrementAndGet();
+
+            final Membership membership = event.content();
+            if (membership != null && membership.getUserId() != null) {
+                validatedApis.invalidate(membership.getUserId());
+            }
+        }
+    }
 }
@@ -28,6 +28,8 @@ import io.gravitee.management.service.common.JWTHelper.Claims;
 import io.gravitee.management.service.exceptions.*;
 import io.gravitee.management.service.notification.NotificationParamsBuilder;
 import io.gravitee.management.service.notification.PortalHook;
+import io.gravitee.management.service.search.SearchEngineService;
+import io.gravitee.management.service.spring.AsyncConfiguration;
 import io.gravitee.repository.exceptions.TechnicalException;
 import io.gravitee.repository.management.api.UserRepository;
 import io.gravitee.repository.management.api.search.builder.PageableBuilder;
@@ -35,23 +37,20 @@ import io.gravitee.repository.management.model.MembershipDefaultReferenceId;
 import io.gravitee.repository.management.model.MembershipReferenceType;
 import io.gravitee.repository.management.model.RoleScope;
 import io.gravitee.repository.management.model.User;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.ConfigurableEnvironment;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Component;
 
 import javax.mail.internet.AddressException;
 import javax.mail.internet.InternetAddress;
-import javax.xml.bind.DatatypeConverter;
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static io.gravitee.management.service.common.JWTHelper.DefaultValues.DEFAULT_JWT_EMAIL_REGISTRATION_EXPIRE_AFTER;
@@ -99,13 +98,40 @@ public class UserServiceImpl extends AbstractService implements UserService {
     @Autowired
     private ParameterService parameterService;
 
+    @Autowired
+    private PictureService pictureService;
+
+    @Autowired
+    private SearchEngineService searchEngineService;
+
     @Value("${user.avatar:${gravitee.home}/assets/default_user_avatar.png}")
     private String defaultAvatar;
 
     @Value("${user.login.defaultApplication:true}")
     private boolean defaultApplicationForFirstConnection;
 
-    private PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Value("${user.login.lastConnection.interval:60000}")
+    private long lastConnectionInterval;
+
+    @Autowired
+    @Qualifier(AsyncConfiguration.DEFAULT_EXECUTOR)
+    private TaskExecutor taskExecutor;
+
+    private final Set<String> pendingConnections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * First logins of a same user are serialized on one of these locks so that the user is notified and given a
+     * default application only once on this node.
+     */
+    private final Object[] connectionLocks = new Object[64];
+    {
+        for (int i = 0; i < connectionLocks.length; i++) {
+            connectionLocks[i] = new Object();
+        }
+    }
+
+    @Autowired
+    private PasswordService passwordService;
 
     @Override
     public UserEntity connect(String userId) {
@@ -117,39 +143,89 @@ public class UserServiceImpl extends AbstractService implements UserService {
             }
 
             User user = checkUser.get();
-            User previousUser = new User(user);
             // First connection: create default application for user & notify
             if (user.getLastConnectionAt() == null) {
-                notifierService.trigger(PortalHook.USER_FIRST_LOGIN, new NotificationParamsBuilder()
-                        .user(convert(user, false))
-                        .build());
-                if (defaultApplicationForFirstConnection) {
-                    LOGGER.debug("Create a default application for {}", userId);
-                    NewApplicationEntity defaultApp = new NewApplicationEntity();
-                    defaultApp.setName("Default application");
-                    defaultApp.setDescription("My default application");
-                    applicationService.create(defaultApp, userId);
+                // Concurrent first logins of a same user are serialized, the first one only being handled as such
+                synchronized (connectionLocks[(userId.hashCode() & 0x7fffffff) % connectionLocks.length]) {
+                    user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+                    if (user.getLastConnectionAt() == null) {
+                        return firstConnect(user);
+                    }
                 }
             }
 
-            // Set date fields
-            user.setLastConnectionAt(new Date());
-            user.setUpdatedAt(user.getLastConnectionAt());
-
-            User updatedUser = userRepository.update(user);
-            auditService.createPortalAuditLog(
-                    Collections.singletonMap(USER, userId),
-                    User.AuditEvent.USER_CONNECTED,
-                    user.getUpdatedAt(),
-                    previousUser,
-                    user);
-            return convert(updatedUser, true);
+            // Next connections: every login is audited (asynchronously), but the last connection date is only
+            // refreshed once per interval and out of the login request, concurrent logins of a same user sharing a
+            // single pending write
+            Date connectedAt = new Date();
+            User connectedUser = new User(user);
+            connectedUser.setLastConnectionAt(connectedAt);
+            connectedUser.setUpdatedAt(connectedAt);
+            auditConnection(user, connectedUser);
+
+            if (connectedAt.getTime() - user.getLastConnectionAt().getTime() >= lastConnectionInterval
+                    && pendingConnections.add(userId)) {
+                try {
+                    taskExecutor.execute(() -> updateLastConnection(userId, connectedAt));
+                } catch (RuntimeException ex) {
+                    pendingConnections.remove(userId);
+                    throw ex;
+                }
+            }
+            return convert(user, true);
         } catch (TechnicalException ex) {
             LOGGER.error("An error occurs while trying to connect {}", userId, ex);
             throw new TechnicalManagementException("An error occurs while trying to connect " + userId, ex);
         }
     }
 
+    private UserEntity firstConnect(User user) throws TechnicalException {
+        User previousUser = new User(user);
+        notifierService.trigger(PortalHook.USER_FIRST_LOGIN, new NotificationParamsBuilder()
+                .user(convert(user, false))
+                .build());
+        if (defaultApplicationForFirstConnection) {
+            LOGGER.debug("Create a default application for {}", user.getId());
+            NewApplicationEntity defaultApp = new NewApplicationEntity();
+            defaultApp.setName("Default application");
+            defaultApp.setDescription("My default application");
+            applicationService.create(defaultApp, user.getId());
+        }
+
+        // Set date fields
+        user.setLastConnectionAt(new Date());
+        user.setUpdatedAt(user.getLastConnectionAt());
+
+        User updatedUser = userRepository.update(user);
+        auditConnection(previousUser, user);
+        return convert(updatedUser, true);
+    }
+
+    private void updateLastConnection(String userId, Date connectedAt) {
+        try {
+            Optional<User> optUser = userRepository.findById(userId);
+            if (optUser.isPresent()) {
+                User user = optUser.get();
+                user.setLastConnectionAt(connectedAt);
+                user.setUpdatedAt(connectedAt);
+                userRepository.update(user);
+            }
+        } catch (Exception ex) {
+            LOGGER.error("An error occurs while updating the last connection of {}", userId, ex);
+        } finally {
+            pendingConnections.remove(userId);
+        }
+    }
+
+    private void auditConnection(User previousUser, User user) {
+        auditService.createPortalAuditLog(
+                Collections.singletonMap(USER, user.getId()),
+                User.AuditEvent.USER_CONNECTED,
+                user.getUpdatedAt(),
+                previousUser,
+                user);
+    }
+
     @Override
     public UserEntity findById(String id) {
         try {
@@ -263,7 +339,7 @@ public class UserServiceImpl extends AbstractService implements UserService {
             user.setUpdatedAt(new Date());
             // Encrypt password if internal user
             if (registerUserEntity.getPassword() != null) {
-                user.setPassword(passwordEncoder.encode(registerUserEntity.getPassword()));
+                user.setPassword(passwordService.encode(registerUserEntity.getPassword()));
             }
 
             user = userRepository.update(user);
@@ -289,29 +365,17 @@ public class UserServiceImpl extends AbstractService implements UserService {
 
             if (picture.matches("^(http|https)://.*$")) {
                 return new UrlPictureEntity(picture);
-            } else {
-                try {
-                    InlinePictureEntity imageEntity = new InlinePictureEntity();
-                    String[] parts = picture.split(";", 2);
-                    imageEntity.setType(parts[0].split(":")[1]);
-                    String base64Content = picture.split(",", 2)[1];
-                    imageEntity.setContent(DatatypeConverter.parseBase64Binary(base64Content));
-                    return imageEntity;
-                } catch (Exception ex) {
-                    LOGGER.warn("Unable to get user picture for id[{}]", id);
-                }
             }
+
+            InlinePictureEntity imageEntity = pictureService.getPicture(PictureService.ReferenceType.USER, id, user.getUpdatedAt(), picture);
+            if (imageEntity != null) {
+                return imageEntity;
+            }
+            LOGGER.warn("Unable to get user picture for id[{}]", id);
         }
 
         // Return default inline user avatar
-        InlinePictureEntity imageEntity = new InlinePictureEntity();
-        imageEntity.setType("image/png");
-        try {
-            imageEntity.setContent(IOUtils.toByteArray(new FileInputStream(defaultAvatar)));
-        } catch (IOException ioe) {
-            LOGGER.error("Default icon for API does not exist", ioe);
-        }
-        return imageEntity;
+        return pictureService.getFilePicture(defaultAvatar, "image/png");
     }
 
     /**
@@ -323,7 +387,7 @@ public class UserServiceImpl extends AbstractService implements UserService {
     public UserEntity create(NewExternalUserEntity newExternalUserEntity, boolean addDefaultRole) {
         try {
             LOGGER.debug("Create an external user {}", newExternalUserEntity);
-            Optional<User> checkUser = userRepository.findById(newExternalUserEntity.getUsername());
+            Optional<User> checkUser = userRepository.findByUsername(newExternalUserEntity.getUsername());
             if (checkUser.isPresent()) {
                 throw new UsernameAlreadyExistsException(newExternalUserEntity.getUsername());
             }
@@ -346,7 +410,9 @@ public class UserServiceImpl extends AbstractService implements UserService {
                 addDefaultMembership(createdUser);
             }
 
-            return convert(createdUser, true);
+            UserEntity userEntity = convert(createdUser, true);
+            searchEngineService.index(userEntity);
+            return userEntity;
         } catch (TechnicalException ex) {
             LOGGER.error("An error occurs while trying to create an external user {}", newExternalUserEntity, ex);
             throw new TechnicalManagementException("An error occurs while trying to create an external user" + newExternalUserEntity, ex);
@@ -492,13 +558,16 @@ public class UserServiceImpl extends AbstractService implements UserService {
             }
 
             User updatedUser = userRepository.update(user);
+            pictureService.evict(PictureService.ReferenceType.USER, user.getId());
             auditService.createPortalAuditLog(
                     Collections.singletonMap(USER, user.getUsername()),
                     User.AuditEvent.USER_UPDATED,
                     user.getUpdatedAt(),
                     previousUser,
                     user);
-            return convert(updatedUser, true);
+            UserEntity userEntity = convert(updatedUser, true);
+            searchEngineService.index(userEntity);
+            return userEntity;
         } catch (TechnicalException ex) {
             LOGGER.error("An error occurs while trying to update {}", updateUserEntity, ex);
             throw new TechnicalManagementException("An error occurs while trying update " + updateUserEntity, ex);
@@ -553,6 +622,8 @@ public class UserServiceImpl extends AbstractService implements UserService {
 
             membershipService.removeUser(id);
             userRepository.delete(id);
+            pictureService.evict(PictureService.ReferenceType.USER, id);
+            searchEngineService.delete(convert(optionalUser.get(), false));
 
         } catch (TechnicalException ex) {
             LOGGER.error("An error occurs while trying to delete user", ex);
@@ -603,10 +674,33 @@ public class UserServiceImpl extends AbstractService implements UserService {
         }
     }
 
+    @Override
+    public void upgradePassword(final String username, final String password, final String previousEncodedPassword) {
+        // Hashing is expensive: the login does not wait for the new hash
+        taskExecutor.execute(() -> {
+            try {
+                Optional<User> optionalUser = userRepository.findByUsername(username);
+                // The password may have been changed since it has been verified
+                if (optionalUser.isPresent() && previousEncodedPassword.equals(optionalUser.get().getPassword())) {
+                    LOGGER.debug("Upgrading the password encoding of user {}", username);
+                    final User user = optionalUser.get();
+                    user.setPassword(passwordService.encode(password));
+                    userRepository.update(user);
+                }
+            } catch (Exception ex) {
+                LOGGER.error("An error occurs while trying to upgrade the password encoding of user {}", username, ex);
+            }
+        });
+    }
+
     public void setDefaultApplicationForFirstConnection(boolean defaultApplicationForFirstConnection) {
         this.defaultApplicationForFirstConnection = defaultApplicationForFirstConnection;
     }
 
+    public void setLastConnectionInterval(long lastConnectionInterval) {
+        this.lastConnectionInterval = lastConnectionInterval;
+    }
+
     private static User convert(NewExternalUserEntity newExternalUserEntity) {
         if (newExternalUserEntity == null) {
             return null;
@@ -643,26 +737,12 @@ public class UserServiceImpl extends AbstractService implements UserService {
         userEntity.setPicture(user.getPicture());
 
         if (loadRoles) {
-            Set<UserRoleEntity> roles = new HashSet<>();
-            RoleEntity roleEntity = membershipService.getRole(
-                    MembershipReferenceType.PORTAL,
-                    MembershipDefaultReferenceId.DEFAULT.name(),
-                    user.getId(),
-                    RoleScope.PORTAL);
-            if (roleEntity != null) {
-                roles.add(convert(roleEntity));
-            }
-
-            roleEntity = membershipService.getRole(
-                    MembershipReferenceType.MANAGEMENT,
-                    MembershipDefaultReferenceId.DEFAULT.name(),
-                    user.getId(),
-                    RoleScope.MANAGEMENT);
-            if (roleEntity != null) {
-                roles.add(convert(roleEntity));
-            }
-
-            userEntity.setRoles(roles);
+            // the portal and management roles share a single membership lookup
+            userEntity.setRoles(membershipService.getDefaultRoles(user.getId())
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .map(this::convert)
+                    .collect(Collectors.toSet()));
         }
 
         return userEntity;
@@ -20,6 +20,7 @@ import io.gravitee.management.service.impl.search.lucene.DocumentSearcher;
 import io.gravitee.management.service.impl.search.lucene.DocumentTransformer;
 import io.gravitee.management.service.impl.search.lucene.SearchEngineIndexer;
 import io.gravitee.management.service.search.SearchEngineService;
+import io.gravitee.management.service.spring.AsyncConfiguration;
 import io.gravitee.repository.exceptions.TechnicalException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,7 +55,7 @@ public class SearchEngineServiceImpl implements SearchEngineService {
     @Autowired
     private Collection<DocumentSearcher> searchers;
 
-    @Async
+    @Async(AsyncConfiguration.SEARCH_ENGINE_EXECUTOR)
     @Override
     public void index(Indexable source) {
         transformers.stream()
@@ -69,7 +70,7 @@ public class SearchEngineServiceImpl implements SearchEngineService {
                 });
     }
 
-    @Async
+    @Async(AsyncConfiguration.SEARCH_ENGINE_EXECUTOR)
     @Override
     public void delete(Indexable source) {
         transformers.stream()
@@ -15,6 +15,7 @@
  */
 package io.gravitee.management.service.impl.search.lucene.searcher;
 
+import io.gravitee.management.model.common.Pageable;
 import io.gravitee.management.service.impl.search.lucene.DocumentSearcher;
 import io.gravitee.management.service.impl.search.lucene.analyzer.CustomWhitespaceAnalyzer;
 import io.gravitee.repository.exceptions.TechnicalException;
@@ -54,21 +55,34 @@ public abstract class AbstractDocumentSearcher implements DocumentSearcher {
     protected IndexWriter indexWriter;
 
     protected List<String> search(Query query) throws TechnicalException {
+        return search(query, null);
+    }
+
+    /**
+     * Only the documents of the requested page are collected and loaded from the index, the whole result set is
+     * never materialized.
+     */
+    protected List<String> search(Query query, Pageable pageable) throws TechnicalException {
         logger.debug("Searching for: {}", query.toString());
 
+        int offset = 0;
+        int count = Integer.MAX_VALUE;
+        if (pageable != null) {
+            offset = (Math.max(pageable.getPageNumber(), 1) - 1) * pageable.getPageSize();
+            count = offset + pageable.getPageSize();
+        }
+
         try {
             IndexSearcher searcher = getIndexSearcher();
-            final TopDocs topDocs = searcher.search(query,Integer.MAX_VALUE);
+            final TopDocs topDocs = searcher.search(query, count);
             final ScoreDoc[] hits = topDocs.scoreDocs;
             final List<String> results = new ArrayList<>();
 
             logger.debug("Found {} total matching documents", topDocs.totalHits);
 
-            if (hits.length > 0) {
-                // Iterate over found results
-                for (ScoreDoc hit : hits) {
-                    results.add(getReference(searcher.doc(hit.doc)));
-                }
+            // Iterate over found results
+            for (int i = offset; i < hits.length; i++) {
+                results.add(getReference(searcher.doc(hits[i].doc)));
             }
 
             return results;
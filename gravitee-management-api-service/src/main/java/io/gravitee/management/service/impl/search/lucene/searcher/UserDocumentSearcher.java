@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service.impl.search.lucene.searcher;
+
+import io.gravitee.management.model.UserEntity;
+import io.gravitee.management.model.search.Indexable;
+import io.gravitee.repository.exceptions.TechnicalException;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Search for users by exact value (boosted) or by prefix on their username, first name, last name, email and email
+ * domain. Leading wildcards are not used, as they would go through all the indexed terms.
+ *
+ * The only supported filter is <code>source</code> which restricts the results to the given identity provider types.
+ *
+ * @author GraviteeSource Team
+ */
+@Component
+public class UserDocumentSearcher extends AbstractDocumentSearcher {
+
+    public final static String FILTER_SOURCE = "source";
+
+    private final static String FIELD_TYPE_VALUE = "user";
+
+    private final static String[] FIELDS = new String[]{
+            "username",
+            "firstname",
+            "lastname",
+            "email"
+    };
+
+    @Override
+    public List<String> search(io.gravitee.management.service.search.query.Query query) throws TechnicalException {
+        String input = query.getQuery() == null ? "" : query.getQuery().trim().toLowerCase();
+
+        BooleanQuery.Builder fieldsQuery = new BooleanQuery.Builder();
+        for (String field : FIELDS) {
+            fieldsQuery.add(new BoostQuery(new TermQuery(new Term(field, input)), 2.0f), BooleanClause.Occur.SHOULD);
+            fieldsQuery.add(new PrefixQuery(new Term(field, input)), BooleanClause.Occur.SHOULD);
+        }
+
+        BooleanQuery.Builder userQuery = new BooleanQuery.Builder();
+        userQuery.add(fieldsQuery.build(), BooleanClause.Occur.MUST);
+        userQuery.add(new TermQuery(new Term(FIELD_TYPE, FIELD_TYPE_VALUE)), BooleanClause.Occur.FILTER);
+
+        Object sources = query.getFilters().get(FILTER_SOURCE);
+        if (sources instanceof Collection) {
+            BooleanQuery.Builder sourcesQuery = new BooleanQuery.Builder();
+            for (Object source : (Collection) sources) {
+                sourcesQuery.add(new TermQuery(new Term(FILTER_SOURCE, ((String) source).toLowerCase())), BooleanClause.Occur.SHOULD);
+            }
+            userQuery.add(sourcesQuery.build(), BooleanClause.Occur.FILTER);
+        } else if (sources != null) {
+            userQuery.add(new TermQuery(new Term(FILTER_SOURCE, ((String) sources).toLowerCase())), BooleanClause.Occur.FILTER);
+        }
+
+        return search(userQuery.build(), query.getPage());
+    }
+
+    @Override
+    public boolean handle(Class<? extends Indexable> source) {
+        return source.isAssignableFrom(UserEntity.class);
+    }
+}
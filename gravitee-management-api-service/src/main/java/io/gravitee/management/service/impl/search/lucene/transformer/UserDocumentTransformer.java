@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service.impl.search.lucene.transformer;
+
+import io.gravitee.management.model.UserEntity;
+import io.gravitee.management.model.search.Indexable;
+import io.gravitee.management.service.impl.search.lucene.DocumentTransformer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.springframework.stereotype.Component;
+
+/**
+ * @author GraviteeSource Team
+ */
+@Component
+public class UserDocumentTransformer implements DocumentTransformer {
+
+    private final static String FIELD_ID = "id";
+    private final static String FIELD_TYPE = "type";
+    private final static String FIELD_TYPE_VALUE = "user";
+    private final static String FIELD_SOURCE = "source";
+    private final static String FIELD_USERNAME = "username";
+    private final static String FIELD_FIRSTNAME = "firstname";
+    private final static String FIELD_LASTNAME = "lastname";
+    private final static String FIELD_EMAIL = "email";
+
+    @Override
+    public Document transform(Indexable indexable) {
+        Document doc = new Document();
+        UserEntity user = (UserEntity) indexable;
+
+        doc.add(new StringField(FIELD_ID, user.getId(), Field.Store.YES));
+        doc.add(new StringField(FIELD_TYPE, FIELD_TYPE_VALUE, Field.Store.YES));
+
+        // Matching is case insensitive, values are indexed lower-cased and untokenized
+        if (user.getSource() != null) {
+            doc.add(new StringField(FIELD_SOURCE, user.getSource().toLowerCase(), Field.Store.NO));
+        }
+        if (user.getUsername() != null) {
+            doc.add(new StringField(FIELD_USERNAME, user.getUsername().toLowerCase(), Field.Store.NO));
+        }
+        if (user.getFirstname() != null) {
+            doc.add(new StringField(FIELD_FIRSTNAME, user.getFirstname().toLowerCase(), Field.Store.NO));
+        }
+        if (user.getLastname() != null) {
+            doc.add(new StringField(FIELD_LASTNAME, user.getLastname().toLowerCase(), Field.Store.NO));
+        }
+        if (user.getEmail() != null) {
+            final String email = user.getEmail().toLowerCase();
+            doc.add(new StringField(FIELD_EMAIL, email, Field.Store.NO));
+
+            // the domain is indexed too, so that users can be searched by their domain without a leading wildcard
+            final int domain = email.indexOf('@');
+            if (domain >= 0 && domain < email.length() - 1) {
+                doc.add(new StringField(FIELD_EMAIL, email.substring(domain + 1), Field.Store.NO));
+            }
+        }
+
+        return doc;
+    }
+
+    @Override
+    public boolean handle(Class<? extends Indexable> source) {
+        return UserEntity.class.isAssignableFrom(source);
+    }
+}
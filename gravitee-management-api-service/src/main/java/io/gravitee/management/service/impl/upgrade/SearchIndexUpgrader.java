@@ -15,11 +15,15 @@
  */
 package io.gravitee.management.service.impl.upgrade;
 
+import io.gravitee.common.data.domain.Page;
 import io.gravitee.management.model.PageEntity;
 import io.gravitee.management.model.PageListItem;
+import io.gravitee.management.model.UserEntity;
 import io.gravitee.management.model.api.ApiEntity;
+import io.gravitee.management.model.common.PageableImpl;
 import io.gravitee.management.service.ApiService;
 import io.gravitee.management.service.PageService;
+import io.gravitee.management.service.UserService;
 import io.gravitee.management.service.search.SearchEngineService;
 import io.gravitee.management.service.Upgrader;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,12 +41,17 @@ import java.util.function.Consumer;
 @Component
 public class SearchIndexUpgrader implements Upgrader, Ordered {
 
+    private final static int USERS_PAGE_SIZE = 100;
+
     @Autowired
     private ApiService apiService;
 
     @Autowired
     private PageService pageService;
 
+    @Autowired
+    private UserService userService;
+
     @Autowired
     private SearchEngineService searchEngineService;
 
@@ -71,6 +80,14 @@ public class SearchIndexUpgrader implements Upgrader, Ordered {
                     }
                 });
 
+        // Index users
+        int pageNumber = 1;
+        Page<UserEntity> users;
+        do {
+            users = userService.search(new PageableImpl(pageNumber++, USERS_PAGE_SIZE));
+            users.getContent().forEach(searchEngineService::index);
+        } while ((long) (pageNumber - 1) * USERS_PAGE_SIZE < users.getTotalElements() && !users.getContent().isEmpty());
+
         return true;
     }
 
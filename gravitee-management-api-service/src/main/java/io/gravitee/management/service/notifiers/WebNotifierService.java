@@ -20,6 +20,7 @@ import io.gravitee.management.service.notification.Hook;
 import io.gravitee.repository.management.model.GenericNotificationConfig;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Nicolas GERAUD (nicolas.geraud at graviteesource.com) 
@@ -27,4 +28,10 @@ import java.util.Map;
  */
 public interface WebNotifierService {
     void request(HttpMethod method, final String uri, final Map<String, String> headers, String body, boolean useSystemProxy);
+
+    /**
+     * Send the request without waiting for the response. The returned future completes exceptionally if the
+     * request fails or if the response status is not a 2xx one.
+     */
+    CompletableFuture<Void> send(HttpMethod method, final String uri, final Map<String, String> headers, String body, boolean useSystemProxy);
 }
@@ -0,0 +1,30 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service.notifiers;
+
+import io.gravitee.common.http.HttpMethod;
+
+import java.util.Map;
+
+/**
+ * Reliable delivery of webhooks: requests are stored in an outbox and sent in the background, with retries,
+ * until their target acknowledges them or they are moved to dead letters.
+ *
+ * @author GraviteeSource Team
+ */
+public interface WebhookDeliveryService {
+    void enqueue(HttpMethod method, final String uri, final Map<String, String> headers, String body, boolean useSystemProxy);
+}
@@ -15,30 +15,27 @@
  */
 package io.gravitee.management.service.notifiers.impl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
 import io.gravitee.common.http.HttpHeaders;
 import io.gravitee.common.http.HttpMethod;
-import io.gravitee.common.http.HttpStatusCode;
 import io.gravitee.common.http.MediaType;
 import io.gravitee.common.utils.UUID;
-import io.gravitee.fetcher.api.FetcherException;
-import io.gravitee.management.model.*;
-import io.gravitee.management.model.api.ApiEntity;
 import io.gravitee.management.service.exceptions.TechnicalManagementException;
-import io.gravitee.management.service.notification.Hook;
 import io.gravitee.management.service.notifiers.WebNotifierService;
-import io.gravitee.management.service.notifiers.WebhookNotifierService;
 import io.gravitee.management.service.vertx.VertxCompletableFuture;
-import io.gravitee.repository.management.model.GenericNotificationConfig;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpClient;
 import io.vertx.core.http.HttpClientOptions;
 import io.vertx.core.http.HttpClientRequest;
-import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.ProxyOptions;
 import io.vertx.core.net.ProxyType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -47,15 +44,14 @@ import java.net.URI;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-
-import static io.gravitee.management.service.notification.NotificationParamsBuilder.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Nicolas GERAUD (nicolas.geraud at graviteesource.com) 
  * @author GraviteeSource Team
  */
 @Component
-public class WebNotifierServiceImpl implements WebNotifierService {
+public class WebNotifierServiceImpl implements WebNotifierService, InitializingBean, DisposableBean {
 
     private final Logger LOGGER = LoggerFactory.getLogger(WebNotifierServiceImpl.class);
 
@@ -84,31 +80,116 @@ public class WebNotifierServiceImpl implements WebNotifierService {
     @Value("${httpClient.proxy.https.password:#{null}}")
     private String httpClientProxyHttpsPassword;
 
+    @Value("${httpClient.pool.maxSize:5}")
+    private int httpClientPoolMaxSize;
+    @Value("${httpClient.pool.idleTimeout:60}")
+    private int httpClientPoolIdleTimeout;
+    @Value("${httpClient.pool.maxOrigins:100}")
+    private int httpClientPoolMaxOrigins;
+
     @Autowired
     private Vertx vertx;
 
+    /**
+     * Keep-alive HTTP clients, one per target origin (scheme, host, port and proxy usage). Clients of the origins
+     * which are no longer called are closed, once their pending requests have timed out.
+     */
+    private Cache<String, HttpClient> httpClients;
+
+    @Override
+    public void afterPropertiesSet() {
+        httpClients = CacheBuilder.newBuilder()
+                .maximumSize(httpClientPoolMaxOrigins)
+                .expireAfterAccess(httpClientPoolIdleTimeout, TimeUnit.SECONDS)
+                .removalListener((RemovalListener<String, HttpClient>) notification -> {
+                    if (notification.wasEvicted()) {
+                        vertx.setTimer(httpClientTimeout, timer -> notification.getValue().close());
+                    }
+                })
+                .build();
+    }
+
+    @Override
     public void request(HttpMethod method, final String uri, final Map<String, String> headers, String body, boolean useSystemProxy) {
         if (uri == null || uri.isEmpty()) {
             LOGGER.error("Webhook Notifier configuration is empty");
             return;
         }
 
-        CompletableFuture<Buffer> future = new VertxCompletableFuture<>(vertx);
-        URI requestUri = URI.create(uri);
-        boolean ssl = HTTPS_SCHEME.equalsIgnoreCase(requestUri.getScheme());
+        try {
+            send(method, uri, headers, body, useSystemProxy).get();
+        } catch (InterruptedException | ExecutionException e) {
+            LOGGER.error(e.getMessage(), e);
+            throw new TechnicalManagementException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> send(HttpMethod method, final String uri, final Map<String, String> headers, String body, boolean useSystemProxy) {
+        CompletableFuture<Void> future = new VertxCompletableFuture<>(vertx);
+
+        try {
+            URI requestUri = URI.create(uri);
+            boolean ssl = HTTPS_SCHEME.equalsIgnoreCase(requestUri.getScheme());
+            final int port = requestUri.getPort() != -1 ? requestUri.getPort() : (ssl ? 443 : 80);
+
+            final HttpClient httpClient = httpClients.get(
+                    requestUri.getScheme() + "://" + requestUri.getHost() + ':' + port + (useSystemProxy ? "#proxy" : ""),
+                    () -> vertx.createHttpClient(createHttpClientOptions(ssl, useSystemProxy)));
+
+            HttpClientRequest request = httpClient.request(
+                    io.vertx.core.http.HttpMethod.valueOf(method.name()),
+                    port,
+                    requestUri.getHost(),
+                    requestUri.toString()
+            );
+            request.setTimeout(httpClientTimeout);
+
+            Buffer payload = Buffer.buffer(body);
+
+            //headers
+            request.putHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+            request.putHeader(HttpHeaders.CONTENT_LENGTH, Integer.toString(payload.length()));
+            if (headers != null) {
+                headers.forEach(request::putHeader);
+            }
+            request.putHeader("X-Gravitee-Request-Id", UUID.toString(UUID.random()));
+
+            request.handler(response -> {
+                LOGGER.debug("Web response status code : {}", response.statusCode());
+
+                // Always consume the response so that the connection can be reused
+                response.bodyHandler(buffer -> {
+                    if (response.statusCode() / 100 == 2) {
+                        future.complete(null);
+                    } else {
+                        future.completeExceptionally(new TechnicalManagementException(" Error on url '" + uri + "'. Status code: " + response.statusCode() + ". Message: " + response.statusMessage(), null));
+                    }
+                });
+            });
+            request.exceptionHandler(future::completeExceptionally);
 
+            request.end(payload);
+        } catch (Exception ex) {
+            future.completeExceptionally(ex);
+        }
+
+        return future;
+    }
+
+    private HttpClientOptions createHttpClientOptions(boolean ssl, boolean useSystemProxy) {
         final HttpClientOptions options = new HttpClientOptions()
                 .setSsl(ssl)
                 .setTrustAll(true)
-                .setMaxPoolSize(1)
-                .setKeepAlive(false)
-                .setTcpKeepAlive(false)
+                .setMaxPoolSize(httpClientPoolMaxSize)
+                .setKeepAlive(true)
+                .setIdleTimeout(httpClientPoolIdleTimeout)
                 .setConnectTimeout(httpClientTimeout);
 
         if (useSystemProxy) {
             ProxyOptions proxyOptions = new ProxyOptions();
             proxyOptions.setType(ProxyType.valueOf(httpClientProxyType));
-            if (HTTPS_SCHEME.equals(requestUri.getScheme())) {
+            if (ssl) {
                 proxyOptions.setHost(httpClientProxyHttpsHost);
                 proxyOptions.setPort(httpClientProxyHttpsPort);
                 proxyOptions.setUsername(httpClientProxyHttpsUsername);
@@ -122,57 +203,12 @@ public class WebNotifierServiceImpl implements WebNotifierService {
             options.setProxyOptions(proxyOptions);
         }
 
-        final HttpClient httpClient = vertx.createHttpClient(options);
-
-        final int port = requestUri.getPort() != -1 ? requestUri.getPort() :
-                (HTTPS_SCHEME.equals(requestUri.getScheme()) ? 443 : 80);
-
-        HttpClientRequest request = httpClient.request(
-                io.vertx.core.http.HttpMethod.valueOf(method.name()),
-                port,
-                requestUri.getHost(),
-                requestUri.toString(),
-                response -> LOGGER.debug("Web response status code : {}", response.statusCode())
-        );
-        request.setTimeout(httpClientTimeout);
-
-        //headers
-        request.putHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
-        request.putHeader(HttpHeaders.CONTENT_LENGTH, Integer.toString(body.length()));
-        headers.forEach(request::putHeader);
-        request.putHeader("X-Gravitee-Request-Id", UUID.toString(UUID.random()));
-        request.write(body);
-
-        request.handler(response -> {
-            if (response.statusCode() == HttpStatusCode.OK_200) {
-                response.bodyHandler(buffer -> {
-                    future.complete(buffer);
-
-                    // Close client
-                    httpClient.close();
-                });
-            } else {
-                future.completeExceptionally(new TechnicalManagementException(" Error on url '" + uri + "'. Status code: " + response.statusCode() + ". Message: " + response.statusMessage(), null));
-            }
-        });
-        request.exceptionHandler(event -> {
-            try {
-                future.completeExceptionally(event);
-
-                // Close client
-                httpClient.close();
-            } catch (IllegalStateException ise) {
-                // Do not take care about exception when closing client
-            }
-        });
-
-        request.end();
+        return options;
+    }
 
-        try {
-            future.get();
-        } catch (InterruptedException | ExecutionException e) {
-            LOGGER.error(e.getMessage(), e);
-            throw new TechnicalManagementException(e.getMessage(), e);
-        }
+    @Override
+    public void destroy() {
+        httpClients.asMap().values().forEach(HttpClient::close);
+        httpClients.invalidateAll();
     }
 }
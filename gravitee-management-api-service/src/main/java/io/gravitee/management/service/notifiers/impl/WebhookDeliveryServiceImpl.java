@@ -0,0 +1,207 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service.notifiers.impl;
+
+import io.gravitee.common.http.HttpMethod;
+import io.gravitee.common.utils.UUID;
+import io.gravitee.management.service.notifiers.WebNotifierService;
+import io.gravitee.management.service.notifiers.WebhookDeliveryService;
+import io.gravitee.management.service.notifiers.webhook.WebhookDelivery;
+import io.gravitee.management.service.notifiers.webhook.WebhookOutbox;
+import io.vertx.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author GraviteeSource Team
+ */
+@Component
+public class WebhookDeliveryServiceImpl implements WebhookDeliveryService, InitializingBean, DisposableBean {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(WebhookDeliveryServiceImpl.class);
+
+    private static final long PURGE_INTERVAL = 3600000L;
+
+    @Value("${notifiers.webhook.concurrency:10}")
+    private int concurrency;
+    @Value("${notifiers.webhook.pollInterval:5000}")
+    private long pollInterval;
+    @Value("${notifiers.webhook.retry.maxAttempts:5}")
+    private int maxAttempts;
+    @Value("${notifiers.webhook.retry.initialDelay:1000}")
+    private long initialDelay;
+    @Value("${notifiers.webhook.retry.maxDelay:300000}")
+    private long maxDelay;
+    @Value("${notifiers.webhook.deadLetters.retention:604800000}")
+    private long deadLettersRetention;
+
+    @Autowired
+    private WebhookOutbox outbox;
+
+    @Autowired
+    private WebNotifierService webNotifierService;
+
+    @Autowired
+    private Vertx vertx;
+
+    /**
+     * Ids of the deliveries being sent. They stay pending in the outbox until they are acknowledged.
+     */
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private long pollTimer = -1;
+    private long purgeTimer = -1;
+
+    private volatile boolean stopped;
+
+    @Override
+    public void afterPropertiesSet() {
+        int deadLetters = outbox.countDeadLetters();
+        if (deadLetters > 0) {
+            LOGGER.warn("{} webhook deliveries are in dead letters", deadLetters);
+        }
+
+        pollTimer = vertx.setPeriodic(pollInterval, timer -> dispatch());
+        if (deadLettersRetention > 0) {
+            purgeDeadLetters();
+            purgeTimer = vertx.setPeriodic(PURGE_INTERVAL, timer -> purgeDeadLetters());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // Deliveries still in flight remain in the outbox and will be sent again on next start
+        stopped = true;
+        vertx.cancelTimer(pollTimer);
+        if (purgeTimer != -1) {
+            vertx.cancelTimer(purgeTimer);
+        }
+    }
+
+    @Override
+    public void enqueue(HttpMethod method, final String uri, final Map<String, String> headers, String body, boolean useSystemProxy) {
+        if (uri == null || uri.isEmpty()) {
+            LOGGER.error("Webhook Notifier configuration is empty");
+            return;
+        }
+
+        WebhookDelivery delivery = new WebhookDelivery();
+        delivery.setId(UUID.toString(UUID.random()));
+        delivery.setMethod(method);
+        delivery.setUri(uri);
+        delivery.setHeaders(headers);
+        delivery.setBody(body);
+        delivery.setUseSystemProxy(useSystemProxy);
+        delivery.setStatus(WebhookDelivery.Status.PENDING);
+        delivery.setCreatedAt(new Date());
+        delivery.setNextAttemptAt(delivery.getCreatedAt());
+
+        outbox.save(delivery);
+
+        dispatch();
+    }
+
+    synchronized void dispatch() {
+        if (stopped || inFlight.size() >= concurrency) {
+            return;
+        }
+
+        // In-flight deliveries are still pending in the outbox, so they have to be skipped
+        for (WebhookDelivery delivery : outbox.findPending(new Date(), concurrency + inFlight.size())) {
+            if (inFlight.size() >= concurrency) {
+                break;
+            }
+            if (inFlight.add(delivery.getId())) {
+                deliver(delivery);
+            }
+        }
+    }
+
+    void purgeDeadLetters() {
+        // Outbox operations may block, do not run them on the event loop
+        vertx.executeBlocking(future -> {
+            try {
+                int purged = outbox.purgeDeadLetters(new Date(System.currentTimeMillis() - deadLettersRetention));
+                if (purged > 0) {
+                    LOGGER.info("{} webhook deliveries purged from dead letters", purged);
+                }
+            } catch (Exception ex) {
+                LOGGER.error("An error occurs while trying to purge webhook dead letters", ex);
+            }
+            future.complete();
+        }, false, null);
+    }
+
+    private void deliver(WebhookDelivery delivery) {
+        LOGGER.debug("Sending {}", delivery);
+
+        webNotifierService
+                .send(delivery.getMethod(), delivery.getUri(), delivery.getHeaders(), delivery.getBody(), delivery.isUseSystemProxy())
+                .whenComplete((result, throwable) ->
+                        // Outbox operations may block, do not run them on the event loop
+                        vertx.executeBlocking(future -> {
+                            try {
+                                if (throwable == null) {
+                                    outbox.delete(delivery.getId());
+                                } else {
+                                    onFailure(delivery, throwable);
+                                }
+                            } catch (Exception ex) {
+                                LOGGER.error("An error occurs while trying to update webhook delivery {}", delivery.getId(), ex);
+                            } finally {
+                                inFlight.remove(delivery.getId());
+                            }
+
+                            dispatch();
+                            future.complete();
+                        }, false, null));
+    }
+
+    private void onFailure(WebhookDelivery delivery, Throwable throwable) {
+        final int attempts = delivery.getAttempts() + 1;
+        delivery.setAttempts(attempts);
+        delivery.setLastError(throwable.getMessage());
+
+        if (attempts >= maxAttempts) {
+            LOGGER.error("Unable to deliver webhook to {} after {} attempts, moving it to dead letters",
+                    delivery.getUri(), attempts, throwable);
+            delivery.setStatus(WebhookDelivery.Status.DEAD);
+            delivery.setDeadAt(new Date());
+        } else {
+            // Exponential backoff: initialDelay, 2 * initialDelay, 4 * initialDelay, ... up to maxDelay
+            final long delay = Math.min(maxDelay, initialDelay << Math.min(attempts - 1, 30));
+            LOGGER.warn("Unable to deliver webhook to {} (attempt {}), retrying in {} ms: {}",
+                    delivery.getUri(), attempts, delay, throwable.getMessage());
+            delivery.setNextAttemptAt(new Date(System.currentTimeMillis() + delay));
+
+            if (!stopped) {
+                vertx.setTimer(delay, timer -> dispatch());
+            }
+        }
+
+        outbox.save(delivery);
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service.notifiers.webhook;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Store of the webhook deliveries which have been requested but not yet acknowledged by their target.
+ * Implementations must be thread-safe.
+ *
+ * @author GraviteeSource Team
+ */
+public interface WebhookOutbox {
+
+    /**
+     * Create or replace a delivery. A {@link WebhookDelivery.Status#DEAD} delivery is moved to the dead letters.
+     */
+    void save(WebhookDelivery delivery);
+
+    void delete(String id);
+
+    /**
+     * Returns the {@link WebhookDelivery.Status#PENDING} deliveries which are due at the given date,
+     * the oldest first.
+     */
+    List<WebhookDelivery> findPending(Date date, int limit);
+
+    /**
+     * Returns the deliveries which have exhausted all their attempts.
+     */
+    List<WebhookDelivery> findDeadLetters();
+
+    int countDeadLetters();
+
+    /**
+     * Delete the deliveries moved to the dead letters before the given date.
+     *
+     * @return the number of deleted deliveries
+     */
+    int purgeDeadLetters(Date date);
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service.notifiers.webhook.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gravitee.management.service.exceptions.TechnicalManagementException;
+import io.gravitee.management.service.notifiers.webhook.WebhookDelivery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A durable {@link io.gravitee.management.service.notifiers.webhook.WebhookOutbox}: each delivery is written as a
+ * JSON document in the outbox directory, and the pending documents are loaded back on startup so that nothing which
+ * was in flight is lost on restart.
+ *
+ * Dead letters are written in the <code>dead</code> sub-directory. They are only read when they are looked for, and
+ * are purged according to the date they have been moved there.
+ *
+ * @author GraviteeSource Team
+ */
+@Component
+public class FileSystemWebhookOutbox extends InMemoryWebhookOutbox implements InitializingBean {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(FileSystemWebhookOutbox.class);
+
+    private static final String FILE_EXTENSION = ".json";
+    private static final String TMP_FILE_EXTENSION = ".tmp";
+    private static final String DEAD_LETTERS_DIRECTORY = "dead";
+
+    @Value("${notifiers.webhook.outbox.path:${gravitee.home}/data/webhooks}")
+    private String outboxDirectory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Path directory;
+    private Path deadLettersDirectory;
+
+    public FileSystemWebhookOutbox() {
+    }
+
+    public FileSystemWebhookOutbox(String outboxDirectory, ObjectMapper objectMapper) {
+        this.outboxDirectory = outboxDirectory;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        directory = Paths.get(outboxDirectory);
+        deadLettersDirectory = directory.resolve(DEAD_LETTERS_DIRECTORY);
+        Files.createDirectories(deadLettersDirectory);
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_EXTENSION)) {
+            for (Path file : files) {
+                try {
+                    WebhookDelivery delivery = objectMapper.readValue(file.toFile(), WebhookDelivery.class);
+                    if (delivery.getStatus() == WebhookDelivery.Status.DEAD) {
+                        // Dead letters stored along with the pending deliveries by previous versions
+                        Files.move(file, file(deadLettersDirectory, delivery.getId()), StandardCopyOption.REPLACE_EXISTING);
+                    } else {
+                        savePending(delivery);
+                    }
+                } catch (IOException ioe) {
+                    LOGGER.error("Unable to read webhook delivery from {}, ignoring it", file, ioe);
+                }
+            }
+        }
+
+        LOGGER.info("{} webhook deliveries loaded from {}", countPending(), directory);
+    }
+
+    @Override
+    public void save(WebhookDelivery delivery) {
+        if (delivery.getStatus() == WebhookDelivery.Status.DEAD) {
+            write(deadLettersDirectory, delivery);
+            removePending(delivery.getId());
+            deleteFile(file(directory, delivery.getId()));
+        } else {
+            write(directory, delivery);
+            savePending(delivery);
+        }
+    }
+
+    @Override
+    public void delete(String id) {
+        removePending(id);
+        deleteFile(file(directory, id));
+        deleteFile(file(deadLettersDirectory, id));
+    }
+
+    @Override
+    public List<WebhookDelivery> findDeadLetters() {
+        final List<WebhookDelivery> deadLetters = new ArrayList<>();
+        for (Path file : deadLetterFiles()) {
+            try {
+                deadLetters.add(objectMapper.readValue(file.toFile(), WebhookDelivery.class));
+            } catch (IOException ioe) {
+                LOGGER.error("Unable to read webhook delivery from {}, ignoring it", file, ioe);
+            }
+        }
+
+        deadLetters.sort(Comparator.comparing(WebhookDelivery::getCreatedAt));
+        return deadLetters;
+    }
+
+    @Override
+    public int countDeadLetters() {
+        return deadLetterFiles().size();
+    }
+
+    @Override
+    public int purgeDeadLetters(Date date) {
+        int purged = 0;
+        for (Path file : deadLetterFiles()) {
+            try {
+                if (Files.getLastModifiedTime(file).toMillis() < date.getTime() && Files.deleteIfExists(file)) {
+                    purged++;
+                }
+            } catch (IOException ioe) {
+                LOGGER.error("An error occurs while trying to purge webhook delivery {}", file, ioe);
+            }
+        }
+        return purged;
+    }
+
+    private List<Path> deadLetterFiles() {
+        final List<Path> deadLetterFiles = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(deadLettersDirectory, "*" + FILE_EXTENSION)) {
+            files.forEach(deadLetterFiles::add);
+        } catch (IOException ioe) {
+            LOGGER.error("An error occurs while trying to list webhook dead letters", ioe);
+            throw new TechnicalManagementException("An error occurs while trying to list webhook dead letters", ioe);
+        }
+        return deadLetterFiles;
+    }
+
+    private void write(Path directory, WebhookDelivery delivery) {
+        try {
+            Path tmpFile = directory.resolve(delivery.getId() + TMP_FILE_EXTENSION);
+            objectMapper.writeValue(tmpFile.toFile(), delivery);
+            Files.move(tmpFile, file(directory, delivery.getId()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ioe) {
+            LOGGER.error("An error occurs while trying to store webhook delivery {}", delivery.getId(), ioe);
+            throw new TechnicalManagementException("An error occurs while trying to store webhook delivery " + delivery.getId(), ioe);
+        }
+    }
+
+    private void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ioe) {
+            LOGGER.error("An error occurs while trying to delete webhook delivery {}", file, ioe);
+            throw new TechnicalManagementException("An error occurs while trying to delete webhook delivery " + file, ioe);
+        }
+    }
+
+    private static Path file(Path directory, String id) {
+        return directory.resolve(id + FILE_EXTENSION);
+    }
+}
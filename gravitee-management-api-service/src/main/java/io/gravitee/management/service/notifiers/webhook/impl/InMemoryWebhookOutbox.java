@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service.notifiers.webhook.impl;
+
+import io.gravitee.management.service.notifiers.webhook.WebhookDelivery;
+import io.gravitee.management.service.notifiers.webhook.WebhookOutbox;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link WebhookOutbox} which only keeps deliveries in memory: they are lost on restart.
+ *
+ * Pending deliveries are indexed by their next attempt date, so that finding the due ones does not go through all
+ * the deliveries. Dead letters are kept apart.
+ *
+ * @author GraviteeSource Team
+ */
+public class InMemoryWebhookOutbox implements WebhookOutbox {
+
+    private final Map<String, DueKey> dueKeys = new HashMap<>();
+    private final NavigableMap<DueKey, WebhookDelivery> pendingDeliveries = new TreeMap<>();
+
+    private final Map<String, WebhookDelivery> deadLetters = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(WebhookDelivery delivery) {
+        if (delivery.getStatus() == WebhookDelivery.Status.DEAD) {
+            removePending(delivery.getId());
+            deadLetters.put(delivery.getId(), delivery);
+        } else {
+            savePending(delivery);
+        }
+    }
+
+    @Override
+    public void delete(String id) {
+        removePending(id);
+        deadLetters.remove(id);
+    }
+
+    @Override
+    public synchronized List<WebhookDelivery> findPending(Date date, int limit) {
+        return pendingDeliveries
+                .headMap(new DueKey(date.getTime(), null), true)
+                .values()
+                .stream()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<WebhookDelivery> findDeadLetters() {
+        return deadLetters.values()
+                .stream()
+                .sorted(Comparator.comparing(WebhookDelivery::getCreatedAt))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int countDeadLetters() {
+        return deadLetters.size();
+    }
+
+    @Override
+    public int purgeDeadLetters(Date date) {
+        int purged = 0;
+        for (Iterator<WebhookDelivery> ite = deadLetters.values().iterator(); ite.hasNext(); ) {
+            WebhookDelivery delivery = ite.next();
+            if (delivery.getDeadAt() == null || delivery.getDeadAt().before(date)) {
+                ite.remove();
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    protected synchronized void savePending(WebhookDelivery delivery) {
+        removePending(delivery.getId());
+
+        DueKey key = new DueKey(delivery.getNextAttemptAt().getTime(), delivery.getId());
+        dueKeys.put(delivery.getId(), key);
+        pendingDeliveries.put(key, delivery);
+    }
+
+    protected synchronized void removePending(String id) {
+        DueKey key = dueKeys.remove(id);
+        if (key != null) {
+            pendingDeliveries.remove(key);
+        }
+    }
+
+    protected synchronized int countPending() {
+        return pendingDeliveries.size();
+    }
+
+    /**
+     * The date of the next attempt, then the delivery id to tell apart deliveries due at the same time. A key
+     * without id comes after all the keys of the same date.
+     */
+    private static class DueKey implements Comparable<DueKey> {
+        private final long dueAt;
+        private final String id;
+
+        private DueKey(long dueAt, String id) {
+            this.dueAt = dueAt;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(DueKey other) {
+            int result = Long.compare(dueAt, other.dueAt);
+            if (result != 0) {
+                return result;
+            }
+            if (id == null) {
+                return other.id == null ? 0 : 1;
+            }
+            return other.id == null ? -1 : id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            DueKey dueKey = (DueKey) o;
+            return dueAt == dueKey.dueAt && Objects.equals(id, dueKey.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dueAt, id);
+        }
+    }
+}
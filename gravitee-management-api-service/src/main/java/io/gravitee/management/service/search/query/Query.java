@@ -15,6 +15,7 @@
  */
 package io.gravitee.management.service.search.query;
 
+import io.gravitee.management.model.common.Pageable;
 import io.gravitee.management.model.search.Indexable;
 
 import java.util.HashMap;
@@ -30,6 +31,8 @@ public class Query<T extends Indexable> {
 
     private Map<String, Object> filters = new HashMap<>();
 
+    private Pageable page;
+
     private final Class<T> root;
 
     Query(final Class<T> root) {
@@ -52,6 +55,14 @@ public class Query<T extends Indexable> {
         this.filters = filters;
     }
 
+    public Pageable getPage() {
+        return page;
+    }
+
+    public void setPage(Pageable page) {
+        this.page = page;
+    }
+
     public Class<T> getRoot() {
         return root;
     }
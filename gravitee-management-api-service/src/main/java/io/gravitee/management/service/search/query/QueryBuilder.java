@@ -15,6 +15,7 @@
  */
 package io.gravitee.management.service.search.query;
 
+import io.gravitee.management.model.common.Pageable;
 import io.gravitee.management.model.search.Indexable;
 
 import java.util.Map;
@@ -55,6 +56,11 @@ public class QueryBuilder<T extends Indexable> {
         return this;
     }
 
+    public QueryBuilder<T> setPage(Pageable page) {
+        query.setPage(page);
+        return this;
+    }
+
     public Query<T> build() {
         return this.query;
     }
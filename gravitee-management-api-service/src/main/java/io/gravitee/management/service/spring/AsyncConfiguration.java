@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service.spring;
+
+import io.gravitee.management.service.impl.InstrumentedTaskExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executors of the {@link org.springframework.scheduling.annotation.Async} methods. Each workload has its own bounded
+ * executor, selected by its bean name, so that a burst of one kind of task can not starve the other ones.
+ *
+ * @author GraviteeSource Team
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfiguration implements AsyncConfigurer {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(AsyncConfiguration.class);
+
+    public static final String DEFAULT_EXECUTOR = "defaultAsyncExecutor";
+    public static final String SEARCH_ENGINE_EXECUTOR = "searchEngineAsyncExecutor";
+    public static final String PASSWORD_EXECUTOR = "passwordAsyncExecutor";
+    public static final String EMAIL_EXECUTOR = "emailAsyncExecutor";
+    public static final String AUDIT_EXECUTOR = "auditAsyncExecutor";
+    public static final String FETCHER_EXECUTOR = "fetcherAsyncExecutor";
+    public static final String MESSAGE_EXECUTOR = "messageAsyncExecutor";
+    public static final String BOOTSTRAP_EXECUTOR = "bootstrapAsyncExecutor";
+
+    @Autowired
+    private Environment environment;
+
+    @Bean(name = DEFAULT_EXECUTOR)
+    public InstrumentedTaskExecutor defaultAsyncExecutor() {
+        return createExecutor("default", 2, 10);
+    }
+
+    @Bean(name = SEARCH_ENGINE_EXECUTOR)
+    public InstrumentedTaskExecutor searchEngineAsyncExecutor() {
+        // a single thread keeps the indexing and the deletion of a same document in order: when the queue is full, the
+        // caller waits rather than running the task itself, ahead of the queued ones
+        return createExecutor("search", 1, 1, 10000, "BLOCK");
+    }
+
+    @Bean(name = PASSWORD_EXECUTOR)
+    public InstrumentedTaskExecutor passwordAsyncExecutor() {
+        // password hashing is CPU bound: no more threads than cores, and fail fast rather than queueing logins
+        final int processors = Runtime.getRuntime().availableProcessors();
+        return createExecutor("password", processors, processors, 100, "ABORT");
+    }
+
+    @Bean(name = EMAIL_EXECUTOR)
+    public InstrumentedTaskExecutor emailAsyncExecutor() {
+        // each email worker drains the email queue as long as the application runs: one thread per worker
+        final int workers = environment.getProperty("email.queue.workers", Integer.class, 1);
+        return createExecutor("email", workers, workers, 0, "ABORT");
+    }
+
+    @Bean(name = AUDIT_EXECUTOR)
+    public InstrumentedTaskExecutor auditAsyncExecutor() {
+        // a single writer drains the audit queue as long as the application runs
+        return createExecutor("audit", 1, 1, 0, "ABORT");
+    }
+
+    @Bean(name = FETCHER_EXECUTOR)
+    public InstrumentedTaskExecutor fetcherAsyncExecutor() {
+        return createExecutor("fetcher", 5, 5, 100, "CALLER_RUNS");
+    }
+
+    @Bean(name = MESSAGE_EXECUTOR)
+    public InstrumentedTaskExecutor messageAsyncExecutor() {
+        // a message may have millions of recipients: refuse new messages rather than sending them on the caller thread
+        return createExecutor("message", 2, 2, 100, "ABORT");
+    }
+
+    @Bean(name = BOOTSTRAP_EXECUTOR)
+    public InstrumentedTaskExecutor bootstrapAsyncExecutor() {
+        // counts of the console bootstrap: a few threads, and a count is left out rather than delaying the login
+        return createExecutor("bootstrap", 2, 2, 50, "ABORT");
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return defaultAsyncExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) -> LOGGER.error("An error occurs while executing {}.{} asynchronously",
+                method.getDeclaringClass().getSimpleName(), method.getName(), ex);
+    }
+
+    private InstrumentedTaskExecutor createExecutor(String name, int defaultCorePoolSize, int defaultMaxPoolSize) {
+        return createExecutor(name, defaultCorePoolSize, defaultMaxPoolSize, 1000, "CALLER_RUNS");
+    }
+
+    private InstrumentedTaskExecutor createExecutor(String name, int defaultCorePoolSize, int defaultMaxPoolSize,
+                                                    int defaultQueueCapacity, String defaultRejectionPolicy) {
+        final String prefix = "async.executors." + name + ".";
+        final InstrumentedTaskExecutor executor = new InstrumentedTaskExecutor(name,
+                InstrumentedTaskExecutor.RejectionPolicy.valueOf(
+                        environment.getProperty(prefix + "rejectionPolicy", defaultRejectionPolicy).toUpperCase()));
+        executor.setCorePoolSize(environment.getProperty(prefix + "corePoolSize", Integer.class, defaultCorePoolSize));
+        executor.setMaxPoolSize(environment.getProperty(prefix + "maxPoolSize", Integer.class, defaultMaxPoolSize));
+        executor.setQueueCapacity(environment.getProperty(prefix + "queueCapacity", Integer.class, defaultQueueCapacity));
+        executor.setKeepAliveSeconds(environment.getProperty(prefix + "keepAlive", Integer.class, 60));
+        executor.setAwaitTerminationSeconds(environment.getProperty("async.shutdownTimeout", Integer.class, 30));
+        return executor;
+    }
+}
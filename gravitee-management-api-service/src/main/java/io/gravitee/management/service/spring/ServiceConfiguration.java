@@ -51,7 +51,7 @@ import java.util.Collections;
 @Import({
 		PolicyPluginConfiguration.class, ResourcePluginConfiguration.class,
 		FetcherPluginConfiguration.class, FetcherConfigurationConfiguration.class,
-		SearchEngineConfiguration.class})
+		SearchEngineConfiguration.class, AsyncConfiguration.class})
 public class ServiceConfiguration {
 
 	@Bean
@@ -94,6 +94,12 @@ public class ApiService_CreateOrUpdateWithDefinitionTest {
     @Mock
     private SearchEngineService searchEngineService;
 
+    @Mock
+    private PageCacheService pageCacheService;
+
+    @Mock
+    private PictureService pictureService;
+
     @Test
     public void shouldUpdateImportApiWithMembersAndPages() throws IOException, TechnicalException {
         URL url =  Resources.getResource("io/gravitee/management/service/import-api.definition+members+pages.json");
@@ -87,6 +87,9 @@ public class ApiService_CreateTest {
     @Mock
     private SearchEngineService searchEngineService;
 
+    @Mock
+    private PictureService pictureService;
+
     @Test
     public void shouldCreateForUser() throws TechnicalException {
         when(api.getId()).thenReturn(API_ID);
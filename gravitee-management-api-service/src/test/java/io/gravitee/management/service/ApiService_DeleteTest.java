@@ -81,6 +81,12 @@ public class ApiService_DeleteTest {
     @Mock
     private TopApiService topApiService;
 
+    @Mock
+    private PageCacheService pageCacheService;
+
+    @Mock
+    private PictureService pictureService;
+
     @Before
     public void setUp() {
         PropertyFilter apiMembershipTypeFilter = new ApiPermissionFilter();
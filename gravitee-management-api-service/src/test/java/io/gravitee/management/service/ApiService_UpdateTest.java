@@ -92,6 +92,12 @@ public class ApiService_UpdateTest {
     @Mock
     private SearchEngineService searchEngineService;
 
+    @Mock
+    private PageCacheService pageCacheService;
+
+    @Mock
+    private PictureService pictureService;
+
     @Before
     public void setUp() {
         PropertyFilter apiMembershipTypeFilter = new ApiPermissionFilter();
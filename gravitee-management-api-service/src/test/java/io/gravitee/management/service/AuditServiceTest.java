@@ -0,0 +1,277 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gravitee.management.service.impl.AuditServiceImpl;
+import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.management.api.AuditRepository;
+import io.gravitee.repository.management.model.Api;
+import io.gravitee.repository.management.model.Audit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AuditServiceTest {
+
+    @Rule
+    public TemporaryFolder spillFolder = new TemporaryFolder();
+
+    @InjectMocks
+    private AuditServiceImpl auditService = new AuditServiceImpl();
+
+    @Mock
+    private AuditRepository auditRepository;
+
+    @Spy
+    private ObjectMapper mapper = new ObjectMapper();
+
+    @Spy
+    private TaskExecutor auditExecutor = new SimpleAsyncTaskExecutor();
+
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Before
+    public void init() throws Exception {
+        ReflectionTestUtils.setField(auditService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(auditService, "batchSize", 10);
+        ReflectionTestUtils.setField(auditService, "overflowPolicy", AuditServiceImpl.OverflowPolicy.BLOCK);
+        ReflectionTestUtils.setField(auditService, "spillPath", spillFolder.getRoot().getAbsolutePath());
+        ReflectionTestUtils.setField(auditService, "shutdownTimeout", 5000L);
+
+        // the first audit log holds the writer until it is released
+        when(auditRepository.create(any(Audit.class))).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArguments()[0];
+        });
+    }
+
+    @After
+    public void shutdown() throws Exception {
+        release.countDown();
+        auditService.destroy();
+    }
+
+    @Test
+    public void shouldWriteAuditLogInBackground() throws Exception {
+        auditService.afterPropertiesSet();
+
+        auditService.createApiAuditLog("api", null, Api.AuditEvent.API_UPDATED, null,
+                singletonMap("name", "old"), singletonMap("name", "new"));
+
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        ArgumentCaptor<Audit> audit = ArgumentCaptor.forClass(Audit.class);
+        verify(auditRepository, timeout(5000)).create(audit.capture());
+        assertEquals("api", audit.getValue().getReferenceId());
+        assertEquals(Audit.AuditReferenceType.API, audit.getValue().getReferenceType());
+        assertEquals(Api.AuditEvent.API_UPDATED.name(), audit.getValue().getEvent());
+        assertEquals("system", audit.getValue().getUser());
+        assertEquals("[{\"op\":\"replace\",\"path\":\"/name\",\"value\":\"new\"}]", audit.getValue().getPatch());
+    }
+
+    @Test
+    public void shouldDropOldestAuditLogWhenQueueIsFull() throws Exception {
+        ReflectionTestUtils.setField(auditService, "overflowPolicy", AuditServiceImpl.OverflowPolicy.DROP_OLDEST);
+        auditService.afterPropertiesSet();
+
+        create("first");
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        create("dropped");
+        create("last");
+        release.countDown();
+
+        assertEquals(asPatches("first", "last"), writtenPatches(2));
+    }
+
+    @Test
+    public void shouldSpillAuditLogWhenQueueIsFull() throws Exception {
+        ReflectionTestUtils.setField(auditService, "overflowPolicy", AuditServiceImpl.OverflowPolicy.SPILL);
+        auditService.afterPropertiesSet();
+
+        create("first");
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        create("queued");
+        create("spilled");
+        assertEquals(1, spillFolder.getRoot().listFiles().length);
+        release.countDown();
+
+        assertEquals(asPatches("first", "queued", "spilled"), writtenPatches(3));
+        // the spilled file is deleted once written
+        long timeout = System.currentTimeMillis() + 5000;
+        while (spillFolder.getRoot().listFiles().length > 0 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, spillFolder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void shouldFlushAuditLogsOnShutdown() throws Exception {
+        ReflectionTestUtils.setField(auditService, "queueCapacity", 10);
+        auditService.afterPropertiesSet();
+        release.countDown();
+
+        for (int i = 0; i < 5; i++) {
+            create("audit" + i);
+        }
+        auditService.destroy();
+
+        verify(auditRepository, times(5)).create(any(Audit.class));
+    }
+
+    @Test
+    public void shouldDiffValuesAsTheyWereWhenCreated() throws Exception {
+        auditService.afterPropertiesSet();
+
+        create("first");
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        Map<String, String> value = new HashMap<>(singletonMap("name", "queued"));
+        auditService.createPortalAuditLog(null, Api.AuditEvent.API_CREATED, null, null, value);
+        value.put("name", "changed");
+        release.countDown();
+
+        assertEquals(asPatches("first", "queued"), writtenPatches(2));
+    }
+
+    @Test
+    public void shouldWriteSpilledAuditLogsOnStartupWhateverThePolicy() throws Exception {
+        Audit spilled = new Audit();
+        spilled.setId("spilled");
+        spilled.setPatch("[]");
+        mapper.writeValue(new File(spillFolder.getRoot(), "spilled.json"), spilled);
+        release.countDown();
+
+        auditService.afterPropertiesSet();
+
+        ArgumentCaptor<Audit> audit = ArgumentCaptor.forClass(Audit.class);
+        verify(auditRepository, timeout(5000)).create(audit.capture());
+        assertEquals("spilled", audit.getValue().getId());
+        long timeout = System.currentTimeMillis() + 5000;
+        while (spillFolder.getRoot().listFiles().length > 0 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, spillFolder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void shouldWriteAuditLogsCreatedDuringShutdown() throws Exception {
+        ReflectionTestUtils.setField(auditService, "queueCapacity", 10);
+        auditService.afterPropertiesSet();
+        release.countDown();
+
+        final CountDownLatch started = new CountDownLatch(4);
+        final List<Thread> creators = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final int creator = i;
+            final Thread thread = new Thread(() -> {
+                started.countDown();
+                for (int j = 0; j < 50; j++) {
+                    create("audit-" + creator + "-" + j);
+                }
+            });
+            thread.start();
+            creators.add(thread);
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        auditService.destroy();
+        for (Thread creator : creators) {
+            creator.join(5000);
+        }
+
+        // queued before the worker stops, or written by the caller after
+        verify(auditRepository, times(200)).create(any(Audit.class));
+    }
+
+    @Test
+    public void shouldSpillAuditLogsLeftByAFailedBatch() throws Exception {
+        ReflectionTestUtils.setField(auditService, "queueCapacity", 10);
+        ReflectionTestUtils.setField(auditService, "overflowPolicy", AuditServiceImpl.OverflowPolicy.SPILL);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArguments()[0];
+        }).doThrow(new TechnicalException()).when(auditRepository).create(any(Audit.class));
+        auditService.afterPropertiesSet();
+
+        create("first");
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        create("failed");
+        create("second");
+        create("third");
+        release.countDown();
+
+        long timeout = System.currentTimeMillis() + 5000;
+        while (spilledFiles() < 3 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, spilledFiles());
+    }
+
+    private long spilledFiles() {
+        return Arrays.stream(spillFolder.getRoot().listFiles())
+                .filter(file -> file.getName().endsWith(".json"))
+                .count();
+    }
+
+    private void create(String name) {
+        auditService.createPortalAuditLog(null, Api.AuditEvent.API_CREATED, null, null, singletonMap("name", name));
+    }
+
+    private List<String> writtenPatches(int count) throws Exception {
+        ArgumentCaptor<Audit> audit = ArgumentCaptor.forClass(Audit.class);
+        verify(auditRepository, timeout(5000).times(count)).create(audit.capture());
+        return audit.getAllValues().stream().map(Audit::getPatch).collect(Collectors.toList());
+    }
+
+    private List<String> asPatches(String... names) {
+        return Arrays.stream(names)
+                .map(name -> "[{\"op\":\"add\",\"path\":\"/name\",\"value\":\"" + name + "\"}]")
+                .collect(Collectors.toList());
+    }
+}
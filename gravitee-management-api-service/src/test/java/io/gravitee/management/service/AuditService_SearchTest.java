@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import io.gravitee.common.data.domain.MetadataPage;
+import io.gravitee.common.data.domain.Page;
+import io.gravitee.management.model.audit.AuditEntity;
+import io.gravitee.management.model.audit.AuditQuery;
+import io.gravitee.management.service.impl.AuditServiceImpl;
+import io.gravitee.repository.management.api.*;
+import io.gravitee.repository.management.api.search.AuditCriteria;
+import io.gravitee.repository.management.api.search.Pageable;
+import io.gravitee.repository.management.model.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AuditService_SearchTest {
+
+    private static final String API_ID = "my-api";
+
+    @InjectMocks
+    private AuditServiceImpl auditService = new AuditServiceImpl();
+
+    @Mock
+    private AuditRepository auditRepository;
+    @Mock
+    private PageRepository pageRepository;
+    @Mock
+    private PlanRepository planRepository;
+    @Mock
+    private MetadataRepository metadataRepository;
+    @Mock
+    private GroupRepository groupRepository;
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    public void shouldResolveMetadataWithOneQueryPerType() throws Exception {
+        List<Audit> audits = Arrays.asList(
+                audit("user1", Audit.AuditProperties.PLAN, "plan1"),
+                audit("user2", Audit.AuditProperties.PLAN, "plan2"),
+                audit("user1", Audit.AuditProperties.PAGE, "page1"),
+                audit("user2", Audit.AuditProperties.PAGE, "page2"),
+                audit("user1", Audit.AuditProperties.METADATA, "meta1"),
+                audit("user2", Audit.AuditProperties.GROUP, "group1"),
+                audit("user1", Audit.AuditProperties.USER, "user3"),
+                audit("user1", Audit.AuditProperties.PLAN, "deleted-plan"));
+        when(auditRepository.search(any(AuditCriteria.class), any(Pageable.class)))
+                .thenReturn(new Page<>(audits, 0, audits.size(), audits.size()));
+
+        when(userRepository.findByIds(any())).thenReturn(new HashSet<>(Arrays.asList(
+                user("user1", "John", "Doe"), user("user2", null, null), user("user3", "Jane", "Doe"))));
+        Plan plan1 = new Plan();
+        plan1.setId("plan1");
+        plan1.setName("Gold");
+        Plan plan2 = new Plan();
+        plan2.setId("plan2");
+        plan2.setName("Free");
+        when(planRepository.findByApi(API_ID)).thenReturn(new HashSet<>(Arrays.asList(plan1, plan2)));
+        io.gravitee.repository.management.model.Page page1 = new io.gravitee.repository.management.model.Page();
+        page1.setId("page1");
+        page1.setName("Documentation");
+        io.gravitee.repository.management.model.Page page2 = new io.gravitee.repository.management.model.Page();
+        page2.setId("page2");
+        page2.setName("Changelog");
+        when(pageRepository.findApiPageByApiId(API_ID)).thenReturn(Arrays.asList(page1, page2));
+        Metadata metadata = new Metadata();
+        metadata.setKey("meta1");
+        metadata.setName("Support");
+        when(metadataRepository.findByReferenceTypeAndReferenceId(MetadataReferenceType.API, API_ID))
+                .thenReturn(Collections.singletonList(metadata));
+        Group group = new Group();
+        group.setId("group1");
+        group.setName("Developers");
+        when(groupRepository.findByIds(Collections.singleton("group1"))).thenReturn(Collections.singleton(group));
+
+        AuditQuery query = new AuditQuery();
+        query.setApiIds(Collections.singletonList(API_ID));
+        query.setPage(1);
+        query.setSize(10);
+        MetadataPage<AuditEntity> result = auditService.search(query);
+
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("USER:user1:name", "John Doe");
+        expected.put("USER:user2:name", "user2-login");
+        expected.put("USER:user3:name", "Jane Doe");
+        expected.put("PLAN:plan1:name", "Gold");
+        expected.put("PLAN:plan2:name", "Free");
+        expected.put("PLAN:deleted-plan:name", "deleted-plan");
+        expected.put("PAGE:page1:name", "Documentation");
+        expected.put("PAGE:page2:name", "Changelog");
+        expected.put("METADATA:meta1:name", "Support");
+        expected.put("GROUP:group1:name", "Developers");
+        assertEquals(expected, result.getMetadata());
+
+        verify(userRepository, times(1)).findByIds(any());
+        verify(userRepository, never()).findById(anyString());
+        verify(planRepository, times(1)).findByApi(API_ID);
+        verify(planRepository, never()).findById(anyString());
+        verify(pageRepository, times(1)).findApiPageByApiId(API_ID);
+        verify(pageRepository, never()).findById(anyString());
+        verify(metadataRepository, never()).findById(anyString(), anyString(), any());
+        verify(groupRepository, never()).findById(anyString());
+    }
+
+    private Audit audit(String user, Audit.AuditProperties property, String value) {
+        Audit audit = new Audit();
+        audit.setId(UUID.randomUUID().toString());
+        audit.setUser(user);
+        audit.setReferenceType(Audit.AuditReferenceType.API);
+        audit.setReferenceId(API_ID);
+        audit.setEvent("EVENT");
+        audit.setProperties(Collections.singletonMap(property.name(), value));
+        return audit;
+    }
+
+    private User user(String id, String firstname, String lastname) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(id + "-login");
+        user.setFirstname(firstname);
+        user.setLastname(lastname);
+        return user;
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import io.gravitee.management.service.common.CompactIdSet;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class CompactIdSetTest {
+
+    @Test
+    public void shouldAddUuidsOnlyOnce() {
+        final CompactIdSet ids = new CompactIdSet();
+        final String id = UUID.randomUUID().toString();
+
+        assertTrue(ids.add(id));
+        assertFalse(ids.add(id));
+        assertTrue(ids.add(UUID.randomUUID().toString()));
+        assertEquals(2, ids.size());
+    }
+
+    @Test
+    public void shouldAddOtherIdsOnlyOnce() {
+        final CompactIdSet ids = new CompactIdSet();
+
+        assertTrue(ids.add("admin"));
+        assertFalse(ids.add("admin"));
+        assertEquals(1, ids.size());
+    }
+
+    @Test
+    public void shouldNotMixIdsOfTheSameUuid() {
+        final CompactIdSet ids = new CompactIdSet();
+        final String id = "5f2d3c4b-8a9e-4c1d-b2e3-f4a5b6c7d8e9";
+
+        assertTrue(ids.add(id));
+        // same UUID, but a distinct id
+        assertTrue(ids.add(id.toUpperCase()));
+        assertTrue(ids.add("1-1-1-1-1"));
+        assertTrue(ids.add("00000001-0001-0001-0001-000000000001"));
+        assertEquals(4, ids.size());
+    }
+
+    @Test
+    public void shouldKeepIdsWhenGrowing() {
+        final CompactIdSet ids = new CompactIdSet();
+        final String[] added = new String[10000];
+        for (int i = 0; i < added.length; i++) {
+            added[i] = UUID.randomUUID().toString();
+            assertTrue(ids.add(added[i]));
+        }
+
+        for (String id : added) {
+            assertFalse(ids.add(id));
+        }
+        assertEquals(added.length, ids.size());
+    }
+}
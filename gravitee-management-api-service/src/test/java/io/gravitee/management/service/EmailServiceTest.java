@@ -0,0 +1,265 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import freemarker.cache.StringTemplateLoader;
+import freemarker.template.Configuration;
+import io.gravitee.management.service.impl.EmailServiceImpl;
+import io.gravitee.management.service.impl.InstrumentedTaskExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class EmailServiceTest {
+
+    @Rule
+    public TemporaryFolder templates = new TemporaryFolder();
+
+    private SmtpServer smtpServer;
+
+    private InstrumentedTaskExecutor emailExecutor;
+
+    private EmailServiceImpl emailService;
+
+    @Before
+    public void init() throws Exception {
+        smtpServer = new SmtpServer();
+
+        final JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpServer.getPort());
+
+        final StringTemplateLoader templateLoader = new StringTemplateLoader();
+        templateLoader.putTemplate("hello.html", "<html><body><img src=\"logo.png\"/>Hello ${name}</body></html>");
+        final Configuration freemarkerConfiguration = new Configuration(Configuration.VERSION_2_3_22);
+        freemarkerConfiguration.setTemplateLoader(templateLoader);
+
+        Files.write(templates.newFile("logo.png").toPath(), new byte[]{1, 2, 3});
+
+        emailExecutor = new InstrumentedTaskExecutor("email", InstrumentedTaskExecutor.RejectionPolicy.ABORT);
+        emailExecutor.setCorePoolSize(1);
+        emailExecutor.setMaxPoolSize(1);
+        emailExecutor.setQueueCapacity(0);
+        emailExecutor.initialize();
+
+        emailService = new EmailServiceImpl();
+        ReflectionTestUtils.setField(emailService, "emailExecutor", emailExecutor);
+        ReflectionTestUtils.setField(emailService, "mailSender", mailSender);
+        ReflectionTestUtils.setField(emailService, "freemarkerConfiguration", freemarkerConfiguration);
+        ReflectionTestUtils.setField(emailService, "templatesPath", templates.getRoot().getAbsolutePath());
+        ReflectionTestUtils.setField(emailService, "subject", "[Gravitee.io] %s");
+        ReflectionTestUtils.setField(emailService, "enabled", true);
+        ReflectionTestUtils.setField(emailService, "defaultFrom", "noreply@gravitee.io");
+        ReflectionTestUtils.setField(emailService, "queueCapacity", 100);
+        ReflectionTestUtils.setField(emailService, "workers", 1);
+        ReflectionTestUtils.setField(emailService, "batchSize", 10);
+        ReflectionTestUtils.setField(emailService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(emailService, "retryDelay", 10L);
+        ReflectionTestUtils.setField(emailService, "shutdownTimeout", 5000L);
+        emailService.afterPropertiesSet();
+    }
+
+    @After
+    public void shutdown() throws Exception {
+        emailService.destroy();
+        emailExecutor.shutdown();
+        smtpServer.close();
+    }
+
+    @Test
+    public void shouldSendEmailNotification() throws Exception {
+        emailService.sendEmailNotification(notification("user@gravitee.io"));
+
+        assertEquals(1, smtpServer.messages.size());
+        final String message = smtpServer.messages.get(0);
+        assertTrue(message.contains("Subject: [Gravitee.io] Welcome"));
+        assertTrue(message.contains("Hello John"));
+        assertTrue(message.contains("cid:logo.png"));
+        assertTrue(message.contains("Content-ID: <logo.png>"));
+    }
+
+    @Test
+    public void shouldSendQueuedEmailNotificationsByBatch() throws Exception {
+        smtpServer.greeting = new CountDownLatch(1);
+
+        for (int i = 0; i < 5; i++) {
+            emailService.sendAsyncEmailNotification(notification("user" + i + "@gravitee.io"));
+        }
+        // the worker may have picked the first email alone, the others are sent on a single connection
+        smtpServer.greeting.countDown();
+
+        smtpServer.awaitMessages(5);
+        assertTrue(smtpServer.connections.get() <= 2);
+    }
+
+    @Test
+    public void shouldRetryFailedEmailNotification() throws Exception {
+        smtpServer.rejections.set(2);
+
+        emailService.sendAsyncEmailNotification(notification("user@gravitee.io"));
+
+        smtpServer.awaitMessages(1);
+        assertEquals(3, smtpServer.connections.get());
+    }
+
+    @Test
+    public void shouldGiveUpAfterMaxAttempts() throws Exception {
+        smtpServer.rejections.set(3);
+
+        emailService.sendAsyncEmailNotification(notification("user@gravitee.io"));
+        final long timeout = System.currentTimeMillis() + 10000;
+        while (smtpServer.rejections.get() > 0 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        emailService.sendAsyncEmailNotification(notification("other@gravitee.io"));
+
+        smtpServer.awaitMessages(1);
+        emailService.destroy();
+        assertEquals(1, smtpServer.messages.size());
+        assertTrue(smtpServer.messages.get(0).contains("To: other@gravitee.io"));
+    }
+
+    @Test
+    public void shouldRejectEmailNotificationWhenQueueIsFull() throws Exception {
+        // restart without worker, so that the queue is never drained
+        emailService.destroy();
+        ReflectionTestUtils.setField(emailService, "workers", 0);
+        ReflectionTestUtils.setField(emailService, "queueCapacity", 2);
+        emailService.afterPropertiesSet();
+
+        for (int i = 0; i < 3; i++) {
+            emailService.sendAsyncEmailNotification(notification("user" + i + "@gravitee.io"));
+        }
+
+        assertEquals(1, ((AtomicLong) ReflectionTestUtils.getField(emailService, "rejected")).get());
+        // the rejected email has not been sent by the caller
+        assertEquals(0, smtpServer.connections.get());
+    }
+
+    private EmailNotification notification(final String to) {
+        final EmailNotification emailNotification = new EmailNotification();
+        emailNotification.setTo(to);
+        emailNotification.setSubject("Welcome");
+        emailNotification.setTemplate("hello.html");
+        emailNotification.setParams(singletonMap("name", "John"));
+        return emailNotification;
+    }
+
+    /**
+     * Minimal SMTP server accepting every message, except the configured number of rejections.
+     */
+    private static class SmtpServer implements Closeable {
+
+        private final ServerSocket serverSocket;
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger rejections = new AtomicInteger();
+        private volatile CountDownLatch greeting = new CountDownLatch(0);
+
+        private SmtpServer() throws IOException {
+            serverSocket = new ServerSocket(0);
+            final Thread acceptor = new Thread(() -> {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        final Socket socket = serverSocket.accept();
+                        connections.incrementAndGet();
+                        new Thread(() -> handle(socket)).start();
+                    } catch (IOException ioe) {
+                        // server closed
+                    }
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        private int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void handle(final Socket socket) {
+            try (Socket s = socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+                 PrintWriter out = new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8))) {
+                greeting.await(10, TimeUnit.SECONDS);
+                reply(out, "220 localhost");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    final String command = line.toUpperCase();
+                    if (command.startsWith("MAIL") && rejections.getAndUpdate(r -> Math.max(0, r - 1)) > 0) {
+                        reply(out, "451 try again later");
+                    } else if (command.startsWith("DATA")) {
+                        reply(out, "354 go ahead");
+                        final StringBuilder message = new StringBuilder();
+                        while (!(line = in.readLine()).equals(".")) {
+                            message.append(line).append('\n');
+                        }
+                        messages.add(message.toString());
+                        reply(out, "250 OK");
+                    } else if (command.startsWith("QUIT")) {
+                        reply(out, "221 bye");
+                        return;
+                    } else {
+                        reply(out, "250 OK");
+                    }
+                }
+            } catch (Exception ex) {
+                // connection closed
+            }
+        }
+
+        private void reply(final PrintWriter out, final String response) {
+            out.print(response + "\r\n");
+            out.flush();
+        }
+
+        private void awaitMessages(final int count) throws InterruptedException {
+            final long timeout = System.currentTimeMillis() + 10000;
+            while (messages.size() < count && System.currentTimeMillis() < timeout) {
+                Thread.sleep(10);
+            }
+            assertEquals(count, messages.size());
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
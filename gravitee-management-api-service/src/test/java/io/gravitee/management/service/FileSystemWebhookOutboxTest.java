@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gravitee.common.http.HttpMethod;
+import io.gravitee.management.service.notifiers.webhook.WebhookDelivery;
+import io.gravitee.management.service.notifiers.webhook.impl.FileSystemWebhookOutbox;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class FileSystemWebhookOutboxTest {
+
+    @Rule
+    public TemporaryFolder outboxFolder = new TemporaryFolder();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private FileSystemWebhookOutbox outbox;
+
+    @Before
+    public void init() throws Exception {
+        outbox = outbox();
+    }
+
+    @Test
+    public void shouldFindDuePendingDeliveriesOldestFirst() {
+        outbox.save(delivery("later", 3000));
+        outbox.save(delivery("first", 1000));
+        outbox.save(delivery("second", 2000));
+
+        assertEquals(asList("first", "second"), ids(outbox.findPending(new Date(2000), 10)));
+        assertEquals(Collections.singletonList("first"), ids(outbox.findPending(new Date(3000), 1)));
+    }
+
+    @Test
+    public void shouldReindexRescheduledDelivery() {
+        WebhookDelivery delivery = delivery("retried", 1000);
+        outbox.save(delivery);
+
+        delivery.setNextAttemptAt(new Date(5000));
+        outbox.save(delivery);
+
+        assertTrue(outbox.findPending(new Date(4000), 10).isEmpty());
+        assertEquals(Collections.singletonList("retried"), ids(outbox.findPending(new Date(5000), 10)));
+    }
+
+    @Test
+    public void shouldKeepDeadLettersApart() throws Exception {
+        WebhookDelivery delivery = delivery("dead", 1000);
+        outbox.save(delivery);
+        delivery.setStatus(WebhookDelivery.Status.DEAD);
+        delivery.setDeadAt(new Date());
+        outbox.save(delivery);
+
+        assertTrue(outbox.findPending(new Date(Long.MAX_VALUE), 10).isEmpty());
+        assertEquals(Collections.singletonList("dead"), ids(outbox.findDeadLetters()));
+        assertEquals(1, outbox.countDeadLetters());
+        assertTrue(outbox().findPending(new Date(Long.MAX_VALUE), 10).isEmpty());
+    }
+
+    @Test
+    public void shouldReloadPendingDeliveries() throws Exception {
+        outbox.save(delivery("pending", 1000));
+        outbox.delete("pending");
+        outbox.save(delivery("reloaded", 1000));
+
+        assertEquals(Collections.singletonList("reloaded"), ids(outbox().findPending(new Date(1000), 10)));
+    }
+
+    @Test
+    public void shouldMoveLegacyDeadLettersOnStartup() throws Exception {
+        WebhookDelivery delivery = delivery("legacy", 1000);
+        delivery.setStatus(WebhookDelivery.Status.DEAD);
+        objectMapper.writeValue(new File(outboxFolder.getRoot(), "legacy.json"), delivery);
+
+        FileSystemWebhookOutbox reloaded = outbox();
+
+        assertTrue(reloaded.findPending(new Date(Long.MAX_VALUE), 10).isEmpty());
+        assertEquals(Collections.singletonList("legacy"), ids(reloaded.findDeadLetters()));
+    }
+
+    @Test
+    public void shouldPurgeOldDeadLetters() throws Exception {
+        WebhookDelivery old = delivery("old", 1000);
+        old.setStatus(WebhookDelivery.Status.DEAD);
+        outbox.save(old);
+        Files.setLastModifiedTime(outboxFolder.getRoot().toPath().resolve("dead").resolve("old.json"),
+                FileTime.fromMillis(System.currentTimeMillis() - 120000));
+        WebhookDelivery recent = delivery("recent", 1000);
+        recent.setStatus(WebhookDelivery.Status.DEAD);
+        outbox.save(recent);
+
+        assertEquals(1, outbox.purgeDeadLetters(new Date(System.currentTimeMillis() - 60000)));
+        assertEquals(Collections.singletonList("recent"), ids(outbox.findDeadLetters()));
+    }
+
+    private FileSystemWebhookOutbox outbox() throws Exception {
+        FileSystemWebhookOutbox outbox = new FileSystemWebhookOutbox(outboxFolder.getRoot().getAbsolutePath(), objectMapper);
+        outbox.afterPropertiesSet();
+        return outbox;
+    }
+
+    private static WebhookDelivery delivery(String id, long nextAttemptAt) {
+        WebhookDelivery delivery = new WebhookDelivery();
+        delivery.setId(id);
+        delivery.setMethod(HttpMethod.POST);
+        delivery.setUri("http://localhost/hook");
+        delivery.setHeaders(Collections.emptyMap());
+        delivery.setBody("{}");
+        delivery.setStatus(WebhookDelivery.Status.PENDING);
+        delivery.setCreatedAt(new Date(nextAttemptAt));
+        delivery.setNextAttemptAt(new Date(nextAttemptAt));
+        return delivery;
+    }
+
+    private static List<String> ids(List<WebhookDelivery> deliveries) {
+        return deliveries.stream().map(WebhookDelivery::getId).collect(Collectors.toList());
+    }
+}
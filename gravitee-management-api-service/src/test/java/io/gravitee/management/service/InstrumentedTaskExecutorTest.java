@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import io.gravitee.management.model.async.AsyncExecutorStatisticsEntity;
+import io.gravitee.management.service.impl.InstrumentedTaskExecutor;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InstrumentedTaskExecutorTest {
+
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    private InstrumentedTaskExecutor executor;
+
+    @After
+    public void tearDown() {
+        released.countDown();
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private InstrumentedTaskExecutor createExecutor(InstrumentedTaskExecutor.RejectionPolicy rejectionPolicy) {
+        final InstrumentedTaskExecutor executor = new InstrumentedTaskExecutor("test", rejectionPolicy);
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setAwaitTerminationSeconds(5);
+        executor.initialize();
+        return executor;
+    }
+
+    private void block() {
+        try {
+            released.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void shouldRunRejectedTaskInCaller() {
+        executor = createExecutor(InstrumentedTaskExecutor.RejectionPolicy.CALLER_RUNS);
+        executor.execute(this::block);
+        executor.execute(this::block);
+
+        final Thread caller = Thread.currentThread();
+        final AtomicInteger runByCaller = new AtomicInteger();
+        executor.execute(() -> {
+            if (Thread.currentThread() == caller) {
+                runByCaller.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, runByCaller.get());
+        final AsyncExecutorStatisticsEntity statistics = executor.getStatistics();
+        assertEquals("test", statistics.getName());
+        assertEquals(2, statistics.getSubmitted());
+        assertEquals(1, statistics.getRejected());
+        assertEquals(1, statistics.getQueueCapacity());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void shouldAbortWhenQueueIsFull() {
+        executor = createExecutor(InstrumentedTaskExecutor.RejectionPolicy.ABORT);
+        executor.execute(this::block);
+        executor.execute(this::block);
+
+        executor.execute(this::block);
+    }
+
+    @Test
+    public void shouldDiscardWhenQueueIsFull() {
+        executor = createExecutor(InstrumentedTaskExecutor.RejectionPolicy.DISCARD);
+        executor.execute(this::block);
+        executor.execute(this::block);
+
+        final AtomicInteger executed = new AtomicInteger();
+        executor.execute(executed::incrementAndGet);
+
+        final AsyncExecutorStatisticsEntity statistics = executor.getStatistics();
+        assertEquals(1, statistics.getRejected());
+        assertEquals(1, statistics.getQueueSize());
+        assertEquals(0, executed.get());
+    }
+
+    @Test
+    public void shouldWaitForRoomInQueue() throws InterruptedException {
+        executor = createExecutor(InstrumentedTaskExecutor.RejectionPolicy.BLOCK);
+        final List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        executor.execute(this::block);
+        executor.execute(() -> executed.add(1));
+
+        final CountDownLatch submitted = new CountDownLatch(1);
+        final Thread caller = new Thread(() -> {
+            executor.execute(() -> executed.add(2));
+            submitted.countDown();
+        });
+        caller.start();
+        assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+
+        released.countDown();
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(Arrays.asList(1, 2), executed);
+        final AsyncExecutorStatisticsEntity statistics = executor.getStatistics();
+        assertEquals(3, statistics.getSubmitted());
+        assertEquals(0, statistics.getRejected());
+    }
+
+    @Test
+    public void shouldRunPendingTasksOnShutdown() throws InterruptedException {
+        executor = createExecutor(InstrumentedTaskExecutor.RejectionPolicy.CALLER_RUNS);
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger executed = new AtomicInteger();
+        executor.execute(() -> {
+            started.countDown();
+            block();
+            executed.incrementAndGet();
+        });
+        executor.execute(executed::incrementAndGet);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        new Thread(released::countDown).start();
+        executor.shutdown();
+
+        assertEquals(2, executed.get());
+        assertEquals(2, executor.getStatistics().getCompleted());
+    }
+}
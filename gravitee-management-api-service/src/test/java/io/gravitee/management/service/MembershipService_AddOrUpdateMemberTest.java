@@ -15,14 +15,18 @@
  */
 package io.gravitee.management.service;
 
+import io.gravitee.common.event.EventManager;
 import io.gravitee.management.model.GroupEntity;
 import io.gravitee.management.model.MemberEntity;
+import io.gravitee.management.model.NewExternalUserEntity;
 import io.gravitee.management.model.RoleEntity;
 import io.gravitee.management.model.UserEntity;
 import io.gravitee.management.model.permissions.SystemRole;
+import io.gravitee.management.model.providers.User;
 import io.gravitee.management.service.exceptions.AlreadyPrimaryOwnerException;
 import io.gravitee.management.service.exceptions.NotAuthorizedMembershipException;
 import io.gravitee.management.service.exceptions.RoleNotFoundException;
+import io.gravitee.management.service.exceptions.UserNotFoundException;
 import io.gravitee.management.service.impl.MembershipServiceImpl;
 import io.gravitee.repository.exceptions.TechnicalException;
 import io.gravitee.repository.management.api.MembershipRepository;
@@ -37,8 +41,10 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+import static java.util.Arrays.asList;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static org.junit.Assert.assertEquals;
@@ -77,6 +83,8 @@ public class MembershipService_AddOrUpdateMemberTest {
 
     @Mock
     private IdentityService identityService;
+    @Mock
+    private EventManager eventManager;
 
     @Test
     public void shouldAddApiGroupMembership() throws Exception {
@@ -234,4 +242,34 @@ public class MembershipService_AddOrUpdateMemberTest {
                 new MembershipService.MembershipUser("userId", null),
                 new MembershipService.MembershipRole(RoleScope.API, "USER"));
     }
+
+    @Test
+    public void shouldFindOrCreateExternalUsersAtOnce() {
+        User knownUser = new User();
+        knownUser.setUsername("known");
+        User newUser = new User();
+        newUser.setUsername("new");
+        newUser.setSource("ldap");
+        newUser.setSourceId("cn=new");
+        Map<String, User> providerUsers = new LinkedHashMap<>();
+        providerUsers.put("ref-known", knownUser);
+        providerUsers.put("ref-new", newUser);
+        when(identityService.findByReferences(asList("ref-known", "ref-new", "ref-unknown"))).thenReturn(providerUsers);
+        UserEntity knownEntity = new UserEntity();
+        knownEntity.setId("known-id");
+        when(userService.findByUsername("known", false)).thenReturn(knownEntity);
+        when(userService.findByUsername("new", false)).thenThrow(new UserNotFoundException("new"));
+        UserEntity newEntity = new UserEntity();
+        newEntity.setId("new-id");
+        when(userService.create(any(NewExternalUserEntity.class), eq(true))).thenReturn(newEntity);
+
+        Map<String, UserEntity> users = membershipService.findOrCreateUsers(asList("ref-known", "ref-new", "ref-unknown"));
+
+        assertEquals(2, users.size());
+        assertEquals("known-id", users.get("ref-known").getId());
+        assertEquals("new-id", users.get("ref-new").getId());
+        verify(identityService, times(1)).findByReferences(any());
+        verify(identityService, never()).findByReference(any());
+        verify(userService, times(1)).create(any(NewExternalUserEntity.class), eq(true));
+    }
 }
@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import io.gravitee.management.model.RoleEntity;
+import io.gravitee.management.service.impl.MembershipServiceImpl;
+import io.gravitee.repository.management.api.MembershipRepository;
+import io.gravitee.repository.management.model.Membership;
+import io.gravitee.repository.management.model.MembershipDefaultReferenceId;
+import io.gravitee.repository.management.model.MembershipReferenceType;
+import io.gravitee.repository.management.model.RoleScope;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class MembershipService_GetDefaultRolesTest {
+
+    private static final String USER_ID = "user-id-1";
+
+    @InjectMocks
+    private MembershipService membershipService = new MembershipServiceImpl();
+
+    @Mock
+    private MembershipRepository membershipRepository;
+
+    @Mock
+    private RoleService roleService;
+
+    @Test
+    public void shouldGetPortalAndManagementRolesWithASingleLookup() throws Exception {
+        final RoleEntity portalRole = mock(RoleEntity.class);
+        final RoleEntity managementRole = mock(RoleEntity.class);
+        when(membershipRepository.findByUser(USER_ID)).thenReturn(new HashSet<>(asList(
+                membership(MembershipReferenceType.PORTAL, MembershipDefaultReferenceId.DEFAULT.name(), RoleScope.PORTAL, "USER"),
+                membership(MembershipReferenceType.MANAGEMENT, MembershipDefaultReferenceId.DEFAULT.name(), RoleScope.MANAGEMENT, "ADMIN"),
+                membership(MembershipReferenceType.API, "api-id-1", RoleScope.API, "OWNER"))));
+        when(roleService.findById(RoleScope.PORTAL, "USER")).thenReturn(portalRole);
+        when(roleService.findById(RoleScope.MANAGEMENT, "ADMIN")).thenReturn(managementRole);
+
+        final Set<RoleEntity> roles = membershipService.getDefaultRoles(USER_ID);
+
+        assertEquals(new HashSet<>(asList(portalRole, managementRole)), roles);
+        verify(membershipRepository, times(1)).findByUser(USER_ID);
+        verify(membershipRepository, never()).findById(anyString(), any(), anyString());
+        verify(roleService, never()).findById(eq(RoleScope.API), anyString());
+    }
+
+    @Test
+    public void shouldGetNoRoleWithoutDefaultMembership() throws Exception {
+        when(membershipRepository.findByUser(USER_ID)).thenReturn(Collections.singleton(
+                membership(MembershipReferenceType.PORTAL, "other", RoleScope.PORTAL, "USER")));
+
+        assertEquals(Collections.emptySet(), membershipService.getDefaultRoles(USER_ID));
+        verify(roleService, never()).findById(any(), anyString());
+    }
+
+    private static Membership membership(MembershipReferenceType referenceType, String referenceId, RoleScope roleScope, String role) {
+        final Membership membership = new Membership();
+        membership.setUserId(USER_ID);
+        membership.setReferenceType(referenceType);
+        membership.setReferenceId(referenceId);
+        membership.setRoles(Collections.singletonMap(roleScope.getId(), role));
+        return membership;
+    }
+}
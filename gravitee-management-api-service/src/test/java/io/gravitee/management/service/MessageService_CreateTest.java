@@ -0,0 +1,235 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import io.gravitee.management.idp.api.authentication.UserDetails;
+import io.gravitee.management.model.*;
+import io.gravitee.management.service.exceptions.MessageBroadcastNotFoundException;
+import io.gravitee.management.service.exceptions.MessageRecipientFormatException;
+import io.gravitee.management.service.exceptions.TechnicalManagementException;
+import io.gravitee.management.service.impl.MessageServiceImpl;
+import io.gravitee.management.service.notification.PortalHook;
+import io.gravitee.management.service.notifiers.WebNotifierService;
+import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.management.api.ApiRepository;
+import io.gravitee.repository.management.api.MembershipRepository;
+import io.gravitee.repository.management.api.SubscriptionRepository;
+import io.gravitee.repository.management.model.Membership;
+import io.gravitee.repository.management.model.RoleScope;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class MessageService_CreateTest {
+
+    @InjectMocks
+    private MessageServiceImpl messageService = new MessageServiceImpl();
+
+    @Mock
+    private ApiRepository apiRepository;
+
+    @Mock
+    private MembershipRepository membershipRepository;
+
+    @Mock
+    private SubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private PortalNotificationService portalNotificationService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private AuditService auditService;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private WebNotifierService webNotifierService;
+
+    @Mock
+    private TaskExecutor messageExecutor;
+
+    @Before
+    public void setUp() {
+        final Authentication authentication = mock(Authentication.class);
+        when(authentication.getPrincipal()).thenReturn(new UserDetails("admin", "", Collections.emptyList()));
+        final SecurityContext securityContext = mock(SecurityContext.class);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        SecurityContextHolder.setContext(securityContext);
+
+        ReflectionTestUtils.setField(messageService, "chunkSize", 2);
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void shouldSendPortalNotificationsByChunks() throws Exception {
+        when(membershipRepository.findByRole(RoleScope.MANAGEMENT, "ADMIN")).thenReturn(memberships("user-1", "user-2", "user-3"));
+        when(membershipRepository.findByRole(RoleScope.MANAGEMENT, "USER")).thenReturn(memberships("user-3", "user-4"));
+
+        int recipients = messageService.create(message(MessageChannel.PORTAL, "ADMIN", "USER"));
+
+        assertEquals(4, recipients);
+        verify(portalNotificationService, times(2)).create(eq(PortalHook.MESSAGE), anyList(), any());
+        verify(auditService).createPortalAuditLog(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void shouldSendEmailsByChunks() throws Exception {
+        when(membershipRepository.findByRole(RoleScope.MANAGEMENT, "ADMIN")).thenReturn(memberships("user-1", "user-2", "user-3"));
+        when(userService.findByIds(anyList())).thenAnswer(invocation -> ((List<String>) invocation.getArguments()[0])
+                .stream()
+                .map(id -> {
+                    UserEntity user = new UserEntity();
+                    user.setId(id);
+                    user.setUsername(id);
+                    user.setEmail(id + "@gravitee.io");
+                    return user;
+                })
+                .collect(Collectors.toSet()));
+
+        int recipients = messageService.create(message(MessageChannel.MAIL, "ADMIN"));
+
+        assertEquals(3, recipients);
+        verify(userService, times(2)).findByIds(anyList());
+        verify(emailService, times(2)).sendAsyncEmailNotification(any());
+    }
+
+    @Test
+    public void shouldSendInBackground() throws Exception {
+        when(membershipRepository.findByRole(RoleScope.MANAGEMENT, "ADMIN")).thenReturn(memberships("user-1", "user-2"));
+
+        MessageBroadcastEntity broadcast = messageService.createAsync(message(MessageChannel.PORTAL, "ADMIN"));
+
+        assertEquals(MessageBroadcastEntity.Status.PENDING, broadcast.getStatus());
+        verify(portalNotificationService, never()).create(any(), anyList(), any());
+        verify(auditService).createPortalAuditLog(any(), any(), any(), any(), any(), any());
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(messageExecutor).execute(task.capture());
+        task.getValue().run();
+        verify(portalNotificationService).create(eq(PortalHook.MESSAGE), eq(Arrays.asList("user-1", "user-2")), any());
+
+        broadcast = messageService.findBroadcastById(broadcast.getId());
+        assertEquals(MessageBroadcastEntity.Status.DONE, broadcast.getStatus());
+        assertEquals(2, broadcast.getTotal());
+        assertEquals(2, broadcast.getSent());
+        assertEquals(0, broadcast.getFailed());
+        assertNotNull(broadcast.getFinishedAt());
+    }
+
+    @Test
+    public void shouldCountFailedChunksOfBackgroundMessage() throws Exception {
+        when(membershipRepository.findByRole(RoleScope.MANAGEMENT, "ADMIN")).thenReturn(memberships("user-1", "user-2", "user-3"));
+        doThrow(new TechnicalManagementException()).doNothing()
+                .when(portalNotificationService).create(eq(PortalHook.MESSAGE), anyList(), any());
+
+        MessageBroadcastEntity broadcast = messageService.createAsync(message(MessageChannel.PORTAL, "ADMIN"));
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(messageExecutor).execute(task.capture());
+        task.getValue().run();
+
+        broadcast = messageService.findBroadcastById(broadcast.getId());
+        assertEquals(MessageBroadcastEntity.Status.DONE, broadcast.getStatus());
+        assertEquals(3, broadcast.getTotal());
+        assertEquals(1, broadcast.getSent());
+        assertEquals(2, broadcast.getFailed());
+    }
+
+    @Test
+    public void shouldNotAuditRejectedBackgroundMessage() {
+        doThrow(new TaskRejectedException("full")).when(messageExecutor).execute(any());
+
+        try {
+            messageService.createAsync(message(MessageChannel.PORTAL, "ADMIN"));
+            fail("The message should have been rejected");
+        } catch (TechnicalManagementException tme) {
+            verify(auditService, never()).createPortalAuditLog(any(), any(), any(), any(), any(), any());
+        }
+    }
+
+    @Test(expected = MessageBroadcastNotFoundException.class)
+    public void shouldNotFindBroadcastOfAnotherApi() {
+        MessageBroadcastEntity broadcast = messageService.createAsync(message(MessageChannel.PORTAL, "ADMIN"));
+
+        messageService.findBroadcastById("api-id", broadcast.getId());
+    }
+
+    @Test(expected = MessageRecipientFormatException.class)
+    public void shouldNotSendInBackgroundWithoutRecipients() {
+        messageService.createAsync(message(MessageChannel.PORTAL));
+    }
+
+    @Test(expected = TechnicalManagementException.class)
+    public void shouldNotSendWhenRecipientsCannotBeRead() throws Exception {
+        when(membershipRepository.findByRole(RoleScope.MANAGEMENT, "ADMIN")).thenThrow(new TechnicalException());
+
+        messageService.create(message(MessageChannel.PORTAL, "ADMIN"));
+    }
+
+    private MessageEntity message(MessageChannel channel, String... roles) {
+        MessageRecipientEntity recipient = new MessageRecipientEntity();
+        recipient.setRoleScope("MANAGEMENT");
+        recipient.setRoleValues(Arrays.asList(roles));
+        MessageEntity message = new MessageEntity();
+        message.setChannel(channel);
+        message.setTitle("title");
+        message.setText("text");
+        message.setRecipient(recipient);
+        return message;
+    }
+
+    private Set<Membership> memberships(String... userIds) {
+        return Arrays.stream(userIds)
+                .map(userId -> {
+                    Membership membership = new Membership();
+                    membership.setUserId(userId);
+                    return membership;
+                })
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
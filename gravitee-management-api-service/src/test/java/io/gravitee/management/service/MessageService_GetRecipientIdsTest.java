@@ -15,6 +15,7 @@
  */
 package io.gravitee.management.service;
 
+import io.gravitee.common.data.domain.Page;
 import io.gravitee.management.model.MessageChannel;
 import io.gravitee.management.model.MessageEntity;
 import io.gravitee.management.model.MessageRecipientEntity;
@@ -25,13 +26,17 @@ import io.gravitee.repository.management.api.ApiRepository;
 import io.gravitee.repository.management.api.MembershipRepository;
 import io.gravitee.repository.management.api.SubscriptionRepository;
 import io.gravitee.repository.management.model.*;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 
 import static java.util.Optional.empty;
@@ -60,6 +65,11 @@ public class MessageService_GetRecipientIdsTest {
     @Mock
     SubscriptionRepository mockSubscriptionRepository;
 
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(messageService, "chunkSize", 100);
+    }
+
     @Test
     public void shouldThrowExceptionIfNull() {
         shouldThrowException(null, null);
@@ -109,7 +119,7 @@ public class MessageService_GetRecipientIdsTest {
 
         verify(mockMembershipRepository, never()).findByRole(any(), any());
         verify(mockApiRepository, never()).findById(any());
-        verify(mockSubscriptionRepository, never()).search(any());
+        verify(mockSubscriptionRepository, never()).search(any(), any());
         verify(mockMembershipRepository, never()).findByReferencesAndRole(any(), any(), any(), any());
     }
 
@@ -133,7 +143,7 @@ public class MessageService_GetRecipientIdsTest {
         assertTrue("user=user-id", recipientIds.contains("user-id"));
         verify(mockMembershipRepository, times(1)).findByRole(RoleScope.MANAGEMENT, "API_PUBLISHER");
         verify(mockApiRepository, never()).findById(any());
-        verify(mockSubscriptionRepository, never()).search(any());
+        verify(mockSubscriptionRepository, never()).search(any(), any());
         verify(mockMembershipRepository, never()).findByReferencesAndRole(any(), any(), any(), any());
     }
 
@@ -158,7 +168,7 @@ public class MessageService_GetRecipientIdsTest {
 
         verify(mockMembershipRepository, never()).findByRole(any(), any());
         verify(mockApiRepository, never()).findById(any());
-        verify(mockSubscriptionRepository, never()).search(any());
+        verify(mockSubscriptionRepository, never()).search(any(), any());
         verify(mockMembershipRepository, never()).findByReferencesAndRole(any(), any(), any(), any());
     }
 
@@ -179,8 +189,8 @@ public class MessageService_GetRecipientIdsTest {
                 .thenReturn(of(api));
         Subscription subscription = new Subscription();
         subscription.setApplication("app-id");
-        when(mockSubscriptionRepository.search(any()))
-                .thenReturn(Collections.singletonList(subscription));
+        when(mockSubscriptionRepository.search(any(), any()))
+                .thenReturn(new Page<>(Collections.singletonList(subscription), 0, 1, 1));
         when(mockMembershipRepository.findByReferencesAndRole(eq(MembershipReferenceType.APPLICATION), any(), any(), any()))
                 .thenReturn(Collections.singleton(membership));
 
@@ -190,7 +200,7 @@ public class MessageService_GetRecipientIdsTest {
         assertEquals("size=1", 1, recipientIds.size());
         assertTrue("user=user-id", recipientIds.contains("user-id"));
         verify(mockMembershipRepository, never()).findByRole(any(), any());
-        verify(mockSubscriptionRepository, times(1)).search(any());
+        verify(mockSubscriptionRepository, times(1)).search(any(), any());
         verify(mockMembershipRepository, never()).findByReferencesAndRole(eq(MembershipReferenceType.GROUP), any(), any(), any());
         verify(mockMembershipRepository, times(1)).findByReferencesAndRole(eq(MembershipReferenceType.APPLICATION), any(), any(), any());
     }
@@ -214,8 +224,8 @@ public class MessageService_GetRecipientIdsTest {
                 .thenReturn(of(api));
         Subscription subscription = new Subscription();
         subscription.setApplication("app-id");
-        when(mockSubscriptionRepository.search(any()))
-                .thenReturn(Collections.singletonList(subscription));
+        when(mockSubscriptionRepository.search(any(), any()))
+                .thenReturn(new Page<>(Collections.singletonList(subscription), 0, 1, 1));
         when(mockMembershipRepository.findByReferencesAndRole(eq(MembershipReferenceType.APPLICATION), any(), any(), any()))
                 .thenReturn(Collections.singleton(membership));
         when(mockMembershipRepository.findByReferencesAndRole(eq(MembershipReferenceType.GROUP), any(), any(), any()))
@@ -228,8 +238,43 @@ public class MessageService_GetRecipientIdsTest {
         assertTrue("user=user-id", recipientIds.contains("user-id"));
         assertTrue("user=user-group-id", recipientIds.contains("user-group-id"));
         verify(mockMembershipRepository, never()).findByRole(any(), any());
-        verify(mockSubscriptionRepository, times(1)).search(any());
+        verify(mockSubscriptionRepository, times(1)).search(any(), any());
         verify(mockMembershipRepository, times(1)).findByReferencesAndRole(eq(MembershipReferenceType.GROUP), any(), any(), any());
         verify(mockMembershipRepository, times(1)).findByReferencesAndRole(eq(MembershipReferenceType.APPLICATION), any(), any(), any());
     }
+
+    @Test
+    public void shouldGetApiConsumersPageByPage() throws TechnicalException {
+        ReflectionTestUtils.setField(messageService, "chunkSize", 2);
+        Api api = new Api();
+        api.setId("api-id");
+        MessageEntity messageEntity = new MessageEntity();
+        messageEntity.setChannel(MessageChannel.MAIL);
+        MessageRecipientEntity messageRecipientEntity = new MessageRecipientEntity();
+        messageRecipientEntity.setRoleScope("APPLICATION");
+        messageRecipientEntity.setRoleValues(Collections.singletonList("OWNER"));
+        messageEntity.setRecipient(messageRecipientEntity);
+        Subscription subscription1 = new Subscription();
+        subscription1.setApplication("app-1");
+        Subscription subscription2 = new Subscription();
+        subscription2.setApplication("app-2");
+        Subscription subscription3 = new Subscription();
+        subscription3.setApplication("app-1");
+        when(mockSubscriptionRepository.search(any(), any()))
+                .thenReturn(new Page<>(Arrays.asList(subscription1, subscription2), 0, 2, 3))
+                .thenReturn(new Page<>(Collections.singletonList(subscription3), 1, 1, 3));
+        Membership membership1 = new Membership();
+        membership1.setUserId("user-1");
+        Membership membership2 = new Membership();
+        membership2.setUserId("user-2");
+        when(mockMembershipRepository.findByReferencesAndRole(eq(MembershipReferenceType.APPLICATION), eq(Arrays.asList("app-1", "app-2")), any(), any()))
+                .thenReturn(new HashSet<>(Arrays.asList(membership1, membership2)));
+
+        Set<String> recipientIds = messageService.getRecipientsId(api, messageEntity);
+
+        assertEquals(new HashSet<>(Arrays.asList("user-1", "user-2")), recipientIds);
+        verify(mockSubscriptionRepository, times(2)).search(any(), any());
+        // the applications of the second page have already been handled
+        verify(mockMembershipRepository, times(1)).findByReferencesAndRole(eq(MembershipReferenceType.APPLICATION), any(), any(), any());
+    }
 }
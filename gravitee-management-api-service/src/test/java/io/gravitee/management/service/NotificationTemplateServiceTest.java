@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import freemarker.cache.StringTemplateLoader;
+import freemarker.template.Configuration;
+import io.gravitee.management.model.notification.NewPortalNotificationEntity;
+import io.gravitee.management.service.impl.NotificationTemplateServiceImpl;
+import io.gravitee.management.service.notification.ApiHook;
+import io.gravitee.management.service.notification.PortalHook;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class NotificationTemplateServiceTest {
+
+    private NotificationTemplateServiceImpl notificationTemplateService;
+    private StringTemplateLoader templateLoader;
+
+    @Before
+    public void setUp() {
+        templateLoader = new StringTemplateLoader();
+        templateLoader.putTemplate("notifications/portal/API.API_STARTED.yml",
+                "title: API started\nmessage: |\n  \"${api.name}\" was started by ${user.displayName}.", 1);
+        templateLoader.putTemplate("notifications/portal/PORTAL.MESSAGE.yml",
+                "title: \"${title}\"\nmessage: \"${message}\"", 1);
+
+        final Configuration configuration = new Configuration(Configuration.VERSION_2_3_22);
+        configuration.setTemplateLoader(templateLoader);
+        configuration.setTemplateUpdateDelayMilliseconds(0);
+
+        notificationTemplateService = new NotificationTemplateServiceImpl();
+        ReflectionTestUtils.setField(notificationTemplateService, "freemarkerConfiguration", configuration);
+        notificationTemplateService.afterPropertiesSet();
+    }
+
+    @Test
+    public void shouldRenderPortalNotification() {
+        final Map<String, Object> params = new HashMap<>();
+        params.put("api", singletonMap("name", "My API"));
+        params.put("user", singletonMap("displayName", "John"));
+
+        final NewPortalNotificationEntity notification = notificationTemplateService.renderPortalNotification(ApiHook.API_STARTED, params);
+
+        assertEquals("API started", notification.getTitle());
+        assertEquals("\"My API\" was started by John.", notification.getMessage());
+    }
+
+    @Test
+    public void shouldNotInterpretRenderedValuesAsYaml() {
+        final Map<String, Object> params = new HashMap<>();
+        params.put("title", "Say \"hello\"");
+        params.put("message", "first line\nkey: value");
+
+        final NewPortalNotificationEntity notification = notificationTemplateService.renderPortalNotification(PortalHook.MESSAGE, params);
+
+        assertEquals("Say \"hello\"", notification.getTitle());
+        assertEquals("first line\nkey: value", notification.getMessage());
+    }
+
+    @Test
+    public void shouldRenderTemplateWithDynamicStructure() {
+        templateLoader.putTemplate("notifications/portal/PORTAL.USER_REGISTERED.yml",
+                "<#if user??>\ntitle: Welcome ${user}\n<#else>\ntitle: Welcome\n</#if>\nmessage: Registered", 1);
+
+        final NewPortalNotificationEntity notification = notificationTemplateService.renderPortalNotification(
+                PortalHook.USER_REGISTERED, singletonMap("user", "John"));
+
+        assertEquals("Welcome John", notification.getTitle());
+        assertEquals("Registered", notification.getMessage());
+    }
+
+    @Test
+    public void shouldCompileAgainModifiedTemplate() {
+        final Map<String, Object> params = new HashMap<>();
+        params.put("title", "title");
+        params.put("message", "message");
+        notificationTemplateService.renderPortalNotification(PortalHook.MESSAGE, params);
+
+        templateLoader.putTemplate("notifications/portal/PORTAL.MESSAGE.yml",
+                "title: \"[Portal] ${title}\"\nmessage: \"${message}\"", 2);
+        final NewPortalNotificationEntity notification = notificationTemplateService.renderPortalNotification(PortalHook.MESSAGE, params);
+
+        assertEquals("[Portal] title", notification.getTitle());
+    }
+
+    private static Map<String, Object> singletonMap(String key, Object value) {
+        final Map<String, Object> map = new HashMap<>();
+        map.put(key, value);
+        return map;
+    }
+}
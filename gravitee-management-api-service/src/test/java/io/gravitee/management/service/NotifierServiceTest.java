@@ -0,0 +1,242 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import io.gravitee.management.model.notification.NotifierChannelStatisticsEntity;
+import io.gravitee.management.service.impl.NotifierServiceImpl;
+import io.gravitee.management.service.notification.ApiHook;
+import io.gravitee.management.service.notifiers.EmailNotifierService;
+import io.gravitee.management.service.notifiers.WebhookNotifierService;
+import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.management.api.GenericNotificationConfigRepository;
+import io.gravitee.repository.management.api.PortalNotificationConfigRepository;
+import io.gravitee.repository.management.model.GenericNotificationConfig;
+import io.gravitee.repository.management.model.NotificationReferenceType;
+import io.gravitee.repository.management.model.PortalNotificationConfig;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class NotifierServiceTest {
+
+    private static final String API_ID = "api-id";
+
+    @InjectMocks
+    private NotifierServiceImpl notifierService = new NotifierServiceImpl();
+
+    @Mock
+    private PortalNotificationConfigRepository portalNotificationConfigRepository;
+
+    @Mock
+    private PortalNotificationService portalNotificationService;
+
+    @Mock
+    private GenericNotificationConfigRepository genericNotificationConfigRepository;
+
+    @Mock
+    private EmailNotifierService emailNotifierService;
+
+    @Mock
+    private WebhookNotifierService webhookNotifierService;
+
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    @After
+    public void tearDown() throws InterruptedException {
+        released.countDown();
+        notifierService.destroy();
+    }
+
+    @Test
+    public void shouldNotDelayPortalNotificationsBehindSlowEmails() throws Exception {
+        start(new MockEnvironment());
+        givenPortalNotificationConfig();
+        givenGenericNotificationConfigs(NotifierServiceImpl.DEFAULT_EMAIL_NOTIFIER_ID);
+        blockEmails();
+
+        notifierService.trigger(ApiHook.API_STARTED, API_ID, Collections.emptyMap());
+
+        verify(portalNotificationService, timeout(5000)).create(eq(ApiHook.API_STARTED), eq(Collections.singletonList("user-id")), any());
+        verify(emailNotifierService, timeout(5000)).trigger(eq(ApiHook.API_STARTED), any(), any());
+    }
+
+    @Test
+    public void shouldLookUpConfigurationsOutsideOfCallerThread() throws Exception {
+        start(new MockEnvironment());
+        final String caller = Thread.currentThread().getName();
+        final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        when(portalNotificationConfigRepository.findByReferenceAndHook(ApiHook.API_STARTED.name(), NotificationReferenceType.API, API_ID))
+                .thenAnswer(invocation -> {
+                    threads.add(Thread.currentThread().getName());
+                    return Collections.emptyList();
+                });
+        when(genericNotificationConfigRepository.findByReferenceAndHook(ApiHook.API_STARTED.name(), NotificationReferenceType.API, API_ID))
+                .thenAnswer(invocation -> {
+                    threads.add(Thread.currentThread().getName());
+                    released.await(5, TimeUnit.SECONDS);
+                    return Collections.emptyList();
+                });
+
+        // returns while the lookups of the email and webhook channels are blocked
+        notifierService.trigger(ApiHook.API_STARTED, API_ID, Collections.emptyMap());
+        released.countDown();
+
+        waitForCompletion("email", 1);
+        waitForCompletion("webhook", 1);
+        verify(genericNotificationConfigRepository, times(2)).findByReferenceAndHook(ApiHook.API_STARTED.name(), NotificationReferenceType.API, API_ID);
+        assertEquals(3, threads.size());
+        assertFalse(threads.contains(caller));
+    }
+
+    @Test
+    public void shouldDropOldestNotificationWhenQueueIsFull() throws Exception {
+        start(new MockEnvironment()
+                .withProperty("notifiers.dispatch.email.workers", "1")
+                .withProperty("notifiers.dispatch.email.queueCapacity", "1"));
+        givenGenericNotificationConfigs(NotifierServiceImpl.DEFAULT_EMAIL_NOTIFIER_ID);
+        final String caller = Thread.currentThread().getName();
+        final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return released.await(5, TimeUnit.SECONDS);
+        }).when(emailNotifierService).trigger(any(), any(), any());
+
+        // the first one is delivered, the second one is queued then dropped to make room for the third one
+        notifierService.trigger(ApiHook.API_STARTED, API_ID, Collections.emptyMap());
+        notifierService.trigger(ApiHook.API_STARTED, API_ID, Collections.emptyMap());
+        notifierService.trigger(ApiHook.API_STARTED, API_ID, Collections.emptyMap());
+        released.countDown();
+
+        NotifierChannelStatisticsEntity statistics = waitForCompletion("email", 2);
+        assertEquals(3, statistics.getSubmitted());
+        assertEquals(1, statistics.getRejected());
+        assertEquals(0, statistics.getFailed());
+        verify(emailNotifierService, times(2)).trigger(eq(ApiHook.API_STARTED), any(), any());
+        assertFalse(threads.contains(caller));
+    }
+
+    @Test
+    public void shouldDropNewNotificationWhenQueueIsFull() throws Exception {
+        start(new MockEnvironment()
+                .withProperty("notifiers.dispatch.email.workers", "1")
+                .withProperty("notifiers.dispatch.email.queueCapacity", "1")
+                .withProperty("notifiers.dispatch.email.rejectionPolicy", "DISCARD"));
+        givenGenericNotificationConfigs(NotifierServiceImpl.DEFAULT_EMAIL_NOTIFIER_ID);
+        blockEmails();
+
+        notifierService.trigger(ApiHook.API_STARTED, API_ID, Collections.emptyMap());
+        notifierService.trigger(ApiHook.API_STARTED, API_ID, Collections.emptyMap());
+        notifierService.trigger(ApiHook.API_STARTED, API_ID, Collections.emptyMap());
+        released.countDown();
+
+        NotifierChannelStatisticsEntity statistics = waitForCompletion("email", 2);
+        assertEquals(3, statistics.getSubmitted());
+        assertEquals(1, statistics.getRejected());
+        verify(emailNotifierService, times(2)).trigger(eq(ApiHook.API_STARTED), any(), any());
+    }
+
+    @Test
+    public void shouldKeepDeliveringWhenANotifierFails() throws Exception {
+        start(new MockEnvironment());
+        givenGenericNotificationConfigs("default-webhook", "default-webhook");
+        doThrow(new IllegalStateException()).doNothing().when(webhookNotifierService).trigger(any(), any(), any());
+
+        notifierService.trigger(ApiHook.API_STARTED, API_ID, Collections.emptyMap());
+
+        waitForCompletion("webhook", 1);
+        verify(webhookNotifierService, times(2)).trigger(eq(ApiHook.API_STARTED), any(), any());
+    }
+
+    @Test
+    public void shouldCountFailedLookups() throws Exception {
+        start(new MockEnvironment());
+        when(genericNotificationConfigRepository.findByReferenceAndHook(ApiHook.API_STARTED.name(), NotificationReferenceType.API, API_ID))
+                .thenThrow(new TechnicalException());
+
+        notifierService.trigger(ApiHook.API_STARTED, API_ID, Collections.emptyMap());
+
+        assertEquals(1, waitForCompletion("email", 1).getFailed());
+        assertEquals(1, waitForCompletion("webhook", 1).getFailed());
+        assertEquals(0, waitForCompletion("portal", 1).getFailed());
+    }
+
+    private void start(MockEnvironment environment) {
+        ReflectionTestUtils.setField(notifierService, "environment", environment);
+        ReflectionTestUtils.setField(notifierService, "shutdownTimeout", 1000L);
+        notifierService.afterPropertiesSet();
+    }
+
+    private void givenPortalNotificationConfig() throws Exception {
+        PortalNotificationConfig config = new PortalNotificationConfig();
+        config.setUser("user-id");
+        when(portalNotificationConfigRepository.findByReferenceAndHook(ApiHook.API_STARTED.name(), NotificationReferenceType.API, API_ID))
+                .thenReturn(Collections.singletonList(config));
+    }
+
+    private void givenGenericNotificationConfigs(String... notifiers) throws Exception {
+        GenericNotificationConfig[] configs = Arrays.stream(notifiers)
+                .map(notifier -> {
+                    GenericNotificationConfig config = new GenericNotificationConfig();
+                    config.setNotifier(notifier);
+                    return config;
+                })
+                .toArray(GenericNotificationConfig[]::new);
+        when(genericNotificationConfigRepository.findByReferenceAndHook(ApiHook.API_STARTED.name(), NotificationReferenceType.API, API_ID))
+                .thenReturn(Arrays.asList(configs));
+    }
+
+    private void blockEmails() {
+        doAnswer(invocation -> released.await(5, TimeUnit.SECONDS))
+                .when(emailNotifierService).trigger(any(), any(), any());
+    }
+
+    private NotifierChannelStatisticsEntity waitForCompletion(String channel, long completed) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            NotifierChannelStatisticsEntity statistics = notifierService.getChannelStatistics()
+                    .stream()
+                    .filter(channelStatistics -> channel.equals(channelStatistics.getChannel()))
+                    .findFirst()
+                    .get();
+            if (statistics.getCompleted() >= completed) {
+                return statistics;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Notifications of the " + channel + " channel have not been delivered");
+    }
+}
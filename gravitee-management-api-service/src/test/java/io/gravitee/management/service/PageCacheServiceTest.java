@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import io.gravitee.management.model.ApiModelEntity;
+import io.gravitee.management.service.impl.PageCacheServiceImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class PageCacheServiceTest {
+
+    private static final String PAGE_ID = "my-page";
+    private static final String API_ID = "my-api";
+
+    private final PageCacheServiceImpl pageCacheService = new PageCacheServiceImpl();
+
+    private final AtomicInteger renderings = new AtomicInteger();
+
+    @Before
+    public void init() {
+        ReflectionTestUtils.setField(pageCacheService, "freemarkerConfiguration", new Configuration(Configuration.VERSION_2_3_22));
+        ReflectionTestUtils.setField(pageCacheService, "maxTemplates", 2);
+        ReflectionTestUtils.setField(pageCacheService, "maxContents", 2);
+        ReflectionTestUtils.setField(pageCacheService, "contentTtl", 60000L);
+        pageCacheService.afterPropertiesSet();
+    }
+
+    @Test
+    public void shouldCompileTemplateOncePerPageVersion() throws Exception {
+        Template template = pageCacheService.getTemplate(PAGE_ID, new Date(1), "${api.name}");
+
+        assertSame(template, pageCacheService.getTemplate(PAGE_ID, new Date(1), "${api.name}"));
+        assertNotSame(template, pageCacheService.getTemplate(PAGE_ID, new Date(2), "${api.version}"));
+    }
+
+    @Test
+    public void shouldRenderContentOnceUntilApiChanges() {
+        assertEquals("content-1", getContent(new Date(1), new Date(10)));
+        assertEquals("content-1", getContent(new Date(1), new Date(10)));
+        assertEquals("content-2", getContent(new Date(1), new Date(11)));
+        assertEquals("content-3", getContent(new Date(2), new Date(11)));
+        assertEquals(3, renderings.get());
+    }
+
+    @Test
+    public void shouldRenderContentAfterApiEviction() {
+        getContent(new Date(1), new Date(10));
+
+        pageCacheService.evictApi(API_ID);
+
+        assertEquals("content-2", getContent(new Date(1), new Date(10)));
+    }
+
+    @Test
+    public void shouldRenderContentAfterMetadataEviction() {
+        getContent(new Date(1), new Date(10));
+
+        pageCacheService.evictMetadata();
+
+        assertEquals("content-2", getContent(new Date(1), new Date(10)));
+    }
+
+    @Test
+    public void shouldNotCacheFailedRendering() {
+        assertNull(pageCacheService.getContent(PAGE_ID, new Date(1), API_ID, new Date(10), () -> null));
+
+        assertEquals("content-1", getContent(new Date(1), new Date(10)));
+    }
+
+    @Test
+    public void shouldBoundCachedContents() {
+        getContent(new Date(1), new Date(10));
+        getContent(new Date(2), new Date(10));
+        getContent(new Date(3), new Date(10));
+
+        assertEquals("content-4", getContent(new Date(1), new Date(10)));
+    }
+
+    @Test
+    public void shouldLoadApiModelOnceUntilApiChanges() {
+        ApiModelEntity apiModel = pageCacheService.getApiModel(API_ID, ApiModelEntity::new);
+
+        assertSame(apiModel, pageCacheService.getApiModel(API_ID, ApiModelEntity::new));
+
+        pageCacheService.evictApi(API_ID);
+
+        assertNotSame(apiModel, pageCacheService.getApiModel(API_ID, ApiModelEntity::new));
+    }
+
+    @Test
+    public void shouldLoadApiModelAfterMetadataEviction() {
+        ApiModelEntity apiModel = pageCacheService.getApiModel(API_ID, ApiModelEntity::new);
+
+        pageCacheService.evictMetadata();
+
+        assertNotSame(apiModel, pageCacheService.getApiModel(API_ID, ApiModelEntity::new));
+    }
+
+    private String getContent(Date pageUpdatedAt, Date apiUpdatedAt) {
+        return pageCacheService.getContent(PAGE_ID, pageUpdatedAt, API_ID, apiUpdatedAt,
+                () -> "content-" + renderings.incrementAndGet());
+    }
+}
@@ -52,6 +52,9 @@ public class PageService_DeleteTest {
 
     @Mock
     private SearchEngineService searchEngineService;
+
+    @Mock
+    private PageCacheService pageCacheService;
     
     @Test
     public void shouldDeletePage() throws TechnicalException {
@@ -0,0 +1,216 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gravitee.fetcher.api.Fetcher;
+import io.gravitee.fetcher.api.FetcherConfiguration;
+import io.gravitee.fetcher.api.FetcherException;
+import io.gravitee.management.fetcher.FetcherConfigurationFactory;
+import io.gravitee.management.fetcher.impl.FetcherConfigurationFactoryImpl;
+import io.gravitee.management.model.PageListItem;
+import io.gravitee.management.model.PageSourceEntity;
+import io.gravitee.management.service.exceptions.TechnicalManagementException;
+import io.gravitee.management.service.impl.PageServiceImpl;
+import io.gravitee.management.service.search.SearchEngineService;
+import io.gravitee.plugin.fetcher.FetcherPlugin;
+import io.gravitee.plugin.fetcher.FetcherPluginManager;
+import io.gravitee.repository.management.api.PageRepository;
+import io.gravitee.repository.management.model.Page;
+import io.gravitee.repository.management.model.PageSource;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static java.util.Arrays.asList;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PageService_FetchTest {
+
+    private static final String FETCHER_TYPE = "dummy-fetcher";
+
+    @InjectMocks
+    private PageServiceImpl pageService = new PageServiceImpl();
+
+    @Mock
+    private PageRepository pageRepository;
+
+    @Mock
+    private FetcherPluginManager fetcherPluginManager;
+
+    @Spy
+    private FetcherConfigurationFactory fetcherConfigurationFactory = new FetcherConfigurationFactoryImpl();
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    @Mock
+    private AuditService auditService;
+
+    @Mock
+    private SearchEngineService searchEngineService;
+
+    @Mock
+    private PageCacheService pageCacheService;
+
+    @Mock
+    private FetcherPlugin fetcherPlugin;
+
+    @Spy
+    private TaskExecutor fetcherExecutor = new SyncTaskExecutor();
+
+    @Before
+    public void init() {
+        ReflectionTestUtils.setField(pageService, "fetchWorkersPerSource", 2);
+
+        when(applicationContext.getAutowireCapableBeanFactory()).thenReturn(mock(AutowireCapableBeanFactory.class));
+        when(applicationContext.getBean(PageService.class)).thenReturn(pageService);
+        when(fetcherPluginManager.get(FETCHER_TYPE)).thenReturn(fetcherPlugin);
+        when(fetcherPlugin.fetcher()).thenReturn((Class) DummyFetcher.class);
+        when(fetcherPlugin.configuration()).thenReturn(DummyFetcherConfiguration.class);
+        when(fetcherPlugin.clazz()).thenReturn(DummyFetcher.class.getName());
+    }
+
+    @Test
+    public void shouldFetchAllPagesAndSkipUnchangedContent() throws Exception {
+        final Page unchanged = page("unchanged", "same content\n", "same content");
+        final Page changed = page("changed", "old content\n", "new content");
+        final Page other = page("other", "old content\n", "other content");
+        when(pageRepository.update(any(Page.class))).thenAnswer(invocation -> invocation.getArguments()[0]);
+
+        pageService.fetchAll(asList(listItem(unchanged), listItem(changed), listItem(other), listItem(page("no-source", null, null))), "contributor");
+
+        verify(pageRepository).update(changed);
+        verify(pageRepository).update(other);
+        verify(pageRepository, never()).update(unchanged);
+        verify(pageRepository, never()).findById("no-source");
+        verify(auditService, times(2)).createPortalAuditLog(any(), any(), any(), any(), any());
+        // fetcher classes are only resolved once
+        verify(fetcherPlugin, times(1)).clazz();
+    }
+
+    @Test
+    public void shouldFetchEachPageThroughTheServiceProxy() throws Exception {
+        final PageService proxy = mock(PageService.class);
+        when(applicationContext.getBean(PageService.class)).thenReturn(proxy);
+
+        pageService.fetchAll(asList(listItem(page("changed", "old content\n", "new content"))), "contributor");
+
+        // the transactional proxy fetches the page, not the service itself
+        verify(proxy).fetch("changed", "contributor");
+        verify(pageRepository, never()).update(any(Page.class));
+    }
+
+    @Test(expected = TechnicalManagementException.class)
+    public void shouldFailWhenAPageCannotBeFetched() throws Exception {
+        final Page page = page("failing", "old content\n", null);
+
+        pageService.fetchAll(asList(listItem(page)), "contributor");
+    }
+
+    @Test
+    public void shouldLimitConcurrentFetchesPerSourceHost() throws Exception {
+        ReflectionTestUtils.setField(pageService, "fetchWorkersPerSource", 1);
+        when(pageRepository.update(any(Page.class))).thenAnswer(invocation -> invocation.getArguments()[0]);
+
+        pageService.fetchAll(asList(
+                listItem(page("a1", "old content\n", "a1"), "http://a.gravitee.io/a1"),
+                listItem(page("a2", "old content\n", "a2"), "http://A.gravitee.io/a2"),
+                listItem(page("b", "old content\n", "b"), "http://b.gravitee.io/b")), "contributor");
+
+        // one lane for the pages of a.gravitee.io and one for the page of b.gravitee.io
+        verify(fetcherExecutor, times(2)).execute(any(Runnable.class));
+        verify(pageRepository, times(3)).update(any(Page.class));
+    }
+
+    private Page page(String id, String content, String fetchedContent) throws Exception {
+        final Page page = new Page();
+        page.setId(id);
+        page.setContent(content);
+        if (fetchedContent != null || content != null) {
+            final PageSource source = new PageSource();
+            source.setType(FETCHER_TYPE);
+            source.setConfiguration(fetchedContent == null ? "{}" : "{\"content\":\"" + fetchedContent + "\"}");
+            page.setSource(source);
+        }
+        when(pageRepository.findById(id)).thenReturn(Optional.of(page));
+        return page;
+    }
+
+    private PageListItem listItem(Page page) {
+        final PageListItem pageListItem = new PageListItem();
+        pageListItem.setId(page.getId());
+        if (page.getSource() != null) {
+            final PageSourceEntity source = new PageSourceEntity();
+            source.setType(page.getSource().getType());
+            pageListItem.setSource(source);
+        }
+        return pageListItem;
+    }
+
+    private PageListItem listItem(Page page, String url) throws Exception {
+        final PageListItem pageListItem = listItem(page);
+        pageListItem.getSource().setConfiguration(new ObjectMapper().readTree("{\"url\":\"" + url + "\"}"));
+        return pageListItem;
+    }
+
+    public static class DummyFetcherConfiguration implements FetcherConfiguration {
+        private String content;
+
+        public String getContent() {
+            return content;
+        }
+
+        public void setContent(String content) {
+            this.content = content;
+        }
+    }
+
+    public static class DummyFetcher implements Fetcher {
+        private final DummyFetcherConfiguration configuration;
+
+        public DummyFetcher(DummyFetcherConfiguration configuration) {
+            this.configuration = configuration;
+        }
+
+        @Override
+        public InputStream fetch() throws FetcherException {
+            if (configuration.getContent() == null) {
+                throw new FetcherException("Unable to fetch content", null);
+            }
+            return new ByteArrayInputStream(configuration.getContent().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
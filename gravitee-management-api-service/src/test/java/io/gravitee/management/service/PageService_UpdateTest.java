@@ -66,6 +66,9 @@ public class PageService_UpdateTest {
     @Mock
     private SearchEngineService searchEngineService;
 
+    @Mock
+    private PageCacheService pageCacheService;
+
     @Test
     public void shouldUpdate() throws TechnicalException {
         when(pageRepository.findById(PAGE_ID)).thenReturn(Optional.of(page1));
@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import io.gravitee.management.service.exceptions.TechnicalManagementException;
+import io.gravitee.management.service.impl.PasswordServiceImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class PasswordServiceTest {
+
+    private static final String PASSWORD = "gh2gyf8!zjfnz";
+
+    private final PasswordServiceImpl passwordService = new PasswordServiceImpl();
+
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    @Before
+    public void setUp() {
+        executor.setCorePoolSize(1);
+        executor.initialize();
+        ReflectionTestUtils.setField(passwordService, "passwordExecutor", executor);
+        passwordService.setVerificationTimeout(10000);
+        passwordService.setAlgorithm("bcrypt");
+        passwordService.setBcryptStrength(4);
+        passwordService.setPbkdf2Iterations(1000);
+        passwordService.afterPropertiesSet();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldEncodeBcryptWithoutAlgorithmId() {
+        final String encoded = passwordService.encode(PASSWORD);
+
+        assertTrue(encoded.startsWith("$2a$04$"));
+        assertTrue(new BCryptPasswordEncoder().matches(PASSWORD, encoded));
+        assertTrue(passwordService.matches(PASSWORD, encoded));
+        assertFalse(passwordService.matches("wrong", encoded));
+        assertFalse(passwordService.upgradeEncoding(encoded));
+    }
+
+    @Test
+    public void shouldMatchAndUpgradeBcryptHashWithAlgorithmId() {
+        final String encoded = "{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD);
+
+        assertTrue(passwordService.matches(PASSWORD, encoded));
+        assertTrue(passwordService.upgradeEncoding(encoded));
+    }
+
+    @Test
+    public void shouldUpgradeWhenCostChanges() {
+        final String encoded = passwordService.encode(PASSWORD);
+
+        passwordService.setBcryptStrength(5);
+        passwordService.afterPropertiesSet();
+
+        assertTrue(passwordService.matches(PASSWORD, encoded));
+        assertTrue(passwordService.upgradeEncoding(encoded));
+    }
+
+    @Test
+    public void shouldUpgradeWhenAlgorithmChanges() {
+        final String encoded = passwordService.encode(PASSWORD);
+
+        passwordService.setAlgorithm("pbkdf2");
+        passwordService.afterPropertiesSet();
+
+        assertTrue(passwordService.matches(PASSWORD, encoded));
+        assertTrue(passwordService.upgradeEncoding(encoded));
+
+        final String upgraded = passwordService.encode(PASSWORD);
+        assertTrue(upgraded.startsWith("{pbkdf2-1000}"));
+        assertTrue(passwordService.matches(PASSWORD, upgraded));
+        assertFalse(passwordService.upgradeEncoding(upgraded));
+    }
+
+    @Test
+    public void shouldUpgradeWhenAlgorithmIsBackToBcrypt() {
+        passwordService.setAlgorithm("pbkdf2");
+        passwordService.afterPropertiesSet();
+        final String encoded = passwordService.encode(PASSWORD);
+
+        passwordService.setAlgorithm("bcrypt");
+        passwordService.afterPropertiesSet();
+
+        assertTrue(passwordService.matches(PASSWORD, encoded));
+        assertTrue(passwordService.upgradeEncoding(encoded));
+        assertFalse(passwordService.encode(PASSWORD).startsWith("{"));
+    }
+
+    @Test
+    public void shouldMatchPbkdf2HashAfterIterationsChange() {
+        passwordService.setAlgorithm("pbkdf2");
+        passwordService.afterPropertiesSet();
+        final String encoded = passwordService.encode(PASSWORD);
+
+        passwordService.setPbkdf2Iterations(2000);
+        passwordService.afterPropertiesSet();
+
+        assertTrue(passwordService.matches(PASSWORD, encoded));
+        assertFalse(passwordService.matches("wrong", encoded));
+        assertTrue(passwordService.upgradeEncoding(encoded));
+        final String upgraded = passwordService.encode(PASSWORD);
+        assertTrue(upgraded.startsWith("{pbkdf2-2000}"));
+        assertFalse(passwordService.upgradeEncoding(upgraded));
+    }
+
+    @Test
+    public void shouldMatchPbkdf2HashWithoutIterations() {
+        final String encoded = "{pbkdf2}" + new Pbkdf2PasswordEncoder("", 185000, 256).encode(PASSWORD);
+
+        assertTrue(passwordService.matches(PASSWORD, encoded));
+        assertTrue(passwordService.upgradeEncoding(encoded));
+    }
+
+    @Test
+    public void shouldNotMatchUnknownAlgorithm() {
+        assertFalse(passwordService.matches(PASSWORD, "{md5}" + PASSWORD));
+    }
+
+    @Test(expected = TechnicalManagementException.class)
+    public void shouldFailWhenTooManyPasswordsAreBeingVerified() {
+        final AsyncTaskExecutor saturatedExecutor = mock(AsyncTaskExecutor.class);
+        when(saturatedExecutor.submit(any(Callable.class))).thenThrow(new TaskRejectedException("saturated"));
+        ReflectionTestUtils.setField(passwordService, "passwordExecutor", saturatedExecutor);
+
+        passwordService.matches(PASSWORD, passwordService.encode(PASSWORD));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotStartWithUnknownAlgorithm() {
+        passwordService.setAlgorithm("md5");
+        passwordService.afterPropertiesSet();
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import io.gravitee.management.model.InlinePictureEntity;
+import io.gravitee.management.service.impl.PictureServiceImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Date;
+
+import static io.gravitee.management.service.PictureService.ReferenceType.API;
+import static io.gravitee.management.service.PictureService.ReferenceType.USER;
+import static org.junit.Assert.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class PictureServiceTest {
+
+    private static final String API_ID = "my-api";
+
+    private final PictureServiceImpl pictureService = new PictureServiceImpl();
+
+    @Before
+    public void init() {
+        ReflectionTestUtils.setField(pictureService, "maxPictures", 2);
+        ReflectionTestUtils.setField(pictureService, "thumbnailSize", 16);
+        ReflectionTestUtils.setField(pictureService, "maxPixels", 10000L);
+        pictureService.afterPropertiesSet();
+    }
+
+    private static String dataUri(int width, int height) throws IOException {
+        return dataUri(width, height, "png");
+    }
+
+    private static String dataUri(int width, int height, String format) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, out);
+        return "data:image/" + format + ";base64," + Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    @Test
+    public void shouldDecodePictureOncePerVersion() throws IOException {
+        final String picture = dataUri(32, 32);
+
+        final InlinePictureEntity decoded = pictureService.getPicture(API, API_ID, new Date(1), picture);
+
+        assertEquals("image/png", decoded.getType());
+        assertArrayEquals(Base64.getDecoder().decode(picture.substring(picture.indexOf(',') + 1)), decoded.getContent());
+        assertNotNull(decoded.getHash());
+        assertSame(decoded, pictureService.getPicture(API, API_ID, new Date(1), picture));
+        assertNotSame(decoded, pictureService.getPicture(USER, API_ID, new Date(1), picture));
+
+        final InlinePictureEntity updated = pictureService.getPicture(API, API_ID, new Date(2), dataUri(8, 8));
+        assertNotSame(decoded, updated);
+        assertNotEquals(decoded.getHash(), updated.getHash());
+    }
+
+    @Test
+    public void shouldDecodeAgainAfterEviction() throws IOException {
+        final String picture = dataUri(32, 32);
+        final InlinePictureEntity decoded = pictureService.getPicture(API, API_ID, new Date(1), picture);
+
+        pictureService.evict(API, API_ID);
+
+        final InlinePictureEntity decodedAgain = pictureService.getPicture(API, API_ID, new Date(1), picture);
+        assertNotSame(decoded, decodedAgain);
+        assertEquals(decoded.getHash(), decodedAgain.getHash());
+    }
+
+    @Test
+    public void shouldNotDecodeUrlPicture() {
+        assertNull(pictureService.getPicture(API, API_ID, new Date(1), "http://localhost/picture.png"));
+        assertNull(pictureService.getPicture(API, API_ID, new Date(1), null));
+    }
+
+    @Test
+    public void shouldResizeThumbnail() throws IOException {
+        final InlinePictureEntity thumbnail = pictureService.getThumbnail(API, API_ID, new Date(1), dataUri(64, 32));
+
+        final BufferedImage image = ImageIO.read(new ByteArrayInputStream(thumbnail.getContent()));
+        assertEquals(16, image.getWidth());
+        assertEquals(8, image.getHeight());
+        assertSame(thumbnail, pictureService.getThumbnail(API, API_ID, new Date(1), dataUri(64, 32)));
+    }
+
+    @Test
+    public void shouldKeepPictureFormatForThumbnail() throws IOException {
+        final InlinePictureEntity thumbnail = pictureService.getThumbnail(API, API_ID, new Date(1), dataUri(64, 32, "jpeg"));
+
+        assertEquals("image/jpeg", thumbnail.getType());
+        final BufferedImage image = ImageIO.read(new ByteArrayInputStream(thumbnail.getContent()));
+        assertEquals(16, image.getWidth());
+        assertEquals(8, image.getHeight());
+    }
+
+    @Test
+    public void shouldNotResizeTooLargePicture() throws IOException {
+        final String picture = dataUri(200, 100);
+
+        assertSame(pictureService.getPicture(API, API_ID, new Date(1), picture),
+                pictureService.getThumbnail(API, API_ID, new Date(1), picture));
+    }
+
+    @Test
+    public void shouldKeepSmallPictureAsThumbnail() throws IOException {
+        final String picture = dataUri(8, 8);
+
+        assertSame(pictureService.getPicture(API, API_ID, new Date(1), picture),
+                pictureService.getThumbnail(API, API_ID, new Date(1), picture));
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import io.gravitee.management.service.exceptions.TechnicalManagementException;
+import io.gravitee.management.service.impl.PortalNotificationServiceImpl;
+import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.management.api.PortalNotificationRepository;
+import io.gravitee.repository.management.model.PortalNotification;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PortalNotificationService_CountTest {
+
+    @InjectMocks
+    private PortalNotificationService portalNotificationService = new PortalNotificationServiceImpl();
+
+    @Mock
+    private PortalNotificationRepository portalNotificationRepository;
+
+    @Test
+    public void shouldCountNotificationsOfUser() throws TechnicalException {
+        when(portalNotificationRepository.findByUser("user"))
+                .thenReturn(Arrays.asList(new PortalNotification(), new PortalNotification()));
+
+        assertEquals(2, portalNotificationService.count("user"));
+    }
+
+    @Test
+    public void shouldCountNoNotification() throws TechnicalException {
+        when(portalNotificationRepository.findByUser("user")).thenReturn(Collections.emptyList());
+
+        assertEquals(0, portalNotificationService.count("user"));
+    }
+
+    @Test(expected = TechnicalManagementException.class)
+    public void shouldNotCountBecauseTechnicalException() throws TechnicalException {
+        when(portalNotificationRepository.findByUser("user")).thenThrow(TechnicalException.class);
+
+        portalNotificationService.count("user");
+    }
+}
@@ -15,9 +15,11 @@
  */
 package io.gravitee.management.service;
 
+import io.gravitee.common.event.EventManager;
 import io.gravitee.management.idp.api.authentication.UserDetails;
 import io.gravitee.management.model.*;
 import io.gravitee.management.model.api.ApiEntity;
+import io.gravitee.management.service.event.SubscriptionEvent;
 import io.gravitee.management.service.exceptions.*;
 import io.gravitee.management.service.impl.SubscriptionServiceImpl;
 import io.gravitee.management.service.notification.ApiHook;
@@ -91,6 +93,8 @@ public class SubscriptionServiceTest {
     private ConfigurableEnvironment environment;
     @Mock
     private NotifierService notifierService;
+    @Mock
+    private EventManager eventManager;
 
     @Test
     public void shouldFindById() throws TechnicalException {
@@ -266,6 +270,7 @@ public class SubscriptionServiceTest {
         verify(subscriptionRepository, times(1)).create(any(Subscription.class));
         verify(subscriptionRepository, never()).update(any(Subscription.class));
         verify(apiKeyService, never()).generate(any());
+        verify(eventManager, times(1)).publishEvent(eq(SubscriptionEvent.CREATE), any(SubscriptionEntity.class));
         assertNotNull(subscriptionEntity.getId());
         assertNotNull(subscriptionEntity.getApplication());
         assertNotNull(subscriptionEntity.getCreatedAt());
@@ -27,9 +27,11 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -47,7 +49,10 @@ public class SwaggerService_TransformTest {
 
     @Before
     public void setUp() {
-        swaggerService = new SwaggerServiceImpl();
+        SwaggerServiceImpl swaggerServiceImpl = new SwaggerServiceImpl();
+        ReflectionTestUtils.setField(swaggerServiceImpl, "maxTransformedContents", 10);
+        swaggerServiceImpl.afterPropertiesSet();
+        swaggerService = swaggerServiceImpl;
     }
 
 
@@ -115,6 +120,56 @@ public class SwaggerService_TransformTest {
         validateV3(Yaml.mapper().readTree(pageEntity.getContent()));
     }
 
+    @Test
+    public void shouldReuseTransformedContentOfUnchangedPage() throws IOException {
+        PageEntity pageEntity = getPage("io/gravitee/management/service/swagger-v2.json", MediaType.APPLICATION_JSON);
+        pageEntity.setId("my-page");
+        pageEntity.setLastModificationDate(new Date(1000));
+        swaggerService.transform(pageEntity);
+
+        PageEntity samePage = getPage("io/gravitee/management/service/openapi.json", MediaType.APPLICATION_JSON);
+        samePage.setId("my-page");
+        samePage.setLastModificationDate(new Date(1000));
+        swaggerService.transform(samePage);
+
+        assertEquals(pageEntity.getContent(), samePage.getContent());
+        validateV2(Json.mapper().readTree(samePage.getContent()));
+    }
+
+    @Test
+    public void shouldTransformAgainUpdatedPage() throws IOException {
+        PageEntity pageEntity = getPage("io/gravitee/management/service/swagger-v2.json", MediaType.APPLICATION_JSON);
+        pageEntity.setId("my-page");
+        pageEntity.setLastModificationDate(new Date(1000));
+        swaggerService.transform(pageEntity);
+
+        PageEntity updatedPage = getPage("io/gravitee/management/service/openapi.json", MediaType.APPLICATION_JSON);
+        updatedPage.setId("my-page");
+        updatedPage.setLastModificationDate(new Date(2000));
+        swaggerService.transform(updatedPage);
+
+        validateV3(Json.mapper().readTree(updatedPage.getContent()));
+    }
+
+    @Test
+    public void shouldTransformAgainWithAnotherConfiguration() throws IOException {
+        PageEntity pageEntity = getPage("io/gravitee/management/service/swagger-v2.json", MediaType.APPLICATION_JSON);
+        pageEntity.setId("my-page");
+        pageEntity.setLastModificationDate(new Date(1000));
+        swaggerService.transform(pageEntity);
+
+        PageEntity samePage = getPage("io/gravitee/management/service/swagger-v2.json", MediaType.APPLICATION_JSON);
+        samePage.setId("my-page");
+        samePage.setLastModificationDate(new Date(1000));
+        samePage.getConfiguration().put("tryItURL", "http://other.domain.com:8080/v2");
+        swaggerService.transform(samePage);
+
+        JsonNode node = Json.mapper().readTree(samePage.getContent());
+        assertEquals("http", node.get("schemes").get(0).asText());
+        assertEquals("other.domain.com:8080", node.get("host").asText());
+        assertEquals("/v2", node.get("basePath").asText());
+    }
+
     private void validateV2(JsonNode node) {
         assertEquals("1.2.3", node.get("info").get("version").asText());
         assertEquals("Gravitee.io Swagger API", node.get("info").get("title").asText());
@@ -15,40 +15,36 @@
  */
 package io.gravitee.management.service;
 
-import io.gravitee.management.idp.api.authentication.UserDetails;
+import io.gravitee.common.event.Event;
+import io.gravitee.common.event.EventListener;
+import io.gravitee.common.event.EventManager;
 import io.gravitee.management.model.*;
-import io.gravitee.management.service.exceptions.*;
-import io.gravitee.management.service.impl.SubscriptionServiceImpl;
+import io.gravitee.management.model.subscription.SubscriptionQuery;
+import io.gravitee.management.service.event.MembershipEvent;
+import io.gravitee.management.service.event.SubscriptionEvent;
 import io.gravitee.management.service.impl.TaskServiceImpl;
-import io.gravitee.management.service.notification.ApiHook;
-import io.gravitee.management.service.notification.ApplicationHook;
 import io.gravitee.repository.exceptions.TechnicalException;
 import io.gravitee.repository.management.api.ApiRepository;
+import io.gravitee.repository.management.api.ApplicationRepository;
 import io.gravitee.repository.management.api.MembershipRepository;
-import io.gravitee.repository.management.api.SubscriptionRepository;
-import io.gravitee.repository.management.api.search.SubscriptionCriteria;
+import io.gravitee.repository.management.model.Api;
+import io.gravitee.repository.management.model.Application;
 import io.gravitee.repository.management.model.Membership;
 import io.gravitee.repository.management.model.MembershipReferenceType;
 import io.gravitee.repository.management.model.RoleScope;
-import io.gravitee.repository.management.model.Subscription;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
-import org.mockito.stubbing.Answer;
-import org.springframework.core.env.ConfigurableEnvironment;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.context.SecurityContext;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
-import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
@@ -59,33 +55,33 @@ import static org.mockito.Mockito.*;
 @RunWith(MockitoJUnitRunner.class)
 public class TaskServiceTest {
 
-    private static final String SUBSCRIPTION_ID = "my-subscription";
-    private static final String APPLICATION_ID = "my-application";
-    private static final String PLAN_ID = "my-plan";
-    private static final String API_ID = "my-api";
-    private static final String SUBSCRIPTION_VALIDATOR = "validator";
+    private static final String USER = "user";
 
     @InjectMocks
     private TaskService taskService = new TaskServiceImpl();
 
-    @Mock
-    private ApiService apiService;
     @Mock
     private SubscriptionService subscriptionService;
     @Mock
-    private ApplicationService applicationService;
-    @Mock
     private MembershipRepository membershipRepository;
     @Mock
     private ApiRepository apiRepository;
     @Mock
+    private ApplicationRepository applicationRepository;
+    @Mock
     private RoleService roleService;
     @Mock
     private PlanService planService;
+    @Mock
+    private EventManager eventManager;
 
+    @Before
+    public void init() throws TechnicalException {
+        ReflectionTestUtils.setField(taskService, "maxUsers", 10);
+        ReflectionTestUtils.setField(taskService, "maxApis", 10);
+        ReflectionTestUtils.setField(taskService, "indexTtl", 60000L);
+        ((TaskServiceImpl) taskService).afterPropertiesSet();
 
-    @Test
-    public void shouldFindAll() throws TechnicalException {
         Membership m1 = new Membership();
 
         m1.setReferenceId("api1");
@@ -121,10 +117,132 @@ public class TaskServiceTest {
         memberships.add(m2);
         when(membershipRepository.findByUserAndReferenceType(any(), any()))
                 .thenReturn(memberships);
+    }
 
-        List<TaskEntity> tasks = taskService.findAll("user");
+    @Test
+    public void shouldFindAll() throws TechnicalException {
+        taskService.findAll(USER);
+
+        verify(subscriptionService, times(1)).search(argThat(new ArgumentMatcher<SubscriptionQuery>() {
+            @Override
+            public boolean matches(Object argument) {
+                return Collections.singleton("api1").equals(((SubscriptionQuery) argument).getApis());
+            }
+        }));
+    }
+
+    @Test
+    public void shouldCountFromIndex() {
+        when(subscriptionService.search(any())).thenReturn(Arrays.asList(
+                subscription("sub1", SubscriptionStatus.PENDING),
+                subscription("sub2", SubscriptionStatus.PENDING)));
+
+        assertEquals(2, taskService.count(USER));
+        assertEquals(2, taskService.count(USER));
+        assertEquals(2, taskService.findAll(USER).size());
 
         verify(subscriptionService, times(1)).search(any());
+        verify(roleService, times(1)).findById(RoleScope.API, "PO");
+    }
+
+    @Test
+    public void shouldNotKeepPendingSubscriptionsBeyondIndexSize() {
+        ReflectionTestUtils.setField(taskService, "maxApis", 0);
+        ((TaskServiceImpl) taskService).afterPropertiesSet();
+        when(subscriptionService.search(any())).thenReturn(Collections.singletonList(
+                subscription("sub1", SubscriptionStatus.PENDING)));
+
+        assertEquals(1, taskService.count(USER));
+        assertEquals(1, taskService.count(USER));
+
+        verify(subscriptionService, times(2)).search(any());
+    }
+
+    @Test
+    public void shouldUpdateIndexOnSubscriptionEvent() {
+        when(subscriptionService.search(any())).thenReturn(Collections.singletonList(
+                subscription("sub1", SubscriptionStatus.PENDING)));
+        assertEquals(1, taskService.count(USER));
+
+        ((TaskServiceImpl) taskService).onEvent(event(SubscriptionEvent.CREATE, subscription("sub2", SubscriptionStatus.PENDING)));
+        assertEquals(2, taskService.count(USER));
+
+        ((TaskServiceImpl) taskService).onEvent(event(SubscriptionEvent.UPDATE, subscription("sub1", SubscriptionStatus.ACCEPTED)));
+        ((TaskServiceImpl) taskService).onEvent(event(SubscriptionEvent.DELETE, subscription("sub2", SubscriptionStatus.PENDING)));
+        assertEquals(0, taskService.count(USER));
+
+        verify(subscriptionService, times(1)).search(any());
+    }
+
+    @Test
+    public void shouldReloadValidatedApisOnMembershipEvent() throws TechnicalException {
+        ArgumentCaptor<EventListener> membershipListener = ArgumentCaptor.forClass(EventListener.class);
+        verify(eventManager).subscribeForEvents(membershipListener.capture(), eq(MembershipEvent.class));
+
+        taskService.count(USER);
+        taskService.count(USER);
+        verify(roleService, times(1)).findById(RoleScope.API, "PO");
+
+        Membership membership = new Membership(USER, "api3", MembershipReferenceType.API);
+        membershipListener.getValue().onEvent(event(MembershipEvent.CREATE, membership));
+
+        taskService.count(USER);
+        verify(roleService, times(2)).findById(RoleScope.API, "PO");
+    }
+
+    @Test
+    public void shouldGetMetadataAtOnce() throws TechnicalException {
+        SubscriptionEntity subscription1 = subscription("sub1", SubscriptionStatus.PENDING);
+        SubscriptionEntity subscription2 = subscription("sub2", SubscriptionStatus.PENDING);
+        subscription2.setApplication("app2");
+        TaskEntity task1 = new TaskEntity();
+        task1.setData(subscription1);
+        TaskEntity task2 = new TaskEntity();
+        task2.setData(subscription2);
+
+        Application app1 = new Application();
+        app1.setId("app1");
+        app1.setName("App 1");
+        Application app2 = new Application();
+        app2.setId("app2");
+        app2.setName("App 2");
+        when(applicationRepository.findByIds(any())).thenReturn(new HashSet<>(Arrays.asList(app1, app2)));
+        Api api = new Api();
+        api.setId("api1");
+        api.setName("API 1");
+        when(apiRepository.search(any(), any())).thenReturn(Collections.singletonList(api));
+        PlanEntity plan = new PlanEntity();
+        plan.setId("plan1");
+        plan.setName("Plan 1");
+        when(planService.findByApi("api1")).thenReturn(Collections.singleton(plan));
+
+        Map<String, Map<String, Object>> metadata = taskService.getMetadata(Arrays.asList(task1, task2)).getMetadata();
+
+        assertEquals("App 1", metadata.get("app1").get("name"));
+        assertEquals("App 2", metadata.get("app2").get("name"));
+        assertEquals("API 1", metadata.get("api1").get("name"));
+        assertEquals("Plan 1", metadata.get("plan1").get("name"));
+        assertEquals("api1", metadata.get("plan1").get("api"));
+        verify(applicationRepository, times(1)).findByIds(any());
+        verify(planService, times(1)).findByApi(any());
+    }
+
+    private static SubscriptionEntity subscription(String id, SubscriptionStatus status) {
+        SubscriptionEntity subscription = new SubscriptionEntity();
+        subscription.setId(id);
+        subscription.setApi("api1");
+        subscription.setPlan("plan1");
+        subscription.setApplication("app1");
+        subscription.setStatus(status);
+        subscription.setCreatedAt(new Date());
+        return subscription;
+    }
 
+    @SuppressWarnings("unchecked")
+    private static <T extends Enum, S> Event<T, S> event(T type, S content) {
+        Event<T, S> event = mock(Event.class);
+        when(event.type()).thenReturn(type);
+        when(event.content()).thenReturn(content);
+        return event;
     }
 }
@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import io.gravitee.management.model.UserEntity;
+import io.gravitee.management.model.common.PageableImpl;
+import io.gravitee.management.service.impl.search.lucene.analyzer.CustomWhitespaceAnalyzer;
+import io.gravitee.management.service.impl.search.lucene.searcher.UserDocumentSearcher;
+import io.gravitee.management.service.impl.search.lucene.transformer.UserDocumentTransformer;
+import io.gravitee.management.service.search.query.QueryBuilder;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class UserDocumentSearcherTest {
+
+    private final UserDocumentSearcher searcher = new UserDocumentSearcher();
+    private final UserDocumentTransformer transformer = new UserDocumentTransformer();
+
+    private IndexWriter indexWriter;
+
+    @Before
+    public void init() throws Exception {
+        indexWriter = new IndexWriter(new RAMDirectory(), new IndexWriterConfig(new CustomWhitespaceAnalyzer()));
+        ReflectionTestUtils.setField(searcher, "indexWriter", indexWriter);
+
+        index("user1", "gravitee", "jdoe", "John", "Doe", "john.doe@gravitee.io");
+        index("user2", "gravitee", "jsmith", "Johnny", "Smith", "johnny@example.com");
+        index("user3", "gravitee", "mjohnson", "Mary", "Johnson", "mary@example.com");
+        index("user4", "ldap", "john", "John", "Ldap", "john@ldap.io");
+        indexWriter.commit();
+    }
+
+    @After
+    public void close() throws Exception {
+        indexWriter.close();
+    }
+
+    @Test
+    public void shouldFindExactMatchesFirst() throws Exception {
+        List<String> users = search("john", null);
+
+        assertEquals(new HashSet<>(asList("user1", "user2", "user3", "user4")), new HashSet<>(users));
+        assertEquals(new HashSet<>(asList("user1", "user4")), new HashSet<>(users.subList(0, 2)));
+    }
+
+    @Test
+    public void shouldFindByPrefixIgnoringCase() throws Exception {
+        assertEquals(Collections.singletonList("user2"), search("JSMI", null));
+    }
+
+    @Test
+    public void shouldFindByEmailDomain() throws Exception {
+        assertEquals(Collections.singletonList("user1"), search("gravitee.io", null));
+        assertEquals(new HashSet<>(asList("user2", "user3")), new HashSet<>(search("example", null)));
+    }
+
+    @Test
+    public void shouldNotFindBySubstring() throws Exception {
+        assertTrue(search("ohn", null).isEmpty());
+    }
+
+    @Test
+    public void shouldNotInterpretWildcards() throws Exception {
+        assertTrue(search("j*", null).isEmpty());
+    }
+
+    @Test
+    public void shouldFilterBySource() throws Exception {
+        assertEquals(new HashSet<>(asList("user1", "user2", "user3")),
+                new HashSet<>(search("john", Collections.singleton("GRAVITEE"))));
+        assertEquals(Collections.singletonList("user4"), search("john", "ldap"));
+    }
+
+    @Test
+    public void shouldPaginate() throws Exception {
+        List<String> firstPage = searcher.search(QueryBuilder.create(UserEntity.class)
+                .setQuery("john")
+                .setPage(new PageableImpl(1, 3))
+                .build());
+        List<String> secondPage = searcher.search(QueryBuilder.create(UserEntity.class)
+                .setQuery("john")
+                .setPage(new PageableImpl(2, 3))
+                .build());
+
+        assertEquals(3, firstPage.size());
+        assertEquals(1, secondPage.size());
+        assertTrue(!firstPage.contains(secondPage.get(0)));
+    }
+
+    private List<String> search(String query, Object sources) throws Exception {
+        QueryBuilder<UserEntity> builder = QueryBuilder.create(UserEntity.class).setQuery(query);
+        if (sources != null) {
+            builder.addFilter(UserDocumentSearcher.FILTER_SOURCE, sources);
+        }
+        return searcher.search(builder.build());
+    }
+
+    private void index(String id, String source, String username, String firstname, String lastname, String email) throws Exception {
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        user.setSource(source);
+        user.setUsername(username);
+        user.setFirstname(firstname);
+        user.setLastname(lastname);
+        user.setEmail(email);
+        indexWriter.addDocument(transformer.transform(user));
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import io.gravitee.management.model.UserEntity;
+import io.gravitee.management.model.api.ApiEntity;
+import io.gravitee.management.service.impl.search.lucene.transformer.UserDocumentTransformer;
+import org.apache.lucene.document.Document;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class UserDocumentTransformerTest {
+
+    private final UserDocumentTransformer transformer = new UserDocumentTransformer();
+
+    @Test
+    public void shouldIndexLowerCasedFields() {
+        UserEntity user = new UserEntity();
+        user.setId("user1");
+        user.setSource("Gravitee");
+        user.setUsername("JDoe");
+        user.setFirstname("John");
+        user.setLastname("Doe");
+        user.setEmail("John.Doe@Gravitee.io");
+
+        Document doc = transformer.transform(user);
+
+        assertEquals("user1", doc.get("id"));
+        assertEquals("user", doc.get("type"));
+        assertEquals("gravitee", doc.getField("source").stringValue());
+        assertEquals("jdoe", doc.getField("username").stringValue());
+        assertEquals("john", doc.getField("firstname").stringValue());
+        assertEquals("doe", doc.getField("lastname").stringValue());
+        assertArrayEquals(asList("john.doe@gravitee.io", "gravitee.io").toArray(), doc.getValues("email"));
+    }
+
+    @Test
+    public void shouldSkipMissingFields() {
+        UserEntity user = new UserEntity();
+        user.setId("user1");
+        user.setEmail("jdoe@");
+
+        Document doc = transformer.transform(user);
+
+        assertNull(doc.getField("source"));
+        assertNull(doc.getField("username"));
+        assertNull(doc.getField("firstname"));
+        assertNull(doc.getField("lastname"));
+        assertArrayEquals(new String[]{"jdoe@"}, doc.getValues("email"));
+    }
+
+    @Test
+    public void shouldHandleUsersOnly() {
+        assertTrue(transformer.handle(UserEntity.class));
+        assertFalse(transformer.handle(ApiEntity.class));
+    }
+}
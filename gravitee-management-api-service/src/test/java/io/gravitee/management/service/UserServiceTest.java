@@ -20,26 +20,28 @@ import io.gravitee.management.model.*;
 import io.gravitee.management.model.parameters.Key;
 import io.gravitee.management.service.common.JWTHelper;
 import io.gravitee.management.service.exceptions.UserNotInternallyManagedException;
-import io.gravitee.repository.management.model.MembershipDefaultReferenceId;
-import io.gravitee.repository.management.model.MembershipReferenceType;
 import io.gravitee.repository.management.model.RoleScope;
 import io.gravitee.management.service.exceptions.TechnicalManagementException;
 import io.gravitee.management.service.exceptions.UserNotFoundException;
 import io.gravitee.management.service.exceptions.UsernameAlreadyExistsException;
 import io.gravitee.management.service.impl.UserServiceImpl;
+import io.gravitee.management.service.search.SearchEngineService;
 import io.gravitee.repository.exceptions.TechnicalException;
 import io.gravitee.repository.management.api.UserRepository;
 import io.gravitee.repository.management.model.User;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.core.env.ConfigurableEnvironment;
-import org.springframework.util.StringUtils;
+import org.springframework.core.task.TaskExecutor;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
@@ -79,6 +81,12 @@ public class UserServiceTest {
     @Mock
     private RoleService roleService;
 
+    @Mock
+    private PictureService pictureService;
+
+    @Mock
+    private SearchEngineService searchEngineService;
+
     @Mock MembershipService membershipService;
 
     @Mock
@@ -98,6 +106,10 @@ public class UserServiceTest {
     private EmailService emailService;
     @Mock
     private ParameterService mockParameterService;
+    @Mock
+    private TaskExecutor taskExecutor;
+    @Mock
+    private PasswordService passwordService;
 
     @Test
     public void shouldFindByUsername() throws TechnicalException {
@@ -139,7 +151,7 @@ public class UserServiceTest {
         when(newUser.getFirstname()).thenReturn(FIRST_NAME);
         when(newUser.getLastname()).thenReturn(LAST_NAME);
 
-        when(userRepository.findById(USER_NAME)).thenReturn(Optional.empty());
+        when(userRepository.findByUsername(USER_NAME)).thenReturn(Optional.empty());
 
         when(user.getId()).thenReturn(USER_NAME);
         when(user.getUsername()).thenReturn(USER_NAME);
@@ -154,11 +166,7 @@ public class UserServiceTest {
         when(role.getScope()).thenReturn(io.gravitee.management.model.permissions.RoleScope.PORTAL);
         when(role.getName()).thenReturn("USER");
         when(roleService.findDefaultRoleByScopes(RoleScope.MANAGEMENT, RoleScope.PORTAL)).thenReturn(Collections.singletonList(role));
-        when(membershipService.getRole(
-                MembershipReferenceType.PORTAL,
-                MembershipDefaultReferenceId.DEFAULT.name(),
-                user.getId(),
-                RoleScope.PORTAL)).thenReturn(role);
+        when(membershipService.getDefaultRoles(USER_NAME)).thenReturn(Collections.singleton(role));
 
         final UserEntity createdUserEntity = userService.create(newUser, false);
 
@@ -183,12 +191,13 @@ public class UserServiceTest {
         assertEquals(ROLES, createdUserEntity.getRoles());
         assertEquals(date, createdUserEntity.getCreatedAt());
         assertEquals(date, createdUserEntity.getUpdatedAt());
+        verify(searchEngineService).index(createdUserEntity);
     }
 
     @Test(expected = UsernameAlreadyExistsException.class)
     public void shouldNotCreateBecauseExists() throws TechnicalException {
         when(newUser.getUsername()).thenReturn(USER_NAME);
-        when(userRepository.findById(USER_NAME)).thenReturn(of(new User()));
+        when(userRepository.findByUsername(USER_NAME)).thenReturn(of(new User()));
 
         userService.create(newUser, false);
 
@@ -198,7 +207,7 @@ public class UserServiceTest {
     @Test(expected = TechnicalManagementException.class)
     public void shouldNotCreateBecauseTechnicalException() throws TechnicalException {
         when(newUser.getUsername()).thenReturn(USER_NAME);
-        when(userRepository.findById(USER_NAME)).thenReturn(Optional.empty());
+        when(userRepository.findByUsername(USER_NAME)).thenReturn(Optional.empty());
         when(userRepository.create(any(User.class))).thenThrow(TechnicalException.class);
 
         userService.create(newUser, false);
@@ -226,6 +235,42 @@ public class UserServiceTest {
         verify(applicationService, times(1)).create(any(), eq(USER_NAME));
     }
 
+    @Test
+    public void shouldCreateDefaultApplicationOnceForConcurrentFirstLogins() throws Exception {
+        userService.setDefaultApplicationForFirstConnection(true);
+        User storedUser = new User();
+        storedUser.setId(USER_NAME);
+        AtomicReference<User> stored = new AtomicReference<>(storedUser);
+        // Both logins read the user before the first connection is recorded
+        CountDownLatch reads = new CountDownLatch(3);
+        when(userRepository.findById(USER_NAME)).thenAnswer(invocation -> {
+            reads.countDown();
+            return of(new User(stored.get()));
+        });
+        when(applicationService.create(any(), eq(USER_NAME))).thenAnswer(invocation -> {
+            reads.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        when(userRepository.update(any(User.class))).thenAnswer(invocation -> {
+            User updatedUser = (User) invocation.getArguments()[0];
+            stored.set(new User(updatedUser));
+            return updatedUser;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<UserEntity> firstLogin = executor.submit(() -> userService.connect(USER_NAME));
+            Future<UserEntity> secondLogin = executor.submit(() -> userService.connect(USER_NAME));
+            firstLogin.get(10, TimeUnit.SECONDS);
+            secondLogin.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(applicationService, times(1)).create(any(), eq(USER_NAME));
+        verify(userRepository, times(1)).update(any(User.class));
+    }
+
     @Test
     public void shouldNotCreateDefaultApplicationBecauseDisabled() throws TechnicalException {
         userService.setDefaultApplicationForFirstConnection(false);
@@ -247,6 +292,53 @@ public class UserServiceTest {
         verify(applicationService, never()).create(any(), eq(USER_NAME));
     }
 
+    @Test
+    public void shouldUpdateLastConnectionAsynchronously() throws TechnicalException {
+        userService.setLastConnectionInterval(60000);
+        when(user.getId()).thenReturn(USER_NAME);
+        when(user.getLastConnectionAt()).thenReturn(new Date(System.currentTimeMillis() - 120000));
+        when(userRepository.findById(USER_NAME)).thenReturn(of(user));
+
+        userService.connect(USER_NAME);
+
+        verify(userRepository, never()).update(any());
+        verify(auditService, times(1)).createPortalAuditLog(any(), eq(User.AuditEvent.USER_CONNECTED), any(), any(), any());
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskExecutor, times(1)).execute(task.capture());
+
+        task.getValue().run();
+
+        verify(userRepository, times(1)).update(user);
+        verify(user, times(1)).setLastConnectionAt(any(Date.class));
+        verify(auditService, times(1)).createPortalAuditLog(any(), eq(User.AuditEvent.USER_CONNECTED), any(), any(), any());
+    }
+
+    @Test
+    public void shouldNotUpdateLastConnectionWithinInterval() throws TechnicalException {
+        userService.setLastConnectionInterval(60000);
+        when(user.getLastConnectionAt()).thenReturn(new Date());
+        when(userRepository.findById(USER_NAME)).thenReturn(of(user));
+
+        userService.connect(USER_NAME);
+
+        verify(taskExecutor, never()).execute(any());
+        verify(userRepository, never()).update(any());
+        verify(auditService, times(1)).createPortalAuditLog(any(), eq(User.AuditEvent.USER_CONNECTED), any(), any(), any());
+    }
+
+    @Test
+    public void shouldCoalesceConcurrentLastConnectionUpdates() throws TechnicalException {
+        userService.setLastConnectionInterval(60000);
+        when(user.getLastConnectionAt()).thenReturn(new Date(System.currentTimeMillis() - 120000));
+        when(userRepository.findById(USER_NAME)).thenReturn(of(user));
+
+        userService.connect(USER_NAME);
+        userService.connect(USER_NAME);
+
+        verify(taskExecutor, times(1)).execute(any());
+        verify(auditService, times(2)).createPortalAuditLog(any(), eq(User.AuditEvent.USER_CONNECTED), any(), any(), any());
+    }
+
     @Test(expected = IllegalStateException.class)
     public void shouldNotCreateUserIfRegistrationIsDisabled() {
         when(mockParameterService.findAsBoolean(Key.PORTAL_USERCREATION_ENABLED)).thenReturn(Boolean.FALSE);
@@ -282,6 +374,7 @@ public class UserServiceTest {
         user.setLastname(LAST_NAME);
         when(userRepository.findByUsername(USER_NAME)).thenReturn(Optional.of(user));
         when(userRepository.update(any(User.class))).thenReturn(user);
+        when(passwordService.encode(PASSWORD)).thenReturn("{bcrypt}encoded");
 
         RegisterUserEntity userEntity = new RegisterUserEntity();
         userEntity.setToken(createJWT(System.currentTimeMillis()/1000 + 100));
@@ -297,7 +390,7 @@ public class UserServiceTest {
                         FIRST_NAME.equals(userToCreate.getFirstname()) &&
                         LAST_NAME.equals(userToCreate.getLastname()) &&
                         "CUSTOM_LONG_ID".equals(userToCreate.getId()) &&
-                        !StringUtils.isEmpty(userToCreate.getPassword());
+                        "{bcrypt}encoded".equals(userToCreate.getPassword());
             }
         }));
     }
@@ -329,6 +422,36 @@ public class UserServiceTest {
         verify(userRepository).update(user);
     }
 
+    @Test
+    public void shouldUpgradePassword() throws TechnicalException {
+        when(user.getPassword()).thenReturn("$2a$10$legacy");
+        when(userRepository.findByUsername(USER_NAME)).thenReturn(of(user));
+        when(passwordService.encode(PASSWORD)).thenReturn("{bcrypt}$2a$12$upgraded");
+
+        userService.upgradePassword(USER_NAME, PASSWORD, "$2a$10$legacy");
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskExecutor).execute(task.capture());
+        task.getValue().run();
+
+        verify(user).setPassword("{bcrypt}$2a$12$upgraded");
+        verify(userRepository).update(user);
+    }
+
+    @Test
+    public void shouldNotUpgradeChangedPassword() throws TechnicalException {
+        when(user.getPassword()).thenReturn("{bcrypt}$2a$10$changed");
+        when(userRepository.findByUsername(USER_NAME)).thenReturn(of(user));
+
+        userService.upgradePassword(USER_NAME, PASSWORD, "$2a$10$legacy");
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskExecutor).execute(task.capture());
+        task.getValue().run();
+
+        verify(userRepository, never()).update(any());
+    }
+
     @Test(expected = UserNotFoundException.class)
     public void shouldNotResetPasswordCauseUserNotFound() throws TechnicalException {
         when(userRepository.findById(USER_NAME)).thenReturn(empty());
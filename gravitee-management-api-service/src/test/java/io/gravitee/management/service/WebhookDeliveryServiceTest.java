@@ -0,0 +1,175 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.service;
+
+import io.gravitee.common.http.HttpMethod;
+import io.gravitee.management.service.exceptions.TechnicalManagementException;
+import io.gravitee.management.service.notifiers.WebNotifierService;
+import io.gravitee.management.service.notifiers.impl.WebhookDeliveryServiceImpl;
+import io.gravitee.management.service.notifiers.webhook.WebhookDelivery;
+import io.gravitee.management.service.notifiers.webhook.WebhookOutbox;
+import io.gravitee.management.service.notifiers.webhook.impl.InMemoryWebhookOutbox;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class WebhookDeliveryServiceTest {
+
+    private static final String URI = "http://localhost/hook";
+
+    @InjectMocks
+    private WebhookDeliveryServiceImpl webhookDeliveryService = new WebhookDeliveryServiceImpl();
+
+    @Spy
+    private WebhookOutbox outbox = new InMemoryWebhookOutbox();
+
+    @Mock
+    private WebNotifierService webNotifierService;
+
+    @Mock
+    private Vertx vertx;
+
+    @Before
+    public void init() {
+        ReflectionTestUtils.setField(webhookDeliveryService, "concurrency", 2);
+        ReflectionTestUtils.setField(webhookDeliveryService, "maxAttempts", 2);
+        ReflectionTestUtils.setField(webhookDeliveryService, "initialDelay", 1000L);
+        ReflectionTestUtils.setField(webhookDeliveryService, "maxDelay", 10000L);
+
+        doAnswer(invocation -> {
+            ((Handler<Future<Object>>) invocation.getArguments()[0]).handle(Future.future());
+            return null;
+        }).when(vertx).executeBlocking(any(Handler.class), anyBoolean(), any(Handler.class));
+    }
+
+    @Test
+    public void shouldDeliverAndRemoveFromOutbox() {
+        when(webNotifierService.send(any(), anyString(), anyMap(), anyString(), anyBoolean()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        webhookDeliveryService.enqueue(HttpMethod.POST, URI, Collections.emptyMap(), "{}", false);
+
+        verify(webNotifierService).send(HttpMethod.POST, URI, Collections.emptyMap(), "{}", false);
+        assertTrue(outbox.findPending(new Date(), 10).isEmpty());
+        assertTrue(outbox.findDeadLetters().isEmpty());
+    }
+
+    @Test
+    public void shouldScheduleRetryOnFailure() {
+        when(webNotifierService.send(any(), anyString(), anyMap(), anyString(), anyBoolean()))
+                .thenReturn(failed());
+
+        webhookDeliveryService.enqueue(HttpMethod.POST, URI, Collections.emptyMap(), "{}", false);
+
+        assertTrue(outbox.findPending(new Date(), 10).isEmpty());
+        List<WebhookDelivery> retries = outbox.findPending(new Date(System.currentTimeMillis() + 1000), 10);
+        assertEquals(1, retries.size());
+        assertEquals(1, retries.get(0).getAttempts());
+        verify(vertx).setTimer(eq(1000L), any(Handler.class));
+    }
+
+    @Test
+    public void shouldMoveToDeadLettersAfterMaxAttempts() {
+        when(webNotifierService.send(any(), anyString(), anyMap(), anyString(), anyBoolean()))
+                .thenReturn(failed());
+
+        webhookDeliveryService.enqueue(HttpMethod.POST, URI, Collections.emptyMap(), "{}", false);
+        outbox.findPending(new Date(System.currentTimeMillis() + 1000), 10)
+                .forEach(delivery -> {
+                    delivery.setNextAttemptAt(new Date());
+                    outbox.save(delivery);
+                });
+        ReflectionTestUtils.invokeMethod(webhookDeliveryService, "dispatch");
+
+        verify(webNotifierService, times(2)).send(any(), anyString(), anyMap(), anyString(), anyBoolean());
+        List<WebhookDelivery> deadLetters = outbox.findDeadLetters();
+        assertEquals(1, deadLetters.size());
+        assertEquals(2, deadLetters.get(0).getAttempts());
+        assertNotNull(deadLetters.get(0).getDeadAt());
+        assertTrue(outbox.findPending(new Date(Long.MAX_VALUE), 10).isEmpty());
+    }
+
+    @Test
+    public void shouldBoundConcurrentDeliveries() {
+        when(webNotifierService.send(any(), anyString(), anyMap(), anyString(), anyBoolean()))
+                .thenReturn(new CompletableFuture<>());
+
+        webhookDeliveryService.enqueue(HttpMethod.POST, URI, Collections.emptyMap(), "{}", false);
+        webhookDeliveryService.enqueue(HttpMethod.POST, URI, Collections.emptyMap(), "{}", false);
+        webhookDeliveryService.enqueue(HttpMethod.POST, URI, Collections.emptyMap(), "{}", false);
+
+        verify(webNotifierService, times(2)).send(any(), anyString(), anyMap(), anyString(), anyBoolean());
+        assertEquals(3, outbox.findPending(new Date(), 10).size());
+    }
+
+    @Test
+    public void shouldPurgeDeadLettersAfterRetention() {
+        ReflectionTestUtils.setField(webhookDeliveryService, "deadLettersRetention", 60000L);
+        outbox.save(deadLetter("old", new Date(System.currentTimeMillis() - 120000)));
+        outbox.save(deadLetter("recent", new Date()));
+
+        ReflectionTestUtils.invokeMethod(webhookDeliveryService, "purgeDeadLetters");
+
+        List<WebhookDelivery> deadLetters = outbox.findDeadLetters();
+        assertEquals(1, deadLetters.size());
+        assertEquals("recent", deadLetters.get(0).getId());
+    }
+
+    @Test
+    public void shouldIgnoreEmptyUri() {
+        webhookDeliveryService.enqueue(HttpMethod.POST, "", Collections.emptyMap(), "{}", false);
+
+        verify(outbox, never()).save(any());
+        verify(webNotifierService, never()).send(any(), anyString(), anyMap(), anyString(), anyBoolean());
+    }
+
+    private static WebhookDelivery deadLetter(String id, Date deadAt) {
+        WebhookDelivery delivery = new WebhookDelivery();
+        delivery.setId(id);
+        delivery.setStatus(WebhookDelivery.Status.DEAD);
+        delivery.setCreatedAt(deadAt);
+        delivery.setNextAttemptAt(deadAt);
+        delivery.setDeadAt(deadAt);
+        return delivery;
+    }
+
+    private CompletableFuture<Void> failed() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        future.completeExceptionally(new TechnicalManagementException("Status code: 500"));
+        return future;
+    }
+}
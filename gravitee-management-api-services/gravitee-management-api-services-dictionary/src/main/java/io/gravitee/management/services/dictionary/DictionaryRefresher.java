@@ -25,7 +25,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -54,6 +57,9 @@ public class DictionaryRefresher implements Handler<Long> {
                         logger.error("[{}] Unexpected error while getting dictionary's properties from provider: {}",
                                 dictionary.getId(), provider.name(),
                                 throwable);
+
+                        // Ensure that properties will be fully retrieved and compared on next refresh
+                        provider.invalidate();
                     } else if (dynamicProperties != null) {
                         updateDictionary(dynamicProperties);
                     }
@@ -67,16 +73,43 @@ public class DictionaryRefresher implements Handler<Long> {
                         Property::getKey,
                         dynamicProperty -> (dynamicProperty.getValue() == null) ? "" : dynamicProperty.getValue()));
 
+        final Map<String, String> currentProperties = (dictionary.getProperties() == null) ?
+                Collections.emptyMap() : dictionary.getProperties();
+
         // Compare properties with latest values
-        if (! properties.equals(dictionary.getProperties())) {
-            dictionary.setProperties(properties);
-
-            try {
-                dictionary = dictionaryService.update(dictionary.getId(), convert(dictionary));
-                dictionaryService.deploy(dictionary.getId());
-            } catch (Exception ex) {
-                logger.error("Unexpected error while updating and deploying the dictionary", ex);
-            }
+        Map<String, String> updatedProperties = properties.entrySet()
+                .stream()
+                .filter(property -> !property.getValue().equals(currentProperties.get(property.getKey())))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+
+        Set<String> removedProperties = currentProperties.keySet()
+                .stream()
+                .filter(key -> !properties.containsKey(key))
+                .collect(Collectors.toSet());
+
+        if (updatedProperties.isEmpty() && removedProperties.isEmpty()) {
+            logger.debug("[{}] No change on dictionary's properties", dictionary.getId());
+            return;
+        }
+
+        logger.debug("[{}] {} dictionary's properties added or updated, {} removed", dictionary.getId(),
+                updatedProperties.size(), removedProperties.size());
+
+        Map<String, String> newProperties = new HashMap<>(currentProperties);
+        newProperties.keySet().removeAll(removedProperties);
+        newProperties.putAll(updatedProperties);
+
+        try {
+            UpdateDictionaryEntity updateDictionary = convert(dictionary);
+            updateDictionary.setProperties(newProperties);
+
+            dictionary = dictionaryService.update(dictionary.getId(), updateDictionary);
+            dictionaryService.deploy(dictionary.getId());
+        } catch (Exception ex) {
+            logger.error("Unexpected error while updating and deploying the dictionary", ex);
+
+            // Ensure that properties will be fully retrieved and compared on next refresh
+            provider.invalidate();
         }
     }
 
@@ -29,4 +29,11 @@ public interface Provider {
     CompletableFuture<Collection<DynamicProperty>> get();
 
     String name();
+
+    /**
+     * Forget any state kept from previous calls (validators, content hash, ...) so that the next call
+     * retrieves and returns the whole set of properties.
+     */
+    default void invalidate() {
+    }
 }
@@ -15,6 +15,7 @@
  */
 package io.gravitee.management.services.dictionary.provider.http;
 
+import io.gravitee.common.http.HttpHeaders;
 import io.gravitee.common.http.HttpStatusCode;
 import io.gravitee.management.services.dictionary.model.DynamicProperty;
 import io.gravitee.management.services.dictionary.provider.Provider;
@@ -31,6 +32,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
@@ -45,12 +49,22 @@ public class HttpProvider implements Provider {
 
     private static final String HTTPS_SCHEME = "https";
 
+    private static final String HASH_ALGORITHM = "SHA-256";
+
     private final HttpProviderConfiguration configuration;
 
     private JoltMapper mapper;
 
     private Vertx vertx;
 
+    /**
+     * Validators and content hash of the latest document successfully retrieved and transformed from the remote
+     * endpoint. They are used to send conditional requests and to avoid transforming an unchanged document.
+     */
+    private volatile String etag;
+    private volatile String lastModified;
+    private volatile String contentHash;
+
     public HttpProvider(final HttpProviderConfiguration configuration) {
         Objects.requireNonNull(configuration, "Configuration must not be null");
         this.configuration = configuration;
@@ -59,7 +73,7 @@ public class HttpProvider implements Provider {
 
     @Override
     public CompletableFuture<Collection<DynamicProperty>> get() {
-        CompletableFuture<Buffer> future = new VertxCompletableFuture<>(vertx);
+        CompletableFuture<RemoteDocument> future = new VertxCompletableFuture<>(vertx);
 
         URI requestUri = URI.create(configuration.getUrl());
         boolean ssl = HTTPS_SCHEME.equalsIgnoreCase(requestUri.getScheme());
@@ -85,16 +99,30 @@ public class HttpProvider implements Provider {
                     requestUri.toString()
             );
 
+            if (etag != null) {
+                request.putHeader(HttpHeaders.IF_NONE_MATCH, etag);
+            }
+            if (lastModified != null) {
+                request.putHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+
             request.handler(response -> {
                 if (response.statusCode() == HttpStatusCode.OK_200) {
                     response.bodyHandler(buffer -> {
-                        future.complete(buffer);
+                        future.complete(new RemoteDocument(buffer,
+                                response.getHeader(HttpHeaders.ETAG), response.getHeader(HttpHeaders.LAST_MODIFIED)));
 
                         // Close client
                         httpClient.close();
                     });
                 } else {
+                    if (response.statusCode() == HttpStatusCode.NOT_MODIFIED_304) {
+                        logger.debug("Dictionary properties from {} have not been modified", requestUri);
+                    }
                     future.complete(null);
+
+                    // Close client
+                    httpClient.close();
                 }
             });
 
@@ -115,14 +143,47 @@ public class HttpProvider implements Provider {
             future.completeExceptionally(ex);
         }
 
-        return future.thenApply(buffer -> {
-            if (buffer == null) {
+        return future.thenApply(document -> {
+            if (document == null) {
+                return null;
+            }
+
+            // Remote document is the same than the previous one, no need to transform it again
+            String hash = hash(document.content.getBytes());
+            if (hash != null && hash.equals(contentHash)) {
+                logger.debug("Dictionary properties from {} are unchanged", requestUri);
+                etag = document.etag;
+                lastModified = document.lastModified;
                 return null;
             }
-            return mapper.map(buffer.toString());
+
+            // Validators are only kept once the document has been transformed, so that a document which can not be
+            // transformed is fully retrieved again on next call
+            Collection<DynamicProperty> properties = mapper.map(document.content.toString());
+            etag = document.etag;
+            lastModified = document.lastModified;
+            contentHash = hash;
+            return properties;
         });
     }
 
+    private String hash(byte[] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            return Base64.getEncoder().encodeToString(digest.digest(content));
+        } catch (NoSuchAlgorithmException nsae) {
+            logger.warn("Unable to compute the hash of dictionary properties", nsae);
+            return null;
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        etag = null;
+        lastModified = null;
+        contentHash = null;
+    }
+
     @Override
     public String name() {
         return "custom";
@@ -136,4 +197,16 @@ public class HttpProvider implements Provider {
     public void setVertx(Vertx vertx) {
         this.vertx = vertx;
     }
+
+    private static class RemoteDocument {
+        private final Buffer content;
+        private final String etag;
+        private final String lastModified;
+
+        private RemoteDocument(Buffer content, String etag, String lastModified) {
+            this.content = content;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+    }
 }
@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.services.dictionary;
+
+import io.gravitee.management.model.configuration.dictionary.DictionaryEntity;
+import io.gravitee.management.model.configuration.dictionary.UpdateDictionaryEntity;
+import io.gravitee.management.service.configuration.dictionary.DictionaryService;
+import io.gravitee.management.services.dictionary.model.DynamicProperty;
+import io.gravitee.management.services.dictionary.provider.Provider;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class DictionaryRefresherTest {
+
+    private static final String DICTIONARY_ID = "my-dictionary";
+
+    @Mock
+    private Provider provider;
+
+    @Mock
+    private DictionaryService dictionaryService;
+
+    private DictionaryRefresher refresher;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put("unchanged", "value");
+        properties.put("updated", "old-value");
+        properties.put("removed", "value");
+
+        refresher = new DictionaryRefresher(dictionary(properties));
+        refresher.setProvider(provider);
+        refresher.setDictionaryService(dictionaryService);
+
+        when(dictionaryService.update(eq(DICTIONARY_ID), any(UpdateDictionaryEntity.class)))
+                .thenAnswer(invocation -> dictionary(((UpdateDictionaryEntity) invocation.getArguments()[1]).getProperties()));
+    }
+
+    @Test
+    public void shouldAddUpdateAndRemoveProperties() {
+        refresh(
+                new DynamicProperty("unchanged", "value"),
+                new DynamicProperty("updated", "new-value"),
+                new DynamicProperty("added", null));
+
+        ArgumentCaptor<UpdateDictionaryEntity> update = ArgumentCaptor.forClass(UpdateDictionaryEntity.class);
+        verify(dictionaryService).update(eq(DICTIONARY_ID), update.capture());
+        verify(dictionaryService).deploy(DICTIONARY_ID);
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("unchanged", "value");
+        expected.put("updated", "new-value");
+        expected.put("added", "");
+        assertEquals(expected, update.getValue().getProperties());
+    }
+
+    @Test
+    public void shouldNotUpdateUnchangedProperties() {
+        refresh(
+                new DynamicProperty("unchanged", "value"),
+                new DynamicProperty("updated", "old-value"),
+                new DynamicProperty("removed", "value"));
+
+        verify(dictionaryService, never()).update(anyString(), any(UpdateDictionaryEntity.class));
+        verify(dictionaryService, never()).deploy(anyString());
+    }
+
+    @Test
+    public void shouldCompareWithUpdatedProperties() {
+        refresh(new DynamicProperty("unchanged", "value"));
+        refresh(new DynamicProperty("unchanged", "value"));
+
+        verify(dictionaryService, times(1)).update(eq(DICTIONARY_ID), any(UpdateDictionaryEntity.class));
+    }
+
+    @Test
+    public void shouldNotUpdateWhenProviderReturnsNothing() {
+        when(provider.get()).thenReturn(CompletableFuture.completedFuture(null));
+
+        refresher.handle(1L);
+
+        verify(dictionaryService, never()).update(anyString(), any(UpdateDictionaryEntity.class));
+    }
+
+    @Test
+    public void shouldInvalidateProviderOnUpdateFailure() {
+        when(dictionaryService.update(eq(DICTIONARY_ID), any(UpdateDictionaryEntity.class)))
+                .thenThrow(new IllegalStateException("Repository unavailable"));
+
+        refresh(new DynamicProperty("added", "value"));
+
+        verify(provider).invalidate();
+    }
+
+    @Test
+    public void shouldInvalidateProviderOnProviderFailure() {
+        CompletableFuture<Collection<DynamicProperty>> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new IllegalStateException("Invalid document"));
+        when(provider.get()).thenReturn(failure);
+
+        refresher.handle(1L);
+
+        verify(provider).invalidate();
+        verify(dictionaryService, never()).update(anyString(), any(UpdateDictionaryEntity.class));
+    }
+
+    private void refresh(DynamicProperty... properties) {
+        when(provider.get()).thenReturn(CompletableFuture.completedFuture(Arrays.asList(properties)));
+        refresher.handle(1L);
+    }
+
+    private static DictionaryEntity dictionary(Map<String, String> properties) {
+        DictionaryEntity dictionary = new DictionaryEntity();
+        dictionary.setId(DICTIONARY_ID);
+        dictionary.setProperties(new HashMap<>(properties));
+        return dictionary;
+    }
+}
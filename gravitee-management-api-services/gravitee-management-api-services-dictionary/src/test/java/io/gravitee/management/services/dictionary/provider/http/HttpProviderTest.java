@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.management.services.dictionary.provider.http;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import io.gravitee.management.services.dictionary.model.DynamicProperty;
+import io.gravitee.management.services.dictionary.provider.http.configuration.HttpProviderConfiguration;
+import io.gravitee.management.services.dictionary.provider.http.mapper.JoltMapper;
+import io.vertx.core.Vertx;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletionException;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class HttpProviderTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort());
+
+    @Mock
+    private JoltMapper mapper;
+
+    private HttpProviderConfiguration configuration;
+
+    @Before
+    public void setUp() throws IOException {
+        MockitoAnnotations.initMocks(this);
+
+        configuration = new HttpProviderConfiguration();
+        configuration.setSpecification(IOUtils.toString(read("/jolt/specification.json"), Charset.defaultCharset()));
+
+        when(mapper.map(anyString())).thenReturn(Collections.singletonList(new DynamicProperty("key", "value")));
+    }
+
+    @Test
+    public void shouldGetProperties() {
+        configuration.setUrl("http://localhost:" + wireMockRule.port() + "/success");
+
+        Collection<DynamicProperty> dynamicProperties = provider().get().join();
+
+        assertNotNull(dynamicProperties);
+        verify(mapper, times(1)).map(anyString());
+    }
+
+    @Test
+    public void shouldGetNullPropertiesBecauseHttpError() {
+        configuration.setUrl("http://localhost:" + wireMockRule.port() + "/error");
+
+        Collection<DynamicProperty> dynamicProperties = provider().get().join();
+
+        assertNull(dynamicProperties);
+        verify(mapper, never()).map(anyString());
+    }
+
+    @Test
+    public void shouldGetNullPropertiesBecauseNotModified() {
+        configuration.setUrl("http://localhost:" + wireMockRule.port() + "/conditional");
+        HttpProvider provider = provider();
+
+        assertNotNull(provider.get().join());
+        assertNull(provider.get().join());
+
+        verify(mapper, times(1)).map(anyString());
+        verify(getRequestedFor(urlEqualTo("/conditional")).withHeader("If-None-Match", equalTo("\"v1\"")));
+    }
+
+    @Test
+    public void shouldGetNullPropertiesBecauseContentUnchanged() {
+        configuration.setUrl("http://localhost:" + wireMockRule.port() + "/success");
+        HttpProvider provider = provider();
+
+        assertNotNull(provider.get().join());
+        assertNull(provider.get().join());
+
+        verify(mapper, times(1)).map(anyString());
+    }
+
+    @Test
+    public void shouldGetPropertiesAfterInvalidate() {
+        configuration.setUrl("http://localhost:" + wireMockRule.port() + "/conditional");
+        HttpProvider provider = provider();
+
+        assertNotNull(provider.get().join());
+        provider.invalidate();
+        assertNotNull(provider.get().join());
+
+        verify(mapper, times(2)).map(anyString());
+    }
+
+    @Test
+    public void shouldGetPropertiesAfterTransformationFailure() {
+        configuration.setUrl("http://localhost:" + wireMockRule.port() + "/conditional");
+        HttpProvider provider = provider();
+        when(mapper.map(anyString()))
+                .thenThrow(new IllegalStateException("Invalid document"))
+                .thenReturn(Collections.singletonList(new DynamicProperty("key", "value")));
+
+        try {
+            provider.get().join();
+            fail("Transformation failure is expected");
+        } catch (CompletionException ce) {
+            assertTrue(ce.getCause() instanceof IllegalStateException);
+        }
+        assertNotNull(provider.get().join());
+
+        verify(mapper, times(2)).map(anyString());
+        verify(2, getRequestedFor(urlEqualTo("/conditional")).withoutHeader("If-None-Match"));
+    }
+
+    private HttpProvider provider() {
+        HttpProvider provider = new HttpProvider(configuration);
+        provider.setMapper(mapper);
+        provider.setVertx(Vertx.vertx());
+        return provider;
+    }
+
+    private InputStream read(String resource) throws IOException {
+        return this.getClass().getResourceAsStream(resource);
+    }
+}
@@ -77,6 +77,33 @@ public class JettyConfiguration {
     @Value("${jetty.ssl.truststore.password:#{null}}")
     private String trustStorePassword;
 
+    @Value("${jetty.outputBufferSize:32768}")
+    private int outputBufferSize;
+
+    @Value("${jetty.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${jetty.compression.minSize:2048}")
+    private int compressionMinSize;
+
+    @Value("${jetty.compression.level:-1}")
+    private int compressionLevel;
+
+    @Value("${jetty.compression.mimeTypes:application/json,application/javascript,application/xml,application/yaml,text/plain,text/html,text/css,text/csv}")
+    private String[] compressionMimeTypes;
+
+    @Value("${jetty.http2.enabled:false}")
+    private boolean http2Enabled;
+
+    @Value("${jetty.http2.maxConcurrentStreams:128}")
+    private int http2MaxConcurrentStreams;
+
+    @Value("${jetty.http2.initialStreamRecvWindow:524288}")
+    private int http2InitialStreamRecvWindow;
+
+    @Value("${jetty.http2.initialSessionRecvWindow:1048576}")
+    private int http2InitialSessionRecvWindow;
+
     public String getHttpHost() {
       return httpHost;
     }
@@ -220,4 +247,76 @@ public class JettyConfiguration {
     public void setTrustStorePassword(String trustStorePassword) {
         this.trustStorePassword = trustStorePassword;
     }
+
+    public int getOutputBufferSize() {
+        return outputBufferSize;
+    }
+
+    public void setOutputBufferSize(int outputBufferSize) {
+        this.outputBufferSize = outputBufferSize;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    public int getCompressionMinSize() {
+        return compressionMinSize;
+    }
+
+    public void setCompressionMinSize(int compressionMinSize) {
+        this.compressionMinSize = compressionMinSize;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public String[] getCompressionMimeTypes() {
+        return compressionMimeTypes;
+    }
+
+    public void setCompressionMimeTypes(String[] compressionMimeTypes) {
+        this.compressionMimeTypes = compressionMimeTypes;
+    }
+
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    public void setHttp2Enabled(boolean http2Enabled) {
+        this.http2Enabled = http2Enabled;
+    }
+
+    public int getHttp2MaxConcurrentStreams() {
+        return http2MaxConcurrentStreams;
+    }
+
+    public void setHttp2MaxConcurrentStreams(int http2MaxConcurrentStreams) {
+        this.http2MaxConcurrentStreams = http2MaxConcurrentStreams;
+    }
+
+    public int getHttp2InitialStreamRecvWindow() {
+        return http2InitialStreamRecvWindow;
+    }
+
+    public void setHttp2InitialStreamRecvWindow(int http2InitialStreamRecvWindow) {
+        this.http2InitialStreamRecvWindow = http2InitialStreamRecvWindow;
+    }
+
+    public int getHttp2InitialSessionRecvWindow() {
+        return http2InitialSessionRecvWindow;
+    }
+
+    public void setHttp2InitialSessionRecvWindow(int http2InitialSessionRecvWindow) {
+        this.http2InitialSessionRecvWindow = http2InitialSessionRecvWindow;
+    }
 }
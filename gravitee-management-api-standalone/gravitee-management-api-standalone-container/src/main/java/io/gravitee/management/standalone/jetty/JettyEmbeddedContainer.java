@@ -21,6 +21,7 @@ import io.gravitee.management.security.SecurityConfiguration;
 import io.gravitee.management.standalone.jetty.handler.NoContentOutputErrorHandler;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
@@ -47,6 +48,9 @@ public final class JettyEmbeddedContainer extends AbstractLifecycleComponent<Jet
     @Autowired
     private Server server;
 
+    @Autowired
+    private JettyConfiguration jettyConfiguration;
+
     private ApplicationContext applicationContext;
 
     @Override
@@ -65,6 +69,15 @@ public final class JettyEmbeddedContainer extends AbstractLifecycleComponent<Jet
         servletHolder.setInitOrder(0);
         context.addServlet(servletHolder, "/*");
 
+        // Response compression
+        if (jettyConfiguration.isCompressionEnabled()) {
+            final GzipHandler gzipHandler = new GzipHandler();
+            gzipHandler.setMinGzipSize(jettyConfiguration.getCompressionMinSize());
+            gzipHandler.setCompressionLevel(jettyConfiguration.getCompressionLevel());
+            gzipHandler.setIncludedMimeTypes(jettyConfiguration.getCompressionMimeTypes());
+            context.setGzipHandler(gzipHandler);
+        }
+
         // Spring configuration
         System.setProperty(AbstractEnvironment.ACTIVE_PROFILES_PROPERTY_NAME, "basic");
 
@@ -15,12 +15,19 @@
  */
 package io.gravitee.management.standalone.jetty;
 
+import org.eclipse.jetty.alpn.server.ALPNServerConnectionFactory;
 import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http2.HTTP2Cipher;
+import org.eclipse.jetty.http2.server.AbstractHTTP2ServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
 import org.eclipse.jetty.jmx.MBeanContainer;
 import org.eclipse.jetty.server.*;
 import org.eclipse.jetty.server.handler.StatisticsHandler;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -33,6 +40,8 @@ import java.util.concurrent.ArrayBlockingQueue;
  */
 public class JettyServerFactory implements FactoryBean<Server> {
 
+    private final Logger LOGGER = LoggerFactory.getLogger(JettyServerFactory.class);
+
     @Autowired
     private JettyConfiguration jettyConfiguration;
 
@@ -64,7 +73,7 @@ public class JettyServerFactory implements FactoryBean<Server> {
 
         // HTTP Configuration
         HttpConfiguration httpConfig = new HttpConfiguration();
-        httpConfig.setOutputBufferSize(32768);
+        httpConfig.setOutputBufferSize(jettyConfiguration.getOutputBufferSize());
         httpConfig.setRequestHeaderSize(8192);
         httpConfig.setResponseHeaderSize(8192);
         httpConfig.setSendServerVersion(false);
@@ -91,17 +100,46 @@ public class JettyServerFactory implements FactoryBean<Server> {
             HttpConfiguration httpsConfig = new HttpConfiguration(httpConfig);
             httpsConfig.addCustomizer(new SecureRequestCustomizer());
 
-            ServerConnector https = new ServerConnector(server,
-                    new SslConnectionFactory(sslContextFactory, HttpVersion.HTTP_1_1.asString()),
-                    new HttpConnectionFactory(httpsConfig));
+            ServerConnector https = null;
+            if (jettyConfiguration.isHttp2Enabled()) {
+                try {
+                    // HTTP/2 is negotiated with ALPN during the TLS handshake, HTTP/1.1 is used by the other clients
+                    ALPNServerConnectionFactory alpn = new ALPNServerConnectionFactory();
+                    alpn.setDefaultProtocol(HttpVersion.HTTP_1_1.asString());
+
+                    sslContextFactory.setCipherComparator(HTTP2Cipher.COMPARATOR);
+                    sslContextFactory.setUseCipherSuitesOrder(true);
+
+                    https = new ServerConnector(server,
+                            new SslConnectionFactory(sslContextFactory, alpn.getProtocol()),
+                            alpn,
+                            configure(new HTTP2ServerConnectionFactory(httpsConfig)),
+                            new HttpConnectionFactory(httpsConfig));
+                } catch (IllegalStateException ise) {
+                    LOGGER.warn("ALPN is not supported by this JVM, HTTP/2 is disabled: {}", ise.getMessage());
+                }
+            }
+
+            if (https == null) {
+                https = new ServerConnector(server,
+                        new SslConnectionFactory(sslContextFactory, HttpVersion.HTTP_1_1.asString()),
+                        new HttpConnectionFactory(httpsConfig));
+            }
             https.setHost(jettyConfiguration.getHttpHost());
             https.setPort(jettyConfiguration.getHttpPort());
             server.addConnector(https);
         } else {
+            // HTTP/2 without TLS (h2c) is reached with prior knowledge or by upgrading an HTTP/1.1 connection
+            ConnectionFactory[] connectionFactories = (jettyConfiguration.isHttp2Enabled()) ?
+                    new ConnectionFactory[] {
+                            new HttpConnectionFactory(httpConfig),
+                            configure(new HTTP2CServerConnectionFactory(httpConfig))
+                    } : new ConnectionFactory[] { new HttpConnectionFactory(httpConfig) };
+
             ServerConnector http = new ServerConnector(server,
                     jettyConfiguration.getAcceptors(),
                     jettyConfiguration.getSelectors(),
-                    new HttpConnectionFactory(httpConfig));
+                    connectionFactories);
             http.setHost(jettyConfiguration.getHttpHost());
             http.setPort(jettyConfiguration.getHttpPort());
             http.setIdleTimeout(jettyConfiguration.getIdleTimeout());
@@ -130,6 +168,13 @@ public class JettyServerFactory implements FactoryBean<Server> {
         return server;
     }
 
+    private AbstractHTTP2ServerConnectionFactory configure(AbstractHTTP2ServerConnectionFactory http2) {
+        http2.setMaxConcurrentStreams(jettyConfiguration.getHttp2MaxConcurrentStreams());
+        http2.setInitialStreamRecvWindow(jettyConfiguration.getHttp2InitialStreamRecvWindow());
+        http2.setInitialSessionRecvWindow(jettyConfiguration.getHttp2InitialSessionRecvWindow());
+        return http2;
+    }
+
     @Override
     public Class<?> getObjectType() {
         return Server.class;